@@ -0,0 +1,72 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.Collezione;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH della cache dei risultati su ricerche ripetute: con peso 0 la
+ * cache è disattivata e ogni ricerca viene ricalcolata
+ *
+ * java -jar target/benchmarks.jar CacheBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+    private static final int DIMENSIONE = 100_000;
+
+    @Param({"0", "1048576"})
+    private long pesoCache;
+
+    private Collezione collezione;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        collezione = DatiBenchmark.creaCollezione(DIMENSIONE, 42L);
+        collezione.configuraCache(pesoCache);
+    }
+
+    /**
+     * Stato per thread con il generatore delle soglie ripetute
+     */
+    @State(Scope.Thread)
+    public static class Casuale {
+        SplittableRandom casuale = new SplittableRandom(7L);
+    }
+
+    /**
+     * Prima pagina di una delle otto soglie di prezzo più richieste
+     */
+    @Benchmark
+    public List<Gioco> cercaPerPrezzoRipetuta(Casuale stato) {
+        return collezione.cercaPerPrezzo(10 + 10 * stato.casuale.nextInt(8), 0, 50);
+    }
+
+    @Benchmark
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatoriRipetuta(Casuale stato) {
+        return collezione.cercaPerNumeroGiocatori(2 + stato.casuale.nextInt(9));
+    }
+
+    /**
+     * Una modifica ogni cento ricerche: misura il costo delle invalidazioni
+     */
+    @Benchmark
+    public Object ricercheConModifiche(Casuale stato) throws ElementoNonTrovatoException {
+        if (stato.casuale.nextInt(100) == 0) {
+            long id = stato.casuale.nextInt(DIMENSIONE);
+            collezione.aggiornaElemento(DatiBenchmark.creaGioco(id, stato.casuale));
+            return null;
+        }
+        return collezione.cercaPerPrezzo(10 + 10 * stato.casuale.nextInt(8), 0, 50);
+    }
+}
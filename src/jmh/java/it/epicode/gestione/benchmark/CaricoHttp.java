@@ -0,0 +1,112 @@
+package it.epicode.gestione.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generatore di carico per l'API HTTP: mantiene un numero fisso di richieste
+ * in volo (client concorrenti) per la durata indicata e stampa throughput,
+ * errori e latenze. Il mix è 80% letture per ID, 10% ricerche per prezzo
+ * limitate, 10% inserimenti.
+ *
+ * Uso, con il server avviato tramite Main --http:
+ * java -cp target/benchmarks.jar it.epicode.gestione.benchmark.CaricoHttp http://localhost:8080 1000 30
+ * (URL, client concorrenti, secondi)
+ */
+public final class CaricoHttp {
+
+    private CaricoHttp() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concorrenza = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int secondi = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        int giochi = popola(client, base, 10_000);
+
+        Semaphore inVolo = new Semaphore(concorrenza);
+        AtomicLong completate = new AtomicLong();
+        AtomicLong errori = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latenze = new ConcurrentLinkedQueue<>();
+        SplittableRandom casuale = new SplittableRandom(11L);
+        long fine = System.nanoTime() + secondi * 1_000_000_000L;
+        long prossimoId = giochi;
+
+        while (System.nanoTime() < fine) {
+            inVolo.acquire();
+            HttpRequest richiesta = richiesta(base, casuale.nextInt(10), casuale.nextInt(giochi), prossimoId++, casuale);
+            long inizio = System.nanoTime();
+            client.sendAsync(richiesta, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((risposta, errore) -> {
+                        if (errore != null || risposta.statusCode() >= 400) {
+                            errori.incrementAndGet();
+                        }
+                        latenze.add(System.nanoTime() - inizio);
+                        completate.incrementAndGet();
+                        inVolo.release();
+                    });
+        }
+        inVolo.acquire(concorrenza);
+
+        long[] ordinate = latenze.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("richieste: %d in %d s (%.0f/s), errori: %d%n",
+                completate.get(), secondi, completate.get() / (double) secondi, errori.get());
+        System.out.printf("latenza ms: p50 %.2f, p99 %.2f, max %.2f%n",
+                percentile(ordinate, 0.50), percentile(ordinate, 0.99), percentile(ordinate, 1.0));
+    }
+
+    private static HttpRequest richiesta(String base, int tipo, int esistente, long nuovo, SplittableRandom casuale) {
+        if (tipo < 8) {
+            return HttpRequest.newBuilder(URI.create(base + "/giochi/G" + esistente)).GET().build();
+        }
+        if (tipo < 9) {
+            return HttpRequest.newBuilder(URI.create(base + "/giochi?prezzoMax=" + (10 + casuale.nextInt(80))
+                    + "&limit=20")).GET().build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/giochi"))
+                .POST(HttpRequest.BodyPublishers.ofString(json(nuovo, casuale)))
+                .build();
+    }
+
+    /**
+     * Inserisce i giochi G0..G(quanti-1); quelli già presenti restano invariati
+     */
+    private static int popola(HttpClient client, String base, int quanti) throws InterruptedException {
+        SplittableRandom casuale = new SplittableRandom(42L);
+        Semaphore inVolo = new Semaphore(100);
+        CompletableFuture<?>[] inserimenti = new CompletableFuture<?>[quanti];
+        for (int i = 0; i < quanti; i++) {
+            inVolo.acquire();
+            inserimenti[i] = client.sendAsync(HttpRequest.newBuilder(URI.create(base + "/giochi"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json(i, casuale))).build(),
+                    HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((risposta, errore) -> inVolo.release());
+        }
+        CompletableFuture.allOf(inserimenti).join();
+        return quanti;
+    }
+
+    private static String json(long i, SplittableRandom casuale) {
+        return "{\"tipo\":\"tavolo\",\"id\":\"G" + i + "\",\"titolo\":\"Gioco " + i
+                + "\",\"anno\":2000,\"prezzo\":" + (5 + casuale.nextInt(90))
+                + ",\"numeroGiocatori\":" + (2 + casuale.nextInt(9)) + ",\"durataMediaPartita\":60}";
+    }
+
+    private static double percentile(long[] ordinate, double quota) {
+        if (ordinate.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.min(ordinate.length - 1, Math.ceil(quota * ordinate.length) - 1);
+        return ordinate[Math.max(indice, 0)] / 1_000_000.0;
+    }
+}
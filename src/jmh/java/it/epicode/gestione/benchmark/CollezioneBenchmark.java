@@ -0,0 +1,165 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.Criteri;
+import it.epicode.gestione.service.PaginaGiochi;
+import it.epicode.gestione.service.StatisticheCollezione;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH di tutte le operazioni di Collezione
+ *
+ * Esecuzione con profiler di allocazione:
+ * java -jar target/benchmarks.jar CollezioneBenchmark -prof gc
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class CollezioneBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int dimensione;
+
+    /**
+     * Soglia di prezzo delle ricerche: 15€ seleziona circa il 10% dei giochi
+     */
+    @Param({"15"})
+    private double prezzoMassimo;
+
+    private Collezione collezione;
+    private long prossimoId;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        collezione = DatiBenchmark.creaCollezione(dimensione, 42L);
+        prossimoId = dimensione;
+    }
+
+    /**
+     * Stato per thread con il generatore casuale delle chiavi
+     */
+    @State(Scope.Thread)
+    public static class Casuale {
+        SplittableRandom casuale;
+
+        @Setup(Level.Iteration)
+        public void prepara() {
+            casuale = new SplittableRandom(7L);
+        }
+    }
+
+    /**
+     * Inserisce un gioco nuovo e lo rimuove subito, così la dimensione resta costante
+     */
+    @Benchmark
+    public void aggiungiElemento(Casuale stato) throws ElementoDuplicatoException, ElementoNonTrovatoException {
+        Gioco gioco = DatiBenchmark.creaGioco(prossimoId++, stato.casuale);
+        collezione.aggiungiElemento(gioco);
+        collezione.rimuoviElemento(gioco.getIdGioco());
+    }
+
+    @Benchmark
+    public Gioco cercaPerID(Casuale stato) throws ElementoNonTrovatoException {
+        return collezione.cercaPerID("G" + stato.casuale.nextInt(dimensione));
+    }
+
+    @Benchmark
+    public List<Gioco> cercaPerPrezzo() {
+        return collezione.cercaPerPrezzo(prezzoMassimo);
+    }
+
+    @Benchmark
+    public List<Gioco> cercaPerPrezzoPaginato() {
+        return collezione.cercaPerPrezzo(prezzoMassimo, 0, 50);
+    }
+
+    @Benchmark
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(Casuale stato) {
+        return collezione.cercaPerNumeroGiocatori(2 + stato.casuale.nextInt(9));
+    }
+
+    @Benchmark
+    public List<GiocoDaTavolo> cercaPerIntervalloGiocatori() {
+        return collezione.cercaPerNumeroGiocatori(3, 5);
+    }
+
+    /**
+     * Completamento automatico: prefisso di una parola frequente, prima pagina
+     */
+    @Benchmark
+    public List<Gioco> cercaPerTitoloPrefisso() {
+        return collezione.cercaPerTitolo("leg", 0, 10);
+    }
+
+    /**
+     * Due parole, una con un errore di battitura
+     */
+    @Benchmark
+    public List<Gioco> cercaPerTitoloApprossimato() {
+        return collezione.cercaPerTitolo("drgo tesoro", 0, 10);
+    }
+
+    /**
+     * Combinazione di filtri senza indice dedicato, ordinata e limitata
+     */
+    @Benchmark
+    public List<Gioco> cercaConCriteri() {
+        return collezione.cerca(new Criteri()
+                .genere(Genere.RPG)
+                .prezzoInferioreA(prezzoMassimo)
+                .annoTra(2000, 2015)
+                .ordinaPer(Criteri.Ordinamento.PREZZO, true)
+                .limite(20));
+    }
+
+    /**
+     * Filtro su un attributo dei giochi da tavolo: legge solo la partizione del tipo
+     */
+    @Benchmark
+    public List<Gioco> cercaPerDurataPartita() {
+        return collezione.cerca(new Criteri().durataPartitaTra(30, 60));
+    }
+
+    @Benchmark
+    public StatisticheCollezione generaStatistiche() {
+        return collezione.generaStatistiche();
+    }
+
+    @Benchmark
+    public StatisticheCollezione statisticheIstantanea() {
+        return collezione.istantanea().generaStatistiche();
+    }
+
+    @Benchmark
+    public void getTuttiIGiochi(Blackhole buco) {
+        buco.consume(collezione.getTuttiIGiochi());
+    }
+
+    @Benchmark
+    public void forEachGiochi(Blackhole buco) {
+        collezione.forEach(buco::consume);
+    }
+
+    @Benchmark
+    public void scorriPagine(Blackhole buco) {
+        PaginaGiochi pagina = collezione.scorri(null, 100);
+        buco.consume(pagina);
+        while (pagina.haSuccessiva()) {
+            pagina = collezione.scorri(pagina.cursoreSuccessivo(), 100);
+            buco.consume(pagina);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.CollezioneColonnare;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH dell'accesso per ID di CollezioneColonnare
+ *
+ * Esecuzione con profiler di allocazione:
+ * java -jar target/benchmarks.jar CollezioneColonnareBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class CollezioneColonnareBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    private int dimensione;
+
+    private CollezioneColonnare collezione;
+    private String[] chiavi;
+    private long prossimoId;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        collezione = DatiBenchmark.creaCollezioneColonnare(dimensione, 42L);
+        // potenza di due, per scorrere le chiavi con una maschera
+        chiavi = new String[Integer.highestOneBit(Math.min(dimensione, 1 << 16))];
+        SplittableRandom casuale = new SplittableRandom(7L);
+        for (int i = 0; i < chiavi.length; i++) {
+            chiavi[i] = "G" + casuale.nextInt(dimensione);
+        }
+        prossimoId = dimensione;
+    }
+
+    /**
+     * Stato per thread con la posizione nelle chiavi precalcolate
+     */
+    @State(Scope.Thread)
+    public static class Posizione {
+        int indice;
+    }
+
+    @Benchmark
+    public Gioco cercaPerID(Posizione posizione) throws ElementoNonTrovatoException {
+        String chiave = chiavi[posizione.indice++ & (chiavi.length - 1)];
+        return collezione.cercaPerID(chiave);
+    }
+
+    /**
+     * Inserisce un gioco nuovo e lo rimuove subito, così la dimensione resta costante
+     */
+    @Benchmark
+    public void aggiungiERimuovi() throws ElementoDuplicatoException, ElementoNonTrovatoException {
+        Gioco gioco = DatiBenchmark.creaGioco(prossimoId++, new SplittableRandom(prossimoId));
+        collezione.aggiungiElemento(gioco);
+        collezione.rimuoviElemento(gioco.getIdGioco());
+    }
+}
@@ -0,0 +1,79 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.CollezioneShardata;
+import it.epicode.gestione.service.StatisticheCollezione;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH della collezione partizionata: con una partizione equivale a
+ * una Collezione, con più partizioni misura la scalabilità del carico misto su
+ * più thread e il costo della fusione nelle ricerche su tutte le partizioni
+ *
+ * java -jar target/benchmarks.jar CollezioneShardataBenchmark -t 8
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CollezioneShardataBenchmark {
+    private static final int DIMENSIONE = 100_000;
+
+    @Param({"1", "8"})
+    private int numeroPartizioni;
+
+    private CollezioneShardata collezione;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        collezione = DatiBenchmark.creaCollezioneShardata(DIMENSIONE, 42L, numeroPartizioni);
+    }
+
+    /**
+     * Stato per thread con il generatore delle operazioni
+     */
+    @State(Scope.Thread)
+    public static class Casuale {
+        SplittableRandom casuale = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    /**
+     * Carico misto: 80% letture per ID, 15% aggiornamenti, 5% prime pagine per prezzo
+     */
+    @Benchmark
+    public Object caricoMisto(Casuale stato) throws ElementoNonTrovatoException {
+        int scelta = stato.casuale.nextInt(100);
+        long id = stato.casuale.nextInt(DIMENSIONE);
+        if (scelta < 80) {
+            return collezione.cercaPerID("G" + id);
+        }
+        if (scelta < 95) {
+            collezione.aggiornaElemento(DatiBenchmark.creaGioco(id, stato.casuale));
+            return null;
+        }
+        return collezione.cercaPerPrezzo(5 + stato.casuale.nextInt(95), 0, 50);
+    }
+
+    @Benchmark
+    public List<Gioco> cercaPerPrezzo(Casuale stato) {
+        return collezione.cercaPerPrezzo(5 + stato.casuale.nextInt(20));
+    }
+
+    @Benchmark
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(Casuale stato) {
+        return collezione.cercaPerNumeroGiocatori(2 + stato.casuale.nextInt(9));
+    }
+
+    @Benchmark
+    public StatisticheCollezione generaStatistiche() {
+        return collezione.generaStatistiche();
+    }
+}
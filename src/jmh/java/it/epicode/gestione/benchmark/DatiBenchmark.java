@@ -0,0 +1,110 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.CollezioneColonnare;
+import it.epicode.gestione.service.CollezioneShardata;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generatore di dati realistici per i benchmark
+ * Circa il 60% dei giochi sono videogiochi e il 40% giochi da tavolo
+ */
+public final class DatiBenchmark {
+    private static final String[] PIATTAFORME = {"PC", "PS5", "PS4", "XBOX", "Switch"};
+    private static final String[] PAROLE = {
+        "Leggenda", "Regno", "Ombre", "Drago", "Stelle", "Guerra", "Isola", "Cronache",
+        "Notte", "Fuoco", "Impero", "Viaggio", "Tesoro", "Città", "Foresta", "Ritorno"
+    };
+    private static final Genere[] GENERI = Genere.values();
+
+    private DatiBenchmark() {
+    }
+
+    /**
+     * Crea il gioco di indice i in modo deterministico
+     * @param i Indice del gioco
+     * @param casuale Sorgente di numeri casuali
+     * @return Un videogioco o un gioco da tavolo
+     */
+    public static Gioco creaGioco(long i, SplittableRandom casuale) {
+        String id = "G" + i;
+        String titolo = PAROLE[casuale.nextInt(PAROLE.length)] + " "
+                + PAROLE[casuale.nextInt(PAROLE.length)] + " " + i;
+        int anno = 1980 + casuale.nextInt(45);
+        double prezzo = Math.round((5 + casuale.nextDouble() * 95) * 100) / 100.0;
+
+        if (casuale.nextInt(10) < 6) {
+            return new Videogioco(id, titolo, anno, prezzo,
+                    PIATTAFORME[casuale.nextInt(PIATTAFORME.length)],
+                    1 + casuale.nextInt(120),
+                    GENERI[casuale.nextInt(GENERI.length)]);
+        }
+        return new GiocoDaTavolo(id, titolo, anno, prezzo,
+                2 + casuale.nextInt(9),
+                15 + casuale.nextInt(180));
+    }
+
+    /**
+     * Crea una collezione popolata con il numero di giochi richiesto
+     * @param dimensione Numero di giochi
+     * @param seme Seme per la generazione casuale
+     * @return La collezione popolata
+     */
+    public static Collezione creaCollezione(int dimensione, long seme) {
+        SplittableRandom casuale = new SplittableRandom(seme);
+        Collezione collezione = new Collezione();
+        try {
+            for (int i = 0; i < dimensione; i++) {
+                collezione.aggiungiElemento(creaGioco(i, casuale));
+            }
+        } catch (ElementoDuplicatoException e) {
+            throw new IllegalStateException("ID duplicato nei dati di benchmark", e);
+        }
+        return collezione;
+    }
+
+    /**
+     * Crea una collezione colonnare con gli stessi giochi di creaCollezione
+     * @param dimensione Numero di giochi
+     * @param seme Seme per la generazione casuale
+     * @return La collezione popolata
+     */
+    public static CollezioneColonnare creaCollezioneColonnare(int dimensione, long seme) {
+        SplittableRandom casuale = new SplittableRandom(seme);
+        CollezioneColonnare collezione = new CollezioneColonnare(dimensione);
+        try {
+            for (int i = 0; i < dimensione; i++) {
+                collezione.aggiungiElemento(creaGioco(i, casuale));
+            }
+        } catch (ElementoDuplicatoException e) {
+            throw new IllegalStateException("ID duplicato nei dati di benchmark", e);
+        }
+        return collezione;
+    }
+
+    /**
+     * Crea una collezione partizionata con gli stessi giochi di creaCollezione
+     * @param dimensione Numero di giochi
+     * @param seme Seme per la generazione casuale
+     * @param numeroPartizioni Numero di partizioni
+     * @return La collezione popolata
+     */
+    public static CollezioneShardata creaCollezioneShardata(int dimensione, long seme, int numeroPartizioni) {
+        SplittableRandom casuale = new SplittableRandom(seme);
+        CollezioneShardata collezione = new CollezioneShardata(numeroPartizioni);
+        try {
+            for (int i = 0; i < dimensione; i++) {
+                collezione.aggiungiElemento(creaGioco(i, casuale));
+            }
+        } catch (ElementoDuplicatoException e) {
+            throw new IllegalStateException("ID duplicato nei dati di benchmark", e);
+        }
+        return collezione;
+    }
+}
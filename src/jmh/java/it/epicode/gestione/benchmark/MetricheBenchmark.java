@@ -0,0 +1,71 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.Collezione;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del costo delle metriche sulle operazioni più brevi:
+ * confronta le stesse chiamate con metriche disattivate e attive
+ *
+ * Esecuzione su più thread, per misurare anche la contesa sugli istogrammi:
+ * java -jar target/benchmarks.jar MetricheBenchmark -t 4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MetricheBenchmark {
+
+    @Param({"false", "true"})
+    private boolean attive;
+
+    private Collezione collezione;
+    private String[] chiavi;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        int dimensione = 100_000;
+        collezione = DatiBenchmark.creaCollezione(dimensione, 42L);
+        chiavi = new String[1 << 16];
+        SplittableRandom casuale = new SplittableRandom(7L);
+        for (int i = 0; i < chiavi.length; i++) {
+            chiavi[i] = "G" + casuale.nextInt(dimensione);
+        }
+        if (attive) {
+            collezione.getMetriche().attiva();
+        }
+    }
+
+    /**
+     * Stato per thread con la posizione nelle chiavi precalcolate
+     */
+    @State(Scope.Thread)
+    public static class Posizione {
+        int indice;
+    }
+
+    @Benchmark
+    public Gioco cercaPerID(Posizione posizione) throws ElementoNonTrovatoException {
+        return collezione.cercaPerID(chiavi[posizione.indice++ & (chiavi.length - 1)]);
+    }
+
+    @Benchmark
+    public List<Gioco> cercaPerPrezzoPaginata(Posizione posizione) {
+        return collezione.cercaPerPrezzo(10 + (posizione.indice++ & 63), 0, 10);
+    }
+
+    @Benchmark
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(Posizione posizione) {
+        int minimo = 2 + (posizione.indice++ & 7);
+        return collezione.cercaPerNumeroGiocatori(minimo, minimo);
+    }
+}
@@ -0,0 +1,63 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.ui.RenderizzatoreGiochi;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH della scrittura di un elenco di giochi: toString e println,
+ * come faceva il menu, contro RenderizzatoreGiochi nei tre formati.
+ * L'uscita è scartata, quindi si misura solo la formattazione
+ *
+ * java -jar target/benchmarks.jar RenderizzatoreBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RenderizzatoreBenchmark {
+
+    @Param({"100000"})
+    private int dimensione;
+
+    @Param({"TESTO", "CSV", "JSON_LINES"})
+    private RenderizzatoreGiochi.Formato formato;
+
+    private List<Gioco> giochi;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        SplittableRandom casuale = new SplittableRandom(42L);
+        giochi = new ArrayList<>(dimensione);
+        for (int i = 0; i < dimensione; i++) {
+            giochi.add(DatiBenchmark.creaGioco(i, casuale));
+        }
+    }
+
+    @Benchmark
+    public void toStringPrintln() {
+        PrintWriter uscita = new PrintWriter(Writer.nullWriter());
+        for (Gioco gioco : giochi) {
+            uscita.println(gioco);
+        }
+        uscita.flush();
+    }
+
+    @Benchmark
+    public long renderizzatore() throws IOException {
+        try (RenderizzatoreGiochi renderizzatore = new RenderizzatoreGiochi(Writer.nullWriter(), formato)) {
+            renderizzatore.scriviTutti(giochi);
+            return renderizzatore.getScritti();
+        }
+    }
+}
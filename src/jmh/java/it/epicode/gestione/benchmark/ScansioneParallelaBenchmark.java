@@ -0,0 +1,57 @@
+package it.epicode.gestione.benchmark;
+
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.CollezioneColonnare;
+import it.epicode.gestione.service.StatisticheCollezione;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH delle scansioni di CollezioneColonnare in sequenza e in
+ * parallelo: il confronto per dimensione mostra da dove conviene la scansione
+ * parallela, cioè il valore da usare come soglia
+ *
+ * java -jar target/benchmarks.jar ScansioneParallelaBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ScansioneParallelaBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int dimensione;
+
+    @Param({"false", "true"})
+    private boolean parallela;
+
+    private CollezioneColonnare collezione;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        collezione = DatiBenchmark.creaCollezioneColonnare(dimensione, 42L);
+        collezione.configuraSogliaParallela(parallela ? 0 : Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public StatisticheCollezione generaStatistiche() {
+        return collezione.generaStatistiche();
+    }
+
+    @Benchmark
+    public int contaPerPrezzo() {
+        return collezione.contaPerPrezzo(50);
+    }
+
+    /**
+     * Circa il 5% dei giochi: il costo è dominato dalla scansione, non dalle copie
+     */
+    @Benchmark
+    public List<Gioco> cercaPerPrezzo() {
+        return collezione.cercaPerPrezzo(10);
+    }
+}
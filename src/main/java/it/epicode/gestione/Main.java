@@ -1,6 +1,24 @@
 package it.epicode.gestione;
 
+import it.epicode.gestione.persistenza.RegistroModifiche;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.MonitorCollezione;
 import it.epicode.gestione.ui.MenuPrincipale;
+import it.epicode.gestione.ui.ModalitaComandi;
+import it.epicode.gestione.ui.ServerHttp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 
 /**
  * Classe principale dell'applicazione per la gestione della collezione di giochi
@@ -9,20 +27,136 @@ import it.epicode.gestione.ui.MenuPrincipale;
  * @version 1.0.0
  */
 public class Main {
+    private static final Path CARTELLA_DATI = Path.of("dati");
+    private static final int PORTA_HTTP = 8080;
+    private static final String NOME_JMX = "it.epicode.gestione:type=Collezione";
     
     /**
      * Metodo main per avviare l'applicazione
-     * @param args Argomenti della riga di comando (non utilizzati)
+     * @param args Nessun argomento per il menu interattivo, oppure
+     *             "--batch [file]" per eseguire i comandi del file (o dello
+     *             standard input se il file manca o è "-") senza interazione,
+     *             oppure "--http [porta]" per esporre la collezione via HTTP.
+     *             Le metriche delle operazioni partono attive con
+     *             -Dgestione.metriche=true e si possono accendere e spegnere
+     *             via JMX (it.epicode.gestione:type=Collezione); il peso
+     *             della cache dei risultati si imposta con -Dgestione.cache=N
+     *             (0 la disattiva). Il registro delle modifiche si configura con
+     *             -Dgestione.registro.durabilita=sincrona|asincrona,
+     *             -Dgestione.registro.lotto=N (modifiche per force) e
+     *             -Dgestione.registro.attesa=MICROSECONDI (attesa di altre
+     *             modifiche prima del force). Con --batch la durabilità
+     *             predefinita è asincrona, con una sola sincronizzazione a
+     *             fine ingresso
      */
     public static void main(String[] args) {
+        boolean batch = args.length > 0 && args[0].equals("--batch");
+        boolean http = args.length > 0 && args[0].equals("--http");
+        long falliti = 0;
         try {
-            // Crea e avvia il menu principale
-            MenuPrincipale menu = new MenuPrincipale();
-            menu.avvia();
+            // Ricostruisce la collezione dall'istantanea e dal registro delle modifiche
+            Collezione collezione = new Collezione();
+            MonitorCollezione.registra(collezione, NOME_JMX);
+            if (Boolean.getBoolean("gestione.metriche")) {
+                collezione.getMetriche().attiva();
+            }
+            Long pesoCache = Long.getLong("gestione.cache");
+            if (pesoCache != null) {
+                collezione.configuraCache(pesoCache);
+            }
+            RegistroModifiche registro = RegistroModifiche.apri(
+                    CARTELLA_DATI, configurazioneRegistro(batch), collezione);
+            try {
+                if (batch) {
+                    falliti = eseguiComandi(collezione, registro, args.length > 1 ? args[1] : "-");
+                } else if (http) {
+                    serviHttp(collezione, args.length > 1 ? Integer.parseInt(args[1]) : PORTA_HTTP);
+                } else {
+                    if (!collezione.isEmpty()) {
+                        System.out.println("Caricati " + collezione.size() + " giochi da " + CARTELLA_DATI);
+                    }
+
+                    // Crea e avvia il menu principale
+                    MenuPrincipale menu = new MenuPrincipale(collezione);
+                    menu.avvia();
+                }
+            } finally {
+                registro.close();
+            }
         } catch (Exception e) {
             System.err.println("Errore critico nell'avvio dell'applicazione: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
         }
+        if (falliti > 0) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Configurazione predefinita del registro, con i valori indicati nelle proprietà di sistema
+     * In modalità comandi nessun client attende la conferma di una singola
+     * modifica, quindi senza proprietà la durabilità è asincrona
+     */
+    private static RegistroModifiche.Configurazione configurazioneRegistro(boolean batch) {
+        RegistroModifiche.Configurazione predefinita = RegistroModifiche.Configurazione.PREDEFINITA;
+        RegistroModifiche.Durabilita durabilita = batch
+                ? RegistroModifiche.Durabilita.ASINCRONA
+                : predefinita.durabilita();
+        String valore = System.getProperty("gestione.registro.durabilita");
+        if (valore != null) {
+            try {
+                durabilita = RegistroModifiche.Durabilita.valueOf(valore.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Durabilità non valida: " + valore + " (sincrona o asincrona)");
+            }
+        }
+        return new RegistroModifiche.Configurazione(
+                Integer.getInteger("gestione.registro.lotto", predefinita.dimensioneMassimaLotto()),
+                Duration.of(Long.getLong("gestione.registro.attesa",
+                        predefinita.attesaMassima().toNanos() / 1000), ChronoUnit.MICROS),
+                predefinita.dimensioneMassimaSegmento(),
+                durabilita);
+    }
+
+    /**
+     * Serve le richieste fino all'arresto della JVM; l'hook di arresto attende
+     * che questo metodo ritorni, così il registro viene chiuso e compattato
+     */
+    private static void serviHttp(Collezione collezione, int porta) throws IOException, InterruptedException {
+        ServerHttp server = ServerHttp.avvia(collezione, porta);
+        Thread principale = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.ferma();
+            try {
+                principale.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        System.err.println("API HTTP in ascolto sulla porta " + server.getPorta()
+                + " (esecutore: " + server.getEsecutore() + ")");
+        server.attendiArresto();
+    }
+
+    /**
+     * Esegue i comandi e a fine ingresso rende durevoli tutte le modifiche con
+     * un solo force; se questo fallisce l'applicazione termina con errore
+     */
+    private static long eseguiComandi(Collezione collezione, RegistroModifiche registro, String sorgente)
+            throws IOException {
+        Writer uscita = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        ModalitaComandi comandi = new ModalitaComandi(collezione);
+        long falliti;
+        if (sorgente.equals("-")) {
+            BufferedReader ingresso = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            falliti = comandi.esegui(ingresso, uscita);
+        } else {
+            try (BufferedReader ingresso = Files.newBufferedReader(Path.of(sorgente), StandardCharsets.UTF_8)) {
+                falliti = comandi.esegui(ingresso, uscita);
+            }
+        }
+        registro.sincronizza();
+        return falliti;
     }
-}
\ No newline at end of file
+}
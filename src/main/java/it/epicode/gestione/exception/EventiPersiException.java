@@ -0,0 +1,30 @@
+package it.epicode.gestione.exception;
+
+/**
+ * Eccezione segnalata a un sottoscrittore del flusso delle modifiche quando gli
+ * eventi che deve ancora ricevere sono già stati sovrascritti nel buffer
+ */
+public class EventiPersiException extends Exception {
+    private final long sequenzaRichiesta;
+    private final long primaDisponibile;
+
+    public EventiPersiException(String message, long sequenzaRichiesta, long primaDisponibile) {
+        super(message);
+        this.sequenzaRichiesta = sequenzaRichiesta;
+        this.primaDisponibile = primaDisponibile;
+    }
+
+    /**
+     * @return La sequenza del primo evento non più disponibile
+     */
+    public long getSequenzaRichiesta() {
+        return sequenzaRichiesta;
+    }
+
+    /**
+     * @return La sequenza più vecchia ancora presente nel buffer
+     */
+    public long getPrimaDisponibile() {
+        return primaDisponibile;
+    }
+}
@@ -0,0 +1,207 @@
+package it.epicode.gestione.importazione;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analizzatori di singole righe CSV e JSON piatte, senza dipendenze esterne
+ */
+final class AnalizzatoreRighe {
+
+    private AnalizzatoreRighe() {
+    }
+
+    /**
+     * Indica se una riga CSV lascia aperto un campo tra virgolette, cioè se il
+     * record prosegue sulla riga successiva
+     * @param riga La riga, o il record parziale, da controllare
+     * @return true se il numero di virgolette è dispari
+     */
+    static boolean virgoletteAperte(String riga) {
+        boolean aperte = false;
+        for (int i = 0; i < riga.length(); i++) {
+            if (riga.charAt(i) == '"') {
+                aperte = !aperte;
+            }
+        }
+        return aperte;
+    }
+
+    /**
+     * Divide un record CSV nei suoi campi
+     * Supporta campi tra virgolette con virgole, virgolette raddoppiate e a capo al loro interno
+     * @param riga Il record da analizzare, eventualmente su più righe
+     * @return I campi della riga
+     * @throws IllegalArgumentException se le virgolette non sono bilanciate
+     */
+    static List<String> csv(String riga) {
+        List<String> campi = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean traVirgolette = false;
+
+        for (int i = 0; i < riga.length(); i++) {
+            char c = riga.charAt(i);
+            if (traVirgolette) {
+                if (c == '"') {
+                    if (i + 1 < riga.length() && riga.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        traVirgolette = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                traVirgolette = true;
+            } else if (c == ',') {
+                campi.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+
+        if (traVirgolette) {
+            throw new IllegalArgumentException("Virgolette non chiuse");
+        }
+        campi.add(campo.toString());
+        return campi;
+    }
+
+    /**
+     * Analizza un oggetto JSON piatto con valori stringa, numerici, booleani o null
+     * @param riga La riga contenente l'oggetto
+     * @return Mappa nome del campo → valore testuale (null per i valori null)
+     * @throws IllegalArgumentException se la riga non è un oggetto JSON piatto valido
+     */
+    static Map<String, String> json(String riga) {
+        Map<String, String> campi = new HashMap<>();
+        int[] pos = {salta(riga, 0)};
+        atteso(riga, pos, '{');
+
+        if (carattere(riga, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                String nome = stringa(riga, pos);
+                atteso(riga, pos, ':');
+                campi.put(nome, valore(riga, pos));
+
+                char separatore = carattere(riga, pos);
+                pos[0]++;
+                if (separatore == '}') {
+                    break;
+                }
+                if (separatore != ',') {
+                    throw new IllegalArgumentException("Atteso ',' o '}' in posizione " + (pos[0] - 1));
+                }
+            }
+        }
+
+        if (salta(riga, pos[0]) != riga.length()) {
+            throw new IllegalArgumentException("Contenuto inatteso dopo l'oggetto JSON");
+        }
+        return campi;
+    }
+
+    private static String valore(String riga, int[] pos) {
+        char c = carattere(riga, pos);
+        if (c == '"') {
+            return stringa(riga, pos);
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Oggetti e array annidati non sono supportati");
+        }
+
+        int inizio = pos[0];
+        while (pos[0] < riga.length() && ",}".indexOf(riga.charAt(pos[0])) < 0
+                && !Character.isWhitespace(riga.charAt(pos[0]))) {
+            pos[0]++;
+        }
+        String letterale = riga.substring(inizio, pos[0]);
+        if (letterale.isEmpty()) {
+            throw new IllegalArgumentException("Valore mancante in posizione " + inizio);
+        }
+        return letterale.equals("null") ? null : letterale;
+    }
+
+    private static String stringa(String riga, int[] pos) {
+        atteso(riga, pos, '"');
+        StringBuilder valore = new StringBuilder();
+        while (pos[0] < riga.length()) {
+            char c = riga.charAt(pos[0]++);
+            if (c == '"') {
+                return valore.toString();
+            }
+            if (c != '\\') {
+                valore.append(c);
+                continue;
+            }
+            if (pos[0] >= riga.length()) {
+                break;
+            }
+            char escape = riga.charAt(pos[0]++);
+            switch (escape) {
+                case 'n': valore.append('\n'); break;
+                case 't': valore.append('\t'); break;
+                case 'r': valore.append('\r'); break;
+                case 'b': valore.append('\b'); break;
+                case 'f': valore.append('\f'); break;
+                case 'u':
+                    valore.append(unicode(riga, pos[0]));
+                    pos[0] += 4;
+                    break;
+                default: valore.append(escape);
+            }
+        }
+        throw new IllegalArgumentException("Stringa non chiusa");
+    }
+
+    /**
+     * Decodifica le quattro cifre esadecimali di un escape unicode JSON; i surrogati
+     * di una coppia arrivano come due sequenze e si ricompongono da soli
+     */
+    private static char unicode(String riga, int inizio) {
+        if (inizio + 4 > riga.length()) {
+            throw new IllegalArgumentException("Sequenza \\u incompleta in posizione " + inizio);
+        }
+        int codice = 0;
+        for (int i = inizio; i < inizio + 4; i++) {
+            char c = riga.charAt(i);
+            int cifra = c < 128 ? Character.digit(c, 16) : -1;
+            if (cifra < 0) {
+                throw new IllegalArgumentException("Sequenza \\u non valida in posizione " + inizio);
+            }
+            codice = codice * 16 + cifra;
+        }
+        return (char) codice;
+    }
+
+    private static void atteso(String riga, int[] pos, char atteso) {
+        if (carattere(riga, pos) != atteso) {
+            throw new IllegalArgumentException("Atteso '" + atteso + "' in posizione " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    /**
+     * Salta gli spazi e restituisce il carattere corrente senza consumarlo
+     */
+    private static char carattere(String riga, int[] pos) {
+        pos[0] = salta(riga, pos[0]);
+        if (pos[0] >= riga.length()) {
+            throw new IllegalArgumentException("Fine riga inattesa");
+        }
+        return riga.charAt(pos[0]);
+    }
+
+    private static int salta(String riga, int pos) {
+        while (pos < riga.length() && Character.isWhitespace(riga.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,31 @@
+package it.epicode.gestione.importazione;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formati supportati per l'importazione di un catalogo
+ */
+public enum FormatoCatalogo {
+    /**
+     * CSV con intestazione, separatore virgola e campi opzionalmente tra virgolette
+     */
+    CSV,
+    /**
+     * Un oggetto JSON piatto per riga
+     */
+    JSON_LINES;
+
+    /**
+     * Deduce il formato dall'estensione del file
+     * @param percorso Il percorso del file
+     * @return JSON_LINES per .jsonl/.ndjson/.json, CSV altrimenti
+     */
+    public static FormatoCatalogo daPercorso(Path percorso) {
+        String nome = percorso.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".jsonl") || nome.endsWith(".ndjson") || nome.endsWith(".json")) {
+            return JSON_LINES;
+        }
+        return CSV;
+    }
+}
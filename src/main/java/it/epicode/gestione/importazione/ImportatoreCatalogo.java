@@ -0,0 +1,348 @@
+package it.epicode.gestione.importazione;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.EsitoLotto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Importazione massiva di cataloghi CSV o JSON-lines nella collezione
+ *
+ * Il file viene letto in streaming a blocchi di righe; ogni blocco viene
+ * analizzato e inserito come lotto da un thread del pool, con un numero limitato di
+ * blocchi in memoria. I giochi sono creati con i costruttori del modello,
+ * quindi con la stessa validazione dell'inserimento manuale. Righe non valide
+ * e ID duplicati vengono riportati nel rapporto senza interrompere l'importazione.
+ *
+ * Colonne (intestazione CSV o chiavi JSON): tipo, id, titolo, anno, prezzo,
+ * piattaforma, durataGioco, genere (videogiochi), numeroGiocatori,
+ * durataMediaPartita (giochi da tavolo). Il tipo è "videogioco" o "tavolo".
+ * Un BOM UTF-8 iniziale viene ignorato; un campo CSV tra virgolette può
+ * contenere degli a capo, fino a LUNGHEZZA_MASSIMA_RECORD caratteri.
+ */
+public class ImportatoreCatalogo {
+    public static final int RIGHE_PER_BLOCCO = 8192;
+    /**
+     * Oltre questa lunghezza un record con virgolette aperte non viene più
+     * esteso alle righe successive: una virgoletta spaiata non può così
+     * inghiottire il resto del file
+     */
+    public static final int LUNGHEZZA_MASSIMA_RECORD = 1 << 20;
+
+    private final Collezione collezione;
+    private final int parallelismo;
+
+    /**
+     * Costruttore con un thread per processore disponibile
+     * @param collezione La collezione di destinazione
+     */
+    public ImportatoreCatalogo(Collezione collezione) {
+        this(collezione, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Costruttore della classe ImportatoreCatalogo
+     * @param collezione La collezione di destinazione
+     * @param parallelismo Numero di thread di analisi e inserimento
+     */
+    public ImportatoreCatalogo(Collezione collezione, int parallelismo) {
+        if (collezione == null) {
+            throw new IllegalArgumentException("La collezione non può essere nulla");
+        }
+        if (parallelismo <= 0) {
+            throw new IllegalArgumentException("Il parallelismo deve essere positivo");
+        }
+        this.collezione = collezione;
+        this.parallelismo = parallelismo;
+    }
+
+    /**
+     * Importa un file deducendo il formato dall'estensione
+     * @param percorso Il file da importare
+     * @return Il rapporto dell'importazione
+     * @throws IOException in caso di errore di lettura
+     */
+    public RapportoImportazione importa(Path percorso) throws IOException {
+        return importa(percorso, FormatoCatalogo.daPercorso(percorso));
+    }
+
+    /**
+     * Importa un file nel formato indicato
+     * @param percorso Il file da importare
+     * @param formato Il formato del file
+     * @return Il rapporto dell'importazione
+     * @throws IOException in caso di errore di lettura
+     */
+    public RapportoImportazione importa(Path percorso, FormatoCatalogo formato) throws IOException {
+        try (BufferedReader lettore = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(percorso), StandardCharsets.UTF_8), 1 << 20)) {
+            return importa(lettore, formato);
+        }
+    }
+
+    /**
+     * Importa le righe lette dal lettore nel formato indicato
+     * @param lettore Il lettore delle righe
+     * @param formato Il formato delle righe
+     * @return Il rapporto dell'importazione
+     * @throws IOException in caso di errore di lettura
+     */
+    public RapportoImportazione importa(BufferedReader lettore, FormatoCatalogo formato) throws IOException {
+        long inizio = System.nanoTime();
+        RapportoImportazione rapporto = new RapportoImportazione();
+
+        long numeroRiga = 0;
+        Map<String, Integer> colonne = null;
+        if (formato == FormatoCatalogo.CSV) {
+            String intestazione = lettore.readLine();
+            numeroRiga++;
+            if (intestazione == null) {
+                return rapporto;
+            }
+            colonne = indiceColonne(senzaBom(intestazione));
+        }
+
+        int massimoInVolo = parallelismo * 2;
+        Semaphore inVolo = new Semaphore(massimoInVolo);
+        ExecutorService esecutore = Executors.newFixedThreadPool(parallelismo);
+        try {
+            List<String> blocco = new ArrayList<>(RIGHE_PER_BLOCCO);
+            long[] numeri = new long[RIGHE_PER_BLOCCO];
+            String riga;
+            while ((riga = lettore.readLine()) != null) {
+                numeroRiga++;
+                if (numeroRiga == 1) {
+                    riga = senzaBom(riga);
+                }
+                numeri[blocco.size()] = numeroRiga;
+                if (formato == FormatoCatalogo.CSV && AnalizzatoreRighe.virgoletteAperte(riga)) {
+                    // il record prosegue finché le virgolette non si chiudono
+                    StringBuilder record = new StringBuilder(riga);
+                    boolean aperte = true;
+                    String seguito;
+                    while (aperte && record.length() < LUNGHEZZA_MASSIMA_RECORD
+                            && (seguito = lettore.readLine()) != null) {
+                        numeroRiga++;
+                        record.append('\n').append(seguito);
+                        aperte ^= AnalizzatoreRighe.virgoletteAperte(seguito);
+                    }
+                    riga = record.toString();
+                }
+                blocco.add(riga);
+                if (blocco.size() == RIGHE_PER_BLOCCO) {
+                    invia(esecutore, inVolo, blocco, numeri, formato, colonne, rapporto);
+                    blocco = new ArrayList<>(RIGHE_PER_BLOCCO);
+                    numeri = new long[RIGHE_PER_BLOCCO];
+                }
+            }
+            if (!blocco.isEmpty()) {
+                invia(esecutore, inVolo, blocco, numeri, formato, colonne, rapporto);
+            }
+
+            // Attende il completamento di tutti i blocchi
+            inVolo.acquire(massimoInVolo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importazione interrotta");
+        } finally {
+            esecutore.shutdownNow();
+        }
+
+        rapporto.setDurata(Duration.ofNanos(System.nanoTime() - inizio));
+        return rapporto;
+    }
+
+    private void invia(ExecutorService esecutore, Semaphore inVolo, List<String> blocco, long[] numeri,
+                       FormatoCatalogo formato, Map<String, Integer> colonne, RapportoImportazione rapporto)
+            throws InterruptedException {
+        inVolo.acquire();
+        esecutore.execute(() -> {
+            try {
+                elaboraBlocco(blocco, numeri, formato, colonne, rapporto);
+            } finally {
+                inVolo.release();
+            }
+        });
+    }
+
+    /**
+     * Analizza un blocco di record e lo inserisce con un'unica operazione di lotto
+     * @param numeri Il numero della prima riga di ciascun record, per i messaggi di errore
+     */
+    private void elaboraBlocco(List<String> blocco, long[] numeri, FormatoCatalogo formato,
+                               Map<String, Integer> colonne, RapportoImportazione rapporto) {
+        List<Gioco> giochi = new ArrayList<>(blocco.size());
+        List<Long> righe = new ArrayList<>(blocco.size());
+        for (int i = 0; i < blocco.size(); i++) {
+            String riga = blocco.get(i);
+            if (riga.isBlank()) {
+                continue;
+            }
+
+            try {
+                giochi.add(formato == FormatoCatalogo.CSV
+                        ? creaGioco(campiCsv(AnalizzatoreRighe.csv(riga), colonne))
+                        : creaGioco(AnalizzatoreRighe.json(riga)::get));
+                righe.add(numeri[i]);
+            } catch (IllegalArgumentException e) {
+                rapporto.aggiungiErrore(numeri[i], e.getMessage());
+            }
+        }
+
+        long importati;
+        try {
+            EsitoLotto esito = collezione.aggiungiTutti(giochi);
+            importati = esito.applicati().size();
+            esito.duplicati().forEach(rapporto::aggiungiDuplicato);
+        } catch (RuntimeException e) {
+            // Il lotto si è interrotto: si prosegue gioco per gioco per isolare le righe che falliscono
+            importati = inserisciUnoAUno(giochi, righe, rapporto);
+        }
+
+        rapporto.aggiungiRighe(blocco.size());
+        rapporto.aggiungiImportati(importati);
+    }
+
+    private long inserisciUnoAUno(List<Gioco> giochi, List<Long> righe, RapportoImportazione rapporto) {
+        long importati = 0;
+        for (int i = 0; i < giochi.size(); i++) {
+            Gioco gioco = giochi.get(i);
+            try {
+                collezione.aggiungiElemento(gioco);
+                importati++;
+            } catch (ElementoDuplicatoException e) {
+                if (giaInseritoDalLotto(gioco)) {
+                    importati++;
+                } else {
+                    rapporto.aggiungiDuplicato(gioco.getIdGioco());
+                }
+            } catch (RuntimeException e) {
+                rapporto.aggiungiErrore(righe.get(i), e.getMessage());
+            }
+        }
+        return importati;
+    }
+
+    private boolean giaInseritoDalLotto(Gioco gioco) {
+        try {
+            return collezione.cercaPerID(gioco.getIdGioco()) == gioco;
+        } catch (ElementoNonTrovatoException e) {
+            return false;
+        }
+    }
+
+    private static String senzaBom(String riga) {
+        return !riga.isEmpty() && riga.charAt(0) == '\uFEFF' ? riga.substring(1) : riga;
+    }
+
+    private static Map<String, Integer> indiceColonne(String intestazione) {
+        List<String> nomi = AnalizzatoreRighe.csv(intestazione);
+        Map<String, Integer> colonne = new HashMap<>();
+        for (int i = 0; i < nomi.size(); i++) {
+            colonne.put(nomi.get(i).trim(), i);
+        }
+        return colonne;
+    }
+
+    private static Function<String, String> campiCsv(List<String> campi, Map<String, Integer> colonne) {
+        return nome -> {
+            Integer indice = colonne.get(nome);
+            return indice == null || indice >= campi.size() ? null : campi.get(indice);
+        };
+    }
+
+    /**
+     * Crea un gioco da un oggetto JSON piatto con le stesse chiavi del catalogo
+     * @param oggetto L'oggetto JSON su una sola riga
+     * @return Il gioco creato
+     * @throws IllegalArgumentException se l'oggetto non è valido o un campo manca
+     */
+    public static Gioco giocoDaJson(String oggetto) {
+        return creaGioco(AnalizzatoreRighe.json(oggetto)::get);
+    }
+
+    /**
+     * Crea il gioco descritto dai campi di una riga
+     * @param campo Accesso ai campi della riga per nome
+     * @return Il gioco creato
+     * @throws IllegalArgumentException se un campo manca o non è valido
+     */
+    static Gioco creaGioco(Function<String, String> campo) {
+        String tipo = obbligatorio(campo, "tipo").toLowerCase(Locale.ROOT);
+        String id = campo.apply("id");
+        String titolo = campo.apply("titolo");
+        int anno = intero(campo, "anno");
+        double prezzo = decimale(campo, "prezzo");
+
+        switch (tipo) {
+            case "videogioco":
+            case "v":
+                return new Videogioco(id, titolo, anno, prezzo,
+                        campo.apply("piattaforma"), intero(campo, "durataGioco"),
+                        genere(obbligatorio(campo, "genere")));
+            case "tavolo":
+            case "giocodatavolo":
+            case "gioco da tavolo":
+            case "t":
+                return new GiocoDaTavolo(id, titolo, anno, prezzo,
+                        intero(campo, "numeroGiocatori"), intero(campo, "durataMediaPartita"));
+            default:
+                throw new IllegalArgumentException("Tipo di gioco non valido: " + tipo);
+        }
+    }
+
+    private static String obbligatorio(Function<String, String> campo, String nome) {
+        String valore = campo.apply(nome);
+        if (valore == null || valore.isBlank()) {
+            throw new IllegalArgumentException("Campo '" + nome + "' mancante");
+        }
+        return valore.trim();
+    }
+
+    private static int intero(Function<String, String> campo, String nome) {
+        try {
+            return Integer.parseInt(obbligatorio(campo, nome));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Campo '" + nome + "' non è un numero intero valido");
+        }
+    }
+
+    private static double decimale(Function<String, String> campo, String nome) {
+        try {
+            return Double.parseDouble(obbligatorio(campo, nome));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Campo '" + nome + "' non è un numero decimale valido");
+        }
+    }
+
+    private static Genere genere(String valore) {
+        for (Genere genere : Genere.values()) {
+            if (genere.name().equalsIgnoreCase(valore) || genere.getDescrizione().equalsIgnoreCase(valore)) {
+                return genere;
+            }
+        }
+        throw new IllegalArgumentException("Genere non valido: " + valore);
+    }
+}
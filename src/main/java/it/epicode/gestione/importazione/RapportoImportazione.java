@@ -0,0 +1,92 @@
+package it.epicode.gestione.importazione;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esito di un'importazione di catalogo
+ *
+ * I conteggi sono sempre esatti; gli elenchi di duplicati ed errori conservano
+ * solo i primi MAX_DETTAGLI elementi per non crescere senza limite.
+ */
+public class RapportoImportazione {
+    public static final int MAX_DETTAGLI = 10_000;
+
+    private long righeLette;
+    private long importati;
+    private long duplicati;
+    private long errori;
+    private final List<String> idDuplicati = new ArrayList<>();
+    private final List<String> messaggiErrore = new ArrayList<>();
+    private Duration durata = Duration.ZERO;
+
+    synchronized void aggiungiRighe(long righe) {
+        righeLette += righe;
+    }
+
+    synchronized void aggiungiImportati(long quanti) {
+        importati += quanti;
+    }
+
+    synchronized void aggiungiDuplicato(String idGioco) {
+        duplicati++;
+        if (idDuplicati.size() < MAX_DETTAGLI) {
+            idDuplicati.add(idGioco);
+        }
+    }
+
+    synchronized void aggiungiErrore(long riga, String messaggio) {
+        errori++;
+        if (messaggiErrore.size() < MAX_DETTAGLI) {
+            messaggiErrore.add("Riga " + riga + ": " + messaggio);
+        }
+    }
+
+    synchronized void setDurata(Duration durata) {
+        this.durata = durata;
+    }
+
+    public synchronized long getRigheLette() {
+        return righeLette;
+    }
+
+    public synchronized long getImportati() {
+        return importati;
+    }
+
+    public synchronized long getDuplicati() {
+        return duplicati;
+    }
+
+    public synchronized long getErrori() {
+        return errori;
+    }
+
+    /**
+     * Restituisce gli ID scartati perché già presenti nella collezione
+     * @return Lista non modificabile dei primi MAX_DETTAGLI ID duplicati
+     */
+    public synchronized List<String> getIdDuplicati() {
+        return Collections.unmodifiableList(new ArrayList<>(idDuplicati));
+    }
+
+    /**
+     * Restituisce i messaggi delle righe non valide
+     * @return Lista non modificabile dei primi MAX_DETTAGLI errori
+     */
+    public synchronized List<String> getMessaggiErrore() {
+        return Collections.unmodifiableList(new ArrayList<>(messaggiErrore));
+    }
+
+    public synchronized Duration getDurata() {
+        return durata;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Righe lette: %d, Importati: %d, Duplicati: %d, Errori: %d, Durata: %d ms",
+                           righeLette, importati, duplicati, errori, durata.toMillis());
+    }
+}
@@ -11,6 +11,7 @@ public abstract class Gioco {
     protected String titolo;
     protected int annoPubblicazione;
     protected double prezzo;
+    private boolean immutabile;
 
     /**
      * Costruttore della classe Gioco
@@ -59,6 +60,7 @@ public abstract class Gioco {
 
     // Setters
     public void setTitolo(String titolo) {
+        verificaModificabile();
         if (titolo == null || titolo.trim().isEmpty()) {
             throw new IllegalArgumentException("Il titolo non può essere nullo o vuoto");
         }
@@ -66,6 +68,7 @@ public abstract class Gioco {
     }
 
     public void setAnnoPubblicazione(int annoPubblicazione) {
+        verificaModificabile();
         if (annoPubblicazione < 1950 || annoPubblicazione > 2024) {
             throw new IllegalArgumentException("L'anno di pubblicazione deve essere compreso tra 1950 e 2024");
         }
@@ -73,12 +76,43 @@ public abstract class Gioco {
     }
 
     public void setPrezzo(double prezzo) {
+        verificaModificabile();
         if (prezzo <= 0) {
             throw new IllegalArgumentException("Il prezzo deve essere un valore positivo");
         }
         this.prezzo = prezzo;
     }
 
+    /**
+     * Crea una copia del gioco che non può più essere modificata tramite i setter
+     * @return La copia immutabile, o questo stesso gioco se è già immutabile
+     */
+    public abstract Gioco copiaImmutabile();
+
+    /**
+     * Verifica se il gioco è una copia immutabile
+     * @return true se i setter sono disabilitati
+     */
+    public boolean isImmutabile() {
+        return immutabile;
+    }
+
+    /**
+     * Disabilita i setter; va invocato sulla copia prima di pubblicarla
+     */
+    protected final void congela() {
+        immutabile = true;
+    }
+
+    /**
+     * @throws UnsupportedOperationException se il gioco è una copia immutabile
+     */
+    protected final void verificaModificabile() {
+        if (immutabile) {
+            throw new UnsupportedOperationException("Il gioco '" + idGioco + "' è una copia immutabile");
+        }
+    }
+
     /**
      * Metodo astratto per ottenere il tipo di gioco
      * @return Il tipo di gioco come stringa
@@ -95,7 +129,8 @@ public abstract class Gioco {
 
     @Override
     public int hashCode() {
-        return Objects.hash(idGioco);
+        // l'ID non è mai nullo; String mette in cache il proprio hash
+        return idGioco.hashCode();
     }
 
     @Override
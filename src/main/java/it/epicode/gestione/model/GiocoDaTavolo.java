@@ -43,6 +43,7 @@ public class GiocoDaTavolo extends Gioco {
 
     // Setters
     public void setNumeroGiocatori(int numeroGiocatori) {
+        verificaModificabile();
         if (numeroGiocatori < 2 || numeroGiocatori > 10) {
             throw new IllegalArgumentException("Il numero di giocatori deve essere compreso tra 2 e 10");
         }
@@ -50,12 +51,24 @@ public class GiocoDaTavolo extends Gioco {
     }
 
     public void setDurataMediaPartita(int durataMediaPartita) {
+        verificaModificabile();
         if (durataMediaPartita <= 0) {
             throw new IllegalArgumentException("La durata media della partita deve essere un valore positivo");
         }
         this.durataMediaPartita = durataMediaPartita;
     }
 
+    @Override
+    public GiocoDaTavolo copiaImmutabile() {
+        if (isImmutabile()) {
+            return this;
+        }
+        GiocoDaTavolo copia = new GiocoDaTavolo(idGioco, titolo, annoPubblicazione, prezzo,
+                numeroGiocatori, durataMediaPartita);
+        copia.congela();
+        return copia;
+    }
+
     @Override
     public String getTipoGioco() {
         return "Gioco da Tavolo";
@@ -53,6 +53,7 @@ public class Videogioco extends Gioco {
 
     // Setters
     public void setPiattaforma(String piattaforma) {
+        verificaModificabile();
         if (piattaforma == null || piattaforma.trim().isEmpty()) {
             throw new IllegalArgumentException("La piattaforma non può essere nulla o vuota");
         }
@@ -60,6 +61,7 @@ public class Videogioco extends Gioco {
     }
 
     public void setDurataGioco(int durataGioco) {
+        verificaModificabile();
         if (durataGioco <= 0) {
             throw new IllegalArgumentException("La durata del gioco deve essere un valore positivo");
         }
@@ -67,12 +69,24 @@ public class Videogioco extends Gioco {
     }
 
     public void setGenere(Genere genere) {
+        verificaModificabile();
         if (genere == null) {
             throw new IllegalArgumentException("Il genere non può essere nullo");
         }
         this.genere = genere;
     }
 
+    @Override
+    public Videogioco copiaImmutabile() {
+        if (isImmutabile()) {
+            return this;
+        }
+        Videogioco copia = new Videogioco(idGioco, titolo, annoPubblicazione, prezzo,
+                piattaforma, durataGioco, genere);
+        copia.congela();
+        return copia;
+    }
+
     @Override
     public String getTipoGioco() {
         return "Videogioco";
@@ -0,0 +1,238 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.Collezione;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Archivio binario della collezione su file mappato in memoria
+ *
+ * Il file è composto da un'intestazione seguita dai record (vedi CodificaGioco),
+ * ognuno preceduto dalla sua lunghezza. Il file viene letto a finestre mappate:
+ * le lunghezze di una finestra vengono scorse in sequenza per trovare i record,
+ * che poi vengono decodificati in parallelo.
+ */
+public class ArchivioBinario {
+    private static final int MAGIC = 0x47494F43; // "GIOC"
+    private static final short VERSIONE = 2;
+    static final int DIMENSIONE_INTESTAZIONE = 16;
+
+    /**
+     * Dimensione massima di una finestra mappata: un MappedByteBuffer non supera i 2 GB
+     */
+    private static final long FINESTRA_MASSIMA = Integer.MAX_VALUE;
+    private static final int DIMENSIONE_BUFFER_SCRITTURA = 1 << 20;
+
+    private final Path percorso;
+
+    /**
+     * Costruttore della classe ArchivioBinario
+     * @param percorso Il percorso del file di archivio
+     */
+    public ArchivioBinario(Path percorso) {
+        if (percorso == null) {
+            throw new IllegalArgumentException("Il percorso dell'archivio non può essere nullo");
+        }
+        this.percorso = percorso;
+    }
+
+    /**
+     * Verifica se il file di archivio esiste
+     * @return true se il file esiste
+     */
+    public boolean esiste() {
+        return Files.exists(percorso);
+    }
+
+    /**
+     * Carica l'archivio nella collezione indicata
+     * I record di ogni finestra del file vengono decodificati e inseriti in parallelo
+     * @param collezione La collezione da popolare
+     * @return Il numero di giochi caricati
+     * @throws IOException se il file non è leggibile, è corrotto o contiene ID già presenti
+     */
+    public long caricaIn(Collezione collezione) throws IOException {
+        try {
+            return leggi(gioco -> {
+                try {
+                    collezione.aggiungiElemento(gioco);
+                } catch (ElementoDuplicatoException e) {
+                    throw new UncheckedIOException(new IOException(
+                        "Archivio non valido: " + e.getMessage(), e));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Legge tutti i giochi dell'archivio nell'ordine in cui sono memorizzati
+     * @return Lista dei giochi
+     * @throws IOException se il file non è leggibile o è corrotto
+     */
+    public List<Gioco> leggiTutti() throws IOException {
+        List<Gioco> giochi = new ArrayList<>();
+        scorriFinestre((finestra, posizioni, quanti) -> {
+            Gioco[] decodificati = new Gioco[quanti];
+            IntStream.range(0, quanti).parallel().forEach(i ->
+                    decodificati[i] = CodificaGioco.leggi(finestra, posizioni[i]));
+            giochi.addAll(Arrays.asList(decodificati));
+        });
+        return giochi;
+    }
+
+    /**
+     * Scrive l'intera collezione sostituendo l'archivio esistente
+     * Il file viene prima scritto in un file temporaneo e poi rinominato,
+     * così un'interruzione non lascia un archivio a metà
+     * @param giochi I giochi da salvare
+     * @throws IOException in caso di errore di scrittura
+     */
+    public void salva(Collection<? extends Gioco> giochi) throws IOException {
+        Path temporaneo = percorso.resolveSibling(percorso.getFileName() + ".tmp");
+
+        try (FileChannel canale = FileChannel.open(temporaneo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            canale.position(DIMENSIONE_INTESTAZIONE);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(DIMENSIONE_BUFFER_SCRITTURA);
+            long totale = 0;
+            for (Gioco gioco : giochi) {
+                byte[] record = CodificaGioco.codifica(gioco, Integer.BYTES);
+                ByteBuffer.wrap(record).putInt(0, record.length - Integer.BYTES);
+                if (buffer.remaining() < record.length) {
+                    scriviTutto(canale, buffer.flip());
+                    buffer.clear();
+                }
+                if (record.length > buffer.capacity()) {
+                    scriviTutto(canale, ByteBuffer.wrap(record));
+                } else {
+                    buffer.put(record);
+                }
+                totale++;
+            }
+            scriviTutto(canale, buffer.flip());
+            scriviIntestazione(canale, totale);
+            canale.force(true);
+        }
+
+        Files.move(temporaneo, percorso, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Riceve i record interi contenuti in una finestra mappata
+     */
+    @FunctionalInterface
+    private interface LettoreFinestra {
+        /**
+         * @param posizioni Posizione nella finestra dei primi quanti record
+         */
+        void leggi(MappedByteBuffer finestra, int[] posizioni, int quanti);
+    }
+
+    /**
+     * Decodifica tutti i record in parallelo passando ogni gioco al consumatore
+     */
+    private long leggi(Consumer<Gioco> destinazione) throws IOException {
+        return scorriFinestre((finestra, posizioni, quanti) -> IntStream.range(0, quanti).parallel().forEach(i ->
+                destinazione.accept(CodificaGioco.leggi(finestra, posizioni[i]))));
+    }
+
+    /**
+     * Scorre il file a finestre mappate, ognuna con il maggior numero di record
+     * interi che vi stanno, e passa al lettore le posizioni dei record di ogni finestra
+     */
+    private long scorriFinestre(LettoreFinestra lettore) throws IOException {
+        try (FileChannel canale = FileChannel.open(percorso, StandardOpenOption.READ)) {
+            long totale = leggiIntestazione(canale);
+            long inizio = DIMENSIONE_INTESTAZIONE;
+            long letti = 0;
+            int[] posizioni = new int[(int) Math.min(totale, 1 << 16)];
+
+            while (letti < totale) {
+                MappedByteBuffer finestra = canale.map(FileChannel.MapMode.READ_ONLY, inizio,
+                        Math.min(canale.size() - inizio, FINESTRA_MASSIMA));
+                int posizione = 0;
+                int quanti = 0;
+                while (letti + quanti < totale && posizione + Integer.BYTES <= finestra.limit()) {
+                    int lunghezza = finestra.getInt(posizione);
+                    if (lunghezza <= 0) {
+                        throw new IOException("Archivio non valido: record di lunghezza " + lunghezza);
+                    }
+                    if (lunghezza > finestra.limit() - posizione - Integer.BYTES) {
+                        break;
+                    }
+                    if (quanti == posizioni.length) {
+                        posizioni = Arrays.copyOf(posizioni, 2 * quanti);
+                    }
+                    posizioni[quanti++] = posizione + Integer.BYTES;
+                    posizione += Integer.BYTES + lunghezza;
+                }
+                if (quanti == 0) {
+                    throw new IOException("Archivio troncato: attesi " + totale + " record, letti " + letti);
+                }
+
+                finestra.limit(posizione);
+                lettore.leggi(finestra, posizioni, quanti);
+                letti += quanti;
+                inizio += posizione;
+            }
+            return totale;
+        } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw new IOException("Archivio non valido: " + e.getMessage(), e);
+        }
+    }
+
+    private static void scriviTutto(FileChannel canale, ByteBuffer dati) throws IOException {
+        while (dati.hasRemaining()) {
+            canale.write(dati);
+        }
+    }
+
+    private static void scriviIntestazione(FileChannel canale, long totale) throws IOException {
+        ByteBuffer intestazione = ByteBuffer.allocate(DIMENSIONE_INTESTAZIONE)
+                .putInt(MAGIC)
+                .putShort(VERSIONE)
+                .putShort((short) 0)
+                .putLong(totale)
+                .flip();
+        while (intestazione.hasRemaining()) {
+            canale.write(intestazione, intestazione.position());
+        }
+    }
+
+    private static long leggiIntestazione(FileChannel canale) throws IOException {
+        ByteBuffer intestazione = ByteBuffer.allocate(DIMENSIONE_INTESTAZIONE);
+        canale.read(intestazione, 0);
+        intestazione.flip();
+
+        if (intestazione.remaining() < DIMENSIONE_INTESTAZIONE
+                || intestazione.getInt() != MAGIC
+                || intestazione.getShort() != VERSIONE) {
+            throw new IOException("Il file non è un archivio della collezione valido");
+        }
+
+        intestazione.getShort();
+        long totale = intestazione.getLong();
+        if (totale < 0) {
+            throw new IOException("Archivio non valido: " + totale + " record");
+        }
+        return totale;
+    }
+}
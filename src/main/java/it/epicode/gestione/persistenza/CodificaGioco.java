@@ -0,0 +1,181 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codifica binaria a lunghezza variabile di un gioco
+ *
+ * Layout del record:
+ * tipo (1) | anno (2) | prezzo (8) | durata (4) | giocatori o genere (1) |
+ * id | titolo | piattaforma
+ * Le stringhe sono in UTF-8 precedute dalla lunghezza in byte (4), quindi
+ * l'archivio accetta tutti i valori accettati dal modello.
+ */
+final class CodificaGioco {
+    static final byte TIPO_VUOTO = 0;
+    static final byte TIPO_VIDEOGIOCO = 1;
+    static final byte TIPO_GIOCO_DA_TAVOLO = 2;
+
+    private static final int POS_TIPO = 0;
+    private static final int POS_ANNO = 1;
+    private static final int POS_PREZZO = 3;
+    private static final int POS_DURATA = 11;
+    private static final int POS_EXTRA = 15;
+    private static final int POS_ID = 16;
+
+    private static final Genere[] GENERI = Genere.values();
+    private static final byte[] NESSUNA = new byte[0];
+    private static final ThreadLocal<byte[]> APPOGGIO = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private CodificaGioco() {
+    }
+
+    /**
+     * Codifica il gioco in un nuovo array
+     * @param gioco Il gioco da codificare
+     * @param riservati Byte lasciati liberi all'inizio dell'array per l'intestazione del contenitore
+     * @return L'array, con il record a partire dalla posizione riservati
+     * @throws IllegalArgumentException se il tipo di gioco non è supportato
+     */
+    static byte[] codifica(Gioco gioco, int riservati) {
+        byte tipo;
+        int durata;
+        int extra;
+        byte[] piattaforma;
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            tipo = TIPO_VIDEOGIOCO;
+            durata = videogioco.getDurataGioco();
+            extra = videogioco.getGenere().ordinal();
+            piattaforma = videogioco.getPiattaforma().getBytes(StandardCharsets.UTF_8);
+        } else if (gioco instanceof GiocoDaTavolo) {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            tipo = TIPO_GIOCO_DA_TAVOLO;
+            durata = giocoDaTavolo.getDurataMediaPartita();
+            extra = giocoDaTavolo.getNumeroGiocatori();
+            piattaforma = NESSUNA;
+        } else {
+            throw new IllegalArgumentException("Tipo di gioco non supportato: " + gioco.getClass().getName());
+        }
+
+        byte[] id = gioco.getIdGioco().getBytes(StandardCharsets.UTF_8);
+        byte[] titolo = gioco.getTitolo().getBytes(StandardCharsets.UTF_8);
+        byte[] dati = new byte[riservati + POS_ID + 3 * Integer.BYTES + id.length + titolo.length + piattaforma.length];
+        ByteBuffer buffer = ByteBuffer.wrap(dati);
+        buffer.put(riservati + POS_TIPO, tipo);
+        buffer.putShort(riservati + POS_ANNO, (short) gioco.getAnnoPubblicazione());
+        buffer.putDouble(riservati + POS_PREZZO, gioco.getPrezzo());
+        buffer.putInt(riservati + POS_DURATA, durata);
+        buffer.put(riservati + POS_EXTRA, (byte) extra);
+        int posizione = scriviStringa(buffer, riservati + POS_ID, id);
+        posizione = scriviStringa(buffer, posizione, titolo);
+        scriviStringa(buffer, posizione, piattaforma);
+        return dati;
+    }
+
+    /**
+     * Verifica che il gioco sia di un tipo codificabile
+     * @param gioco Il gioco da verificare
+     * @throws IllegalArgumentException se il tipo di gioco non è supportato
+     */
+    static void verifica(Gioco gioco) {
+        if (!(gioco instanceof Videogioco) && !(gioco instanceof GiocoDaTavolo)) {
+            throw new IllegalArgumentException("Tipo di gioco non supportato: " + gioco.getClass().getName());
+        }
+    }
+
+    /**
+     * Codifica un record con il solo ID, lasciando vuoti gli altri campi
+     * @param id L'ID da scrivere
+     * @param riservati Byte lasciati liberi all'inizio dell'array per l'intestazione del contenitore
+     * @return L'array, con il record a partire dalla posizione riservati
+     */
+    static byte[] codificaSoloId(String id, int riservati) {
+        byte[] byteId = id.getBytes(StandardCharsets.UTF_8);
+        byte[] dati = new byte[riservati + POS_ID + Integer.BYTES + byteId.length];
+        ByteBuffer buffer = ByteBuffer.wrap(dati);
+        buffer.put(riservati + POS_TIPO, TIPO_VUOTO);
+        scriviStringa(buffer, riservati + POS_ID, byteId);
+        return dati;
+    }
+
+    /**
+     * Legge il gioco codificato nel buffer alla posizione indicata
+     * I costruttori del modello rieseguono la validazione dei campi
+     * @param buffer Il buffer di origine
+     * @param posizione Posizione assoluta del record nel buffer
+     * @return Il gioco decodificato
+     * @throws IllegalStateException se il tipo del record o la lunghezza di una stringa non sono validi
+     * @throws IndexOutOfBoundsException se il record supera la fine del buffer
+     */
+    static Gioco leggi(ByteBuffer buffer, int posizione) {
+        byte tipo = buffer.get(posizione + POS_TIPO);
+        int anno = buffer.getShort(posizione + POS_ANNO);
+        double prezzo = buffer.getDouble(posizione + POS_PREZZO);
+        int durata = buffer.getInt(posizione + POS_DURATA);
+        int extra = buffer.get(posizione + POS_EXTRA);
+
+        int posizioneTitolo = posizioneSuccessiva(buffer, posizione + POS_ID);
+        int posizionePiattaforma = posizioneSuccessiva(buffer, posizioneTitolo);
+        String id = leggiStringa(buffer, posizione + POS_ID);
+        String titolo = leggiStringa(buffer, posizioneTitolo);
+
+        switch (tipo) {
+            case TIPO_VIDEOGIOCO:
+                return new Videogioco(id, titolo, anno, prezzo,
+                        leggiStringa(buffer, posizionePiattaforma), durata, GENERI[extra]);
+            case TIPO_GIOCO_DA_TAVOLO:
+                return new GiocoDaTavolo(id, titolo, anno, prezzo, extra, durata);
+            default:
+                throw new IllegalStateException("Tipo di record non valido: " + tipo);
+        }
+    }
+
+    /**
+     * Legge l'ID di un record
+     * @param buffer Il buffer di origine
+     * @param posizione Posizione assoluta del record nel buffer
+     * @return L'ID del record
+     */
+    static String leggiId(ByteBuffer buffer, int posizione) {
+        return leggiStringa(buffer, posizione + POS_ID);
+    }
+
+    /**
+     * @return La posizione subito dopo l'ultimo byte scritto
+     */
+    private static int scriviStringa(ByteBuffer buffer, int posizione, byte[] valore) {
+        buffer.putInt(posizione, valore.length);
+        buffer.put(posizione + Integer.BYTES, valore);
+        return posizione + Integer.BYTES + valore.length;
+    }
+
+    private static int posizioneSuccessiva(ByteBuffer buffer, int posizione) {
+        return posizione + Integer.BYTES + lunghezza(buffer, posizione);
+    }
+
+    private static String leggiStringa(ByteBuffer buffer, int posizione) {
+        int lunghezza = lunghezza(buffer, posizione);
+        byte[] appoggio = APPOGGIO.get();
+        if (appoggio.length < lunghezza) {
+            appoggio = new byte[Math.max(lunghezza, 2 * appoggio.length)];
+            APPOGGIO.set(appoggio);
+        }
+        buffer.get(posizione + Integer.BYTES, appoggio, 0, lunghezza);
+        return new String(appoggio, 0, lunghezza, StandardCharsets.UTF_8);
+    }
+
+    private static int lunghezza(ByteBuffer buffer, int posizione) {
+        int lunghezza = buffer.getInt(posizione);
+        if (lunghezza < 0 || lunghezza > buffer.limit() - posizione - Integer.BYTES) {
+            throw new IllegalStateException("Lunghezza di stringa non valida: " + lunghezza);
+        }
+        return lunghezza;
+    }
+}
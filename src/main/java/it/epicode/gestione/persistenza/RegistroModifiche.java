@@ -0,0 +1,586 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.OsservatoreCollezione;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Registro delle modifiche (write-ahead log) della collezione
+ *
+ * Ogni inserimento, aggiornamento e rimozione viene codificato e accodato;
+ * un thread scrittore raccoglie le modifiche di tutti i chiamanti in lotti e
+ * li rende durevoli con un solo force per lotto (group commit). Con durabilità
+ * SINCRONA il metodo di modifica della collezione ritorna solo dopo il force
+ * del lotto che contiene la modifica: le modifiche arrivate durante un force
+ * formano il lotto successivo, quindi più chiamanti concorrenti condividono
+ * lo stesso force. Con durabilità ASINCRONA il metodo ritorna appena la
+ * modifica è accodata e un arresto può perdere le modifiche non ancora
+ * scritte (al più quelle dell'ultimo attesaMassima più la durata di un
+ * force); sincronizza attende che siano durevoli. Il registro è
+ * diviso in segmenti: quando un segmento supera la dimensione configurata ne
+ * viene aperto uno nuovo e quelli chiusi vengono compattati in background
+ * nell'istantanea binaria (ArchivioBinario).
+ *
+ * All'avvio l'istantanea viene caricata e i segmenti rieseguiti in ordine:
+ * la riesecuzione è idempotente, quindi un'interruzione durante la
+ * compattazione non perde né duplica modifiche.
+ */
+public class RegistroModifiche implements OsservatoreCollezione, AutoCloseable {
+
+    /**
+     * Quando una modifica della collezione viene confermata al chiamante
+     */
+    public enum Durabilita {
+        /**
+         * Il metodo di modifica ritorna dopo il force del lotto che contiene la modifica
+         */
+        SINCRONA,
+        /**
+         * Il metodo di modifica ritorna appena la modifica è accodata allo scrittore
+         */
+        ASINCRONA
+    }
+
+    /**
+     * Configurazione del registro
+     * @param dimensioneMassimaLotto Numero massimo di modifiche per group commit
+     * @param attesaMassima Tempo massimo di attesa di altre modifiche prima del commit:
+     *                      valori più alti aumentano la latenza e riducono i force;
+     *                      con zero il lotto contiene le modifiche già in coda
+     * @param dimensioneMassimaSegmento Dimensione in byte oltre la quale il segmento viene chiuso e compattato
+     * @param durabilita Quando il metodo di modifica della collezione ritorna
+     */
+    public record Configurazione(int dimensioneMassimaLotto, Duration attesaMassima, long dimensioneMassimaSegmento,
+                                 Durabilita durabilita) {
+
+        public static final Configurazione PREDEFINITA =
+                new Configurazione(4096, Duration.ZERO, 64L * 1024 * 1024, Durabilita.SINCRONA);
+
+        public Configurazione {
+            if (dimensioneMassimaLotto <= 0) {
+                throw new IllegalArgumentException("La dimensione massima del lotto deve essere positiva");
+            }
+            if (attesaMassima == null || attesaMassima.isNegative()) {
+                throw new IllegalArgumentException("L'attesa massima non può essere nulla o negativa");
+            }
+            if (dimensioneMassimaSegmento <= 0) {
+                throw new IllegalArgumentException("La dimensione massima del segmento è troppo piccola");
+            }
+            if (durabilita == null) {
+                throw new IllegalArgumentException("La durabilità non può essere nulla");
+            }
+        }
+    }
+
+    private static final byte OP_INSERIMENTO = 1;
+    private static final byte OP_AGGIORNAMENTO = 2;
+    private static final byte OP_RIMOZIONE = 3;
+
+    /**
+     * Voce del registro: lunghezza (4) | crc (4) | operazione (1) | record del gioco
+     * La lunghezza conta i byte dopo il crc, su cui è calcolato il crc
+     */
+    private static final int POS_CRC = Integer.BYTES;
+    private static final int POS_OPERAZIONE = POS_CRC + Integer.BYTES;
+    private static final int POS_RECORD = POS_OPERAZIONE + 1;
+    private static final int DIMENSIONE_BUFFER_LOTTO = 1 << 20;
+
+    private static final String FILE_ISTANTANEA = "istantanea.dat";
+    private static final String PREFISSO_SEGMENTO = "registro-";
+    private static final String SUFFISSO_SEGMENTO = ".log";
+
+    private record Operazione(long sequenza, byte[] dati) {
+    }
+
+    private final Path cartella;
+    private final Configurazione configurazione;
+    private final Collezione collezione;
+    private final ArchivioBinario istantanea;
+
+    private final BlockingQueue<Operazione> coda = new LinkedBlockingQueue<>();
+    private final Object bloccoSequenza = new Object();
+    private final Object bloccoDurevole = new Object();
+    private long ultimaSequenza;
+    private long sequenzaDurevole;
+    // ultima modifica accodata da ciascun thread, attesa da confermata
+    private final ThreadLocal<long[]> ultimaAccodata = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile IOException errore;
+    private volatile boolean chiuso;
+
+    private final Thread scrittore;
+    private final ExecutorService compattatore;
+    private FileChannel segmento;
+    private volatile long numeroSegmento;
+
+    private RegistroModifiche(Path cartella, Configurazione configurazione, Collezione collezione) {
+        this.cartella = cartella;
+        this.configurazione = configurazione;
+        this.collezione = collezione;
+        this.istantanea = new ArchivioBinario(cartella.resolve(FILE_ISTANTANEA));
+        this.scrittore = new Thread(this::scriviLotti, "registro-modifiche");
+        this.scrittore.setDaemon(true);
+        this.compattatore = Executors.newSingleThreadExecutor(attivita -> {
+            Thread thread = new Thread(attivita, "registro-compattazione");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Apre il registro nella cartella indicata
+     * Ricostruisce la collezione dall'istantanea e dai segmenti presenti,
+     * apre un nuovo segmento e registra il registro come osservatore della collezione
+     * @param cartella La cartella dei file di persistenza (creata se non esiste)
+     * @param configurazione La configurazione del registro
+     * @param collezione La collezione, vuota, da ricostruire e registrare
+     * @return Il registro aperto
+     * @throws IOException se i file non sono leggibili o sono corrotti
+     */
+    public static RegistroModifiche apri(Path cartella, Configurazione configurazione, Collezione collezione)
+            throws IOException {
+        if (cartella == null || configurazione == null || collezione == null) {
+            throw new IllegalArgumentException("Cartella, configurazione e collezione non possono essere nulle");
+        }
+        Files.createDirectories(cartella);
+
+        RegistroModifiche registro = new RegistroModifiche(cartella, configurazione, collezione);
+        List<Long> segmentiPrecedenti = registro.elencaSegmenti();
+        registro.ripristina(segmentiPrecedenti);
+
+        long ultimo = segmentiPrecedenti.isEmpty() ? 0 : segmentiPrecedenti.get(segmentiPrecedenti.size() - 1);
+        registro.apriSegmento(ultimo + 1);
+        collezione.aggiungiOsservatore(registro);
+        registro.scrittore.start();
+
+        if (!segmentiPrecedenti.isEmpty()) {
+            registro.compattaInBackground();
+        }
+        return registro;
+    }
+
+    /**
+     * Rifiuta i giochi che non possono essere codificati e, se il registro non
+     * è più scrivibile, l'intero lotto
+     */
+    @Override
+    public void verifica(Gioco gioco) {
+        verificaScrivibile();
+        CodificaGioco.verifica(gioco);
+    }
+
+    @Override
+    public void inserito(Gioco gioco) {
+        accoda(OP_INSERIMENTO, gioco, null);
+    }
+
+    @Override
+    public void aggiornato(Gioco gioco) {
+        accoda(OP_AGGIORNAMENTO, gioco, null);
+    }
+
+    @Override
+    public void rimosso(String idGioco) {
+        accoda(OP_RIMOZIONE, null, idGioco);
+    }
+
+    /**
+     * Con durabilità SINCRONA attende che le modifiche accodate da questo
+     * thread siano durevoli. Viene invocato dalla collezione dopo una modifica
+     * o un lotto, fuori dal blocco degli ID, quindi un solo force conferma
+     * tutto il lotto
+     * @throws UncheckedIOException se la scrittura del registro è fallita:
+     *                              la modifica resta applicata in memoria ma non è durevole
+     */
+    @Override
+    public void confermata() {
+        if (configurazione.durabilita() != Durabilita.SINCRONA) {
+            return;
+        }
+        try {
+            attendi(ultimaAccodata.get()[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Attende che tutte le modifiche registrate fino a questo momento siano durevoli
+     * @throws IOException se la scrittura del registro è fallita
+     */
+    public void sincronizza() throws IOException {
+        long obiettivo;
+        synchronized (bloccoSequenza) {
+            obiettivo = ultimaSequenza;
+        }
+        attendi(obiettivo);
+    }
+
+    private void attendi(long obiettivo) throws IOException {
+        synchronized (bloccoDurevole) {
+            while (sequenzaDurevole < obiettivo) {
+                if (errore != null) {
+                    throw new IOException("Scrittura del registro fallita", errore);
+                }
+                try {
+                    bloccoDurevole.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Attesa della sincronizzazione interrotta");
+                }
+            }
+        }
+    }
+
+    /**
+     * Compatta nell'istantanea tutti i segmenti chiusi
+     * @throws IOException in caso di errore di lettura o scrittura
+     */
+    public void compatta() throws IOException {
+        try {
+            compattatore.submit(() -> {
+                compattaSegmentiChiusi(numeroSegmento);
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compattazione interrotta");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Compattazione fallita", e.getCause());
+        }
+    }
+
+    /**
+     * Chiude il registro: rende durevoli le modifiche in coda, si scollega
+     * dalla collezione e compatta tutti i segmenti nell'istantanea
+     * @throws IOException in caso di errore di scrittura
+     */
+    @Override
+    public void close() throws IOException {
+        if (chiuso) {
+            return;
+        }
+        collezione.rimuoviOsservatore(this);
+        sincronizza();
+        chiuso = true;
+
+        try {
+            scrittore.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Chiusura del registro interrotta");
+        }
+        segmento.close();
+
+        compattatore.shutdown();
+        try {
+            compattatore.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Chiusura del registro interrotta");
+        }
+        compattaSegmentiChiusi(Long.MAX_VALUE);
+    }
+
+    /**
+     * Codifica la modifica nel thread chiamante e la accoda allo scrittore
+     */
+    private void accoda(byte tipo, Gioco gioco, String idGioco) {
+        verificaScrivibile();
+
+        byte[] dati = gioco != null
+                ? CodificaGioco.codifica(gioco, POS_RECORD)
+                : CodificaGioco.codificaSoloId(idGioco, POS_RECORD);
+        ByteBuffer voce = ByteBuffer.wrap(dati);
+        voce.putInt(0, dati.length - POS_OPERAZIONE);
+        voce.put(POS_OPERAZIONE, tipo);
+        voce.putInt(POS_CRC, crc(voce, POS_OPERAZIONE, dati.length - POS_OPERAZIONE));
+
+        long sequenza;
+        synchronized (bloccoSequenza) {
+            sequenza = ++ultimaSequenza;
+            coda.add(new Operazione(sequenza, dati));
+        }
+        ultimaAccodata.get()[0] = sequenza;
+    }
+
+    private void verificaScrivibile() {
+        if (errore != null) {
+            throw new UncheckedIOException("Il registro delle modifiche non è scrivibile", errore);
+        }
+        if (chiuso) {
+            throw new IllegalStateException("Il registro delle modifiche è chiuso");
+        }
+    }
+
+    /**
+     * Ciclo del thread scrittore: raccoglie un lotto e lo rende durevole
+     */
+    private void scriviLotti() {
+        int massimo = configurazione.dimensioneMassimaLotto();
+        long attesa = configurazione.attesaMassima().toNanos();
+        List<Operazione> lotto = new ArrayList<>(massimo);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIMENSIONE_BUFFER_LOTTO);
+
+        try {
+            while (true) {
+                Operazione prima = coda.poll(100, TimeUnit.MILLISECONDS);
+                if (prima == null) {
+                    if (chiuso) {
+                        return;
+                    }
+                    continue;
+                }
+
+                lotto.add(prima);
+                long scadenza = System.nanoTime() + attesa;
+                while (lotto.size() < massimo) {
+                    long resto = scadenza - System.nanoTime();
+                    Operazione successiva = resto > 0 ? coda.poll(resto, TimeUnit.NANOSECONDS) : coda.poll();
+                    if (successiva == null) {
+                        break;
+                    }
+                    lotto.add(successiva);
+                }
+
+                scriviLotto(lotto, buffer);
+                lotto.clear();
+            }
+        } catch (IOException e) {
+            errore = e;
+        } catch (InterruptedException e) {
+            errore = new InterruptedIOException("Thread scrittore interrotto");
+        } finally {
+            synchronized (bloccoDurevole) {
+                bloccoDurevole.notifyAll();
+            }
+        }
+    }
+
+    private void scriviLotto(List<Operazione> lotto, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        for (Operazione operazione : lotto) {
+            byte[] dati = operazione.dati();
+            if (buffer.remaining() < dati.length) {
+                scriviTutto(buffer.flip());
+                buffer.clear();
+            }
+            if (dati.length > buffer.capacity()) {
+                scriviTutto(ByteBuffer.wrap(dati));
+            } else {
+                buffer.put(dati);
+            }
+        }
+        scriviTutto(buffer.flip());
+        segmento.force(false);
+
+        synchronized (bloccoDurevole) {
+            sequenzaDurevole = lotto.get(lotto.size() - 1).sequenza();
+            bloccoDurevole.notifyAll();
+        }
+
+        if (segmento.size() >= configurazione.dimensioneMassimaSegmento()) {
+            segmento.close();
+            apriSegmento(numeroSegmento + 1);
+            compattaInBackground();
+        }
+    }
+
+    private void scriviTutto(ByteBuffer dati) throws IOException {
+        while (dati.hasRemaining()) {
+            segmento.write(dati);
+        }
+    }
+
+    private void apriSegmento(long numero) throws IOException {
+        segmento = FileChannel.open(percorsoSegmento(numero),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        numeroSegmento = numero;
+    }
+
+    private void compattaInBackground() {
+        long limite = numeroSegmento;
+        compattatore.execute(() -> {
+            try {
+                compattaSegmentiChiusi(limite);
+            } catch (IOException e) {
+                // La compattazione verrà ritentata alla prossima rotazione o alla chiusura
+                System.err.println("Compattazione del registro fallita: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Applica all'istantanea i segmenti con numero inferiore al limite e li elimina
+     */
+    private synchronized void compattaSegmentiChiusi(long limite) throws IOException {
+        List<Long> segmenti = elencaSegmenti().stream()
+                .filter(numero -> numero < limite)
+                .collect(Collectors.toList());
+        if (segmenti.isEmpty()) {
+            return;
+        }
+
+        Map<String, Gioco> stato = leggiStato(segmenti);
+        istantanea.salva(stato.values());
+        for (Long numero : segmenti) {
+            Files.deleteIfExists(percorsoSegmento(numero));
+        }
+    }
+
+    /**
+     * Carica l'istantanea direttamente nella collezione, decodificando e
+     * inserendo in parallelo, poi applica l'effetto netto dei segmenti
+     */
+    private void ripristina(List<Long> segmenti) throws IOException {
+        if (!collezione.isEmpty()) {
+            throw new IOException("Ripristino non possibile, la collezione non è vuota");
+        }
+        if (istantanea.esiste()) {
+            istantanea.caricaIn(collezione);
+        }
+
+        Map<String, Gioco> modifiche = leggiModifiche(segmenti);
+        try {
+            modifiche.entrySet().parallelStream().forEach(modifica -> {
+                try {
+                    if (modifica.getValue() == null) {
+                        collezione.rimuoviElemento(modifica.getKey());
+                    } else {
+                        collezione.aggiornaElemento(modifica.getValue());
+                    }
+                } catch (ElementoNonTrovatoException e) {
+                    // rimozione di un gioco mai compattato, o inserimento successivo all'istantanea
+                    if (modifica.getValue() != null) {
+                        try {
+                            collezione.aggiungiElemento(modifica.getValue());
+                        } catch (ElementoDuplicatoException duplicato) {
+                            throw new UncheckedIOException(new IOException(
+                                "Ripristino non possibile: " + duplicato.getMessage(), duplicato));
+                        }
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Legge l'istantanea e vi applica in ordine i segmenti indicati
+     */
+    private Map<String, Gioco> leggiStato(List<Long> segmenti) throws IOException {
+        Map<String, Gioco> stato = new LinkedHashMap<>();
+        if (istantanea.esiste()) {
+            for (Gioco gioco : istantanea.leggiTutti()) {
+                stato.put(gioco.getIdGioco(), gioco);
+            }
+        }
+        leggiModifiche(segmenti).forEach((id, gioco) -> {
+            if (gioco == null) {
+                stato.remove(id);
+            } else {
+                stato.put(id, gioco);
+            }
+        });
+        return stato;
+    }
+
+    /**
+     * Effetto netto dei segmenti indicati, rieseguiti in ordine
+     * @return Per ogni ID modificato l'ultima versione del gioco, null se è stato rimosso
+     */
+    private Map<String, Gioco> leggiModifiche(List<Long> segmenti) throws IOException {
+        Map<String, Gioco> modifiche = new LinkedHashMap<>();
+        for (Long numero : segmenti) {
+            applicaSegmento(percorsoSegmento(numero), modifiche);
+        }
+        return modifiche;
+    }
+
+    /**
+     * Riesegue un segmento sulle modifiche, fermandosi alla prima voce incompleta
+     * o con crc errato (scrittura interrotta da un arresto)
+     */
+    private static void applicaSegmento(Path percorso, Map<String, Gioco> modifiche) throws IOException {
+        try (FileChannel canale = FileChannel.open(percorso, StandardOpenOption.READ)) {
+            MappedByteBuffer dati = canale.map(FileChannel.MapMode.READ_ONLY, 0, canale.size());
+
+            int posizione = 0;
+            while (posizione + POS_RECORD <= dati.limit()) {
+                int lunghezza = dati.getInt(posizione);
+                if (lunghezza <= 0 || lunghezza > dati.limit() - posizione - POS_OPERAZIONE
+                        || dati.getInt(posizione + POS_CRC) != crc(dati, posizione + POS_OPERAZIONE, lunghezza)) {
+                    return;
+                }
+
+                // il record viene letto solo entro i limiti della sua voce
+                ByteBuffer voce = dati.slice(posizione, POS_OPERAZIONE + lunghezza);
+                switch (voce.get(POS_OPERAZIONE)) {
+                    case OP_INSERIMENTO:
+                    case OP_AGGIORNAMENTO:
+                        Gioco gioco = CodificaGioco.leggi(voce, POS_RECORD);
+                        modifiche.put(gioco.getIdGioco(), gioco);
+                        break;
+                    case OP_RIMOZIONE:
+                        modifiche.put(CodificaGioco.leggiId(voce, POS_RECORD), null);
+                        break;
+                    default:
+                        return;
+                }
+                posizione += POS_OPERAZIONE + lunghezza;
+            }
+        } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw new IOException("Segmento del registro non valido: " + percorso, e);
+        }
+    }
+
+    private List<Long> elencaSegmenti() throws IOException {
+        try (Stream<Path> file = Files.list(cartella)) {
+            return file.map(percorso -> percorso.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFISSO_SEGMENTO) && nome.endsWith(SUFFISSO_SEGMENTO))
+                    .map(nome -> Long.parseLong(nome.substring(
+                            PREFISSO_SEGMENTO.length(), nome.length() - SUFFISSO_SEGMENTO.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path percorsoSegmento(long numero) {
+        return cartella.resolve(String.format("%s%020d%s", PREFISSO_SEGMENTO, numero, SUFFISSO_SEGMENTO));
+    }
+
+    private static int crc(ByteBuffer dati, int posizione, int lunghezza) {
+        CRC32 crc = new CRC32();
+        crc.update(dati.slice(posizione, lunghezza));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,170 @@
+package it.epicode.gestione.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache dei risultati delle ricerche ripetute, limitata dal peso totale
+ * (numero di giochi referenziati dai risultati)
+ *
+ * Ogni risultato porta la versione della collezione letta prima di calcolarlo
+ * ed è valido solo finché la versione non cambia. La collezione incrementa la
+ * versione dopo aver aggiornato indici e contatori, prima che la modifica
+ * ritorni: un risultato calcolato in parallelo a una modifica porta la
+ * versione precedente e viene scartato, quindi dopo una modifica non viene
+ * mai servito un risultato che non la includa.
+ *
+ * Le letture non acquisiscono lock. Quando il peso supera il massimo vengono
+ * eliminati i risultati non più validi e poi quelli usati meno di recente,
+ * fino a tornare a tre quarti del massimo.
+ */
+final class CacheRisultati {
+
+    /**
+     * Chiave di una ricerca: l'operazione e i suoi argomenti
+     */
+    record Chiave(MetricheCollezione.Operazione operazione, double prezzo, int primo, int secondo) {
+    }
+
+    private final long pesoMassimo;
+    private final Map<Chiave, Elemento> elementi = new ConcurrentHashMap<>();
+    private final AtomicLong versione = new AtomicLong();
+    private final AtomicLong peso = new AtomicLong();
+    // avanza a ogni calcolo: l'ordine d'uso è approssimato tra un calcolo e l'altro
+    private final AtomicLong orologio = new AtomicLong();
+    private final LongAdder successi = new LongAdder();
+    private final LongAdder mancati = new LongAdder();
+
+    /**
+     * @param pesoMassimo Numero massimo di giochi referenziati dai risultati, 0 per non memorizzare nulla
+     */
+    CacheRisultati(long pesoMassimo) {
+        if (pesoMassimo < 0) {
+            throw new IllegalArgumentException("Il peso massimo della cache non può essere negativo");
+        }
+        this.pesoMassimo = pesoMassimo;
+    }
+
+    /**
+     * Restituisce il risultato memorizzato per la chiave se è ancora valido,
+     * altrimenti lo calcola e lo memorizza
+     * @param calcolo Calcola il risultato; deve restituire un oggetto immutabile
+     * @param pesoDi Peso del risultato, in giochi referenziati
+     */
+    <T> T leggi(Chiave chiave, Supplier<T> calcolo, ToIntFunction<T> pesoDi) {
+        if (pesoMassimo == 0) {
+            return calcolo.get();
+        }
+
+        long versioneLetta = versione.get();
+        Elemento elemento = elementi.get(chiave);
+        if (elemento != null && elemento.versione == versioneLetta) {
+            long ora = orologio.get();
+            if (elemento.ultimoUso != ora) {
+                elemento.ultimoUso = ora;
+            }
+            successi.increment();
+            @SuppressWarnings("unchecked")
+            T risultato = (T) elemento.risultato;
+            return risultato;
+        }
+
+        mancati.increment();
+        T risultato = calcolo.get();
+        long pesoRisultato = 1L + pesoDi.applyAsInt(risultato);
+        if (pesoRisultato <= pesoMassimo) {
+            memorizza(chiave, new Elemento(risultato, versioneLetta, pesoRisultato, orologio.incrementAndGet()));
+        }
+        return risultato;
+    }
+
+    /**
+     * Rende non validi tutti i risultati memorizzati
+     * Va invocato dopo che la modifica è visibile negli indici e nei contatori
+     */
+    void invalida() {
+        versione.incrementAndGet();
+    }
+
+    StatisticheCache statistiche() {
+        return new StatisticheCache(successi.sum(), mancati.sum(), elementi.size(), peso.get(), pesoMassimo);
+    }
+
+    private void memorizza(Chiave chiave, Elemento nuovo) {
+        Elemento[] sostituito = new Elemento[1];
+        Elemento presente = elementi.compute(chiave, (k, attuale) -> {
+            // un calcolo più lento, iniziato su una versione precedente, non
+            // sovrascrive il risultato di uno più recente
+            if (attuale != null && attuale.versione > nuovo.versione) {
+                return attuale;
+            }
+            sostituito[0] = attuale;
+            return nuovo;
+        });
+        if (presente != nuovo) {
+            return;
+        }
+        long totale = peso.addAndGet(nuovo.peso - (sostituito[0] != null ? sostituito[0].peso : 0));
+        if (totale > pesoMassimo) {
+            libera();
+        }
+    }
+
+    /**
+     * Elimina i risultati non più validi e poi i meno usati di recente
+     */
+    private synchronized void libera() {
+        if (peso.get() <= pesoMassimo) {
+            return;
+        }
+        long valida = versione.get();
+        List<Candidato> candidati = new ArrayList<>(elementi.size());
+        for (Map.Entry<Chiave, Elemento> voce : elementi.entrySet()) {
+            Elemento elemento = voce.getValue();
+            if (elemento.versione != valida) {
+                rimuovi(voce.getKey(), elemento);
+            } else {
+                // l'ultimo uso viene fissato qui: durante l'ordinamento può cambiare
+                candidati.add(new Candidato(voce.getKey(), elemento, elemento.ultimoUso));
+            }
+        }
+
+        long obiettivo = pesoMassimo / 4 * 3;
+        if (peso.get() > obiettivo) {
+            candidati.sort(Comparator.comparingLong(Candidato::ultimoUso));
+            for (int i = 0; i < candidati.size() && peso.get() > obiettivo; i++) {
+                rimuovi(candidati.get(i).chiave(), candidati.get(i).elemento());
+            }
+        }
+    }
+
+    private void rimuovi(Chiave chiave, Elemento elemento) {
+        if (elementi.remove(chiave, elemento)) {
+            peso.addAndGet(-elemento.peso);
+        }
+    }
+
+    private record Candidato(Chiave chiave, Elemento elemento, long ultimoUso) {
+    }
+
+    private static final class Elemento {
+        private final Object risultato;
+        private final long versione;
+        private final long peso;
+        private volatile long ultimoUso;
+
+        private Elemento(Object risultato, long versione, long peso, long ultimoUso) {
+            this.risultato = risultato;
+            this.versione = versione;
+            this.peso = peso;
+            this.ultimoUso = ultimoUso;
+        }
+    }
+}
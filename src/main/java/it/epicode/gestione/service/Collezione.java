@@ -2,25 +2,136 @@ package it.epicode.gestione.service;
 
 import it.epicode.gestione.exception.ElementoDuplicatoException;
 import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Genere;
 import it.epicode.gestione.model.Gioco;
 import it.epicode.gestione.model.GiocoDaTavolo;
 import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.MetricheCollezione.Operazione;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Classe che gestisce una collezione di giochi
  * Implementa tutti i metodi richiesti utilizzando Java Streams e Lambda functions
+ *
+ * La classe è thread-safe: ogni modifica è atomica per ID (blocco a strisce
+ * sull'ID) e aggiorna gli indici secondari mentre l'ID è bloccato,
+ * le letture non acquisiscono lock. Le letture che coinvolgono più giochi
+ * (ricerche, statistiche) sono debolmente consistenti rispetto alle modifiche concorrenti.
  */
 public class Collezione {
-    private final Map<String, Gioco> giochi;
+    private static final int MIN_GIOCATORI = 2;
+    private static final int MAX_GIOCATORI = 10;
+    private static final long PESO_CACHE_PREDEFINITO = 1 << 20;
+    private static final int NUMERO_BLOCCHI = 256;
+    // Limite delle chiavi di piattaforma condivise: oltre, le voci tengono la propria copia
+    private static final int MASSIMO_PIATTAFORME_CANONICHE = 1024;
+
+    private final ConcurrentMap<String, Voce> giochi;
+    // Ogni modifica blocca la striscia del suo ID; un lotto atomico blocca,
+    // in ordine crescente, le strisce di tutti i suoi ID
+    private final ReentrantLock[] blocchi = creaBlocchi();
+    private final Collection<Gioco> vistaGiochi;
+    private final PartizioneTipo<Videogioco> videogiochi = new PartizioneTipo<>(Videogioco.class);
+    private final PartizioneTipo<GiocoDaTavolo> giochiDaTavolo = new PartizioneTipo<>(GiocoDaTavolo.class);
+    private final NavigableSet<Voce> indicePrezzi;
+    private final List<NavigableSet<Voce>> bucketGiocatori;
+    private final AtomicLongArray conteggiGiocatori = new AtomicLongArray(MAX_GIOCATORI - MIN_GIOCATORI + 1);
+    private final Map<Genere, Partizione> partizioniGenere = creaPartizioniGenere();
+    private final ConcurrentMap<String, Partizione> partizioniPiattaforma = new ConcurrentHashMap<>();
+    // Istanza condivisa di ogni chiave di piattaforma, così le voci non ne tengono una copia a testa
+    private final ConcurrentMap<String, String> piattaformeCanoniche = new ConcurrentHashMap<>();
+
+    // Contatori aggiornati dai metodi di modifica, letti da generaStatistiche
+    private final LongAdder totaleVideogiochi = new LongAdder();
+    private final LongAdder totaleGiochiDaTavolo = new LongAdder();
+    private final DoubleAdder sommaPrezzi = new DoubleAdder();
+
+    // Costruiti alla prima richiesta (ricerca per titolo; istantanea o flusso delle
+    // modifiche): fino ad allora le modifiche non pagano il costo di aggiornarli
+    private final SuRichiesta<IndiceTitoli> indiceTitoli = new SuRichiesta<>(IndiceTitoli::new, IndiceTitoli::aggiungi);
+    private final SuRichiesta<AtomicReference<MappaPersistente>> versioni = new SuRichiesta<>(
+            () -> new AtomicReference<>(MappaPersistente.VUOTA),
+            (versione, voce) -> pubblica(versione, voce.gioco()));
+    // Voci ordinate per prezzo di genere e piattaforma, attivate dalla prima lettura;
+    // conteggi e somme delle partizioni sono invece mantenuti sempre
+    private final SuRichiesta<Boolean> ordinePartizioni = new SuRichiesta<>(
+            () -> Boolean.TRUE, (attivo, voce) -> ordinaNellePartizioni(voce));
+
+    private final List<OsservatoreCollezione> osservatori = new CopyOnWriteArrayList<>();
+    private final MetricheCollezione metriche = new MetricheCollezione();
+    // Sostituita solo da configuraCache; invalidata dopo ogni modifica
+    private volatile CacheRisultati cache = new CacheRisultati(PESO_CACHE_PREDEFINITO);
+    // Creato alla prima richiesta: fino ad allora le modifiche non producono eventi
+    private volatile FlussoModifiche flusso;
 
     /**
      * Costruttore della classe Collezione
      */
     public Collezione() {
-        this.giochi = new HashMap<>();
+        this(16);
+    }
+
+    /**
+     * Costruttore con capacità iniziale, per evitare i ridimensionamenti
+     * della mappa quando il numero di giochi da caricare è noto
+     * @param capacitaIniziale Numero di giochi previsto
+     */
+    public Collezione(int capacitaIniziale) {
+        if (capacitaIniziale < 0) {
+            throw new IllegalArgumentException("La capacità iniziale non può essere negativa");
+        }
+        this.giochi = new ConcurrentHashMap<>(capacitaIniziale);
+        this.vistaGiochi = new VistaGiochi<>(giochi.values(), Gioco.class);
+        this.indicePrezzi = new ConcurrentSkipListSet<>(Voce.ORDINE_PREZZO);
+        this.bucketGiocatori = creaBucketGiocatori();
+    }
+
+    private static List<NavigableSet<Voce>> creaBucketGiocatori() {
+        List<NavigableSet<Voce>> bucket = new ArrayList<>(MAX_GIOCATORI - MIN_GIOCATORI + 1);
+        for (int i = MIN_GIOCATORI; i <= MAX_GIOCATORI; i++) {
+            bucket.add(new ConcurrentSkipListSet<>(Voce.ORDINE_TITOLO));
+        }
+        return List.copyOf(bucket);
+    }
+
+    private static ReentrantLock[] creaBlocchi() {
+        ReentrantLock[] blocchi = new ReentrantLock[NUMERO_BLOCCHI];
+        for (int i = 0; i < NUMERO_BLOCCHI; i++) {
+            blocchi[i] = new ReentrantLock();
+        }
+        return blocchi;
+    }
+
+    /**
+     * Una partizione per ogni genere, creata subito: la mappa non viene più
+     * modificata, quindi la EnumMap può essere letta da più thread
+     */
+    private static Map<Genere, Partizione> creaPartizioniGenere() {
+        Map<Genere, Partizione> partizioni = new EnumMap<>(Genere.class);
+        for (Genere genere : Genere.values()) {
+            partizioni.put(genere, new Partizione());
+        }
+        return partizioni;
     }
 
     /**
@@ -34,12 +145,19 @@ public class Collezione {
             throw new IllegalArgumentException("Il gioco non può essere nullo");
         }
         
-        if (giochi.containsKey(gioco.getIdGioco())) {
+        long inizio = metriche.inizio(Operazione.AGGIUNGI);
+        Voce nuova = voce(gioco);
+        Variazione variazione = new Variazione(false);
+        Voce presente = inserisci(nuova, variazione);
+        applica(variazione);
+        conferma(variazione);
+
+        if (presente != nuova) {
+            metriche.errore(Operazione.AGGIUNGI, inizio);
             throw new ElementoDuplicatoException(
                 "Elemento con ID '" + gioco.getIdGioco() + "' già presente nella collezione");
         }
-        
-        giochi.put(gioco.getIdGioco(), gioco);
+        metriche.registra(Operazione.AGGIUNGI, inizio);
     }
 
     /**
@@ -49,47 +167,534 @@ public class Collezione {
      * @throws ElementoNonTrovatoException se l'elemento non viene trovato
      */
     public Gioco cercaPerID(String id) throws ElementoNonTrovatoException {
-        if (id == null || id.trim().isEmpty()) {
+        String chiave = id == null ? "" : id.trim();
+        if (chiave.isEmpty()) {
             throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
         }
-        
-        return Optional.ofNullable(giochi.get(id.trim()))
-                .orElseThrow(() -> new ElementoNonTrovatoException(
-                    "Elemento con ID '" + id + "' non trovato nella collezione"));
+
+        long inizio = metriche.inizio(Operazione.CERCA_PER_ID);
+        Voce voce = giochi.get(chiave);
+        if (voce == null) {
+            metriche.errore(Operazione.CERCA_PER_ID, inizio);
+            throw new ElementoNonTrovatoException(
+                "Elemento con ID '" + id + "' non trovato nella collezione");
+        }
+        metriche.registra(Operazione.CERCA_PER_ID, inizio);
+        return voce.gioco();
     }
 
     /**
      * Restituisce una lista di giochi con prezzo inferiore al valore specificato
+     * La lista è letta dall'indice prezzi ed è già ordinata per prezzo crescente
      * @param prezzoMassimo Il prezzo massimo
-     * @return Lista di giochi con prezzo inferiore al valore specificato
+     * @return Lista non modificabile di giochi con prezzo inferiore al valore specificato
      */
     public List<Gioco> cercaPerPrezzo(double prezzoMassimo) {
-        if (prezzoMassimo <= 0) {
-            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo");
+        return cercaPerPrezzo(prezzoMassimo, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Variante paginata di cercaPerPrezzo
+     * Scorre l'indice prezzi senza materializzare l'intero risultato
+     * @param prezzoMassimo Il prezzo massimo
+     * @param offset Numero di giochi da saltare
+     * @param limit Numero massimo di giochi da restituire
+     * @return Pagina non modificabile di giochi con prezzo inferiore al valore specificato
+     */
+    public List<Gioco> cercaPerPrezzo(double prezzoMassimo, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset e limite non possono essere negativi");
         }
-        
-        return giochi.values().stream()
-                .filter(gioco -> gioco.getPrezzo() < prezzoMassimo)
-                .sorted(Comparator.comparing(Gioco::getPrezzo))
-                .collect(Collectors.toList());
+
+        long inizio = metriche.inizio(Operazione.CERCA_PER_PREZZO);
+        List<Gioco> risultato = cache.leggi(
+                new CacheRisultati.Chiave(Operazione.CERCA_PER_PREZZO, prezzoMassimo, offset, limit),
+                () -> Collections.unmodifiableList(intervalloPrezzo(prezzoMassimo).stream()
+                        .skip(offset)
+                        .limit(limit)
+                        .map(Voce::gioco)
+                        .collect(Collectors.toList())),
+                List::size);
+        metriche.registra(Operazione.CERCA_PER_PREZZO, inizio, risultato.size());
+        return risultato;
+    }
+
+    /**
+     * Conta i giochi con prezzo inferiore al valore specificato
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Il numero di giochi con prezzo inferiore al valore specificato
+     */
+    public int contaPerPrezzo(double prezzoMassimo) {
+        return intervalloPrezzo(prezzoMassimo).size();
+    }
+
+    /**
+     * Vista dell'indice prezzi sotto il prezzo massimo, letta anche da CollezioneShardata
+     */
+    NavigableSet<Voce> intervalloPrezzo(double prezzoMassimo) {
+        if (!(prezzoMassimo > 0) || Double.isInfinite(prezzoMassimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+
+        return indicePrezzi.headSet(Voce.sondaPrezzo(prezzoMassimo), false);
     }
 
     /**
      * Ricerca giochi da tavolo per numero di giocatori
+     * Legge il bucket corrispondente, già ordinato per titolo
      * @param numeroGiocatori Il numero di giocatori
-     * @return Lista di giochi da tavolo per il numero di giocatori specificato
+     * @return Lista non modificabile di giochi da tavolo per il numero di giocatori specificato
      */
     public List<GiocoDaTavolo> cercaPerNumeroGiocatori(int numeroGiocatori) {
-        if (numeroGiocatori < 2 || numeroGiocatori > 10) {
+        return cercaPerNumeroGiocatori(numeroGiocatori, numeroGiocatori);
+    }
+
+    /**
+     * Ricerca giochi da tavolo per intervallo di numero di giocatori (estremi inclusi)
+     * Fonde i bucket dell'intervallo mantenendo l'ordinamento per titolo
+     * @param minGiocatori Numero minimo di giocatori
+     * @param maxGiocatori Numero massimo di giocatori
+     * @return Lista non modificabile di giochi da tavolo ordinata per titolo
+     */
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(int minGiocatori, int maxGiocatori) {
+        int primo = indiceBucket(minGiocatori);
+        int ultimo = indiceBucket(maxGiocatori);
+        if (primo > ultimo) {
+            throw new IllegalArgumentException("Il numero minimo di giocatori non può superare il massimo");
+        }
+        long inizio = metriche.inizio(Operazione.CERCA_PER_NUMERO_GIOCATORI);
+        List<GiocoDaTavolo> risultato = cache.leggi(
+                new CacheRisultati.Chiave(Operazione.CERCA_PER_NUMERO_GIOCATORI, 0, primo, ultimo),
+                () -> Collections.unmodifiableList(inGiochiDaTavolo(scorriBucket(primo, ultimo, true))),
+                List::size);
+        metriche.registra(Operazione.CERCA_PER_NUMERO_GIOCATORI, inizio, risultato.size());
+        return risultato;
+    }
+
+    /**
+     * Scorre i bucket dell'intervallo in ordine di titolo, fondendoli se sono più di uno
+     */
+    Iterator<Voce> scorriBucket(int primo, int ultimo, boolean crescente) {
+        if (primo == ultimo) {
+            NavigableSet<Voce> bucket = bucketGiocatori.get(primo);
+            return crescente ? bucket.iterator() : bucket.descendingIterator();
+        }
+
+        List<Iterator<Voce>> sorgenti = new ArrayList<>(ultimo - primo + 1);
+        for (int i = primo; i <= ultimo; i++) {
+            NavigableSet<Voce> bucket = bucketGiocatori.get(i);
+            sorgenti.add(crescente ? bucket.iterator() : bucket.descendingIterator());
+        }
+        return new FusioneOrdinata(sorgenti, crescente ? Voce.ORDINE_TITOLO : Voce.ORDINE_TITOLO.reversed());
+    }
+
+    static int indiceBucket(int numeroGiocatori) {
+        if (numeroGiocatori < MIN_GIOCATORI || numeroGiocatori > MAX_GIOCATORI) {
             throw new IllegalArgumentException("Il numero di giocatori deve essere compreso tra 2 e 10");
         }
-        
-        return giochi.values().stream()
-                .filter(gioco -> gioco instanceof GiocoDaTavolo)
-                .map(gioco -> (GiocoDaTavolo) gioco)
-                .filter(giocoDaTavolo -> giocoDaTavolo.getNumeroGiocatori() == numeroGiocatori)
-                .sorted(Comparator.comparing(Gioco::getTitolo))
+        return numeroGiocatori - MIN_GIOCATORI;
+    }
+
+    private static List<GiocoDaTavolo> inGiochiDaTavolo(Iterator<Voce> voci) {
+        List<GiocoDaTavolo> risultato = new ArrayList<>();
+        while (voci.hasNext()) {
+            risultato.add((GiocoDaTavolo) voci.next().gioco());
+        }
+        return risultato;
+    }
+
+    /**
+     * Ricerca videogiochi per genere
+     * Legge la partizione del genere, già ordinata per prezzo crescente.
+     * La prima ricerca per genere o piattaforma ordina tutte le partizioni,
+     * in tempo lineare; da allora ogni modifica le mantiene ordinate
+     * @param genere Il genere
+     * @return Lista di videogiochi del genere
+     */
+    public List<Videogioco> cercaPerGenere(Genere genere) {
+        if (genere == null) {
+            throw new IllegalArgumentException("Il genere non può essere nullo");
+        }
+        return inVideogiochi(partizioniGenere.get(genere));
+    }
+
+    /**
+     * Ricerca videogiochi per piattaforma, senza distinguere maiuscole e minuscole
+     * Legge la partizione della piattaforma, già ordinata per prezzo crescente
+     * @param piattaforma La piattaforma
+     * @return Lista di videogiochi della piattaforma
+     */
+    public List<Videogioco> cercaPerPiattaforma(String piattaforma) {
+        return inVideogiochi(partizionePiattaforma(piattaforma));
+    }
+
+    /**
+     * Restituisce numero di videogiochi e totale dei prezzi di un genere in tempo costante
+     * @param genere Il genere
+     * @return Il riepilogo del genere
+     */
+    public RiepilogoPrezzi riepilogoPerGenere(Genere genere) {
+        if (genere == null) {
+            throw new IllegalArgumentException("Il genere non può essere nullo");
+        }
+        return partizioniGenere.get(genere).riepilogo();
+    }
+
+    /**
+     * Restituisce il riepilogo di tutti i generi
+     * @return Mappa ordinata per genere, con un riepilogo vuoto per i generi senza videogiochi
+     */
+    public Map<Genere, RiepilogoPrezzi> riepilogoPerGeneri() {
+        Map<Genere, RiepilogoPrezzi> riepilogo = new EnumMap<>(Genere.class);
+        partizioniGenere.forEach((genere, partizione) -> riepilogo.put(genere, partizione.riepilogo()));
+        return riepilogo;
+    }
+
+    /**
+     * Restituisce numero di videogiochi e totale dei prezzi di una piattaforma in tempo costante
+     * @param piattaforma La piattaforma
+     * @return Il riepilogo della piattaforma
+     */
+    public RiepilogoPrezzi riepilogoPerPiattaforma(String piattaforma) {
+        Partizione partizione = partizionePiattaforma(piattaforma);
+        return partizione != null ? partizione.riepilogo() : RiepilogoPrezzi.VUOTO;
+    }
+
+    private Partizione partizionePiattaforma(String piattaforma) {
+        if (piattaforma == null || piattaforma.trim().isEmpty()) {
+            throw new IllegalArgumentException("La piattaforma non può essere nulla o vuota");
+        }
+        return partizioniPiattaforma.get(Voce.chiavePiattaforma(piattaforma));
+    }
+
+    private List<Videogioco> inVideogiochi(Partizione partizione) {
+        ordinePartizioni.completa();
+        List<Videogioco> risultato = new ArrayList<>();
+        if (partizione != null) {
+            for (Voce voce : partizione.voci()) {
+                risultato.add((Videogioco) voce.gioco());
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Ricerca giochi per titolo
+     * Ogni parola del testo deve comparire nel titolo, anche come inizio di parola
+     * o con un errore di battitura (un carattere in più, in meno, diverso o scambiato);
+     * maiuscole e accenti sono ignorati.
+     * La prima ricerca per titolo costruisce l'indice dei titoli dai giochi
+     * presenti, in tempo lineare; da allora ogni modifica lo aggiorna
+     * @param testo Il testo da cercare
+     * @return Lista di giochi ordinata per pertinenza, poi per titolo
+     */
+    public List<Gioco> cercaPerTitolo(String testo) {
+        return cercaPerTitolo(testo, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Variante paginata di cercaPerTitolo, adatta al completamento automatico
+     * @param testo Il testo da cercare
+     * @param offset Numero di giochi da saltare
+     * @param limit Numero massimo di giochi da restituire
+     * @return Pagina di giochi ordinata per pertinenza, poi per titolo
+     */
+    public List<Gioco> cercaPerTitolo(String testo, int offset, int limit) {
+        if (testo == null || testo.trim().isEmpty()) {
+            throw new IllegalArgumentException("Il testo da cercare non può essere nullo o vuoto");
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset e limite non possono essere negativi");
+        }
+
+        long inizio = metriche.inizio(Operazione.CERCA_PER_TITOLO);
+        List<Gioco> risultato = indiceTitoli.completa().cerca(testo, offset, limit).stream()
+                .map(Voce::gioco)
                 .collect(Collectors.toList());
+        metriche.registra(Operazione.CERCA_PER_TITOLO, inizio, risultato.size());
+        return risultato;
+    }
+
+    /**
+     * Ricerca giochi che soddisfano tutti i criteri
+     * Il pianificatore legge i candidati dall'accesso più selettivo (indice prezzi,
+     * indice per numero di giocatori, indice dei titoli o scansione completa) e
+     * verifica su ognuno i filtri non garantiti dall'accesso; se l'accesso fornisce
+     * già l'ordine richiesto la lettura si ferma appena raggiunto il limite
+     * @param criteri I criteri di ricerca
+     * @return Lista di giochi che soddisfano i criteri
+     */
+    public List<Gioco> cerca(Criteri criteri) {
+        if (criteri == null) {
+            throw new IllegalArgumentException("I criteri non possono essere nulli");
+        }
+
+        long inizio = metriche.inizio(Operazione.CERCA);
+        Accesso accesso = pianifica(criteri, new ArrayList<>());
+        Criteri.Ordinamento richiesto = criteri.getOrdinamento();
+        boolean crescente = richiesto == null || criteri.isCrescente();
+
+        // L'ordinamento in memoria legge comunque tutti i candidati: sopra la soglia
+        // la scansione completa filtra e ordina in parallelo. Senza ordinamento la
+        // lettura sequenziale resta, perché si ferma appena raggiunto il limite
+        boolean inMemoria = richiesto != null && richiesto != accesso.ordine;
+        boolean parallela = inMemoria && accesso.parallela != null
+                && accesso.stima >= ScansioneParallela.SOGLIA_PREDEFINITA;
+        Stream<Voce> candidati = (parallela
+                ? accesso.parallela.get()
+                : StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        accesso.sorgente.apri(crescente), Spliterator.ORDERED), false))
+                .filter(criteri.filtroResiduo(accesso.garantiti));
+        if (inMemoria) {
+            candidati = candidati.sorted(ordine(richiesto, crescente));
+        }
+        List<Gioco> risultato = candidati
+                .skip(criteri.getSalta())
+                .limit(criteri.getLimite())
+                .map(Voce::gioco)
+                .collect(Collectors.toList());
+        metriche.registra(Operazione.CERCA, inizio, risultato.size());
+        return risultato;
+    }
+
+    /**
+     * Descrive il piano che cerca userebbe per i criteri, senza eseguirlo
+     * @param criteri I criteri di ricerca
+     * @return Il piano scelto con le alternative scartate
+     */
+    public PianoQuery spiega(Criteri criteri) {
+        if (criteri == null) {
+            throw new IllegalArgumentException("I criteri non possono essere nulli");
+        }
+
+        List<Accesso> scartati = new ArrayList<>();
+        Accesso accesso = pianifica(criteri, scartati);
+
+        List<String> filtri = new ArrayList<>();
+        criteri.descrizioni().forEach((attributo, descrizione) -> {
+            if (!accesso.garantiti.contains(attributo)) {
+                filtri.add(descrizione);
+            }
+        });
+
+        Criteri.Ordinamento richiesto = criteri.getOrdinamento();
+        String ordinamento;
+        if (richiesto == null) {
+            ordinamento = "nessuno, ordine dell'accesso";
+        } else {
+            ordinamento = richiesto.name().toLowerCase(Locale.ROOT)
+                    + (criteri.isCrescente() ? " crescente" : " decrescente")
+                    + (richiesto == accesso.ordine ? " dall'indice" : " in memoria");
+        }
+
+        return new PianoQuery(accesso.nome, accesso.stima, filtri, ordinamento,
+                scartati.stream()
+                        .map(scartato -> scartato.nome + " (~" + scartato.stima + " candidati)")
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Sorgente dei candidati di un accesso, nell'ordine crescente o decrescente del suo indice
+     */
+    @FunctionalInterface
+    private interface SorgenteVoci {
+        Iterator<Voce> apri(boolean crescente);
+    }
+
+    /**
+     * Modo di leggere i candidati di una ricerca con la sua stima
+     */
+    private static final class Accesso {
+        final String nome;
+        final long stima;
+        final Set<Criteri.Attributo> garantiti;
+        final Criteri.Ordinamento ordine;
+        final SorgenteVoci sorgente;
+        // candidati come stream parallelo, per gli accessi che si possono dividere
+        final Supplier<Stream<Voce>> parallela;
+
+        Accesso(String nome, long stima, Set<Criteri.Attributo> garantiti,
+                Criteri.Ordinamento ordine, SorgenteVoci sorgente) {
+            this(nome, stima, garantiti, ordine, sorgente, null);
+        }
+
+        Accesso(String nome, long stima, Set<Criteri.Attributo> garantiti,
+                Criteri.Ordinamento ordine, SorgenteVoci sorgente, Supplier<Stream<Voce>> parallela) {
+            this.nome = nome;
+            this.stima = stima;
+            this.garantiti = garantiti;
+            this.ordine = ordine;
+            this.sorgente = sorgente;
+            this.parallela = parallela;
+        }
+
+        /**
+         * Costo stimato: i candidati letti, raddoppiati se vanno poi ordinati in memoria
+         */
+        long costo(Criteri.Ordinamento richiesto) {
+            return richiesto == null || richiesto == ordine ? stima : 2 * stima;
+        }
+    }
+
+    /**
+     * Sceglie l'accesso con il costo stimato minore
+     * @param scartati Riceve gli accessi considerati e non scelti
+     */
+    private Accesso pianifica(Criteri criteri, List<Accesso> scartati) {
+        List<Accesso> accessi = new ArrayList<>();
+
+        if (criteri.haFiltro(Criteri.Attributo.NUMERO_GIOCATORI)) {
+            int primo = indiceBucket(criteri.getMinGiocatori());
+            int ultimo = indiceBucket(criteri.getMaxGiocatori());
+            long stima = 0;
+            for (int i = primo; i <= ultimo; i++) {
+                stima += conteggiGiocatori.get(i);
+            }
+            accessi.add(new Accesso(
+                    "indice numero giocatori " + criteri.getMinGiocatori() + ".." + criteri.getMaxGiocatori(),
+                    stima,
+                    EnumSet.of(Criteri.Attributo.NUMERO_GIOCATORI, Criteri.Attributo.TIPO),
+                    Criteri.Ordinamento.TITOLO,
+                    crescente -> scorriBucket(primo, ultimo, crescente)));
+        }
+
+        if (criteri.haFiltro(Criteri.Attributo.TITOLO)) {
+            String testo = criteri.getTestoTitolo();
+            IndiceTitoli titoli = indiceTitoli.completa();
+            accessi.add(new Accesso(
+                    "indice titoli \"" + testo + "\"",
+                    titoli.stima(testo),
+                    EnumSet.of(Criteri.Attributo.TITOLO),
+                    null,
+                    crescente -> titoli.cerca(testo, 0, Integer.MAX_VALUE).iterator()));
+        }
+
+        if (criteri.haFiltro(Criteri.Attributo.GENERE)) {
+            List<Partizione> partizioni = new ArrayList<>();
+            for (Genere genere : criteri.getGeneri()) {
+                partizioni.add(partizioniGenere.get(genere));
+            }
+            accessi.add(accessoPartizioni("partizione genere " + criteri.getGeneri(),
+                    partizioni, Criteri.Attributo.GENERE, criteri));
+        }
+
+        if (criteri.haFiltro(Criteri.Attributo.PIATTAFORMA)) {
+            Partizione partizione = partizioniPiattaforma.get(criteri.getPiattaforma());
+            accessi.add(accessoPartizioni("partizione piattaforma " + criteri.getPiattaforma(),
+                    partizione != null ? List.of(partizione) : List.of(), Criteri.Attributo.PIATTAFORMA, criteri));
+        }
+
+        if (criteri.haFiltro(Criteri.Attributo.TIPO)) {
+            PartizioneTipo<?> partizione = criteri.getTipo() == Videogioco.class ? videogiochi : giochiDaTavolo;
+            accessi.add(new Accesso("partizione " + criteri.getTipo().getSimpleName(), partizione.size(),
+                    EnumSet.of(Criteri.Attributo.TIPO), null, crescente -> partizione.voci().iterator()));
+        }
+
+        Accesso scansione = new Accesso("scansione completa", giochi.size(),
+                EnumSet.noneOf(Criteri.Attributo.class), null, crescente -> giochi.values().iterator(),
+                () -> giochi.values().parallelStream());
+
+        boolean filtroPrezzo = criteri.haFiltro(Criteri.Attributo.PREZZO);
+        if (filtroPrezzo || criteri.getOrdinamento() == Criteri.Ordinamento.PREZZO) {
+            // Il conteggio dell'intervallo si ferma quando non può più battere gli altri indici;
+            // se compete solo la scansione non viene contato: un sottoinsieme dell'indice
+            // prezzi non costa mai più della scansione, quindi la stima resta giochi.size()
+            long stimaPrezzo = giochi.size();
+            NavigableSet<Voce> intervallo = filtroPrezzo
+                    ? intervalloPrezzo(indicePrezzi, criteri)
+                    : indicePrezzi;
+            if (filtroPrezzo && !accessi.isEmpty()) {
+                long migliore = stimaPrezzo;
+                for (Accesso accesso : accessi) {
+                    migliore = Math.min(migliore, accesso.stima);
+                }
+                stimaPrezzo = contaFinoA(intervallo, 2 * migliore + 1);
+            }
+            accessi.add(new Accesso(
+                    filtroPrezzo ? "indice prezzi " + criteri.descrizioni().get(Criteri.Attributo.PREZZO) : "indice prezzi",
+                    stimaPrezzo,
+                    filtroPrezzo ? EnumSet.of(Criteri.Attributo.PREZZO) : EnumSet.noneOf(Criteri.Attributo.class),
+                    Criteri.Ordinamento.PREZZO,
+                    crescente -> crescente ? intervallo.iterator() : intervallo.descendingIterator()));
+        }
+        accessi.add(scansione);
+
+        Accesso scelto = accessi.get(0);
+        for (Accesso accesso : accessi) {
+            if (accesso.costo(criteri.getOrdinamento()) < scelto.costo(criteri.getOrdinamento())) {
+                scelto = accesso;
+            }
+        }
+        for (Accesso accesso : accessi) {
+            if (accesso != scelto) {
+                scartati.add(accesso);
+            }
+        }
+        return scelto;
+    }
+
+    /**
+     * Accesso dalle partizioni di un attributo, fuse per prezzo
+     * Se i criteri filtrano anche il prezzo, ogni partizione viene letta solo nell'intervallo
+     */
+    private Accesso accessoPartizioni(String nome, List<Partizione> partizioni,
+                                      Criteri.Attributo attributo, Criteri criteri) {
+        boolean filtroPrezzo = criteri.haFiltro(Criteri.Attributo.PREZZO);
+        Set<Criteri.Attributo> garantiti = EnumSet.of(attributo, Criteri.Attributo.TIPO);
+        if (filtroPrezzo) {
+            garantiti.add(Criteri.Attributo.PREZZO);
+        }
+        long stima = 0;
+        for (Partizione partizione : partizioni) {
+            stima += partizione.conteggio();
+        }
+
+        return new Accesso(nome, stima, garantiti, Criteri.Ordinamento.PREZZO, crescente -> {
+            ordinePartizioni.completa();
+            List<Iterator<Voce>> sorgenti = new ArrayList<>(partizioni.size());
+            for (Partizione partizione : partizioni) {
+                NavigableSet<Voce> voci = filtroPrezzo
+                        ? intervalloPrezzo(partizione.voci(), criteri)
+                        : partizione.voci();
+                sorgenti.add(crescente ? voci.iterator() : voci.descendingIterator());
+            }
+            return sorgenti.size() == 1
+                    ? sorgenti.get(0)
+                    : new FusioneOrdinata(sorgenti, crescente ? Voce.ORDINE_PREZZO : Voce.ORDINE_PREZZO.reversed());
+        });
+    }
+
+    private static NavigableSet<Voce> intervalloPrezzo(NavigableSet<Voce> voci, Criteri criteri) {
+        double massimo = criteri.getPrezzoMassimo();
+        return voci.subSet(
+                Voce.sondaPrezzo(criteri.getPrezzoMinimo()), true,
+                Voce.sondaPrezzo(criteri.isMassimoIncluso() ? Math.nextUp(massimo) : massimo), false);
+    }
+
+    private static long contaFinoA(Collection<Voce> voci, long massimo) {
+        long conteggio = 0;
+        Iterator<Voce> iteratore = voci.iterator();
+        while (conteggio < massimo && iteratore.hasNext()) {
+            iteratore.next();
+            conteggio++;
+        }
+        return conteggio;
+    }
+
+    private static Comparator<Voce> ordine(Criteri.Ordinamento ordinamento, boolean crescente) {
+        Comparator<Voce> ordine;
+        switch (ordinamento) {
+            case PREZZO:
+                ordine = Voce.ORDINE_PREZZO;
+                break;
+            case TITOLO:
+                ordine = Voce.ORDINE_TITOLO;
+                break;
+            default:
+                ordine = Comparator.comparingInt((Voce voce) -> voce.gioco().getAnnoPubblicazione())
+                        .thenComparing(Voce::id);
+        }
+        return crescente ? ordine : ordine.reversed();
     }
 
     /**
@@ -102,12 +707,18 @@ public class Collezione {
             throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
         }
         
-        if (!giochi.containsKey(id.trim())) {
+        long inizio = metriche.inizio(Operazione.RIMUOVI);
+        Variazione variazione = new Variazione(false);
+        Voce rimossa = elimina(id.trim(), variazione);
+        applica(variazione);
+        conferma(variazione);
+
+        if (rimossa == null) {
+            metriche.errore(Operazione.RIMUOVI, inizio);
             throw new ElementoNonTrovatoException(
                 "Elemento con ID '" + id + "' non trovato nella collezione");
         }
-        
-        giochi.remove(id.trim());
+        metriche.registra(Operazione.RIMUOVI, inizio);
     }
 
     /**
@@ -120,63 +731,401 @@ public class Collezione {
             throw new IllegalArgumentException("Il gioco aggiornato non può essere nullo");
         }
         
-        if (!giochi.containsKey(giocoAggiornato.getIdGioco())) {
+        long inizio = metriche.inizio(Operazione.AGGIORNA);
+        Variazione variazione = new Variazione(false);
+        Voce precedente = sostituisci(voce(giocoAggiornato), variazione);
+        applica(variazione);
+        conferma(variazione);
+
+        if (precedente == null) {
+            metriche.errore(Operazione.AGGIORNA, inizio);
             throw new ElementoNonTrovatoException(
                 "Elemento con ID '" + giocoAggiornato.getIdGioco() + "' non trovato nella collezione");
         }
-        
-        giochi.put(giocoAggiornato.getIdGioco(), giocoAggiornato);
+        metriche.registra(Operazione.AGGIORNA, inizio);
+    }
+
+    /**
+     * Aggiunge un lotto di giochi, scartando quelli con ID già presente
+     * @param nuoviGiochi I giochi da aggiungere
+     * @return L'esito per ogni ID: inseriti o duplicati
+     */
+    public EsitoLotto aggiungiTutti(Collection<? extends Gioco> nuoviGiochi) {
+        return aggiungiTutti(nuoviGiochi, false);
+    }
+
+    /**
+     * Aggiunge un lotto di giochi
+     * In modalità atomica, se anche un solo ID è già presente (o ripetuto nel lotto)
+     * nessun gioco viene aggiunto e l'esito risulta annullato
+     * @param nuoviGiochi I giochi da aggiungere
+     * @param atomico true per applicare tutto il lotto o niente
+     * @return L'esito per ogni ID: inseriti o duplicati
+     */
+    public EsitoLotto aggiungiTutti(Collection<? extends Gioco> nuoviGiochi, boolean atomico) {
+        List<Voce> voci = vociDi(nuoviGiochi);
+        OperazioneLotto<Voce> operazione = (voce, variazione) -> inserisci(voce, variazione) == voce;
+        if (!atomico) {
+            return eseguiLotto(voci, Voce::id, true, operazione);
+        }
+
+        return eseguiAtomico(voci, Voce::id, true, () -> {
+            Set<String> visti = new HashSet<>();
+            List<String> duplicati = new ArrayList<>();
+            for (Voce voce : voci) {
+                if (!visti.add(voce.id()) || giochi.containsKey(voce.id())) {
+                    duplicati.add(voce.id());
+                }
+            }
+            if (duplicati.isEmpty()) {
+                verificaOsservatori(voci);
+            }
+            return duplicati;
+        }, operazione);
+    }
+
+    /**
+     * Aggiorna un lotto di giochi esistenti, scartando quelli non presenti
+     * @param giochiAggiornati I giochi con i dati aggiornati
+     * @return L'esito per ogni ID: aggiornati o non trovati
+     */
+    public EsitoLotto aggiornaTutti(Collection<? extends Gioco> giochiAggiornati) {
+        return aggiornaTutti(giochiAggiornati, false);
+    }
+
+    /**
+     * Aggiorna un lotto di giochi esistenti
+     * In modalità atomica, se anche un solo ID non è presente nessun gioco
+     * viene aggiornato e l'esito risulta annullato
+     * @param giochiAggiornati I giochi con i dati aggiornati
+     * @param atomico true per applicare tutto il lotto o niente
+     * @return L'esito per ogni ID: aggiornati o non trovati
+     */
+    public EsitoLotto aggiornaTutti(Collection<? extends Gioco> giochiAggiornati, boolean atomico) {
+        List<Voce> voci = vociDi(giochiAggiornati);
+        OperazioneLotto<Voce> operazione = (voce, variazione) -> sostituisci(voce, variazione) != null;
+        if (!atomico) {
+            return eseguiLotto(voci, Voce::id, false, operazione);
+        }
+
+        return eseguiAtomico(voci, Voce::id, false, () -> {
+            List<String> nonTrovati = voci.stream()
+                    .map(Voce::id)
+                    .filter(id -> !giochi.containsKey(id))
+                    .collect(Collectors.toList());
+            if (nonTrovati.isEmpty()) {
+                verificaOsservatori(voci);
+            }
+            return nonTrovati;
+        }, operazione);
+    }
+
+    /**
+     * Rimuove un lotto di giochi dati i loro ID, scartando quelli non presenti
+     * @param id Gli ID dei giochi da rimuovere
+     * @return L'esito per ogni ID: rimossi o non trovati
+     */
+    public EsitoLotto rimuoviTutti(Collection<String> id) {
+        return rimuoviTutti(id, false);
+    }
+
+    /**
+     * Rimuove un lotto di giochi dati i loro ID
+     * In modalità atomica, se anche un solo ID non è presente (o è ripetuto nel lotto)
+     * nessun gioco viene rimosso e l'esito risulta annullato
+     * @param id Gli ID dei giochi da rimuovere
+     * @param atomico true per applicare tutto il lotto o niente
+     * @return L'esito per ogni ID: rimossi o non trovati
+     */
+    public EsitoLotto rimuoviTutti(Collection<String> id, boolean atomico) {
+        if (id == null) {
+            throw new IllegalArgumentException("Il lotto non può essere nullo");
+        }
+        List<String> chiavi = new ArrayList<>(id.size());
+        for (String chiave : id) {
+            if (chiave == null || chiave.trim().isEmpty()) {
+                throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
+            }
+            chiavi.add(chiave.trim());
+        }
+        OperazioneLotto<String> operazione = (chiave, variazione) -> elimina(chiave, variazione) != null;
+        if (!atomico) {
+            return eseguiLotto(chiavi, chiave -> chiave, false, operazione);
+        }
+
+        return eseguiAtomico(chiavi, chiave -> chiave, false, () -> {
+            Set<String> visti = new HashSet<>();
+            return chiavi.stream()
+                    .filter(chiave -> !visti.add(chiave) || !giochi.containsKey(chiave))
+                    .collect(Collectors.toList());
+        }, operazione);
+    }
+
+    /**
+     * Operazione applicata a un elemento di un lotto
+     */
+    @FunctionalInterface
+    private interface OperazioneLotto<T> {
+        /**
+         * @return true se l'operazione è stata applicata
+         */
+        boolean applica(T elemento, Variazione variazione);
+    }
+
+    /**
+     * Applica un lotto elemento per elemento raccogliendo l'esito di ognuno;
+     * i contatori delle statistiche vengono aggiornati una sola volta alla fine del lotto
+     */
+    private <T> EsitoLotto eseguiLotto(List<T> elementi, Function<T, String> chiave,
+                                       boolean fallimentoDuplicato, OperazioneLotto<T> operazione) {
+        Variazione variazione = new Variazione(false);
+        List<String> applicati = new ArrayList<>(elementi.size());
+        List<String> falliti = new ArrayList<>();
+
+        try {
+            for (T elemento : elementi) {
+                (operazione.applica(elemento, variazione) ? applicati : falliti).add(chiave.apply(elemento));
+            }
+        } finally {
+            applica(variazione);
+        }
+        conferma(variazione);
+        return esito(applicati, falliti, fallimentoDuplicato, false);
+    }
+
+    /**
+     * Applica un lotto atomico senza annullamenti: blocca le strisce di tutti gli ID
+     * del lotto, verifica con gli ID bloccati che ogni elemento sia applicabile e
+     * solo allora applica gli elementi, che nessuna modifica concorrente può più
+     * far fallire. Osservatori e flusso ricevono quindi solo modifiche di lotti
+     * validi; gli eventi del flusso sono pubblicati insieme alla fine del lotto,
+     * prima di sbloccare gli ID. Le letture senza lock possono vedere una parte
+     * del lotto mentre viene applicato, mai un elemento poi annullato.
+     * Se un osservatore fallisce durante l'applicazione (ad esempio un errore di
+     * scrittura del registro) gli elementi precedenti restano applicati
+     * @param scartati Eseguito con gli ID bloccati: restituisce gli ID che
+     *                 impediscono il lotto, vuota se il lotto è applicabile
+     */
+    private <T> EsitoLotto eseguiAtomico(List<T> elementi, Function<T, String> chiave, boolean fallimentoDuplicato,
+                                         Supplier<List<String>> scartati, OperazioneLotto<T> operazione) {
+        Variazione variazione = new Variazione(true);
+        List<String> applicati = new ArrayList<>(elementi.size());
+        int[] strisce = elementi.stream()
+                .mapToInt(elemento -> striscia(chiave.apply(elemento)))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int bloccate = 0;
+        try {
+            for (; bloccate < strisce.length; bloccate++) {
+                blocchi[strisce[bloccate]].lock();
+            }
+            List<String> falliti = scartati.get();
+            if (!falliti.isEmpty()) {
+                return esito(List.of(), falliti, fallimentoDuplicato, true);
+            }
+
+            try {
+                for (T elemento : elementi) {
+                    operazione.applica(elemento, variazione);
+                    applicati.add(chiave.apply(elemento));
+                }
+            } finally {
+                applica(variazione);
+                pubblicaRinviati(variazione);
+            }
+        } finally {
+            while (bloccate > 0) {
+                blocchi[strisce[--bloccate]].unlock();
+            }
+        }
+        conferma(variazione);
+        return esito(applicati, List.of(), fallimentoDuplicato, false);
+    }
+
+    private static EsitoLotto esito(List<String> applicati, List<String> falliti,
+                                    boolean fallimentoDuplicato, boolean annullato) {
+        return new EsitoLotto(
+                applicati,
+                fallimentoDuplicato ? falliti : List.of(),
+                fallimentoDuplicato ? List.of() : falliti,
+                annullato);
+    }
+
+    /**
+     * Chiede agli osservatori se possono registrare tutti i giochi del lotto,
+     * prima di notificarne anche uno solo
+     */
+    private void verificaOsservatori(List<Voce> voci) {
+        for (OsservatoreCollezione osservatore : osservatori) {
+            for (Voce voce : voci) {
+                osservatore.verifica(voce.gioco());
+            }
+        }
+    }
+
+    /**
+     * Crea la voce del gioco con la chiave di piattaforma condivisa
+     */
+    private Voce voce(Gioco gioco) {
+        return Voce.di(gioco, this::piattaformaCanonica);
+    }
+
+    /**
+     * Restituisce l'istanza condivisa della chiave, registrandola finché le
+     * chiavi distinte restano entro MASSIMO_PIATTAFORME_CANONICHE
+     */
+    private String piattaformaCanonica(String chiave) {
+        String canonica = piattaformeCanoniche.get(chiave);
+        if (canonica != null) {
+            return canonica;
+        }
+        if (piattaformeCanoniche.size() >= MASSIMO_PIATTAFORME_CANONICHE) {
+            return chiave;
+        }
+        canonica = piattaformeCanoniche.putIfAbsent(chiave, chiave);
+        return canonica != null ? canonica : chiave;
+    }
+
+    private List<Voce> vociDi(Collection<? extends Gioco> lotto) {
+        if (lotto == null) {
+            throw new IllegalArgumentException("Il lotto non può essere nullo");
+        }
+        List<Voce> voci = new ArrayList<>(lotto.size());
+        for (Gioco gioco : lotto) {
+            if (gioco == null) {
+                throw new IllegalArgumentException("Il lotto non può contenere giochi nulli");
+            }
+            voci.add(voce(gioco));
+        }
+        return voci;
     }
 
     /**
      * Genera statistiche sulla collezione
-     * @return Mappa con le statistiche
+     * I valori sono mantenuti in modo incrementale dai metodi di modifica,
+     * il prezzo più elevato è l'ultimo elemento dell'indice prezzi
+     * @return Istantanea delle statistiche
      */
-    public Map<String, Object> generaStatistiche() {
-        Map<String, Object> statistiche = new HashMap<>();
-        
-        if (giochi.isEmpty()) {
-            statistiche.put("totaleVideogiochi", 0);
-            statistiche.put("totaleGiochiDaTavolo", 0);
-            statistiche.put("giocoPrezzoPiuElevato", null);
-            statistiche.put("mediaPrezzi", 0.0);
-            return statistiche;
+    public StatisticheCollezione generaStatistiche() {
+        long inizio = metriche.inizio(Operazione.GENERA_STATISTICHE);
+        Iterator<Voce> prezziDecrescenti = indicePrezzi.descendingIterator();
+        if (!prezziDecrescenti.hasNext()) {
+            metriche.registra(Operazione.GENERA_STATISTICHE, inizio);
+            return StatisticheCollezione.VUOTE;
         }
-        
-        // Conteggio videogiochi
-        long totaleVideogiochi = giochi.values().stream()
-                .filter(gioco -> gioco instanceof Videogioco)
-                .count();
-        
-        // Conteggio giochi da tavolo
-        long totaleGiochiDaTavolo = giochi.values().stream()
-                .filter(gioco -> gioco instanceof GiocoDaTavolo)
-                .count();
-        
-        // Gioco con prezzo più elevato
-        Optional<Gioco> giocoPrezzoPiuElevato = giochi.values().stream()
-                .max(Comparator.comparing(Gioco::getPrezzo));
-        
-        // Media dei prezzi
-        double mediaPrezzi = giochi.values().stream()
-                .mapToDouble(Gioco::getPrezzo)
-                .average()
-                .orElse(0.0);
-        
-        statistiche.put("totaleVideogiochi", totaleVideogiochi);
-        statistiche.put("totaleGiochiDaTavolo", totaleGiochiDaTavolo);
-        statistiche.put("giocoPrezzoPiuElevato", giocoPrezzoPiuElevato.orElse(null));
-        statistiche.put("mediaPrezzi", mediaPrezzi);
-        
+
+        long videogiochi = totaleVideogiochi.sum();
+        long giochiDaTavolo = totaleGiochiDaTavolo.sum();
+        long totale = videogiochi + giochiDaTavolo;
+        StatisticheCollezione statistiche = new StatisticheCollezione(
+                videogiochi,
+                giochiDaTavolo,
+                prezziDecrescenti.next().gioco(),
+                totale > 0 ? sommaPrezzi.sum() / totale : 0.0);
+        metriche.registra(Operazione.GENERA_STATISTICHE, inizio);
         return statistiche;
     }
 
+    /**
+     * Somma dei prezzi mantenuta dai metodi di modifica, letta da CollezioneShardata
+     * per combinare le medie delle partizioni senza ricavarla da media e totale
+     */
+    double sommaPrezzi() {
+        return sommaPrezzi.sum();
+    }
+
     /**
      * Restituisce tutti i giochi nella collezione
+     * La lista è una copia: per scorrere la collezione senza allocarla usare
+     * getVistaGiochi, forEach, stream o scorri
      * @return Lista di tutti i giochi
      */
     public List<Gioco> getTuttiIGiochi() {
-        return new ArrayList<>(giochi.values());
+        List<Gioco> tutti = new ArrayList<>(giochi.size());
+        giochi.values().forEach(voce -> tutti.add(voce.gioco()));
+        return tutti;
+    }
+
+    /**
+     * Restituisce una vista non modificabile di tutti i giochi, senza copiarli
+     * La vista riflette le modifiche successive e può essere attraversata
+     * durante le modifiche concorrenti (consistenza debole, nessuna
+     * ConcurrentModificationException)
+     * @return Vista dei giochi, in ordine non specificato
+     */
+    public Collection<Gioco> getVistaGiochi() {
+        return vistaGiochi;
+    }
+
+    /**
+     * Esegue l'azione per ogni gioco della collezione senza materializzare una lista
+     * @param azione L'azione da eseguire
+     */
+    public void forEach(Consumer<? super Gioco> azione) {
+        Objects.requireNonNull(azione, "L'azione non può essere null");
+        vistaGiochi.forEach(azione);
+    }
+
+    /**
+     * Stream dei giochi letto direttamente dalla mappa, anche in parallelo
+     * @return Stream dei giochi, in ordine non specificato
+     */
+    public Stream<Gioco> stream() {
+        return vistaGiochi.stream();
+    }
+
+    /**
+     * Scansione a cursore dell'intera collezione, per prezzo crescente e a parità
+     * di prezzo per ID. Ogni pagina riparte dall'indice prezzi subito dopo
+     * l'ultimo gioco restituito, quindi il costo non dipende da quante pagine
+     * sono già state lette e le modifiche concorrenti non spostano le pagine
+     * successive: un gioco rimosso non viene restituito, uno aggiunto compare se
+     * cade dopo il cursore, uno aggiornato può comparire nella nuova posizione
+     * @param cursore Il cursore restituito dalla pagina precedente, null per iniziare
+     * @param dimensione Numero massimo di giochi della pagina
+     * @return La pagina, con il cursore della successiva
+     */
+    public PaginaGiochi scorri(String cursore, int dimensione) {
+        if (dimensione <= 0) {
+            throw new IllegalArgumentException("La dimensione della pagina deve essere positiva");
+        }
+
+        NavigableSet<Voce> resto = cursore == null
+                ? indicePrezzi
+                : indicePrezzi.tailSet(decodificaCursore(cursore), false);
+        List<Gioco> pagina = new ArrayList<>(Math.min(dimensione, 1024));
+        Voce ultima = null;
+        for (Voce voce : resto) {
+            if (pagina.size() == dimensione) {
+                return new PaginaGiochi(pagina, codificaCursore(ultima));
+            }
+            pagina.add(voce.gioco());
+            ultima = voce;
+        }
+        return new PaginaGiochi(pagina, null);
+    }
+
+    /**
+     * Il cursore è la posizione (prezzo, ID) dell'ultimo gioco restituito,
+     * con il prezzo codificato in modo esatto
+     */
+    private static String codificaCursore(Voce voce) {
+        return Long.toHexString(Double.doubleToRawLongBits(voce.prezzo())) + ":" + voce.id();
+    }
+
+    private static Voce decodificaCursore(String cursore) {
+        int separatore = cursore.indexOf(':');
+        if (separatore <= 0) {
+            throw new IllegalArgumentException("Cursore non valido: " + cursore);
+        }
+        try {
+            double prezzo = Double.longBitsToDouble(Long.parseUnsignedLong(cursore.substring(0, separatore), 16));
+            return Voce.sonda(prezzo, cursore.substring(separatore + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursore non valido: " + cursore, e);
+        }
     }
 
     /**
@@ -194,4 +1143,429 @@ public class Collezione {
     public boolean isEmpty() {
         return giochi.isEmpty();
     }
+
+    /**
+     * Restituisce i videogiochi della collezione senza filtrare gli altri giochi
+     * @return Vista non modificabile, che riflette le modifiche successive della collezione
+     */
+    public Collection<Videogioco> getVideogiochi() {
+        return videogiochi.giochi();
+    }
+
+    /**
+     * Restituisce i giochi da tavolo della collezione senza filtrare gli altri giochi
+     * @return Vista non modificabile, che riflette le modifiche successive della collezione
+     */
+    public Collection<GiocoDaTavolo> getGiochiDaTavolo() {
+        return giochiDaTavolo.giochi();
+    }
+
+    /**
+     * Restituisce un'istantanea della collezione in questo momento
+     * Non blocca le scritture: la collezione mantiene una mappa persistente di
+     * copie immutabili dei giochi, di cui l'istantanea conserva la versione
+     * corrente. La mappa viene costruita alla prima istantanea (o alla prima
+     * richiesta del flusso delle modifiche), in tempo lineare; da allora ogni
+     * modifica la aggiorna e le istantanee successive costano O(1).
+     * Riflette tutte le modifiche singole completate prima della chiamata;
+     * di un lotto non atomico in corso può contenere solo una parte
+     * @return L'istantanea, che non cambia con le modifiche successive
+     */
+    public IstantaneaCollezione istantanea() {
+        return new IstantaneaCollezione(versioni.completa().get());
+    }
+
+    /**
+     * Restituisce le metriche delle operazioni della collezione, disattivate
+     * finché non si chiama attiva
+     * @return Le metriche di questa collezione
+     */
+    public MetricheCollezione getMetriche() {
+        return metriche;
+    }
+
+    /**
+     * Restituisce il flusso ordinato delle modifiche della collezione, creandolo
+     * alla prima chiamata con capacità FlussoModifiche.CAPACITA_PREDEFINITA:
+     * le sequenze partono da 0 e riguardano solo le modifiche successive.
+     * Le immagini precedenti degli eventi sono lette dalla mappa persistente
+     * delle istantanee, che la prima chiamata costruisce se non esiste ancora.
+     * Gli eventi sono consegnati sul pool comune dei thread; se questo ha un
+     * solo thread si usa un pool di thread daemon, così un sottoscrittore lento
+     * non ferma gli altri
+     * @return Il flusso delle modifiche, sempre lo stesso per questa collezione
+     */
+    public FlussoModifiche flussoModifiche() {
+        FlussoModifiche esistente = flusso;
+        if (esistente != null) {
+            return esistente;
+        }
+        synchronized (this) {
+            if (flusso == null) {
+                versioni.completa();
+                Executor esecutore = ForkJoinPool.getCommonPoolParallelism() > 1
+                        ? ForkJoinPool.commonPool()
+                        : Executors.newCachedThreadPool(consegna -> {
+                            Thread thread = new Thread(consegna, "flusso-modifiche");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                flusso = new FlussoModifiche(FlussoModifiche.CAPACITA_PREDEFINITA, esecutore);
+            }
+            return flusso;
+        }
+    }
+
+    /**
+     * Sostituisce la cache dei risultati di cercaPerPrezzo e cercaPerNumeroGiocatori
+     * con una vuota del peso indicato, azzerandone le statistiche
+     * @param pesoMassimo Numero massimo di giochi referenziati dai risultati
+     *                    memorizzati, 0 per disattivare la cache
+     */
+    public void configuraCache(long pesoMassimo) {
+        cache = new CacheRisultati(pesoMassimo);
+    }
+
+    /**
+     * Restituisce successi, mancati e occupazione della cache dei risultati
+     * @return Lo stato corrente della cache
+     */
+    public StatisticheCache statisticheCache() {
+        return cache.statistiche();
+    }
+
+    /**
+     * Registra un osservatore delle modifiche
+     * @param osservatore L'osservatore da notificare
+     */
+    public void aggiungiOsservatore(OsservatoreCollezione osservatore) {
+        if (osservatore == null) {
+            throw new IllegalArgumentException("L'osservatore non può essere nullo");
+        }
+        osservatori.add(osservatore);
+    }
+
+    /**
+     * Rimuove un osservatore registrato in precedenza
+     * @param osservatore L'osservatore da rimuovere
+     */
+    public void rimuoviOsservatore(OsservatoreCollezione osservatore) {
+        osservatori.remove(osservatore);
+    }
+
+    /**
+     * Inserisce la voce se l'ID non è presente
+     * @return La voce inserita, oppure quella già presente con lo stesso ID
+     */
+    private Voce inserisci(Voce nuova, Variazione variazione) {
+        ReentrantLock blocco = blocco(nuova.id());
+        blocco.lock();
+        try {
+            Voce presente = giochi.get(nuova.id());
+            if (presente != null) {
+                return presente;
+            }
+            for (OsservatoreCollezione osservatore : osservatori) {
+                osservatore.inserito(nuova.gioco());
+            }
+            // con il flusso attivo anche le versioni lo sono: il flusso le attiva prima di esistere
+            FlussoModifiche eventi = flusso;
+            AtomicReference<MappaPersistente> versione = versioni.attiva();
+            indicizza(nuova, variazione);
+            Gioco dopo = versione != null ? pubblica(versione, nuova.gioco()) : null;
+            giochi.put(nuova.id(), nuova);
+            if (eventi != null) {
+                variazione.evento(eventi, EventoCollezione.Tipo.INSERIMENTO, nuova.id(), null, dopo);
+            }
+            return nuova;
+        } finally {
+            blocco.unlock();
+        }
+    }
+
+    /**
+     * Sostituisce la voce con lo stesso ID
+     * @return La voce sostituita, null se l'ID non è presente
+     */
+    private Voce sostituisci(Voce nuova, Variazione variazione) {
+        ReentrantLock blocco = blocco(nuova.id());
+        blocco.lock();
+        try {
+            Voce attuale = giochi.get(nuova.id());
+            if (attuale == null) {
+                return null;
+            }
+            for (OsservatoreCollezione osservatore : osservatori) {
+                osservatore.aggiornato(nuova.gioco());
+            }
+            FlussoModifiche eventi = flusso;
+            AtomicReference<MappaPersistente> versione = versioni.attiva();
+            Gioco prima = eventi != null ? versione.get().get(nuova.id()) : null;
+            deindicizza(attuale, variazione);
+            indicizza(nuova, variazione);
+            Gioco dopo = versione != null ? pubblica(versione, nuova.gioco()) : null;
+            giochi.put(nuova.id(), nuova);
+            if (eventi != null) {
+                variazione.evento(eventi, EventoCollezione.Tipo.AGGIORNAMENTO, nuova.id(), prima, dopo);
+            }
+            return attuale;
+        } finally {
+            blocco.unlock();
+        }
+    }
+
+    /**
+     * Elimina la voce con l'ID indicato
+     * @return La voce eliminata, null se l'ID non è presente
+     */
+    private Voce elimina(String id, Variazione variazione) {
+        ReentrantLock blocco = blocco(id);
+        blocco.lock();
+        try {
+            Voce attuale = giochi.get(id);
+            if (attuale == null) {
+                return null;
+            }
+            for (OsservatoreCollezione osservatore : osservatori) {
+                osservatore.rimosso(id);
+            }
+            FlussoModifiche eventi = flusso;
+            AtomicReference<MappaPersistente> versione = versioni.attiva();
+            Gioco prima = eventi != null ? versione.get().get(id) : null;
+            deindicizza(attuale, variazione);
+            if (versione != null) {
+                versione.updateAndGet(mappa -> mappa.senza(id));
+            }
+            giochi.remove(id);
+            if (eventi != null) {
+                variazione.evento(eventi, EventoCollezione.Tipo.RIMOZIONE, id, prima, null);
+            }
+            return attuale;
+        } finally {
+            blocco.unlock();
+        }
+    }
+
+    private ReentrantLock blocco(String id) {
+        return blocchi[striscia(id)];
+    }
+
+    private static int striscia(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (NUMERO_BLOCCHI - 1);
+    }
+
+    /**
+     * Pubblica una copia immutabile del gioco nella versione persistente
+     * Va invocato mentre l'ID del gioco è bloccato,
+     * così le versioni di uno stesso ID si susseguono nell'ordine delle modifiche
+     * @return La copia pubblicata
+     */
+    private static Gioco pubblica(AtomicReference<MappaPersistente> versione, Gioco gioco) {
+        Gioco copia = gioco.copiaImmutabile();
+        versione.updateAndGet(mappa -> mappa.con(copia));
+        return copia;
+    }
+
+    /**
+     * Struttura secondaria che le modifiche aggiornano solo dopo la prima richiesta
+     * La prima lettura la attiva e la costruisce dalle voci presenti con costruisci
+     * @param <T> Il tipo della struttura
+     */
+    private final class SuRichiesta<T> {
+        private final Supplier<T> crea;
+        private final BiConsumer<T, Voce> aggiungi;
+        private volatile T attiva;
+        private volatile boolean completa;
+
+        SuRichiesta(Supplier<T> crea, BiConsumer<T, Voce> aggiungi) {
+            this.crea = crea;
+            this.aggiungi = aggiungi;
+        }
+
+        /**
+         * Va letta mentre l'ID modificato è bloccato
+         * @return La struttura da aggiornare, null se nessuno l'ha ancora richiesta
+         */
+        T attiva() {
+            return attiva;
+        }
+
+        /**
+         * @return La struttura con tutte le voci, costruita alla prima chiamata
+         */
+        T completa() {
+            if (!completa) {
+                synchronized (this) {
+                    if (!completa) {
+                        T struttura = crea.get();
+                        attiva = struttura;
+                        costruisci(voce -> aggiungi.accept(struttura, voce));
+                        completa = true;
+                    }
+                }
+            }
+            return attiva;
+        }
+    }
+
+    /**
+     * Aggiunge le voci presenti a una struttura appena attivata, senza fermare le scritture
+     * Bloccare e sbloccare ogni striscia attende le modifiche che hanno letto la
+     * struttura prima dell'attivazione; quelle successive la aggiornano da sé.
+     * Ogni voce viene poi aggiunta con il suo ID bloccato, solo se è ancora quella
+     * presente: aggiungere due volte la stessa voce non ha effetto
+     */
+    private void costruisci(Consumer<Voce> aggiungi) {
+        for (ReentrantLock blocco : blocchi) {
+            blocco.lock();
+            blocco.unlock();
+        }
+        for (Voce voce : giochi.values()) {
+            ReentrantLock blocco = blocco(voce.id());
+            blocco.lock();
+            try {
+                if (giochi.get(voce.id()) == voce) {
+                    aggiungi.accept(voce);
+                }
+            } finally {
+                blocco.unlock();
+            }
+        }
+    }
+
+    /**
+     * Variazione dei contatori delle statistiche, accumulata durante una
+     * modifica singola o un intero lotto e applicata una sola volta.
+     * In un lotto atomico raccoglie anche gli eventi del flusso, pubblicati alla fine
+     */
+    private static final class Variazione {
+        private long videogiochi;
+        private long giochiDaTavolo;
+        private double prezzi;
+        private boolean modificata;
+        private final List<EventoCollezione> rinviati;
+        private FlussoModifiche flussoRinviati;
+
+        Variazione(boolean rinviaEventi) {
+            this.rinviati = rinviaEventi ? new ArrayList<>() : null;
+        }
+
+        /**
+         * Pubblica l'evento, o lo conserva se gli eventi sono rinviati
+         * La sequenza viene assegnata alla pubblicazione
+         */
+        void evento(FlussoModifiche eventi, EventoCollezione.Tipo tipo, String id, Gioco prima, Gioco dopo) {
+            if (rinviati == null) {
+                eventi.pubblica(tipo, id, prima, dopo);
+            } else {
+                flussoRinviati = eventi;
+                rinviati.add(new EventoCollezione(-1, tipo, id, prima, dopo));
+            }
+        }
+
+        void registra(Voce voce, int segno) {
+            modificata = true;
+            prezzi += segno * voce.prezzo();
+            if (voce.isVideogioco()) {
+                videogiochi += segno;
+            } else if (voce.isGiocoDaTavolo()) {
+                giochiDaTavolo += segno;
+            }
+        }
+    }
+
+    private void applica(Variazione variazione) {
+        if (variazione.videogiochi != 0) {
+            totaleVideogiochi.add(variazione.videogiochi);
+        }
+        if (variazione.giochiDaTavolo != 0) {
+            totaleGiochiDaTavolo.add(variazione.giochiDaTavolo);
+        }
+        if (variazione.prezzi != 0) {
+            sommaPrezzi.add(variazione.prezzi);
+        }
+        // dopo indici e contatori: un risultato calcolato prima di questo punto
+        // porta la versione precedente e non viene più servito
+        if (variazione.modificata) {
+            cache.invalida();
+        }
+    }
+
+    /**
+     * Pubblica gli eventi rinviati di un lotto atomico
+     * Va invocato mentre gli ID del lotto sono ancora bloccati
+     */
+    private static void pubblicaRinviati(Variazione variazione) {
+        for (EventoCollezione evento : variazione.rinviati) {
+            variazione.flussoRinviati.pubblica(evento.tipo(), evento.idGioco(), evento.prima(), evento.dopo());
+        }
+    }
+
+    /**
+     * Avvisa gli osservatori che le modifiche della variazione sono applicate
+     */
+    private void conferma(Variazione variazione) {
+        if (variazione.modificata) {
+            for (OsservatoreCollezione osservatore : osservatori) {
+                osservatore.confermata();
+            }
+        }
+    }
+
+    /**
+     * Inserisce una voce negli indici secondari
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    private void indicizza(Voce voce, Variazione variazione) {
+        indicePrezzi.add(voce);
+        IndiceTitoli titoli = indiceTitoli.attiva();
+        if (titoli != null) {
+            titoli.aggiungi(voce);
+        }
+        variazione.registra(voce, 1);
+        if (voce.isVideogioco()) {
+            boolean ordinata = ordinePartizioni.attiva() != null;
+            videogiochi.aggiungi(voce);
+            partizioniGenere.get(voce.genere()).aggiungi(voce, ordinata);
+            partizioniPiattaforma.computeIfAbsent(voce.piattaforma(), chiave -> new Partizione()).aggiungi(voce, ordinata);
+        } else if (voce.isGiocoDaTavolo()) {
+            giochiDaTavolo.aggiungi(voce);
+            bucketGiocatori.get(voce.numeroGiocatori() - MIN_GIOCATORI).add(voce);
+            conteggiGiocatori.incrementAndGet(voce.numeroGiocatori() - MIN_GIOCATORI);
+        }
+    }
+
+    /**
+     * Aggiunge un videogioco già indicizzato alle voci ordinate delle sue partizioni
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    private void ordinaNellePartizioni(Voce voce) {
+        if (voce.isVideogioco()) {
+            partizioniGenere.get(voce.genere()).ordina(voce);
+            partizioniPiattaforma.get(voce.piattaforma()).ordina(voce);
+        }
+    }
+
+    /**
+     * Rimuove una voce dagli indici secondari
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    private void deindicizza(Voce voce, Variazione variazione) {
+        indicePrezzi.remove(voce);
+        IndiceTitoli titoli = indiceTitoli.attiva();
+        if (titoli != null) {
+            titoli.rimuovi(voce);
+        }
+        variazione.registra(voce, -1);
+        if (voce.isVideogioco()) {
+            videogiochi.rimuovi(voce);
+            partizioniGenere.get(voce.genere()).rimuovi(voce);
+            partizioniPiattaforma.get(voce.piattaforma()).rimuovi(voce);
+        } else if (voce.isGiocoDaTavolo()) {
+            giochiDaTavolo.rimuovi(voce);
+            bucketGiocatori.get(voce.numeroGiocatori() - MIN_GIOCATORI).remove(voce);
+            conteggiGiocatori.decrementAndGet(voce.numeroGiocatori() - MIN_GIOCATORI);
+        }
+    }
 }
\ No newline at end of file
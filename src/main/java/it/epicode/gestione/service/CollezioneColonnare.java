@@ -0,0 +1,491 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Collezione di giochi memorizzata per colonne
+ *
+ * Invece di un oggetto Gioco per elemento, i campi sono conservati in array
+ * primitivi paralleli (una riga per gioco) e titoli e piattaforme in dizionari
+ * di stringhe, e anche l'indice degli ID è una mappa a indirizzamento aperto
+ * senza nodi, quindi oltre agli ID il numero di oggetti sullo heap non cresce
+ * con la collezione. Le scansioni (prezzo, numero di giocatori, statistiche) leggono
+ * direttamente le colonne; gli oggetti Gioco vengono creati solo per i
+ * risultati restituiti, come copie: modificarli non altera la collezione,
+ * va sempre chiamato aggiornaElemento.
+ *
+ * Oltre una soglia di dimensione le scansioni dividono le righe in intervalli
+ * contigui distribuiti sul pool comune dei thread, ognuno scorso con lo stesso
+ * ciclo della scansione sequenziale; i risultati parziali degli intervalli
+ * vengono uniti nell'ordine delle righe.
+ *
+ * La classe è thread-safe: le letture condividono un read lock, le modifiche
+ * acquisiscono il write lock.
+ *
+ * Si usa da codice: l'applicazione (menu, comandi, HTTP, registro delle
+ * modifiche) lavora su Collezione, di cui questa variante non offre ricerca
+ * per criteri, osservatori, lotti, istantanee e flusso delle modifiche.
+ */
+public class CollezioneColonnare {
+    private static final byte TIPO_VIDEOGIOCO = 1;
+    private static final byte TIPO_GIOCO_DA_TAVOLO = 2;
+    private static final Genere[] GENERI = Genere.values();
+    private static final Comparator<Gioco> ORDINE_PREZZO = Comparator
+            .comparingDouble(Gioco::getPrezzo)
+            .thenComparing(Gioco::getIdGioco);
+    private static final Comparator<Gioco> ORDINE_TITOLO = Comparator
+            .comparing(Gioco::getTitolo)
+            .thenComparing(Gioco::getIdGioco);
+
+    /**
+     * Dimensione da cui le scansioni vengono eseguite in parallelo: sotto,
+     * distribuire il lavoro sul pool costa più della scansione stessa
+     */
+    public static final int SOGLIA_PARALLELA_PREDEFINITA = ScansioneParallela.SOGLIA_PREDEFINITA;
+
+    private String[] id;
+    private byte[] tipi;
+    private int[] titoli;
+    private short[] anni;
+    private double[] prezzi;
+    private int[] durate;          // durataGioco o durataMediaPartita
+    private byte[] extra;          // ordinal del genere o numero di giocatori
+    private int[] piattaforme;     // -1 per i giochi da tavolo
+    private int dimensione;
+
+    private final MappaIdDense righe;
+    private final DizionarioStringhe dizionarioTitoli = new DizionarioStringhe();
+    private final DizionarioStringhe dizionarioPiattaforme = new DizionarioStringhe();
+    private final ReadWriteLock blocco = new ReentrantReadWriteLock();
+    private volatile int sogliaParallela = SOGLIA_PARALLELA_PREDEFINITA;
+
+    /**
+     * Costruttore della classe CollezioneColonnare
+     */
+    public CollezioneColonnare() {
+        this(1024);
+    }
+
+    /**
+     * Costruttore con capacità iniziale delle colonne
+     * @param capacitaIniziale Numero di giochi previsto
+     */
+    public CollezioneColonnare(int capacitaIniziale) {
+        if (capacitaIniziale < 0) {
+            throw new IllegalArgumentException("La capacità iniziale non può essere negativa");
+        }
+        alloca(Math.max(capacitaIniziale, 16));
+        righe = new MappaIdDense(capacitaIniziale);
+    }
+
+    /**
+     * Aggiunge un elemento alla collezione
+     * @param gioco Il gioco da aggiungere
+     * @throws ElementoDuplicatoException se l'ID esiste già
+     */
+    public void aggiungiElemento(Gioco gioco) throws ElementoDuplicatoException {
+        if (gioco == null) {
+            throw new IllegalArgumentException("Il gioco non può essere nullo");
+        }
+
+        blocco.writeLock().lock();
+        try {
+            if (righe.contiene(gioco.getIdGioco())) {
+                throw new ElementoDuplicatoException(
+                    "Elemento con ID '" + gioco.getIdGioco() + "' già presente nella collezione");
+            }
+            if (dimensione == prezzi.length) {
+                alloca(dimensione * 2);
+            }
+            scriviRiga(dimensione, gioco);
+            righe.put(gioco.getIdGioco(), dimensione);
+            dimensione++;
+        } finally {
+            blocco.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ricerca un elemento tramite ID
+     * @param idGioco L'ID del gioco da cercare
+     * @return Una copia del gioco trovato
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public Gioco cercaPerID(String idGioco) throws ElementoNonTrovatoException {
+        String chiave = chiave(idGioco);
+
+        blocco.readLock().lock();
+        try {
+            int riga = righe.get(chiave);
+            if (riga == MappaIdDense.ASSENTE) {
+                throw new ElementoNonTrovatoException(
+                    "Elemento con ID '" + idGioco + "' non trovato nella collezione");
+            }
+            return leggiRiga(riga);
+        } finally {
+            blocco.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce i giochi con prezzo inferiore al valore specificato, ordinati per prezzo
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Lista di copie dei giochi trovati
+     */
+    public List<Gioco> cercaPerPrezzo(double prezzoMassimo) {
+        verificaPrezzo(prezzoMassimo);
+
+        Gioco[] risultato;
+        blocco.readLock().lock();
+        try {
+            risultato = scansione((da, a) -> {
+                List<Gioco> trovati = new ArrayList<>();
+                for (int riga = da; riga < a; riga++) {
+                    if (prezzi[riga] < prezzoMassimo) {
+                        trovati.add(leggiRiga(riga));
+                    }
+                }
+                return trovati;
+            }).flatMap(List::stream).toArray(Gioco[]::new);
+        } finally {
+            blocco.readLock().unlock();
+        }
+
+        // in parallelo solo oltre 8192 elementi e con più thread nel pool comune
+        Arrays.parallelSort(risultato, ORDINE_PREZZO);
+        return new ArrayList<>(Arrays.asList(risultato));
+    }
+
+    /**
+     * Conta i giochi con prezzo inferiore al valore specificato senza creare oggetti
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Il numero di giochi trovati
+     */
+    public int contaPerPrezzo(double prezzoMassimo) {
+        verificaPrezzo(prezzoMassimo);
+
+        blocco.readLock().lock();
+        try {
+            return scansione((da, a) -> {
+                int conteggio = 0;
+                for (int riga = da; riga < a; riga++) {
+                    if (prezzi[riga] < prezzoMassimo) {
+                        conteggio++;
+                    }
+                }
+                return conteggio;
+            }).mapToInt(Integer::intValue).sum();
+        } finally {
+            blocco.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ricerca giochi da tavolo per numero di giocatori, ordinati per titolo
+     * @param numeroGiocatori Il numero di giocatori
+     * @return Lista di copie dei giochi da tavolo trovati
+     */
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(int numeroGiocatori) {
+        if (numeroGiocatori < 2 || numeroGiocatori > 10) {
+            throw new IllegalArgumentException("Il numero di giocatori deve essere compreso tra 2 e 10");
+        }
+
+        GiocoDaTavolo[] risultato;
+        blocco.readLock().lock();
+        try {
+            risultato = scansione((da, a) -> {
+                List<GiocoDaTavolo> trovati = new ArrayList<>();
+                for (int riga = da; riga < a; riga++) {
+                    if (tipi[riga] == TIPO_GIOCO_DA_TAVOLO && extra[riga] == numeroGiocatori) {
+                        trovati.add((GiocoDaTavolo) leggiRiga(riga));
+                    }
+                }
+                return trovati;
+            }).flatMap(List::stream).toArray(GiocoDaTavolo[]::new);
+        } finally {
+            blocco.readLock().unlock();
+        }
+
+        Arrays.parallelSort(risultato, ORDINE_TITOLO);
+        return new ArrayList<>(Arrays.asList(risultato));
+    }
+
+    /**
+     * Elimina un elemento dato il suo ID
+     * L'ultima riga viene spostata nel posto liberato, così le colonne restano compatte
+     * @param idGioco L'ID del gioco da eliminare
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public void rimuoviElemento(String idGioco) throws ElementoNonTrovatoException {
+        String chiave = chiave(idGioco);
+
+        blocco.writeLock().lock();
+        try {
+            int riga = righe.remove(chiave);
+            if (riga == MappaIdDense.ASSENTE) {
+                throw new ElementoNonTrovatoException(
+                    "Elemento con ID '" + idGioco + "' non trovato nella collezione");
+            }
+
+            rilasciaCodici(riga);
+            int ultima = --dimensione;
+            if (riga != ultima) {
+                copiaRiga(ultima, riga);
+                righe.put(id[riga], riga);
+            }
+            id[ultima] = null;
+        } finally {
+            blocco.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modifica un elemento esistente identificato tramite ID
+     * @param giocoAggiornato Il gioco con i dati aggiornati
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public void aggiornaElemento(Gioco giocoAggiornato) throws ElementoNonTrovatoException {
+        if (giocoAggiornato == null) {
+            throw new IllegalArgumentException("Il gioco aggiornato non può essere nullo");
+        }
+
+        blocco.writeLock().lock();
+        try {
+            int riga = righe.get(giocoAggiornato.getIdGioco());
+            if (riga == MappaIdDense.ASSENTE) {
+                throw new ElementoNonTrovatoException(
+                    "Elemento con ID '" + giocoAggiornato.getIdGioco() + "' non trovato nella collezione");
+            }
+            // i codici precedenti vengono rilasciati dopo la scrittura: se titolo
+            // o piattaforma non cambiano il valore resta nel dizionario
+            int titolo = titoli[riga];
+            int piattaforma = piattaforme[riga];
+            scriviRiga(riga, giocoAggiornato);
+            dizionarioTitoli.rilascia(titolo);
+            if (piattaforma >= 0) {
+                dizionarioPiattaforme.rilascia(piattaforma);
+            }
+        } finally {
+            blocco.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Genera statistiche sulla collezione con un'unica scansione delle colonne
+     * @return Istantanea delle statistiche
+     */
+    public StatisticheCollezione generaStatistiche() {
+        blocco.readLock().lock();
+        try {
+            if (dimensione == 0) {
+                return StatisticheCollezione.VUOTE;
+            }
+
+            Parziale totale = scansione(this::statistiche).reduce(Parziale::unisci).orElseThrow();
+            return new StatisticheCollezione(totale.videogiochi, dimensione - totale.videogiochi,
+                    leggiRiga(totale.rigaMassima), totale.somma / dimensione);
+        } finally {
+            blocco.readLock().unlock();
+        }
+    }
+
+    private Parziale statistiche(int da, int a) {
+        long videogiochi = 0;
+        double somma = 0;
+        int rigaMassima = da;
+        for (int riga = da; riga < a; riga++) {
+            if (tipi[riga] == TIPO_VIDEOGIOCO) {
+                videogiochi++;
+            }
+            somma += prezzi[riga];
+            if (prezzi[riga] > prezzi[rigaMassima]) {
+                rigaMassima = riga;
+            }
+        }
+        return new Parziale(videogiochi, somma, a > da ? rigaMassima : -1, a > da ? prezzi[rigaMassima] : 0);
+    }
+
+    /**
+     * Statistiche di un intervallo di righe; rigaMassima vale -1 se l'intervallo è vuoto
+     */
+    private record Parziale(long videogiochi, double somma, int rigaMassima, double prezzoMassimo) {
+
+        /**
+         * Unisce le statistiche dell'intervallo successivo: a parità di prezzo
+         * resta la riga precedente, come nella scansione sequenziale
+         */
+        Parziale unisci(Parziale successivo) {
+            boolean massimoSuccessivo = rigaMassima < 0
+                    || successivo.rigaMassima >= 0 && successivo.prezzoMassimo > prezzoMassimo;
+            return new Parziale(videogiochi + successivo.videogiochi, somma + successivo.somma,
+                    massimoSuccessivo ? successivo.rigaMassima : rigaMassima,
+                    massimoSuccessivo ? successivo.prezzoMassimo : prezzoMassimo);
+        }
+    }
+
+    /**
+     * Restituisce tutti i giochi nella collezione
+     * @return Lista di copie di tutti i giochi
+     */
+    public List<Gioco> getTuttiIGiochi() {
+        blocco.readLock().lock();
+        try {
+            List<Gioco> risultato = new ArrayList<>(dimensione);
+            for (int riga = 0; riga < dimensione; riga++) {
+                risultato.add(leggiRiga(riga));
+            }
+            return risultato;
+        } finally {
+            blocco.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce il numero totale di giochi nella collezione
+     * @return Il numero totale di giochi
+     */
+    public int size() {
+        blocco.readLock().lock();
+        try {
+            return dimensione;
+        } finally {
+            blocco.readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica se la collezione è vuota
+     * @return true se la collezione è vuota, false altrimenti
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Imposta la dimensione da cui le scansioni vengono eseguite in parallelo
+     * Con un solo thread nel pool comune le scansioni restano sempre sequenziali
+     * @param soglia Numero minimo di giochi, 0 per scansioni sempre parallele,
+     *               Integer.MAX_VALUE per scansioni sempre sequenziali
+     */
+    public void configuraSogliaParallela(int soglia) {
+        if (soglia < 0) {
+            throw new IllegalArgumentException("La soglia non può essere negativa");
+        }
+        sogliaParallela = soglia;
+    }
+
+    /**
+     * Esegue la scansione su tutte le righe, in un solo intervallo oppure, dalla
+     * soglia parallela in su, in intervalli contigui di uguale ampiezza.
+     * Il risultato va consumato mentre si tiene il read lock
+     * @return I risultati degli intervalli, nell'ordine delle righe
+     */
+    private <T> Stream<T> scansione(ScansioneParallela.Intervallo<T> scansione) {
+        return ScansioneParallela.esegui(dimensione, dimensione >= sogliaParallela, scansione);
+    }
+
+    /**
+     * Scrive il gioco nella riga; il tipo viene verificato prima di scrivere
+     * qualsiasi colonna, così un tipo non supportato lascia la riga invariata
+     */
+    private void scriviRiga(int riga, Gioco gioco) {
+        if (!(gioco instanceof Videogioco) && !(gioco instanceof GiocoDaTavolo)) {
+            throw new IllegalArgumentException("Tipo di gioco non supportato: " + gioco.getClass().getName());
+        }
+
+        id[riga] = gioco.getIdGioco();
+        titoli[riga] = dizionarioTitoli.codifica(gioco.getTitolo());
+        anni[riga] = (short) gioco.getAnnoPubblicazione();
+        prezzi[riga] = gioco.getPrezzo();
+
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            tipi[riga] = TIPO_VIDEOGIOCO;
+            durate[riga] = videogioco.getDurataGioco();
+            extra[riga] = (byte) videogioco.getGenere().ordinal();
+            piattaforme[riga] = dizionarioPiattaforme.codifica(videogioco.getPiattaforma());
+        } else {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            tipi[riga] = TIPO_GIOCO_DA_TAVOLO;
+            durate[riga] = giocoDaTavolo.getDurataMediaPartita();
+            extra[riga] = (byte) giocoDaTavolo.getNumeroGiocatori();
+            piattaforme[riga] = -1;
+        }
+    }
+
+    private void rilasciaCodici(int riga) {
+        dizionarioTitoli.rilascia(titoli[riga]);
+        if (piattaforme[riga] >= 0) {
+            dizionarioPiattaforme.rilascia(piattaforme[riga]);
+        }
+    }
+
+    private Gioco leggiRiga(int riga) {
+        String titolo = dizionarioTitoli.decodifica(titoli[riga]);
+        if (tipi[riga] == TIPO_VIDEOGIOCO) {
+            return new Videogioco(id[riga], titolo, anni[riga], prezzi[riga],
+                    dizionarioPiattaforme.decodifica(piattaforme[riga]), durate[riga], GENERI[extra[riga]]);
+        }
+        return new GiocoDaTavolo(id[riga], titolo, anni[riga], prezzi[riga], extra[riga], durate[riga]);
+    }
+
+    private void copiaRiga(int da, int a) {
+        id[a] = id[da];
+        tipi[a] = tipi[da];
+        titoli[a] = titoli[da];
+        anni[a] = anni[da];
+        prezzi[a] = prezzi[da];
+        durate[a] = durate[da];
+        extra[a] = extra[da];
+        piattaforme[a] = piattaforme[da];
+    }
+
+    private void alloca(int capacita) {
+        if (id == null) {
+            id = new String[capacita];
+            tipi = new byte[capacita];
+            titoli = new int[capacita];
+            anni = new short[capacita];
+            prezzi = new double[capacita];
+            durate = new int[capacita];
+            extra = new byte[capacita];
+            piattaforme = new int[capacita];
+            return;
+        }
+        id = Arrays.copyOf(id, capacita);
+        tipi = Arrays.copyOf(tipi, capacita);
+        titoli = Arrays.copyOf(titoli, capacita);
+        anni = Arrays.copyOf(anni, capacita);
+        prezzi = Arrays.copyOf(prezzi, capacita);
+        durate = Arrays.copyOf(durate, capacita);
+        extra = Arrays.copyOf(extra, capacita);
+        piattaforme = Arrays.copyOf(piattaforme, capacita);
+    }
+
+    private static String chiave(String idGioco) {
+        String chiave = idGioco == null ? "" : idGioco.trim();
+        if (chiave.isEmpty()) {
+            throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
+        }
+        return chiave;
+    }
+
+    private static void verificaPrezzo(double prezzoMassimo) {
+        if (!(prezzoMassimo > 0) || Double.isInfinite(prezzoMassimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+    }
+}
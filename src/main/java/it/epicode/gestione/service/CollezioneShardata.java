@@ -0,0 +1,296 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collezione di giochi divisa per hash dell'ID in più Collezione indipendenti
+ *
+ * Ogni partizione ha la propria mappa, i propri indici e i propri contatori,
+ * quindi le modifiche di ID diversi non si contendono le stesse strutture.
+ * Le operazioni su un singolo ID vanno a una sola partizione; le ricerche per
+ * prezzo e per numero di giocatori scorrono gli indici di tutte le partizioni,
+ * già ordinati, con un'unica fusione pigra a k vie, senza copiarli prima in
+ * array intermedi. La fusione costa più della
+ * lettura di un solo indice: la divisione conviene quando il carico è fatto
+ * soprattutto di operazioni su singoli ID da più thread.
+ *
+ * La classe è thread-safe con le stesse garanzie di Collezione: le letture che
+ * coinvolgono più partizioni sono debolmente consistenti rispetto alle
+ * modifiche concorrenti.
+ *
+ * Si usa da codice: l'applicazione (menu, comandi, HTTP, registro delle
+ * modifiche) lavora su una sola Collezione.
+ */
+public class CollezioneShardata {
+    // Stesso ordine dell'indice prezzi, per scegliere il più caro tra quelli delle partizioni
+    private static final Comparator<Gioco> ORDINE_PREZZO_GIOCO = Comparator
+            .comparingDouble(Gioco::getPrezzo)
+            .thenComparing(Gioco::getIdGioco);
+
+    private final Collezione[] partizioni;
+
+    /**
+     * Costruttore con una partizione per processore disponibile
+     */
+    public CollezioneShardata() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Costruttore della classe CollezioneShardata
+     * @param numeroPartizioni Numero di partizioni indipendenti
+     */
+    public CollezioneShardata(int numeroPartizioni) {
+        if (numeroPartizioni <= 0) {
+            throw new IllegalArgumentException("Il numero di partizioni deve essere positivo");
+        }
+        this.partizioni = new Collezione[numeroPartizioni];
+        for (int i = 0; i < numeroPartizioni; i++) {
+            partizioni[i] = new Collezione();
+        }
+    }
+
+    /**
+     * Aggiunge un elemento alla partizione del suo ID
+     * @param gioco Il gioco da aggiungere
+     * @throws ElementoDuplicatoException se l'ID esiste già
+     */
+    public void aggiungiElemento(Gioco gioco) throws ElementoDuplicatoException {
+        if (gioco == null) {
+            throw new IllegalArgumentException("Il gioco non può essere nullo");
+        }
+        partizione(gioco.getIdGioco()).aggiungiElemento(gioco);
+    }
+
+    /**
+     * Ricerca un elemento tramite ID
+     * @param id L'ID del gioco da cercare
+     * @return Il gioco trovato
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public Gioco cercaPerID(String id) throws ElementoNonTrovatoException {
+        return partizione(id).cercaPerID(id);
+    }
+
+    /**
+     * Elimina un elemento dato il suo ID
+     * @param id L'ID del gioco da eliminare
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public void rimuoviElemento(String id) throws ElementoNonTrovatoException {
+        partizione(id).rimuoviElemento(id);
+    }
+
+    /**
+     * Modifica un elemento esistente identificato tramite ID
+     * @param giocoAggiornato Il gioco con i dati aggiornati
+     * @throws ElementoNonTrovatoException se l'elemento non viene trovato
+     */
+    public void aggiornaElemento(Gioco giocoAggiornato) throws ElementoNonTrovatoException {
+        if (giocoAggiornato == null) {
+            throw new IllegalArgumentException("Il gioco aggiornato non può essere nullo");
+        }
+        partizione(giocoAggiornato.getIdGioco()).aggiornaElemento(giocoAggiornato);
+    }
+
+    /**
+     * Restituisce i giochi con prezzo inferiore al valore specificato, per prezzo
+     * crescente e a parità di prezzo per ID, come Collezione.cercaPerPrezzo
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Lista non modificabile dei giochi trovati
+     */
+    public List<Gioco> cercaPerPrezzo(double prezzoMassimo) {
+        if (!(prezzoMassimo > 0) || Double.isInfinite(prezzoMassimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+        return leggiTutte(partizione -> partizione.intervalloPrezzo(prezzoMassimo).iterator(),
+                Voce.ORDINE_PREZZO, Gioco.class);
+    }
+
+    /**
+     * Variante paginata di cercaPerPrezzo
+     * Fonde le partizioni senza copiarle e si ferma dopo l'ultimo gioco della pagina
+     * @param prezzoMassimo Il prezzo massimo
+     * @param offset Numero di giochi da saltare
+     * @param limit Numero massimo di giochi da restituire
+     * @return Pagina non modificabile di giochi con prezzo inferiore al valore specificato
+     */
+    public List<Gioco> cercaPerPrezzo(double prezzoMassimo, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset e limite non possono essere negativi");
+        }
+        if (!(prezzoMassimo > 0) || Double.isInfinite(prezzoMassimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+
+        Iterator<Voce> fuse = fondi(partizione -> partizione.intervalloPrezzo(prezzoMassimo).iterator(),
+                Voce.ORDINE_PREZZO);
+        for (int i = 0; i < offset && fuse.hasNext(); i++) {
+            fuse.next();
+        }
+        List<Gioco> pagina = new ArrayList<>(Math.min(limit, 1024));
+        while (pagina.size() < limit && fuse.hasNext()) {
+            pagina.add(fuse.next().gioco());
+        }
+        return Collections.unmodifiableList(pagina);
+    }
+
+    /**
+     * Conta i giochi con prezzo inferiore al valore specificato
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Il numero di giochi con prezzo inferiore al valore specificato
+     */
+    public int contaPerPrezzo(double prezzoMassimo) {
+        int totale = 0;
+        for (Collezione partizione : partizioni) {
+            totale += partizione.contaPerPrezzo(prezzoMassimo);
+        }
+        return totale;
+    }
+
+    /**
+     * Ricerca giochi da tavolo per numero di giocatori
+     * @param numeroGiocatori Il numero di giocatori
+     * @return Lista non modificabile ordinata per titolo
+     */
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(int numeroGiocatori) {
+        return cercaPerNumeroGiocatori(numeroGiocatori, numeroGiocatori);
+    }
+
+    /**
+     * Ricerca giochi da tavolo per intervallo di numero di giocatori (estremi inclusi)
+     * @param minGiocatori Numero minimo di giocatori
+     * @param maxGiocatori Numero massimo di giocatori
+     * @return Lista non modificabile ordinata per titolo
+     */
+    public List<GiocoDaTavolo> cercaPerNumeroGiocatori(int minGiocatori, int maxGiocatori) {
+        int primo = Collezione.indiceBucket(minGiocatori);
+        int ultimo = Collezione.indiceBucket(maxGiocatori);
+        if (primo > ultimo) {
+            throw new IllegalArgumentException("Il numero minimo di giocatori non può superare il massimo");
+        }
+        return leggiTutte(partizione -> partizione.scorriBucket(primo, ultimo, true),
+                Voce.ORDINE_TITOLO, GiocoDaTavolo.class);
+    }
+
+    /**
+     * Genera statistiche sulla collezione combinando quelle delle partizioni
+     * Ogni partizione le mantiene in modo incrementale, quindi vengono lette in
+     * sequenza: distribuire letture in tempo costante costerebbe più che eseguirle
+     * @return Istantanea delle statistiche
+     */
+    public StatisticheCollezione generaStatistiche() {
+        long videogiochi = 0;
+        long giochiDaTavolo = 0;
+        double sommaPrezzi = 0;
+        Gioco piuCaro = null;
+        for (Collezione partizione : partizioni) {
+            StatisticheCollezione statistiche = partizione.generaStatistiche();
+            if (statistiche.giocoPrezzoPiuElevato() == null) {
+                continue;
+            }
+            videogiochi += statistiche.totaleVideogiochi();
+            giochiDaTavolo += statistiche.totaleGiochiDaTavolo();
+            sommaPrezzi += partizione.sommaPrezzi();
+            if (piuCaro == null || ORDINE_PREZZO_GIOCO.compare(statistiche.giocoPrezzoPiuElevato(), piuCaro) > 0) {
+                piuCaro = statistiche.giocoPrezzoPiuElevato();
+            }
+        }
+        if (piuCaro == null) {
+            return StatisticheCollezione.VUOTE;
+        }
+        long totale = videogiochi + giochiDaTavolo;
+        return new StatisticheCollezione(videogiochi, giochiDaTavolo, piuCaro,
+                totale > 0 ? sommaPrezzi / totale : 0.0);
+    }
+
+    /**
+     * Restituisce tutti i giochi nella collezione
+     * @return Lista di tutti i giochi, in ordine non specificato
+     */
+    public List<Gioco> getTuttiIGiochi() {
+        List<Gioco> tutti = new ArrayList<>(size());
+        for (Collezione partizione : partizioni) {
+            partizione.forEach(tutti::add);
+        }
+        return tutti;
+    }
+
+    /**
+     * Restituisce il numero totale di giochi nella collezione
+     * @return Il numero totale di giochi
+     */
+    public int size() {
+        int totale = 0;
+        for (Collezione partizione : partizioni) {
+            totale += partizione.size();
+        }
+        return totale;
+    }
+
+    /**
+     * Verifica se la collezione è vuota
+     * @return true se la collezione è vuota, false altrimenti
+     */
+    public boolean isEmpty() {
+        for (Collezione partizione : partizioni) {
+            if (!partizione.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumeroPartizioni() {
+        return partizioni.length;
+    }
+
+    /**
+     * Partizione a cui appartiene l'ID: l'hash viene rimescolato perché gli ID
+     * simili (G1, G2, ...) differiscono solo nei bit bassi
+     */
+    private Collezione partizione(String id) {
+        String chiave = id == null ? "" : id.trim();
+        if (chiave.isEmpty()) {
+            throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
+        }
+        int hash = chiave.hashCode();
+        return partizioni[Math.floorMod(hash ^ (hash >>> 16), partizioni.length)];
+    }
+
+    /**
+     * Legge le voci di tutte le partizioni fondendole a k vie
+     * @param voci Le voci di una partizione, già ordinate secondo ordine
+     */
+    private <T extends Gioco> List<T> leggiTutte(Function<Collezione, Iterator<Voce>> voci,
+                                                 Comparator<Voce> ordine, Class<T> tipo) {
+        Iterator<Voce> fuse = fondi(voci, ordine);
+        List<T> risultato = new ArrayList<>();
+        while (fuse.hasNext()) {
+            risultato.add(tipo.cast(fuse.next().gioco()));
+        }
+        return Collections.unmodifiableList(risultato);
+    }
+
+    /**
+     * Fusione pigra degli iteratori delle partizioni: ogni voce costa log2(k)
+     * confronti e viene letta dall'indice della partizione solo quando serve
+     */
+    private Iterator<Voce> fondi(Function<Collezione, Iterator<Voce>> voci, Comparator<Voce> ordine) {
+        List<Iterator<Voce>> sorgenti = new ArrayList<>(partizioni.length);
+        for (Collezione partizione : partizioni) {
+            sorgenti.add(voci.apply(partizione));
+        }
+        return new FusioneOrdinata(sorgenti, ordine);
+    }
+}
@@ -0,0 +1,391 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Criteri di ricerca combinabili per Collezione.cerca
+ *
+ * Ogni metodo aggiunge un filtro e restituisce l'oggetto stesso, così i criteri
+ * si compongono in catena; i filtri sono in AND. Un filtro su un attributo
+ * specifico di un tipo (genere, piattaforma, durata di gioco per i videogiochi;
+ * numero di giocatori e durata della partita per i giochi da tavolo) esclude
+ * i giochi dell'altro tipo.
+ *
+ * Esempio: {@code new Criteri().genere(Genere.RPG).prezzoInferioreA(30).ordinaPer(Ordinamento.PREZZO, true).limite(10)}
+ */
+public final class Criteri {
+
+    /**
+     * Attributi su cui si può ordinare il risultato
+     */
+    public enum Ordinamento {
+        PREZZO,
+        TITOLO,
+        ANNO
+    }
+
+    /**
+     * Attributi filtrabili, usati dal pianificatore per sapere quali filtri
+     * sono già garantiti dall'indice scelto
+     */
+    enum Attributo {
+        TIPO,
+        PREZZO,
+        TITOLO,
+        GENERE,
+        PIATTAFORMA,
+        ANNO,
+        DURATA_GIOCO,
+        NUMERO_GIOCATORI,
+        DURATA_PARTITA
+    }
+
+    private final Map<Attributo, Predicate<Voce>> filtri = new EnumMap<>(Attributo.class);
+    private final Map<Attributo, String> descrizioni = new EnumMap<>(Attributo.class);
+
+    private Class<? extends Gioco> tipo;
+    private double prezzoMinimo;
+    private double prezzoMassimo = Double.POSITIVE_INFINITY;
+    private boolean massimoIncluso = true;
+    private int minGiocatori;
+    private int maxGiocatori;
+    private String testoTitolo;
+    private Set<Genere> generi = Collections.emptySet();
+    private String piattaforma;
+    private Ordinamento ordinamento;
+    private boolean crescente = true;
+    private int salta;
+    private int limite = Integer.MAX_VALUE;
+
+    /**
+     * Limita la ricerca ai videogiochi
+     * @return Questi criteri
+     */
+    public Criteri soloVideogiochi() {
+        return tipo(Videogioco.class);
+    }
+
+    /**
+     * Limita la ricerca ai giochi da tavolo
+     * @return Questi criteri
+     */
+    public Criteri soloGiochiDaTavolo() {
+        return tipo(GiocoDaTavolo.class);
+    }
+
+    private Criteri tipo(Class<? extends Gioco> richiesto) {
+        if (tipo != null && tipo != richiesto) {
+            throw new IllegalArgumentException("I criteri combinano attributi di videogiochi e di giochi da tavolo");
+        }
+        tipo = richiesto;
+        filtri.put(Attributo.TIPO, richiesto == Videogioco.class ? Voce::isVideogioco : Voce::isGiocoDaTavolo);
+        descrizioni.put(Attributo.TIPO, "tipo = " + richiesto.getSimpleName());
+        return this;
+    }
+
+    /**
+     * Filtra per prezzo inferiore al valore indicato, come cercaPerPrezzo
+     * @param massimo Il prezzo massimo escluso
+     * @return Questi criteri
+     */
+    public Criteri prezzoInferioreA(double massimo) {
+        if (!(massimo > 0) || Double.isInfinite(massimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+        return prezzo(0, massimo, false);
+    }
+
+    /**
+     * Filtra per prezzo compreso nell'intervallo (estremi inclusi)
+     * Gli estremi devono essere finiti: con NaN l'indice prezzi e il filtro sui
+     * candidati darebbero risultati diversi a seconda del piano scelto
+     * @param minimo Il prezzo minimo
+     * @param massimo Il prezzo massimo
+     * @return Questi criteri
+     */
+    public Criteri prezzoTra(double minimo, double massimo) {
+        if (!Double.isFinite(minimo) || !Double.isFinite(massimo) || minimo < 0 || minimo > massimo) {
+            throw new IllegalArgumentException("Intervallo di prezzo non valido");
+        }
+        return prezzo(minimo, massimo, true);
+    }
+
+    private Criteri prezzo(double minimo, double massimo, boolean incluso) {
+        prezzoMinimo = minimo;
+        prezzoMassimo = massimo;
+        massimoIncluso = incluso;
+        filtri.put(Attributo.PREZZO, voce -> voce.prezzo() >= minimo
+                && (incluso ? voce.prezzo() <= massimo : voce.prezzo() < massimo));
+        descrizioni.put(Attributo.PREZZO, incluso
+                ? minimo + " <= prezzo <= " + massimo
+                : "prezzo < " + massimo);
+        return this;
+    }
+
+    /**
+     * Filtra per parole del titolo, con la stessa corrispondenza di cercaPerTitolo
+     * @param testo Il testo da cercare
+     * @return Questi criteri
+     */
+    public Criteri titolo(String testo) {
+        if (testo == null || IndiceTitoli.terminiDi(testo).isEmpty()) {
+            throw new IllegalArgumentException("Il testo da cercare non può essere nullo o vuoto");
+        }
+        Set<String> richiesta = IndiceTitoli.terminiDi(testo);
+        testoTitolo = testo;
+        filtri.put(Attributo.TITOLO, voce -> IndiceTitoli.corrisponde(voce.titolo(), richiesta));
+        descrizioni.put(Attributo.TITOLO, "titolo ~ \"" + testo + "\"");
+        return this;
+    }
+
+    /**
+     * Filtra i videogiochi per uno o più generi
+     * @param primo Il primo genere ammesso
+     * @param altri Altri generi ammessi
+     * @return Questi criteri
+     */
+    public Criteri genere(Genere primo, Genere... altri) {
+        if (primo == null) {
+            throw new IllegalArgumentException("Il genere non può essere nullo");
+        }
+        soloVideogiochi();
+        Set<Genere> ammessi = EnumSet.of(primo, altri);
+        generi = ammessi;
+        filtri.put(Attributo.GENERE, voce -> ammessi.contains(voce.genere()));
+        descrizioni.put(Attributo.GENERE, "genere in " + ammessi);
+        return this;
+    }
+
+    /**
+     * Filtra i videogiochi per piattaforma, senza distinguere maiuscole e minuscole
+     * @param nome La piattaforma
+     * @return Questi criteri
+     */
+    public Criteri piattaforma(String nome) {
+        if (nome == null || nome.trim().isEmpty()) {
+            throw new IllegalArgumentException("La piattaforma non può essere nulla o vuota");
+        }
+        soloVideogiochi();
+        String chiave = Voce.chiavePiattaforma(nome);
+        piattaforma = chiave;
+        filtri.put(Attributo.PIATTAFORMA, voce -> chiave.equals(voce.piattaforma()));
+        descrizioni.put(Attributo.PIATTAFORMA, "piattaforma = " + chiave);
+        return this;
+    }
+
+    /**
+     * Filtra per anno di pubblicazione (estremi inclusi)
+     * @param minimo Anno minimo
+     * @param massimo Anno massimo
+     * @return Questi criteri
+     */
+    public Criteri annoTra(int minimo, int massimo) {
+        verificaIntervallo(minimo, massimo, "anno");
+        filtri.put(Attributo.ANNO, voce -> {
+            int anno = voce.gioco().getAnnoPubblicazione();
+            return anno >= minimo && anno <= massimo;
+        });
+        descrizioni.put(Attributo.ANNO, minimo + " <= anno <= " + massimo);
+        return this;
+    }
+
+    /**
+     * Filtra i videogiochi per durata di gioco in ore (estremi inclusi)
+     * @param minimo Durata minima
+     * @param massimo Durata massima
+     * @return Questi criteri
+     */
+    public Criteri durataGiocoTra(int minimo, int massimo) {
+        verificaIntervallo(minimo, massimo, "durata di gioco");
+        soloVideogiochi();
+        filtri.put(Attributo.DURATA_GIOCO, voce -> {
+            int durata = ((Videogioco) voce.gioco()).getDurataGioco();
+            return durata >= minimo && durata <= massimo;
+        });
+        descrizioni.put(Attributo.DURATA_GIOCO, minimo + " <= durataGioco <= " + massimo);
+        return this;
+    }
+
+    /**
+     * Filtra i giochi da tavolo per numero di giocatori
+     * @param numeroGiocatori Il numero di giocatori
+     * @return Questi criteri
+     */
+    public Criteri numeroGiocatori(int numeroGiocatori) {
+        return numeroGiocatoriTra(numeroGiocatori, numeroGiocatori);
+    }
+
+    /**
+     * Filtra i giochi da tavolo per intervallo di numero di giocatori (estremi inclusi)
+     * @param minimo Numero minimo di giocatori
+     * @param massimo Numero massimo di giocatori
+     * @return Questi criteri
+     */
+    public Criteri numeroGiocatoriTra(int minimo, int massimo) {
+        if (minimo < 2 || massimo > 10 || minimo > massimo) {
+            throw new IllegalArgumentException("Il numero di giocatori deve essere compreso tra 2 e 10");
+        }
+        soloGiochiDaTavolo();
+        minGiocatori = minimo;
+        maxGiocatori = massimo;
+        filtri.put(Attributo.NUMERO_GIOCATORI, voce ->
+                voce.numeroGiocatori() >= minimo && voce.numeroGiocatori() <= massimo);
+        descrizioni.put(Attributo.NUMERO_GIOCATORI, minimo + " <= numeroGiocatori <= " + massimo);
+        return this;
+    }
+
+    /**
+     * Filtra i giochi da tavolo per durata media della partita in minuti (estremi inclusi)
+     * @param minimo Durata minima
+     * @param massimo Durata massima
+     * @return Questi criteri
+     */
+    public Criteri durataPartitaTra(int minimo, int massimo) {
+        verificaIntervallo(minimo, massimo, "durata della partita");
+        soloGiochiDaTavolo();
+        filtri.put(Attributo.DURATA_PARTITA, voce -> {
+            int durata = ((GiocoDaTavolo) voce.gioco()).getDurataMediaPartita();
+            return durata >= minimo && durata <= massimo;
+        });
+        descrizioni.put(Attributo.DURATA_PARTITA, minimo + " <= durataMediaPartita <= " + massimo);
+        return this;
+    }
+
+    /**
+     * Ordina il risultato; senza ordinamento i giochi seguono l'ordine dell'indice scelto
+     * @param attributo L'attributo di ordinamento
+     * @param crescente true per l'ordine crescente
+     * @return Questi criteri
+     */
+    public Criteri ordinaPer(Ordinamento attributo, boolean crescente) {
+        if (attributo == null) {
+            throw new IllegalArgumentException("L'ordinamento non può essere nullo");
+        }
+        this.ordinamento = attributo;
+        this.crescente = crescente;
+        return this;
+    }
+
+    /**
+     * Salta i primi giochi del risultato
+     * @param quanti Numero di giochi da saltare
+     * @return Questi criteri
+     */
+    public Criteri salta(int quanti) {
+        if (quanti < 0) {
+            throw new IllegalArgumentException("Offset e limite non possono essere negativi");
+        }
+        this.salta = quanti;
+        return this;
+    }
+
+    /**
+     * Limita il numero di giochi restituiti
+     * @param quanti Numero massimo di giochi
+     * @return Questi criteri
+     */
+    public Criteri limite(int quanti) {
+        if (quanti < 0) {
+            throw new IllegalArgumentException("Offset e limite non possono essere negativi");
+        }
+        this.limite = quanti;
+        return this;
+    }
+
+    private static void verificaIntervallo(int minimo, int massimo, String nome) {
+        if (minimo > massimo) {
+            throw new IllegalArgumentException("Intervallo di " + nome + " non valido");
+        }
+    }
+
+    boolean haFiltro(Attributo attributo) {
+        return filtri.containsKey(attributo);
+    }
+
+    /**
+     * Filtri da applicare ai candidati di un indice
+     * @param garantiti Attributi già garantiti dall'indice
+     * @return Il predicato dei filtri rimanenti
+     */
+    Predicate<Voce> filtroResiduo(Set<Attributo> garantiti) {
+        Predicate<Voce> residuo = voce -> true;
+        for (Map.Entry<Attributo, Predicate<Voce>> filtro : filtri.entrySet()) {
+            if (!garantiti.contains(filtro.getKey())) {
+                residuo = residuo.and(filtro.getValue());
+            }
+        }
+        return residuo;
+    }
+
+    /**
+     * Descrizioni dei filtri rimanenti per l'output del piano
+     */
+    Map<Attributo, String> descrizioni() {
+        return Collections.unmodifiableMap(descrizioni);
+    }
+
+    Class<? extends Gioco> getTipo() {
+        return tipo;
+    }
+
+    double getPrezzoMinimo() {
+        return prezzoMinimo;
+    }
+
+    double getPrezzoMassimo() {
+        return prezzoMassimo;
+    }
+
+    boolean isMassimoIncluso() {
+        return massimoIncluso;
+    }
+
+    int getMinGiocatori() {
+        return minGiocatori;
+    }
+
+    int getMaxGiocatori() {
+        return maxGiocatori;
+    }
+
+    String getTestoTitolo() {
+        return testoTitolo;
+    }
+
+    Set<Genere> getGeneri() {
+        return generi;
+    }
+
+    /**
+     * @return La chiave canonica della piattaforma cercata
+     */
+    String getPiattaforma() {
+        return piattaforma;
+    }
+
+    Ordinamento getOrdinamento() {
+        return ordinamento;
+    }
+
+    boolean isCrescente() {
+        return crescente;
+    }
+
+    int getSalta() {
+        return salta;
+    }
+
+    int getLimite() {
+        return limite;
+    }
+}
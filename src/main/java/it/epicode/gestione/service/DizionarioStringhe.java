@@ -0,0 +1,79 @@
+package it.epicode.gestione.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dizionario di stringhe: ogni valore distinto è memorizzato una sola volta
+ * e le colonne conservano solo il suo codice intero.
+ * Ogni codice conta le righe che lo usano: quando l'ultima lo rilascia il
+ * valore viene eliminato e il codice riusato dalla prossima codifica, così il
+ * dizionario non cresce con i titoli rimossi o modificati.
+ * Non è thread-safe: va protetto dal chiamante.
+ */
+final class DizionarioStringhe {
+    private final MappaIdDense codici = new MappaIdDense(16);
+    private final List<String> valori = new ArrayList<>();
+    private int[] riferimenti = new int[16];
+    private int[] liberi = new int[16];
+    private int numeroLiberi;
+
+    /**
+     * Restituisce il codice del valore, registrandolo se non è ancora presente,
+     * e conta un riferimento in più; ogni codifica va bilanciata da un rilascio
+     * @param valore Il valore da codificare
+     * @return Il codice del valore
+     */
+    int codifica(String valore) {
+        int codice = codici.get(valore);
+        if (codice == MappaIdDense.ASSENTE) {
+            if (numeroLiberi > 0) {
+                codice = liberi[--numeroLiberi];
+                valori.set(codice, valore);
+            } else {
+                codice = valori.size();
+                valori.add(valore);
+                if (codice == riferimenti.length) {
+                    riferimenti = Arrays.copyOf(riferimenti, codice * 2);
+                }
+            }
+            codici.put(valore, codice);
+        }
+        riferimenti[codice]++;
+        return codice;
+    }
+
+    /**
+     * Rilascia un riferimento al codice, eliminando il valore con l'ultimo
+     * @param codice Il codice restituito da codifica
+     */
+    void rilascia(int codice) {
+        if (--riferimenti[codice] > 0) {
+            return;
+        }
+        codici.remove(valori.get(codice));
+        valori.set(codice, null);
+        if (numeroLiberi == liberi.length) {
+            liberi = Arrays.copyOf(liberi, numeroLiberi * 2);
+        }
+        liberi[numeroLiberi++] = codice;
+    }
+
+    /**
+     * Restituisce il valore associato al codice
+     * @param codice Il codice del valore
+     * @return Il valore, sempre la stessa istanza per lo stesso codice
+     */
+    String decodifica(int codice) {
+        return valori.get(codice);
+    }
+
+    /**
+     * Restituisce il numero di valori distinti ancora usati
+     * @return Il numero di valori distinti
+     */
+    int size() {
+        return valori.size() - numeroLiberi;
+    }
+}
@@ -0,0 +1,30 @@
+package it.epicode.gestione.service;
+
+import java.util.List;
+
+/**
+ * Esito di un'operazione su un lotto di giochi
+ * @param applicati ID per cui l'operazione è stata applicata
+ * @param duplicati ID scartati perché già presenti (solo per gli inserimenti)
+ * @param nonTrovati ID scartati perché non presenti (aggiornamenti e rimozioni)
+ * @param annullato true se il lotto atomico non è stato applicato
+ */
+public record EsitoLotto(List<String> applicati,
+                         List<String> duplicati,
+                         List<String> nonTrovati,
+                         boolean annullato) {
+
+    public EsitoLotto {
+        applicati = List.copyOf(applicati);
+        duplicati = List.copyOf(duplicati);
+        nonTrovati = List.copyOf(nonTrovati);
+    }
+
+    /**
+     * Verifica se tutte le operazioni del lotto sono state applicate
+     * @return true se non ci sono stati scarti né annullamenti
+     */
+    public boolean isCompleto() {
+        return !annullato && duplicati.isEmpty() && nonTrovati.isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+/**
+ * Modifica applicata alla collezione, come pubblicata dal flusso delle modifiche
+ * Le immagini sono copie immutabili del gioco prima e dopo la modifica
+ * @param sequenza Posizione dell'evento nel flusso, a partire da 0 e senza buchi
+ * @param tipo Il tipo di modifica
+ * @param idGioco L'ID del gioco modificato
+ * @param prima Il gioco prima della modifica, null per un inserimento
+ * @param dopo Il gioco dopo la modifica, null per una rimozione
+ */
+public record EventoCollezione(long sequenza, Tipo tipo, String idGioco, Gioco prima, Gioco dopo) {
+
+    /**
+     * Tipi di modifica
+     */
+    public enum Tipo {
+        INSERIMENTO,
+        AGGIORNAMENTO,
+        RIMOZIONE
+    }
+}
@@ -0,0 +1,220 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.EventiPersiException;
+import it.epicode.gestione.model.Gioco;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flusso ordinato delle modifiche di una Collezione, con contropressione
+ *
+ * Ogni inserimento, aggiornamento e rimozione riceve un numero di sequenza
+ * mentre l'ID è bloccato, quindi gli eventi di uno stesso ID sono in ordine di
+ * applicazione. Gli eventi restano in un buffer circolare di capacità fissa:
+ * chi scrive non aspetta mai i sottoscrittori, e un sottoscrittore rimasto
+ * indietro di più della capacità riceve onError con EventiPersiException.
+ * Un sottoscrittore può ripartire da una sequenza ancora presente nel buffer.
+ *
+ * Gli eventi sono consegnati sull'esecutore, al più richiesti e uno alla volta
+ * per sottoscrittore. Un evento può arrivare un istante prima che la modifica
+ * sia visibile alle letture della collezione: le immagini dell'evento sono
+ * la fonte da usare.
+ */
+public final class FlussoModifiche implements Flow.Publisher<EventoCollezione> {
+    /**
+     * Capacità del buffer usata da Collezione.flussoModifiche
+     */
+    public static final int CAPACITA_PREDEFINITA = 1 << 16;
+
+    // eventi consegnati per turno prima di cedere l'esecutore agli altri sottoscrittori
+    private static final int EVENTI_PER_TURNO = 1024;
+
+    private final AtomicReferenceArray<EventoCollezione> buffer;
+    private final int maschera;
+    private final AtomicLong prossima = new AtomicLong();
+    private final Executor esecutore;
+    private final List<Sottoscrizione> sottoscrizioni = new CopyOnWriteArrayList<>();
+
+    /**
+     * Costruttore della classe FlussoModifiche
+     * @param capacita Numero di eventi conservati, potenza di due
+     * @param esecutore Esecutore su cui vengono consegnati gli eventi
+     */
+    FlussoModifiche(int capacita, Executor esecutore) {
+        if (capacita <= 0 || Integer.bitCount(capacita) != 1) {
+            throw new IllegalArgumentException("La capacità deve essere una potenza di due");
+        }
+        if (esecutore == null) {
+            throw new IllegalArgumentException("L'esecutore non può essere nullo");
+        }
+        this.buffer = new AtomicReferenceArray<>(capacita);
+        this.maschera = capacita - 1;
+        this.esecutore = esecutore;
+    }
+
+    /**
+     * Registra una modifica e avvisa i sottoscrittori
+     * Va invocato mentre l'ID è bloccato nella collezione
+     */
+    void pubblica(EventoCollezione.Tipo tipo, String idGioco, Gioco prima, Gioco dopo) {
+        long sequenza = prossima.getAndIncrement();
+        buffer.set((int) sequenza & maschera, new EventoCollezione(sequenza, tipo, idGioco, prima, dopo));
+        for (Sottoscrizione sottoscrizione : sottoscrizioni) {
+            sottoscrizione.segnala();
+        }
+    }
+
+    /**
+     * @return La sequenza che riceverà la prossima modifica
+     */
+    public long getProssimaSequenza() {
+        return prossima.get();
+    }
+
+    /**
+     * @return La sequenza più vecchia ancora nel buffer
+     */
+    public long getPrimaDisponibile() {
+        return Math.max(0, prossima.get() - buffer.length());
+    }
+
+    public int getCapacita() {
+        return buffer.length();
+    }
+
+    /**
+     * Sottoscrive a partire dalla prossima modifica
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super EventoCollezione> sottoscrittore) {
+        subscribe(sottoscrittore, prossima.get());
+    }
+
+    /**
+     * Sottoscrive a partire dalla sequenza indicata, ad esempio quella
+     * successiva all'ultimo evento elaborato prima di un'interruzione
+     * @param sottoscrittore Il sottoscrittore
+     * @param daSequenza La sequenza del primo evento da ricevere, al più getProssimaSequenza;
+     *                   se non è più nel buffer il sottoscrittore riceve EventiPersiException
+     */
+    public void subscribe(Flow.Subscriber<? super EventoCollezione> sottoscrittore, long daSequenza) {
+        Objects.requireNonNull(sottoscrittore, "Il sottoscrittore non può essere nullo");
+        if (daSequenza < 0 || daSequenza > prossima.get()) {
+            throw new IllegalArgumentException("Sequenza non valida: " + daSequenza);
+        }
+        Sottoscrizione sottoscrizione = new Sottoscrizione(sottoscrittore, daSequenza);
+        sottoscrizioni.add(sottoscrizione);
+        sottoscrizione.segnala();
+    }
+
+    /**
+     * Stato di un sottoscrittore. I segnali al sottoscrittore partono solo da
+     * run, che non viene mai eseguito in parallelo con se stesso: il contatore
+     * lavoro vale zero solo quando run non è in coda né in esecuzione.
+     */
+    private final class Sottoscrizione implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super EventoCollezione> sottoscrittore;
+        private final AtomicLong richiesti = new AtomicLong();
+        private final AtomicInteger lavoro = new AtomicInteger();
+        private volatile boolean cancellata;
+        private volatile boolean richiestaNonValida;
+        // letti e scritti solo da run
+        private long cursore;
+        private boolean avviata;
+
+        private Sottoscrizione(Flow.Subscriber<? super EventoCollezione> sottoscrittore, long daSequenza) {
+            this.sottoscrittore = sottoscrittore;
+            this.cursore = daSequenza;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                richiestaNonValida = true;
+            } else {
+                richiesti.getAndAccumulate(n, (attuali, nuovi) -> attuali + nuovi < 0 ? Long.MAX_VALUE : attuali + nuovi);
+            }
+            segnala();
+        }
+
+        @Override
+        public void cancel() {
+            cancellata = true;
+            sottoscrizioni.remove(this);
+        }
+
+        private void segnala() {
+            if (lavoro.getAndIncrement() == 0) {
+                esecutore.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int consegnati = 0;
+            while (true) {
+                int visti = lavoro.get();
+                try {
+                    consegnati += consegna(EVENTI_PER_TURNO - consegnati);
+                } catch (RuntimeException e) {
+                    // un sottoscrittore non deve lanciare eccezioni: viene scollegato
+                    cancel();
+                }
+                if (cancellata) {
+                    return;
+                }
+                if (consegnati >= EVENTI_PER_TURNO) {
+                    esecutore.execute(this);
+                    return;
+                }
+                if (lavoro.addAndGet(-visti) == 0) {
+                    return;
+                }
+            }
+        }
+
+        private int consegna(int massimo) {
+            if (!avviata) {
+                avviata = true;
+                sottoscrittore.onSubscribe(this);
+            }
+            if (richiestaNonValida) {
+                cancel();
+                sottoscrittore.onError(new IllegalArgumentException(
+                        "Il numero di eventi richiesti deve essere positivo"));
+                return 0;
+            }
+
+            int consegnati = 0;
+            while (consegnati < massimo && !cancellata && richiesti.get() > 0) {
+                EventoCollezione evento = buffer.get((int) cursore & maschera);
+                if (evento == null || evento.sequenza() < cursore) {
+                    // sequenza assegnata ma evento non ancora scritto
+                    break;
+                }
+                if (evento.sequenza() > cursore) {
+                    cancel();
+                    sottoscrittore.onError(new EventiPersiException(
+                            "Evento " + cursore + " non più disponibile: il sottoscrittore è rimasto indietro"
+                                    + " di oltre " + buffer.length() + " eventi",
+                            cursore, getPrimaDisponibile()));
+                    return consegnati;
+                }
+                cursore++;
+                if (richiesti.get() != Long.MAX_VALUE) {
+                    richiesti.decrementAndGet();
+                }
+                consegnati++;
+                sottoscrittore.onNext(evento);
+            }
+            return consegnati;
+        }
+    }
+}
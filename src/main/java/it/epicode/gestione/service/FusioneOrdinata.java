@@ -0,0 +1,96 @@
+package it.epicode.gestione.service;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Fusione pigra a k vie di sorgenti già ordinate secondo lo stesso comparatore
+ * Le voci vengono lette dalle sorgenti solo quando richieste, quindi chi si ferma
+ * dopo poche voci non paga la fusione dell'intero contenuto.
+ *
+ * Le sorgenti sono le foglie di un albero dei perdenti: ogni nodo interno
+ * conserva la sorgente sconfitta nel confronto tra i suoi due sottoalberi e la
+ * radice la vincitrice. Dopo ogni voce restituita viene rigiocato solo il
+ * percorso dalla sorgente letta alla radice, quindi ogni voce costa log2(k)
+ * confronti, come nella fusione a coppie, e nessuna allocazione.
+ */
+final class FusioneOrdinata implements Iterator<Voce> {
+    private final List<Iterator<Voce>> sorgenti;
+    private final Comparator<Voce> ordine;
+    // voce corrente di ogni sorgente, null se la sorgente è esaurita
+    private final Voce[] teste;
+    // albero[0] è la vincitrice, albero[1..k-1] le perdenti dei nodi interni
+    private final int[] albero;
+
+    /**
+     * Costruttore della classe FusioneOrdinata
+     * @param sorgenti Le sorgenti da fondere
+     * @param ordine L'ordine comune delle sorgenti
+     */
+    FusioneOrdinata(List<Iterator<Voce>> sorgenti, Comparator<Voce> ordine) {
+        this.sorgenti = sorgenti;
+        this.ordine = ordine;
+        int numero = sorgenti.size();
+        this.teste = new Voce[numero];
+        this.albero = new int[Math.max(numero, 1)];
+        albero[0] = -1;
+        for (int i = 1; i < numero; i++) {
+            albero[i] = -1;
+        }
+        for (int i = 0; i < numero; i++) {
+            Iterator<Voce> sorgente = sorgenti.get(i);
+            teste[i] = sorgente.hasNext() ? sorgente.next() : null;
+            gioca(i, true);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return albero[0] >= 0 && teste[albero[0]] != null;
+    }
+
+    @Override
+    public Voce next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int vincitrice = albero[0];
+        Voce voce = teste[vincitrice];
+        Iterator<Voce> sorgente = sorgenti.get(vincitrice);
+        teste[vincitrice] = sorgente.hasNext() ? sorgente.next() : null;
+        gioca(vincitrice, false);
+        return voce;
+    }
+
+    /**
+     * Risale dalla foglia della sorgente alla radice: a ogni nodo resta la
+     * perdente e prosegue la vincitrice. Durante la costruzione la sorgente si
+     * ferma al primo nodo non ancora occupato
+     */
+    private void gioca(int sorgente, boolean costruzione) {
+        int numero = teste.length;
+        for (int nodo = (sorgente + numero) >>> 1; nodo > 0; nodo >>>= 1) {
+            int avversaria = albero[nodo];
+            if (costruzione && avversaria < 0) {
+                albero[nodo] = sorgente;
+                return;
+            }
+            if (precede(avversaria, sorgente)) {
+                albero[nodo] = sorgente;
+                sorgente = avversaria;
+            }
+        }
+        albero[0] = sorgente;
+    }
+
+    /**
+     * Le sorgenti esaurite seguono tutte le altre
+     */
+    private boolean precede(int prima, int seconda) {
+        Voce a = teste[prima];
+        Voce b = teste[seconda];
+        return a != null && (b == null || ordine.compare(a, b) < 0);
+    }
+}
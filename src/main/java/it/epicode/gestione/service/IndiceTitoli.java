@@ -0,0 +1,448 @@
+package it.epicode.gestione.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Indice invertito sui termini normalizzati dei titoli
+ *
+ * I titoli sono divisi in termini (lettere e cifre, minuscoli, senza accenti).
+ * Ogni termine della ricerca trova i titoli che contengono il termine esatto,
+ * un termine che inizia con esso o, per termini di almeno tre caratteri con
+ * almeno una lettera, un termine a distanza di modifica 1 (inserimento,
+ * cancellazione, sostituzione o scambio di due caratteri adiacenti).
+ * I candidati approssimati si trovano con lo schema a cancellazioni simmetriche:
+ * per ogni termine indicizzato si registrano le varianti ottenute togliendo un carattere.
+ *
+ * Le voci di ogni termine sono ordinate per titolo, così una ricerca di un solo
+ * termine produce la pagina richiesta scorrendo i livelli di pertinenza senza
+ * valutare tutte le corrispondenze.
+ *
+ * Va aggiornato mentre l'ID della voce è bloccato nella collezione;
+ * gli aggiornamenti di uno stesso termine sono serializzati dalla sua entry.
+ */
+final class IndiceTitoli {
+    private static final int PUNTEGGIO_ESATTO = 3;
+    private static final int PUNTEGGIO_PREFISSO = 2;
+    private static final int PUNTEGGIO_APPROSSIMATO = 1;
+    private static final int LUNGHEZZA_MINIMA_APPROSSIMATA = 3;
+
+    private final ConcurrentMap<String, Occorrenze> occorrenze = new ConcurrentHashMap<>();
+    private final NavigableSet<String> termini = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Set<String>> cancellazioni = new ConcurrentHashMap<>();
+
+    /**
+     * Voci che contengono un termine, ordinate per titolo
+     * La dimensione è mantenuta a parte perché size() della skip list è lineare
+     */
+    private static final class Occorrenze {
+        final NavigableSet<Voce> voci = new ConcurrentSkipListSet<>(Voce.ORDINE_TITOLO);
+        volatile int dimensione;
+    }
+
+    /**
+     * Indicizza il titolo della voce
+     * @param voce La voce da indicizzare
+     */
+    void aggiungi(Voce voce) {
+        for (String termine : terminiDi(voce.titolo())) {
+            occorrenze.compute(termine, (chiave, presenti) -> {
+                if (presenti == null) {
+                    presenti = new Occorrenze();
+                    termini.add(chiave);
+                    registraCancellazioni(chiave, true);
+                }
+                if (presenti.voci.add(voce)) {
+                    presenti.dimensione++;
+                }
+                return presenti;
+            });
+        }
+    }
+
+    /**
+     * Rimuove il titolo della voce dall'indice
+     * @param voce La voce indicizzata in precedenza
+     */
+    void rimuovi(Voce voce) {
+        for (String termine : terminiDi(voce.titolo())) {
+            occorrenze.computeIfPresent(termine, (chiave, presenti) -> {
+                if (presenti.voci.remove(voce)) {
+                    presenti.dimensione--;
+                }
+                if (presenti.dimensione > 0) {
+                    return presenti;
+                }
+                termini.remove(chiave);
+                registraCancellazioni(chiave, false);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Indica se l'indice non conserva più termini, voci o varianti per cancellazione
+     * @return true dopo che tutte le voci indicizzate sono state rimosse
+     */
+    boolean vuoto() {
+        return occorrenze.isEmpty() && termini.isEmpty() && cancellazioni.isEmpty();
+    }
+
+    /**
+     * Cerca le voci il cui titolo corrisponde a tutti i termini del testo
+     * Le voci sono ordinate per punteggio decrescente, poi per titolo.
+     * I punteggi sono raccolti per identità: ogni voce indicizzata è un'unica istanza
+     * @param testo Il testo da cercare
+     * @param offset Numero di voci da saltare
+     * @param limit Numero massimo di voci da restituire
+     * @return Pagina di voci trovate
+     */
+    List<Voce> cerca(String testo, int offset, int limit) {
+        List<String> richiesta = new ArrayList<>(terminiDi(testo));
+        if (richiesta.isEmpty() || limit == 0) {
+            return List.of();
+        }
+        int fine = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        if (richiesta.size() == 1) {
+            return perLivelli(richiesta.get(0), offset, fine);
+        }
+
+        // Si parte dal termine con meno corrispondenze; per gli altri si sceglie se
+        // scorrere le loro voci o verificare i titoli dei candidati rimasti
+        List<Map<String, Integer>> corrispondenze = new ArrayList<>(richiesta.size());
+        for (String termine : richiesta) {
+            corrispondenze.add(terminiCorrispondenti(termine));
+        }
+        corrispondenze.sort(Comparator.comparingLong(this::numeroVoci));
+
+        Map<Voce, Integer> punteggi = new IdentityHashMap<>();
+        for (Map.Entry<String, Integer> termine : corrispondenze.get(0).entrySet()) {
+            for (Voce voce : voci(termine.getKey())) {
+                punteggi.merge(voce, termine.getValue(), Math::max);
+            }
+        }
+        for (int i = 1; i < corrispondenze.size() && !punteggi.isEmpty(); i++) {
+            punteggi = punteggi.size() < numeroVoci(corrispondenze.get(i))
+                    ? verificaTitoli(punteggi, corrispondenze.get(i))
+                    : intersecaVoci(punteggi, corrispondenze.get(i));
+        }
+
+        if (offset >= punteggi.size()) {
+            return List.of();
+        }
+        return pagina(punteggi, offset, Math.min(fine, punteggi.size()));
+    }
+
+    /**
+     * Stima il numero di voci candidate per il testo senza eseguire la ricerca
+     * @param testo Il testo da cercare
+     * @return Il numero di voci del termine più selettivo
+     */
+    long stima(String testo) {
+        long minima = Long.MAX_VALUE;
+        for (String termine : terminiDi(testo)) {
+            minima = Math.min(minima, numeroVoci(terminiCorrispondenti(termine)));
+        }
+        return minima == Long.MAX_VALUE ? 0 : minima;
+    }
+
+    /**
+     * Verifica se un titolo corrisponde a tutti i termini cercati, come la ricerca nell'indice
+     * @param titolo Il titolo da verificare
+     * @param richiesta I termini normalizzati cercati
+     * @return true se ogni termine trova corrispondenza nel titolo
+     */
+    static boolean corrisponde(String titolo, Set<String> richiesta) {
+        Set<String> presenti = terminiDi(titolo);
+        for (String termine : richiesta) {
+            if (livello(presenti, termine) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ricerca di un solo termine: prima i titoli con il termine esatto, poi quelli
+     * con un termine che inizia con esso, infine le corrispondenze approssimate.
+     * Ogni livello è la fusione ordinata per titolo delle voci dei suoi termini e
+     * si ferma appena la pagina è completa.
+     */
+    private List<Voce> perLivelli(String termine, int offset, int fine) {
+        Map<String, Integer> corrispondenti = terminiCorrispondenti(termine);
+        List<Voce> risultato = new ArrayList<>(Math.min(fine - offset, 1024));
+        int saltate = 0;
+
+        for (int livello = PUNTEGGIO_ESATTO; livello >= PUNTEGGIO_APPROSSIMATO; livello--) {
+            List<Iterator<Voce>> sorgenti = new ArrayList<>();
+            for (Map.Entry<String, Integer> corrispondente : corrispondenti.entrySet()) {
+                if (corrispondente.getValue() == livello) {
+                    sorgenti.add(voci(corrispondente.getKey()).iterator());
+                }
+            }
+
+            Iterator<Voce> fuse = new FusioneOrdinata(sorgenti, Voce.ORDINE_TITOLO);
+            Voce precedente = null;
+            while (fuse.hasNext() && saltate + risultato.size() < fine) {
+                Voce voce = fuse.next();
+                // Una voce compare più volte se il titolo ha più termini del livello,
+                // e va scartata se appartiene a un livello superiore
+                if (voce == precedente || (livello < PUNTEGGIO_ESATTO && livello(terminiDi(voce.titolo()), termine) != livello)) {
+                    continue;
+                }
+                precedente = voce;
+                if (saltate < offset) {
+                    saltate++;
+                } else {
+                    risultato.add(voce);
+                }
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Termini indicizzati che corrispondono al termine cercato, con il loro punteggio
+     */
+    private Map<String, Integer> terminiCorrispondenti(String termine) {
+        Map<String, Integer> corrispondenti = new HashMap<>();
+        for (String indicizzato : termini.subSet(termine, true, termine + Character.MAX_VALUE, false)) {
+            corrispondenti.put(indicizzato, indicizzato.equals(termine) ? PUNTEGGIO_ESATTO : PUNTEGGIO_PREFISSO);
+        }
+        if (approssimabile(termine)) {
+            for (String simile : simili(termine)) {
+                corrispondenti.put(simile, PUNTEGGIO_APPROSSIMATO);
+            }
+        }
+        return corrispondenti;
+    }
+
+    private long numeroVoci(Map<String, Integer> corrispondenti) {
+        long totale = 0;
+        for (String termine : corrispondenti.keySet()) {
+            Occorrenze presenti = occorrenze.get(termine);
+            if (presenti != null) {
+                totale += presenti.dimensione;
+            }
+        }
+        return totale;
+    }
+
+    private NavigableSet<Voce> voci(String termine) {
+        Occorrenze presenti = occorrenze.get(termine);
+        return presenti != null ? presenti.voci : Collections.emptyNavigableSet();
+    }
+
+    private Map<Voce, Integer> intersecaVoci(Map<Voce, Integer> punteggi, Map<String, Integer> corrispondenti) {
+        Map<Voce, Integer> migliori = new IdentityHashMap<>();
+        for (Map.Entry<String, Integer> termine : corrispondenti.entrySet()) {
+            for (Voce voce : voci(termine.getKey())) {
+                if (punteggi.containsKey(voce)) {
+                    migliori.merge(voce, termine.getValue(), Math::max);
+                }
+            }
+        }
+
+        Map<Voce, Integer> risultato = new IdentityHashMap<>();
+        migliori.forEach((voce, punteggio) -> risultato.put(voce, punteggi.get(voce) + punteggio));
+        return risultato;
+    }
+
+    private static Map<Voce, Integer> verificaTitoli(Map<Voce, Integer> punteggi,
+                                                     Map<String, Integer> corrispondenti) {
+        Map<Voce, Integer> risultato = new IdentityHashMap<>();
+        punteggi.forEach((voce, punteggio) -> {
+            int migliore = 0;
+            for (String presente : terminiDi(voce.titolo())) {
+                migliore = Math.max(migliore, corrispondenti.getOrDefault(presente, 0));
+            }
+            if (migliore > 0) {
+                risultato.put(voce, punteggio + migliore);
+            }
+        });
+        return risultato;
+    }
+
+    /**
+     * Punteggio con cui i termini di un titolo corrispondono al termine cercato
+     */
+    private static int livello(Set<String> presenti, String termine) {
+        int migliore = 0;
+        for (String presente : presenti) {
+            if (presente.equals(termine)) {
+                return PUNTEGGIO_ESATTO;
+            }
+            if (presente.startsWith(termine)) {
+                migliore = PUNTEGGIO_PREFISSO;
+            } else if (migliore == 0 && approssimabile(termine) && distanzaAlPiuUno(termine, presente)) {
+                migliore = PUNTEGGIO_APPROSSIMATO;
+            }
+        }
+        return migliore;
+    }
+
+    /**
+     * Termini indicizzati a distanza di modifica 1 dal termine cercato
+     */
+    private Set<String> simili(String termine) {
+        Set<String> candidati = new HashSet<>();
+        aggiungiTutti(candidati, cancellazioni.get(termine));
+        for (String variante : varianti(termine)) {
+            if (occorrenze.containsKey(variante)) {
+                candidati.add(variante);
+            }
+            aggiungiTutti(candidati, cancellazioni.get(variante));
+        }
+        candidati.removeIf(candidato -> candidato.startsWith(termine) || !distanzaAlPiuUno(termine, candidato));
+        return candidati;
+    }
+
+    private static void aggiungiTutti(Set<String> destinazione, Set<String> sorgente) {
+        if (sorgente != null) {
+            destinazione.addAll(sorgente);
+        }
+    }
+
+    private void registraCancellazioni(String termine, boolean aggiungi) {
+        if (!approssimabile(termine)) {
+            return;
+        }
+        for (String variante : varianti(termine)) {
+            if (aggiungi) {
+                cancellazioni.compute(variante, (chiave, origini) -> {
+                    Set<String> aggiornate = origini != null ? origini : ConcurrentHashMap.<String>newKeySet();
+                    aggiornate.add(termine);
+                    return aggiornate;
+                });
+            } else {
+                cancellazioni.computeIfPresent(variante, (chiave, origini) -> {
+                    origini.remove(termine);
+                    return origini.isEmpty() ? null : origini;
+                });
+            }
+        }
+    }
+
+    /**
+     * I termini numerici e quelli troppo corti non partecipano alla ricerca approssimata
+     */
+    private static boolean approssimabile(String termine) {
+        if (termine.length() < LUNGHEZZA_MINIMA_APPROSSIMATA) {
+            return false;
+        }
+        for (int i = 0; i < termine.length(); i++) {
+            if (Character.isLetter(termine.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> varianti(String termine) {
+        Set<String> varianti = new HashSet<>();
+        for (int i = 0; i < termine.length(); i++) {
+            varianti.add(termine.substring(0, i) + termine.substring(i + 1));
+        }
+        return varianti;
+    }
+
+    /**
+     * Distanza di Damerau-Levenshtein ristretta non superiore a 1
+     */
+    static boolean distanzaAlPiuUno(String a, String b) {
+        if (a.length() < b.length()) {
+            String scambio = a;
+            a = b;
+            b = scambio;
+        }
+        int differenza = a.length() - b.length();
+        if (differenza > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == b.length()) {
+            return true;
+        }
+        if (differenza == 1) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (a.regionMatches(i + 1, b, i + 1, b.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1)
+                && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, b.length() - i - 2);
+    }
+
+    /**
+     * Ordina solo le prime voci necessarie alla pagina con una coda a priorità limitata
+     */
+    private static List<Voce> pagina(Map<Voce, Integer> punteggi, int offset, int fine) {
+        Comparator<Map.Entry<Voce, Integer>> ordine = Map.Entry.<Voce, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Voce.ORDINE_TITOLO));
+
+        PriorityQueue<Map.Entry<Voce, Integer>> migliori = new PriorityQueue<>(fine + 1, ordine.reversed());
+        for (Map.Entry<Voce, Integer> voce : punteggi.entrySet()) {
+            migliori.add(voce);
+            if (migliori.size() > fine) {
+                migliori.poll();
+            }
+        }
+
+        List<Voce> risultato = new ArrayList<>(migliori.size());
+        while (!migliori.isEmpty()) {
+            risultato.add(migliori.poll().getKey());
+        }
+        Collections.reverse(risultato);
+        return risultato.subList(offset, risultato.size());
+    }
+
+    /**
+     * Divide un testo nei suoi termini normalizzati, senza ripetizioni
+     * @param testo Il testo da dividere
+     * @return I termini nell'ordine in cui compaiono
+     */
+    static Set<String> terminiDi(String testo) {
+        String scomposto = Normalizer.isNormalized(testo, Normalizer.Form.NFD)
+                ? testo
+                : Normalizer.normalize(testo, Normalizer.Form.NFD);
+        Set<String> termini = new LinkedHashSet<>();
+        StringBuilder termine = new StringBuilder();
+        for (int i = 0; i < scomposto.length(); i++) {
+            char c = scomposto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                termine.append(Character.toLowerCase(c));
+            } else if (termine.length() > 0) {
+                termini.add(termine.toString());
+                termine.setLength(0);
+            }
+        }
+        if (termine.length() > 0) {
+            termini.add(termine.toString());
+        }
+        return termini;
+    }
+}
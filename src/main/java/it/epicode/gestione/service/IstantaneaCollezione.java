@@ -0,0 +1,181 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Versione congelata della collezione in un istante
+ * Contiene copie immutabili dei giochi e non cambia più, qualunque modifica
+ * venga fatta in seguito alla collezione: le analisi lunghe leggono sempre
+ * dati coerenti tra loro senza bloccare le scritture
+ */
+public final class IstantaneaCollezione {
+    private static final Comparator<Gioco> ORDINE_PREZZO = Comparator
+            .comparingDouble(Gioco::getPrezzo)
+            .thenComparing(Gioco::getIdGioco);
+
+    private final MappaPersistente mappa;
+    private final Collection<Gioco> vista = new AbstractCollection<>() {
+        @Override
+        public Iterator<Gioco> iterator() {
+            return mappa.iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Gioco> azione) {
+            mappa.forEach(azione);
+        }
+
+        @Override
+        public int size() {
+            return mappa.size();
+        }
+    };
+
+    IstantaneaCollezione(MappaPersistente mappa) {
+        this.mappa = mappa;
+    }
+
+    /**
+     * Ricerca un gioco tramite ID
+     * @param id L'ID del gioco da cercare
+     * @return La copia immutabile del gioco
+     * @throws ElementoNonTrovatoException se il gioco non era presente al momento dell'istantanea
+     */
+    public Gioco cercaPerID(String id) throws ElementoNonTrovatoException {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("L'ID non può essere nullo o vuoto");
+        }
+
+        Gioco gioco = mappa.get(id.trim());
+        if (gioco == null) {
+            throw new ElementoNonTrovatoException(
+                "Elemento con ID '" + id + "' non trovato nell'istantanea");
+        }
+        return gioco;
+    }
+
+    /**
+     * Restituisce i giochi con prezzo inferiore al valore specificato
+     * @param prezzoMassimo Il prezzo massimo
+     * @return Lista ordinata per prezzo crescente
+     */
+    public List<Gioco> cercaPerPrezzo(double prezzoMassimo) {
+        if (!(prezzoMassimo > 0) || Double.isInfinite(prezzoMassimo)) {
+            throw new IllegalArgumentException("Il prezzo massimo deve essere un valore positivo e finito");
+        }
+
+        Gioco[] trovati = scansione((da, a) -> {
+            List<Gioco> parziali = new ArrayList<>();
+            mappa.forEach(da, a, gioco -> {
+                if (gioco.getPrezzo() < prezzoMassimo) {
+                    parziali.add(gioco);
+                }
+            });
+            return parziali;
+        }).flatMap(List::stream).toArray(Gioco[]::new);
+        Arrays.parallelSort(trovati, ORDINE_PREZZO);
+        return new ArrayList<>(Arrays.asList(trovati));
+    }
+
+    /**
+     * Calcola le statistiche dell'istantanea con una sola scansione
+     * @return Le statistiche, coerenti tra loro
+     */
+    public StatisticheCollezione generaStatistiche() {
+        if (mappa.size() == 0) {
+            return StatisticheCollezione.VUOTE;
+        }
+
+        Parziale parziale = scansione((da, a) -> {
+            Parziale risultato = new Parziale();
+            mappa.forEach(da, a, risultato::aggiungi);
+            return risultato;
+        }).reduce(Parziale::unisci).orElseThrow();
+        long totale = parziale.videogiochi + parziale.giochiDaTavolo;
+        return new StatisticheCollezione(parziale.videogiochi, parziale.giochiDaTavolo, parziale.massimo,
+                totale > 0 ? parziale.somma / totale : 0.0);
+    }
+
+    /**
+     * Statistiche di una parte dell'istantanea, da unire nell'ordine di scansione
+     */
+    private static final class Parziale {
+        private long videogiochi;
+        private long giochiDaTavolo;
+        private double somma;
+        private Gioco massimo;
+
+        void aggiungi(Gioco gioco) {
+            if (gioco instanceof Videogioco) {
+                videogiochi++;
+            } else if (gioco instanceof GiocoDaTavolo) {
+                giochiDaTavolo++;
+            }
+            somma += gioco.getPrezzo();
+            if (massimo == null || ORDINE_PREZZO.compare(gioco, massimo) > 0) {
+                massimo = gioco;
+            }
+        }
+
+        Parziale unisci(Parziale altro) {
+            videogiochi += altro.videogiochi;
+            giochiDaTavolo += altro.giochiDaTavolo;
+            somma += altro.somma;
+            if (massimo == null || altro.massimo != null && ORDINE_PREZZO.compare(altro.massimo, massimo) > 0) {
+                massimo = altro.massimo;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Scansione dei sottoalberi della radice, in parallelo dalla soglia di
+     * ScansioneParallela in su
+     * @return I risultati delle parti, nell'ordine di forEach
+     */
+    private <T> Stream<T> scansione(ScansioneParallela.Intervallo<T> intervallo) {
+        return ScansioneParallela.esegui(mappa.parti(),
+                mappa.size() >= ScansioneParallela.SOGLIA_PREDEFINITA, intervallo);
+    }
+
+    /**
+     * Restituisce i giochi dell'istantanea
+     * @return Vista non modificabile, in ordine non specificato
+     */
+    public Collection<Gioco> getGiochi() {
+        return vista;
+    }
+
+    /**
+     * Esegue l'azione per ogni gioco dell'istantanea
+     * @param azione L'azione da eseguire
+     */
+    public void forEach(Consumer<? super Gioco> azione) {
+        mappa.forEach(azione);
+    }
+
+    public Stream<Gioco> stream() {
+        return vista.stream();
+    }
+
+    public int size() {
+        return mappa.size();
+    }
+
+    public boolean isEmpty() {
+        return mappa.size() == 0;
+    }
+}
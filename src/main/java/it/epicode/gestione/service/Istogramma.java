@@ -0,0 +1,90 @@
+package it.epicode.gestione.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Istogramma log-lineare di valori non negativi (latenze in nanosecondi,
+ * numero di risultati)
+ * Ogni potenza di due è divisa in 32 intervalli di uguale ampiezza, quindi i
+ * percentili hanno un errore relativo inferiore al 2% su tutto l'intervallo,
+ * con memoria fissa e senza allocazioni per valore.
+ * La registrazione è un incremento atomico senza lock; la lettura è
+ * debolmente consistente rispetto alle registrazioni concorrenti.
+ */
+final class Istogramma {
+    private static final int BIT_SOTTOINTERVALLI = 5;
+    private static final int SOTTOINTERVALLI = 1 << BIT_SOTTOINTERVALLI;
+    // Valori oltre 2^40 (circa 18 minuti in nanosecondi) finiscono nell'ultimo intervallo
+    private static final int ESPONENTE_MASSIMO = 40;
+    private static final int INTERVALLI = (ESPONENTE_MASSIMO - BIT_SOTTOINTERVALLI + 1) * SOTTOINTERVALLI;
+
+    private final AtomicLongArray conteggi = new AtomicLongArray(INTERVALLI);
+    private final AtomicLong massimo = new AtomicLong();
+
+    void registra(long valore) {
+        conteggi.getAndIncrement(indice(valore));
+        // il massimo cambia di rado: la scrittura avviene solo se serve
+        long attuale = massimo.get();
+        while (valore > attuale && !massimo.compareAndSet(attuale, valore)) {
+            attuale = massimo.get();
+        }
+    }
+
+    long getMassimo() {
+        return massimo.get();
+    }
+
+    /**
+     * Calcola più percentili con una sola lettura dei conteggi
+     * @param quote Le quote richieste, in ordine crescente, tra 0 e 1
+     * @return Il valore rappresentativo dell'intervallo di ogni percentile, 0 se vuoto
+     */
+    double[] percentili(double... quote) {
+        long[] copia = new long[INTERVALLI];
+        long totale = 0;
+        for (int i = 0; i < INTERVALLI; i++) {
+            copia[i] = conteggi.get(i);
+            totale += copia[i];
+        }
+
+        double[] valori = new double[quote.length];
+        if (totale == 0) {
+            return valori;
+        }
+        int q = 0;
+        long cumulato = 0;
+        for (int i = 0; i < INTERVALLI && q < quote.length; i++) {
+            cumulato += copia[i];
+            while (q < quote.length && cumulato >= Math.max(1, (long) Math.ceil(quote[q] * totale))) {
+                valori[q++] = Math.min(centro(i), massimo.get());
+            }
+        }
+        return valori;
+    }
+
+    static int indice(long valore) {
+        if (valore < SOTTOINTERVALLI) {
+            return (int) Math.max(valore, 0);
+        }
+        int esponente = 63 - Long.numberOfLeadingZeros(valore);
+        if (esponente >= ESPONENTE_MASSIMO) {
+            return INTERVALLI - 1;
+        }
+        int spostamento = esponente - BIT_SOTTOINTERVALLI;
+        return (spostamento + 1) * SOTTOINTERVALLI + (int) ((valore >>> spostamento) & (SOTTOINTERVALLI - 1));
+    }
+
+    /**
+     * Punto medio dell'intervallo: i valori registrati in esso distano al più
+     * mezza ampiezza
+     */
+    static double centro(int indice) {
+        if (indice < SOTTOINTERVALLI) {
+            return indice;
+        }
+        int spostamento = indice / SOTTOINTERVALLI - 1;
+        long inizio = (long) (SOTTOINTERVALLI + indice % SOTTOINTERVALLI) << spostamento;
+        return inizio + ((1L << spostamento) - 1) / 2.0;
+    }
+}
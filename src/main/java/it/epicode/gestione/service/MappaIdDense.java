@@ -0,0 +1,132 @@
+package it.epicode.gestione.service;
+
+/**
+ * Mappa da stringa a intero non negativo a indirizzamento aperto
+ * Chiavi e valori stanno in due array paralleli, senza nodi né Integer per
+ * elemento: serve a tradurre gli ID in indici densi (righe, codici).
+ * Scansione lineare; la rimozione ricompatta la sequenza invece di lasciare
+ * marcatori, quindi le ricerche non rallentano dopo molte rimozioni.
+ * Non è thread-safe: va protetta dal chiamante.
+ */
+final class MappaIdDense {
+    static final int ASSENTE = -1;
+
+    private String[] chiavi;
+    private int[] valori;
+    private int dimensione;
+
+    /**
+     * Costruttore della classe MappaIdDense
+     * @param capacitaIniziale Numero di chiavi previsto
+     */
+    MappaIdDense(int capacitaIniziale) {
+        int capacita = Integer.highestOneBit(Math.max(capacitaIniziale, 8) * 2 - 1) << 1;
+        chiavi = new String[capacita];
+        valori = new int[capacita];
+    }
+
+    /**
+     * @return Il valore associato alla chiave, ASSENTE se la chiave non è presente
+     */
+    int get(String chiave) {
+        int maschera = chiavi.length - 1;
+        for (int i = indice(chiave, maschera); chiavi[i] != null; i = (i + 1) & maschera) {
+            if (chiavi[i].equals(chiave)) {
+                return valori[i];
+            }
+        }
+        return ASSENTE;
+    }
+
+    boolean contiene(String chiave) {
+        return get(chiave) != ASSENTE;
+    }
+
+    /**
+     * Associa il valore alla chiave
+     * @return Il valore precedente, ASSENTE se la chiave non era presente
+     */
+    int put(String chiave, int valore) {
+        if (valore < 0) {
+            throw new IllegalArgumentException("Il valore non può essere negativo");
+        }
+        int maschera = chiavi.length - 1;
+        int i = indice(chiave, maschera);
+        for (; chiavi[i] != null; i = (i + 1) & maschera) {
+            if (chiavi[i].equals(chiave)) {
+                int precedente = valori[i];
+                valori[i] = valore;
+                return precedente;
+            }
+        }
+        chiavi[i] = chiave;
+        valori[i] = valore;
+        // fattore di carico massimo 1/2: sequenze di scansione brevi
+        if (++dimensione * 2 > chiavi.length) {
+            ridimensiona(chiavi.length * 2);
+        }
+        return ASSENTE;
+    }
+
+    /**
+     * Rimuove la chiave
+     * @return Il valore rimosso, ASSENTE se la chiave non era presente
+     */
+    int remove(String chiave) {
+        int maschera = chiavi.length - 1;
+        int i = indice(chiave, maschera);
+        while (chiavi[i] != null && !chiavi[i].equals(chiave)) {
+            i = (i + 1) & maschera;
+        }
+        if (chiavi[i] == null) {
+            return ASSENTE;
+        }
+        int rimosso = valori[i];
+
+        // sposta indietro le chiavi successive della sequenza che non si
+        // troverebbero più partendo dalla loro posizione ideale
+        int libero = i;
+        for (int j = (i + 1) & maschera; chiavi[j] != null; j = (j + 1) & maschera) {
+            int ideale = indice(chiavi[j], maschera);
+            if (((j - ideale) & maschera) >= ((j - libero) & maschera)) {
+                chiavi[libero] = chiavi[j];
+                valori[libero] = valori[j];
+                libero = j;
+            }
+        }
+        chiavi[libero] = null;
+        dimensione--;
+        return rimosso;
+    }
+
+    int size() {
+        return dimensione;
+    }
+
+    private void ridimensiona(int capacita) {
+        String[] vecchieChiavi = chiavi;
+        int[] vecchiValori = valori;
+        chiavi = new String[capacita];
+        valori = new int[capacita];
+        int maschera = capacita - 1;
+        for (int j = 0; j < vecchieChiavi.length; j++) {
+            if (vecchieChiavi[j] != null) {
+                int i = indice(vecchieChiavi[j], maschera);
+                while (chiavi[i] != null) {
+                    i = (i + 1) & maschera;
+                }
+                chiavi[i] = vecchieChiavi[j];
+                valori[i] = vecchiValori[j];
+            }
+        }
+    }
+
+    /**
+     * Posizione ideale della chiave: il codice hash della stringa è già in
+     * cache nella stringa, va solo rimescolato perché i bit bassi sono deboli
+     */
+    private static int indice(String chiave, int maschera) {
+        int h = chiave.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & maschera;
+    }
+}
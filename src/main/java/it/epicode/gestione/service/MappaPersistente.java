@@ -0,0 +1,285 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Mappa persistente dei giochi per ID (hash array mapped trie)
+ * Ogni modifica restituisce una nuova mappa che condivide con la precedente
+ * tutti i nodi non toccati: copia solo il percorso dalla radice alla foglia,
+ * al più sette nodi, quindi le versioni precedenti restano valide e immutabili
+ */
+final class MappaPersistente {
+    static final MappaPersistente VUOTA = new MappaPersistente(Nodo.VUOTO, 0);
+
+    private static final int BIT_PER_LIVELLO = 5;
+    private static final int MASCHERA = (1 << BIT_PER_LIVELLO) - 1;
+
+    private final Nodo radice;
+    private final int dimensione;
+
+    private MappaPersistente(Nodo radice, int dimensione) {
+        this.radice = radice;
+        this.dimensione = dimensione;
+    }
+
+    int size() {
+        return dimensione;
+    }
+
+    Gioco get(String id) {
+        return radice.cerca(id, hash(id), 0);
+    }
+
+    /**
+     * Restituisce una mappa che associa il gioco al suo ID
+     */
+    MappaPersistente con(Gioco gioco) {
+        String id = gioco.getIdGioco();
+        int hash = hash(id);
+        boolean nuovo = radice.cerca(id, hash, 0) == null;
+        return new MappaPersistente(radice.con(gioco, id, hash, 0), nuovo ? dimensione + 1 : dimensione);
+    }
+
+    /**
+     * Restituisce una mappa senza l'ID indicato, o questa stessa mappa se l'ID non è presente
+     */
+    MappaPersistente senza(String id) {
+        int hash = hash(id);
+        if (radice.cerca(id, hash, 0) == null) {
+            return this;
+        }
+        Object resto = radice.senza(id, hash, 0);
+        Nodo nuovaRadice = resto instanceof Nodo ? (Nodo) resto
+                : resto == null ? Nodo.VUOTO
+                : new Nodo(bit(hash(((Gioco) resto).getIdGioco()), 0), new Object[]{resto});
+        return new MappaPersistente(nuovaRadice, dimensione - 1);
+    }
+
+    void forEach(Consumer<? super Gioco> azione) {
+        radice.perOgni(azione);
+    }
+
+    /**
+     * Numero di sottoalberi della radice, le parti in cui si può dividere una scansione
+     */
+    int parti() {
+        return radice.figli.length;
+    }
+
+    /**
+     * Esegue l'azione sui giochi dei sottoalberi della radice [da, a),
+     * nello stesso ordine di forEach
+     */
+    void forEach(int da, int a, Consumer<? super Gioco> azione) {
+        radice.perOgni(da, a, azione);
+    }
+
+    Iterator<Gioco> iterator() {
+        return new Scansione(radice);
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int livello) {
+        return 1 << ((hash >>> livello) & MASCHERA);
+    }
+
+    /**
+     * Nodo a bitmap: ogni bit acceso corrisponde a un elemento di figli,
+     * che è un Gioco oppure un sottonodo del livello successivo.
+     * Sotto l'ultimo livello di hash i giochi in collisione stanno in un
+     * nodo senza bitmap, scandito linearmente
+     */
+    private static final class Nodo {
+        static final Nodo VUOTO = new Nodo(0, new Object[0]);
+
+        private final int mappa;
+        private final Object[] figli;
+
+        Nodo(int mappa, Object[] figli) {
+            this.mappa = mappa;
+            this.figli = figli;
+        }
+
+        Gioco cerca(String id, int hash, int livello) {
+            if (livello >= Integer.SIZE) {
+                for (Object figlio : figli) {
+                    if (((Gioco) figlio).getIdGioco().equals(id)) {
+                        return (Gioco) figlio;
+                    }
+                }
+                return null;
+            }
+            int bit = bit(hash, livello);
+            if ((mappa & bit) == 0) {
+                return null;
+            }
+            Object figlio = figli[Integer.bitCount(mappa & (bit - 1))];
+            if (figlio instanceof Nodo) {
+                return ((Nodo) figlio).cerca(id, hash, livello + BIT_PER_LIVELLO);
+            }
+            Gioco gioco = (Gioco) figlio;
+            return gioco.getIdGioco().equals(id) ? gioco : null;
+        }
+
+        Nodo con(Gioco gioco, String id, int hash, int livello) {
+            if (livello >= Integer.SIZE) {
+                for (int i = 0; i < figli.length; i++) {
+                    if (((Gioco) figli[i]).getIdGioco().equals(id)) {
+                        return new Nodo(mappa, sostituito(figli, i, gioco));
+                    }
+                }
+                Object[] estesi = Arrays.copyOf(figli, figli.length + 1);
+                estesi[figli.length] = gioco;
+                return new Nodo(mappa, estesi);
+            }
+            int bit = bit(hash, livello);
+            int posizione = Integer.bitCount(mappa & (bit - 1));
+            if ((mappa & bit) == 0) {
+                Object[] estesi = new Object[figli.length + 1];
+                System.arraycopy(figli, 0, estesi, 0, posizione);
+                estesi[posizione] = gioco;
+                System.arraycopy(figli, posizione, estesi, posizione + 1, figli.length - posizione);
+                return new Nodo(mappa | bit, estesi);
+            }
+            Object figlio = figli[posizione];
+            if (figlio instanceof Nodo) {
+                return new Nodo(mappa, sostituito(figli, posizione,
+                        ((Nodo) figlio).con(gioco, id, hash, livello + BIT_PER_LIVELLO)));
+            }
+            Gioco presente = (Gioco) figlio;
+            String idPresente = presente.getIdGioco();
+            if (idPresente.equals(id)) {
+                return new Nodo(mappa, sostituito(figli, posizione, gioco));
+            }
+            Nodo coppia = Nodo.VUOTO
+                    .con(presente, idPresente, hash(idPresente), livello + BIT_PER_LIVELLO)
+                    .con(gioco, id, hash, livello + BIT_PER_LIVELLO);
+            return new Nodo(mappa, sostituito(figli, posizione, coppia));
+        }
+
+        /**
+         * Rimuove l'ID, che deve essere presente
+         * @return Il nodo risultante, il solo gioco rimasto se il nodo ne contiene
+         *         uno solo (viene risalito nel livello superiore), null se vuoto
+         */
+        Object senza(String id, int hash, int livello) {
+            if (livello >= Integer.SIZE) {
+                int indice = 0;
+                while (!((Gioco) figli[indice]).getIdGioco().equals(id)) {
+                    indice++;
+                }
+                Object[] restanti = rimosso(figli, indice);
+                return restanti.length == 1 ? restanti[0] : new Nodo(mappa, restanti);
+            }
+            int bit = bit(hash, livello);
+            int posizione = Integer.bitCount(mappa & (bit - 1));
+            Object figlio = figli[posizione];
+            Object resto = figlio instanceof Nodo
+                    ? ((Nodo) figlio).senza(id, hash, livello + BIT_PER_LIVELLO)
+                    : null;
+            if (resto != null) {
+                if (figli.length == 1 && resto instanceof Gioco) {
+                    return resto;
+                }
+                return new Nodo(mappa, sostituito(figli, posizione, resto));
+            }
+            if (figli.length == 1) {
+                return null;
+            }
+            if (figli.length == 2 && figli[1 - posizione] instanceof Gioco) {
+                return figli[1 - posizione];
+            }
+            return new Nodo(mappa & ~bit, rimosso(figli, posizione));
+        }
+
+        void perOgni(Consumer<? super Gioco> azione) {
+            perOgni(0, figli.length, azione);
+        }
+
+        void perOgni(int da, int a, Consumer<? super Gioco> azione) {
+            for (int i = da; i < a; i++) {
+                Object figlio = figli[i];
+                if (figlio instanceof Nodo) {
+                    ((Nodo) figlio).perOgni(azione);
+                } else {
+                    azione.accept((Gioco) figlio);
+                }
+            }
+        }
+
+        private static Object[] sostituito(Object[] figli, int posizione, Object valore) {
+            Object[] copia = figli.clone();
+            copia[posizione] = valore;
+            return copia;
+        }
+
+        private static Object[] rimosso(Object[] figli, int posizione) {
+            Object[] restanti = new Object[figli.length - 1];
+            System.arraycopy(figli, 0, restanti, 0, posizione);
+            System.arraycopy(figli, posizione + 1, restanti, posizione, restanti.length - posizione);
+            return restanti;
+        }
+    }
+
+    /**
+     * Visita in profondità con una pila esplicita di nodi e posizioni,
+     * alta al più quanto i livelli del trie più quello delle collisioni
+     */
+    private static final class Scansione implements Iterator<Gioco> {
+        private final Nodo[] nodi = new Nodo[Integer.SIZE / BIT_PER_LIVELLO + 2];
+        private final int[] posizioni = new int[nodi.length];
+        private int profondita;
+        private Gioco prossimo;
+
+        Scansione(Nodo radice) {
+            nodi[0] = radice;
+            avanza();
+        }
+
+        private void avanza() {
+            prossimo = null;
+            while (profondita >= 0) {
+                Nodo nodo = nodi[profondita];
+                int posizione = posizioni[profondita];
+                if (posizione == nodo.figli.length) {
+                    profondita--;
+                    continue;
+                }
+                posizioni[profondita] = posizione + 1;
+                Object figlio = nodo.figli[posizione];
+                if (figlio instanceof Nodo) {
+                    profondita++;
+                    nodi[profondita] = (Nodo) figlio;
+                    posizioni[profondita] = 0;
+                } else {
+                    prossimo = (Gioco) figlio;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prossimo != null;
+        }
+
+        @Override
+        public Gioco next() {
+            if (prossimo == null) {
+                throw new NoSuchElementException();
+            }
+            Gioco gioco = prossimo;
+            avanza();
+            return gioco;
+        }
+    }
+}
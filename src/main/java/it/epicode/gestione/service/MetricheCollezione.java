@@ -0,0 +1,215 @@
+package it.epicode.gestione.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metriche delle operazioni di una Collezione: chiamate, errori, istogrammi
+ * delle latenze e del numero di giochi restituiti
+ *
+ * Sono disattivate all'avvio. Da disattivate ogni operazione paga solo la
+ * lettura di un flag; gli istogrammi vengono allocati alla prima attivazione.
+ * Disattivarle conserva i valori raccolti fino a quel momento.
+ *
+ * Chiamate, errori e numero di risultati sono contati per ogni chiamata.
+ * Le operazioni più brevi cronometrano solo una chiamata a caso ogni
+ * campionamento: leggere l'orologio serializza la CPU, e su letture limitate
+ * dalla memoria come cercaPerID costerebbe più della lettura stessa. I
+ * percentili restano stimati correttamente, la latenza massima può non
+ * includere i picchi isolati.
+ */
+public final class MetricheCollezione {
+
+    /**
+     * Operazioni misurate
+     */
+    public enum Operazione {
+        AGGIUNGI(1),
+        AGGIORNA(1),
+        RIMUOVI(1),
+        CERCA_PER_ID(64),
+        CERCA_PER_PREZZO(8),
+        CERCA_PER_NUMERO_GIOCATORI(1),
+        CERCA_PER_TITOLO(1),
+        CERCA(1),
+        GENERA_STATISTICHE(1);
+
+        // una chiamata ogni campionamento viene cronometrata (potenza di due)
+        private final int campionamento;
+
+        Operazione(int campionamento) {
+            this.campionamento = campionamento;
+        }
+    }
+
+    /**
+     * Istante di inizio restituito quando le metriche sono disattivate
+     */
+    static final long SPENTO = Long.MIN_VALUE;
+    /**
+     * Istante di inizio delle chiamate contate ma non cronometrate
+     */
+    static final long NON_CAMPIONATA = Long.MIN_VALUE + 1;
+
+    private volatile boolean attive;
+    // null finché le metriche non vengono attivate la prima volta
+    private volatile Misure misure;
+
+    MetricheCollezione() {
+    }
+
+    /**
+     * Attiva la raccolta delle metriche
+     */
+    public synchronized void attiva() {
+        if (misure == null) {
+            misure = new Misure();
+        }
+        attive = true;
+    }
+
+    /**
+     * Sospende la raccolta, conservando i valori raccolti
+     */
+    public void disattiva() {
+        attive = false;
+    }
+
+    public boolean isAttive() {
+        return attive;
+    }
+
+    /**
+     * Azzera tutti i contatori e gli istogrammi
+     */
+    public synchronized void azzera() {
+        if (misure != null) {
+            misure = new Misure();
+        }
+    }
+
+    /**
+     * @return L'istante da passare a registra, SPENTO se le metriche sono
+     *         disattivate, NON_CAMPIONATA se la chiamata non va cronometrata
+     */
+    long inizio(Operazione operazione) {
+        if (!attive) {
+            return SPENTO;
+        }
+        int campionamento = operazione.campionamento;
+        return campionamento == 1 || (ThreadLocalRandom.current().nextInt() & (campionamento - 1)) == 0
+                ? System.nanoTime()
+                : NON_CAMPIONATA;
+    }
+
+    /**
+     * Registra un'operazione riuscita che non restituisce un elenco
+     */
+    void registra(Operazione operazione, long inizio) {
+        if (inizio != SPENTO) {
+            misura(operazione).registra(inizio);
+        }
+    }
+
+    /**
+     * Registra un'operazione riuscita che restituisce un elenco di giochi
+     */
+    void registra(Operazione operazione, long inizio, int risultati) {
+        if (inizio != SPENTO) {
+            Misura misura = misura(operazione);
+            misura.registra(inizio);
+            misura.risultati.registra(risultati);
+        }
+    }
+
+    /**
+     * Registra un'operazione fallita perché l'ID era duplicato o assente
+     */
+    void errore(Operazione operazione, long inizio) {
+        if (inizio != SPENTO) {
+            Misura misura = misura(operazione);
+            misura.registra(inizio);
+            misura.errori.increment();
+        }
+    }
+
+    /**
+     * Restituisce le metriche di un'operazione
+     * @param operazione L'operazione
+     * @return Il riepilogo, con tutti i valori a zero se le metriche non sono mai state attivate
+     */
+    public RiepilogoOperazione riepilogo(Operazione operazione) {
+        if (operazione == null) {
+            throw new IllegalArgumentException("L'operazione non può essere nulla");
+        }
+        Misure correnti = misure;
+        if (correnti == null) {
+            return new RiepilogoOperazione(operazione, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        Misura misura = correnti.perOperazione[operazione.ordinal()];
+        double[] latenze = misura.latenze.percentili(0.50, 0.99, 0.999);
+        double[] risultati = misura.risultati.percentili(0.50, 0.99);
+        return new RiepilogoOperazione(operazione,
+                misura.chiamate.sum(),
+                misura.errori.sum(),
+                latenze[0] / 1000.0,
+                latenze[1] / 1000.0,
+                latenze[2] / 1000.0,
+                misura.latenze.getMassimo() / 1000.0,
+                risultati[0],
+                risultati[1],
+                misura.risultati.getMassimo());
+    }
+
+    /**
+     * Restituisce le metriche delle operazioni chiamate almeno una volta
+     * @return I riepiloghi, nell'ordine delle operazioni
+     */
+    public List<RiepilogoOperazione> riepiloghi() {
+        List<RiepilogoOperazione> riepiloghi = new ArrayList<>();
+        Misure correnti = misure;
+        if (correnti != null) {
+            for (Operazione operazione : Operazione.values()) {
+                if (correnti.perOperazione[operazione.ordinal()].chiamate.sum() > 0) {
+                    riepiloghi.add(riepilogo(operazione));
+                }
+            }
+        }
+        return riepiloghi;
+    }
+
+    /**
+     * Le misure esistono sempre quando inizio non è SPENTO: attiva le
+     * pubblica prima di accendere il flag
+     */
+    private Misura misura(Operazione operazione) {
+        return misure.perOperazione[operazione.ordinal()];
+    }
+
+    private static final class Misure {
+        private final Misura[] perOperazione = new Misura[Operazione.values().length];
+
+        private Misure() {
+            for (int i = 0; i < perOperazione.length; i++) {
+                perOperazione[i] = new Misura();
+            }
+        }
+    }
+
+    private static final class Misura {
+        private final LongAdder chiamate = new LongAdder();
+        private final LongAdder errori = new LongAdder();
+        private final Istogramma latenze = new Istogramma();
+        private final Istogramma risultati = new Istogramma();
+
+        private void registra(long inizio) {
+            chiamate.increment();
+            if (inizio != NON_CAMPIONATA) {
+                latenze.registra(System.nanoTime() - inizio);
+            }
+        }
+    }
+}
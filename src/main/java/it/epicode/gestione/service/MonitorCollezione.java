@@ -0,0 +1,79 @@
+package it.epicode.gestione.service;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Espone via JMX le metriche, la dimensione e la cache dei risultati di una Collezione
+ * Le dimensioni sono lette dalle strutture della collezione e non vengono
+ * registrate come chiamate nelle metriche
+ */
+public final class MonitorCollezione implements MonitorCollezioneMXBean {
+    private final Collezione collezione;
+
+    private MonitorCollezione(Collezione collezione) {
+        this.collezione = collezione;
+    }
+
+    /**
+     * Registra il monitor della collezione nel server MBean della piattaforma
+     * @param collezione La collezione da esporre
+     * @param nome Il nome JMX, ad esempio "it.epicode.gestione:type=Collezione"
+     * @return Il nome con cui il monitor è stato registrato
+     * @throws JMException se il nome non è valido o è già registrato
+     */
+    public static ObjectName registra(Collezione collezione, String nome) throws JMException {
+        if (collezione == null) {
+            throw new IllegalArgumentException("La collezione non può essere nulla");
+        }
+        ObjectName nomeOggetto = new ObjectName(nome);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MonitorCollezione(collezione), nomeOggetto);
+        return nomeOggetto;
+    }
+
+    @Override
+    public boolean isAttive() {
+        return collezione.getMetriche().isAttive();
+    }
+
+    @Override
+    public void setAttive(boolean attive) {
+        if (attive) {
+            collezione.getMetriche().attiva();
+        } else {
+            collezione.getMetriche().disattiva();
+        }
+    }
+
+    @Override
+    public int getDimensione() {
+        return collezione.size();
+    }
+
+    @Override
+    public int getVideogiochi() {
+        return collezione.getVideogiochi().size();
+    }
+
+    @Override
+    public int getGiochiDaTavolo() {
+        return collezione.getGiochiDaTavolo().size();
+    }
+
+    @Override
+    public List<RiepilogoOperazione> getOperazioni() {
+        return collezione.getMetriche().riepiloghi();
+    }
+
+    @Override
+    public StatisticheCache getCache() {
+        return collezione.statisticheCache();
+    }
+
+    @Override
+    public void azzera() {
+        collezione.getMetriche().azzera();
+    }
+}
@@ -0,0 +1,29 @@
+package it.epicode.gestione.service;
+
+import java.util.List;
+
+/**
+ * Interfaccia JMX delle metriche di una Collezione, consultabile con
+ * jconsole o qualsiasi client JMX
+ */
+public interface MonitorCollezioneMXBean {
+
+    boolean isAttive();
+
+    void setAttive(boolean attive);
+
+    int getDimensione();
+
+    int getVideogiochi();
+
+    int getGiochiDaTavolo();
+
+    /**
+     * @return Le metriche delle operazioni chiamate almeno una volta
+     */
+    List<RiepilogoOperazione> getOperazioni();
+
+    StatisticheCache getCache();
+
+    void azzera();
+}
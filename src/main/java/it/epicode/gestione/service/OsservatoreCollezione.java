@@ -0,0 +1,62 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+/**
+ * Osservatore delle modifiche alla collezione
+ *
+ * I metodi vengono invocati mentre l'ID interessato è bloccato e prima che la
+ * modifica sia applicata, quindi le notifiche per uno stesso ID arrivano
+ * nell'ordine in cui le modifiche vengono applicate. Un'eccezione non controllata
+ * lanciata da un osservatore annulla la modifica. Le implementazioni devono
+ * essere brevi e non devono invocare metodi di modifica della collezione.
+ *
+ * Prima di applicare un lotto atomico la collezione invoca verifica per ogni
+ * gioco del lotto, così un gioco che un osservatore non può registrare
+ * annulla il lotto prima che venga notificata qualunque modifica.
+ *
+ * Dopo una modifica singola o un lotto, a ID ormai sbloccati, viene invocato
+ * confermata nel thread che ha eseguito la modifica: è il punto in cui un
+ * osservatore può attendere, ad esempio che la modifica sia durevole.
+ */
+public interface OsservatoreCollezione {
+
+    /**
+     * Verifica che l'osservatore possa registrare il gioco di un lotto atomico
+     * Viene invocato con gli ID del lotto bloccati, prima di ogni notifica del lotto
+     * @param gioco Il gioco da inserire o aggiornare
+     * @throws IllegalArgumentException se il gioco non può essere registrato:
+     *                                  il lotto non viene applicato
+     */
+    default void verifica(Gioco gioco) {
+    }
+
+    /**
+     * Notifica l'inserimento di un nuovo gioco
+     * @param gioco Il gioco inserito
+     */
+    default void inserito(Gioco gioco) {
+    }
+
+    /**
+     * Notifica l'aggiornamento di un gioco esistente
+     * @param gioco Il gioco con i dati aggiornati
+     */
+    default void aggiornato(Gioco gioco) {
+    }
+
+    /**
+     * Notifica la rimozione di un gioco
+     * @param idGioco L'ID del gioco rimosso
+     */
+    default void rimosso(String idGioco) {
+    }
+
+    /**
+     * Notifica che le modifiche notificate a questo thread sono state applicate
+     * Un'eccezione non controllata viene propagata al chiamante della
+     * modifica, che però resta applicata
+     */
+    default void confermata() {
+    }
+}
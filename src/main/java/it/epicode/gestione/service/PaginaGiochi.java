@@ -0,0 +1,26 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+import java.util.List;
+
+/**
+ * Pagina di una scansione a cursore della collezione
+ * @param giochi I giochi della pagina, per prezzo crescente e a parità di prezzo per ID
+ * @param cursoreSuccessivo Cursore da passare a Collezione.scorri per la pagina
+ *                          successiva, null se la scansione è terminata
+ */
+public record PaginaGiochi(List<Gioco> giochi, String cursoreSuccessivo) {
+
+    public PaginaGiochi {
+        giochi = List.copyOf(giochi);
+    }
+
+    /**
+     * Verifica se esistono altre pagine
+     * @return true se il cursore successivo è valorizzato
+     */
+    public boolean haSuccessiva() {
+        return cursoreSuccessivo != null;
+    }
+}
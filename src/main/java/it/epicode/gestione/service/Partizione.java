@@ -0,0 +1,60 @@
+package it.epicode.gestione.service;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Partizione della collezione per un valore di un attributo (un genere, una piattaforma)
+ * Conteggio e somma dei prezzi sono mantenuti a ogni modifica, quindi i riepiloghi
+ * si leggono in tempo costante; le voci ordinate per prezzo sono mantenute solo
+ * dopo che la collezione ha attivato l'ordine delle partizioni
+ */
+final class Partizione {
+    private final NavigableSet<Voce> voci = new ConcurrentSkipListSet<>(Voce.ORDINE_PREZZO);
+    private final LongAdder conteggio = new LongAdder();
+    private final DoubleAdder sommaPrezzi = new DoubleAdder();
+
+    /**
+     * Va invocato una sola volta per voce, mentre l'ID della voce è bloccato
+     * @param ordinata true se l'ordine delle partizioni è attivo
+     */
+    void aggiungi(Voce voce, boolean ordinata) {
+        conteggio.increment();
+        sommaPrezzi.add(voce.prezzo());
+        if (ordinata) {
+            voci.add(voce);
+        }
+    }
+
+    /**
+     * Aggiunge una voce già contata alle voci ordinate, se non è già presente
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    void ordina(Voce voce) {
+        voci.add(voce);
+    }
+
+    /**
+     * Va invocato una sola volta per voce aggiunta, mentre l'ID della voce è bloccato
+     */
+    void rimuovi(Voce voce) {
+        conteggio.decrement();
+        sommaPrezzi.add(-voce.prezzo());
+        voci.remove(voce);
+    }
+
+    NavigableSet<Voce> voci() {
+        return voci;
+    }
+
+    long conteggio() {
+        return conteggio.sum();
+    }
+
+    RiepilogoPrezzi riepilogo() {
+        long totale = conteggio.sum();
+        return totale > 0 ? new RiepilogoPrezzi(totale, sommaPrezzi.sum()) : RiepilogoPrezzi.VUOTO;
+    }
+}
@@ -0,0 +1,56 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Voci di un solo tipo di gioco, indicizzate per ID
+ * Le ricerche e le scansioni limitate a un tipo leggono solo questa partizione
+ * invece di filtrare l'intera collezione
+ * @param <T> Il tipo di gioco della partizione
+ */
+final class PartizioneTipo<T extends Gioco> {
+    private final ConcurrentMap<String, Voce> voci = new ConcurrentHashMap<>();
+    private final Collection<T> vista;
+
+    /**
+     * Costruttore della classe PartizioneTipo
+     * @param tipo La classe dei giochi della partizione
+     */
+    PartizioneTipo(Class<T> tipo) {
+        this.vista = new VistaGiochi<>(voci.values(), tipo);
+    }
+
+    /**
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    void aggiungi(Voce voce) {
+        voci.put(voce.id(), voce);
+    }
+
+    /**
+     * Va invocato mentre l'ID della voce è bloccato
+     */
+    void rimuovi(Voce voce) {
+        voci.remove(voce.id(), voce);
+    }
+
+    Collection<Voce> voci() {
+        return voci.values();
+    }
+
+    /**
+     * Vista non modificabile e tipizzata dei giochi della partizione
+     * @return I giochi, letti dalla partizione a ogni iterazione
+     */
+    Collection<T> giochi() {
+        return vista;
+    }
+
+    int size() {
+        return voci.size();
+    }
+}
@@ -0,0 +1,35 @@
+package it.epicode.gestione.service;
+
+import java.util.List;
+
+/**
+ * Piano scelto per una ricerca con Criteri, restituito da Collezione.spiega
+ * @param accesso L'indice o la scansione da cui si leggono i candidati
+ * @param stimaCandidati Numero stimato di candidati letti dall'accesso
+ * @param filtriResidui Filtri verificati su ogni candidato perché non garantiti dall'accesso
+ * @param ordinamento Come si ottiene l'ordine del risultato
+ * @param alternative Gli accessi scartati, con la loro stima
+ */
+public record PianoQuery(String accesso,
+                         long stimaCandidati,
+                         List<String> filtriResidui,
+                         String ordinamento,
+                         List<String> alternative) {
+
+    public PianoQuery {
+        filtriResidui = List.copyOf(filtriResidui);
+        alternative = List.copyOf(alternative);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder piano = new StringBuilder();
+        piano.append("Accesso: ").append(accesso).append(" (~").append(stimaCandidati).append(" candidati)\n");
+        piano.append("Filtri: ").append(filtriResidui.isEmpty() ? "nessuno" : String.join(" AND ", filtriResidui)).append('\n');
+        piano.append("Ordinamento: ").append(ordinamento);
+        for (String alternativa : alternative) {
+            piano.append("\nScartato: ").append(alternativa);
+        }
+        return piano.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package it.epicode.gestione.service;
+
+/**
+ * Metriche di un'operazione della collezione dall'attivazione (o dall'ultimo azzeramento)
+ * Le latenze sono in microsecondi; i percentili hanno un errore relativo inferiore al 2%
+ * @param operazione L'operazione misurata
+ * @param chiamate Numero di chiamate, comprese quelle fallite
+ * @param errori Chiamate terminate con ElementoDuplicatoException o ElementoNonTrovatoException
+ * @param latenzaP50 Latenza mediana
+ * @param latenzaP99 Latenza al 99° percentile
+ * @param latenzaP999 Latenza al 99,9° percentile
+ * @param latenzaMassima Latenza massima
+ * @param risultatiP50 Numero mediano di giochi restituiti, 0 per le operazioni senza elenco
+ * @param risultatiP99 Numero di giochi restituiti al 99° percentile
+ * @param risultatiMassimi Numero massimo di giochi restituiti
+ */
+public record RiepilogoOperazione(MetricheCollezione.Operazione operazione,
+                                  long chiamate,
+                                  long errori,
+                                  double latenzaP50,
+                                  double latenzaP99,
+                                  double latenzaP999,
+                                  double latenzaMassima,
+                                  double risultatiP50,
+                                  double risultatiP99,
+                                  long risultatiMassimi) {
+}
@@ -0,0 +1,22 @@
+package it.epicode.gestione.service;
+
+/**
+ * Conteggio e totale dei prezzi di un gruppo di giochi
+ * @param conteggio Numero di giochi
+ * @param sommaPrezzi Somma dei prezzi
+ */
+public record RiepilogoPrezzi(long conteggio, double sommaPrezzi) {
+
+    /**
+     * Riepilogo di un gruppo vuoto
+     */
+    public static final RiepilogoPrezzi VUOTO = new RiepilogoPrezzi(0, 0.0);
+
+    /**
+     * Restituisce la media dei prezzi
+     * @return La media, 0 se il gruppo è vuoto
+     */
+    public double mediaPrezzi() {
+        return conteggio > 0 ? sommaPrezzi / conteggio : 0.0;
+    }
+}
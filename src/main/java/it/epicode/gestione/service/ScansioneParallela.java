@@ -0,0 +1,59 @@
+package it.epicode.gestione.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Divisione di una scansione per posizione in intervalli contigui, eseguiti
+ * sul pool fork/join del chiamante se è un suo thread, altrimenti sul pool comune
+ *
+ * Le unità sono le righe di CollezioneColonnare o i sottoalberi della radice
+ * di un'istantanea. Sotto la soglia, o con un solo thread nel pool, la
+ * scansione resta un unico intervallo sul thread chiamante. I risultati degli
+ * intervalli arrivano nell'ordine delle unità, quindi unendoli in ordine si
+ * ottiene lo stesso risultato della scansione sequenziale.
+ */
+final class ScansioneParallela {
+    /**
+     * Numero di giochi da cui le scansioni vengono eseguite in parallelo:
+     * sotto, distribuire il lavoro sul pool costa più della scansione stessa
+     */
+    static final int SOGLIA_PREDEFINITA = 1 << 15;
+
+    // intervalli per thread del pool: compensano intervalli più lenti di altri
+    private static final int INTERVALLI_PER_THREAD = 4;
+
+    private ScansioneParallela() {
+    }
+
+    /**
+     * Scansione delle unità [da, a)
+     */
+    @FunctionalInterface
+    interface Intervallo<T> {
+        T scorri(int da, int a);
+    }
+
+    /**
+     * Esegue la scansione delle unità [0, unita)
+     * @param unita Numero di unità da scandire
+     * @param parallela true se la dimensione raggiunge la soglia del chiamante
+     * @param intervallo La scansione di un intervallo
+     * @return I risultati degli intervalli, nell'ordine delle unità
+     */
+    static <T> Stream<T> esegui(int unita, boolean parallela, Intervallo<T> intervallo) {
+        int thread = ForkJoinTask.inForkJoinPool()
+                ? ForkJoinTask.getPool().getParallelism()
+                : ForkJoinPool.getCommonPoolParallelism();
+        if (!parallela || thread <= 1 || unita <= 1) {
+            return Stream.of(intervallo.scorri(0, unita));
+        }
+        int intervalli = Math.min(unita, thread * INTERVALLI_PER_THREAD);
+        return IntStream.range(0, intervalli).parallel()
+                .mapToObj(i -> intervallo.scorri(
+                        (int) ((long) unita * i / intervalli),
+                        (int) ((long) unita * (i + 1) / intervalli)));
+    }
+}
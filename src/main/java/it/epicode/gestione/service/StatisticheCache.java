@@ -0,0 +1,21 @@
+package it.epicode.gestione.service;
+
+/**
+ * Stato della cache dei risultati di una Collezione
+ * @param successi Ricerche servite dalla cache
+ * @param mancati Ricerche calcolate perché assenti o invalidate da una modifica
+ * @param elementi Risultati memorizzati, compresi quelli invalidati non ancora eliminati
+ * @param peso Giochi referenziati dai risultati memorizzati
+ * @param pesoMassimo Peso oltre il quale i risultati meno usati vengono eliminati, 0 se la cache è disattivata
+ */
+public record StatisticheCache(long successi, long mancati, long elementi, long peso, long pesoMassimo) {
+
+    /**
+     * Restituisce la quota di ricerche servite dalla cache
+     * @return Un valore tra 0 e 1, 0 se non ci sono state ricerche
+     */
+    public double tassoSuccessi() {
+        long totale = successi + mancati;
+        return totale > 0 ? (double) successi / totale : 0.0;
+    }
+}
@@ -0,0 +1,29 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+/**
+ * Istantanea immutabile delle statistiche della collezione
+ * @param totaleVideogiochi Numero di videogiochi
+ * @param totaleGiochiDaTavolo Numero di giochi da tavolo
+ * @param giocoPrezzoPiuElevato Gioco con il prezzo più alto, null se la collezione è vuota
+ * @param mediaPrezzi Media dei prezzi, 0 se la collezione è vuota
+ */
+public record StatisticheCollezione(long totaleVideogiochi,
+                                    long totaleGiochiDaTavolo,
+                                    Gioco giocoPrezzoPiuElevato,
+                                    double mediaPrezzi) {
+
+    /**
+     * Statistiche di una collezione vuota
+     */
+    public static final StatisticheCollezione VUOTE = new StatisticheCollezione(0, 0, null, 0.0);
+
+    /**
+     * Restituisce il numero totale di giochi
+     * @return La somma di videogiochi e giochi da tavolo
+     */
+    public long totaleGiochi() {
+        return totaleVideogiochi + totaleGiochiDaTavolo;
+    }
+}
@@ -0,0 +1,106 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Gioco;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Vista non modificabile dei giochi contenuti in una collezione di voci
+ * Non copia nulla: ogni attraversamento legge le voci correnti, con la stessa
+ * consistenza debole della collezione sottostante, quindi è sicura anche durante
+ * le modifiche concorrenti
+ * @param <T> Il tipo di gioco della vista
+ */
+final class VistaGiochi<T extends Gioco> extends AbstractCollection<T> {
+    private final Collection<Voce> voci;
+    private final Class<T> tipo;
+
+    /**
+     * Costruttore della classe VistaGiochi
+     * @param voci Le voci da esporre
+     * @param tipo La classe dei giochi delle voci
+     */
+    VistaGiochi(Collection<Voce> voci, Class<T> tipo) {
+        this.voci = voci;
+        this.tipo = tipo;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<Voce> sorgente = voci.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return sorgente.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return tipo.cast(sorgente.next().gioco());
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> azione) {
+        voci.forEach(voce -> azione.accept(tipo.cast(voce.gioco())));
+    }
+
+    /**
+     * Usa lo spliterator delle voci, che resta divisibile per gli stream paralleli
+     * e non dichiara una dimensione esatta mentre la collezione cambia
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new Divisore(voci.spliterator());
+    }
+
+    @Override
+    public int size() {
+        return voci.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return voci.isEmpty();
+    }
+
+    private final class Divisore implements Spliterator<T> {
+        private final Spliterator<Voce> sorgente;
+
+        private Divisore(Spliterator<Voce> sorgente) {
+            this.sorgente = sorgente;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> azione) {
+            return sorgente.tryAdvance(voce -> azione.accept(tipo.cast(voce.gioco())));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> azione) {
+            sorgente.forEachRemaining(voce -> azione.accept(tipo.cast(voce.gioco())));
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<Voce> parte = sorgente.trySplit();
+            return parte == null ? null : new Divisore(parte);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sorgente.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            // l'ordine delle voci resta, ma non è un comparatore dei giochi
+            return sorgente.characteristics() & ~Spliterator.SORTED | Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+/**
+ * Voce interna della collezione
+ * Conserva il gioco insieme ai valori indicizzati al momento dell'inserimento,
+ * così gli indici secondari restano coerenti anche se il gioco viene modificato
+ * tramite i setter prima di chiamare aggiornaElemento.
+ * Genere e piattaforma sono valorizzati solo per i videogiochi
+ */
+record Voce(String id, Gioco gioco, double prezzo, String titolo, int numeroGiocatori,
+            Genere genere, String piattaforma) {
+
+    /**
+     * Ordine dell'indice prezzi: prezzo crescente, a parità di prezzo per ID
+     */
+    static final Comparator<Voce> ORDINE_PREZZO = Comparator
+            .comparingDouble(Voce::prezzo)
+            .thenComparing(Voce::id);
+
+    /**
+     * Ordine dei bucket per numero di giocatori: titolo, a parità di titolo per ID
+     */
+    static final Comparator<Voce> ORDINE_TITOLO = Comparator
+            .comparing(Voce::titolo)
+            .thenComparing(Voce::id);
+
+    /**
+     * Crea una voce leggendo i valori correnti del gioco
+     * @param gioco Il gioco da indicizzare
+     * @return La nuova voce
+     */
+    static Voce di(Gioco gioco) {
+        return di(gioco, UnaryOperator.identity());
+    }
+
+    /**
+     * Crea una voce leggendo i valori correnti del gioco
+     * @param gioco Il gioco da indicizzare
+     * @param canonica Restituisce l'istanza condivisa di una chiave di piattaforma
+     * @return La nuova voce
+     */
+    static Voce di(Gioco gioco, UnaryOperator<String> canonica) {
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            return new Voce(gioco.getIdGioco(), gioco, gioco.getPrezzo(), gioco.getTitolo(), 0,
+                    videogioco.getGenere(), canonica.apply(chiavePiattaforma(videogioco.getPiattaforma())));
+        }
+        int numeroGiocatori = gioco instanceof GiocoDaTavolo
+                ? ((GiocoDaTavolo) gioco).getNumeroGiocatori()
+                : 0;
+        return new Voce(gioco.getIdGioco(), gioco, gioco.getPrezzo(), gioco.getTitolo(), numeroGiocatori,
+                null, null);
+    }
+
+    /**
+     * Forma canonica del nome di una piattaforma: senza spazi ai bordi e maiuscola
+     * @param piattaforma Il nome della piattaforma
+     * @return La chiave della partizione
+     */
+    static String chiavePiattaforma(String piattaforma) {
+        return piattaforma.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica se la voce appartiene a un videogioco
+     * @return true se la voce ha un genere indicizzato
+     */
+    boolean isVideogioco() {
+        return genere != null;
+    }
+
+    /**
+     * Indica se la voce appartiene a un gioco da tavolo
+     * @return true se la voce ha un numero di giocatori indicizzato
+     */
+    boolean isGiocoDaTavolo() {
+        return numeroGiocatori > 0;
+    }
+
+    /**
+     * Crea una voce di confine per le ricerche per intervallo di prezzo.
+     * L'ID vuoto precede qualsiasi ID valido, quindi la sonda cade prima
+     * di tutti i giochi con lo stesso prezzo
+     * @param prezzo Il prezzo di confine
+     * @return La voce sonda
+     */
+    static Voce sondaPrezzo(double prezzo) {
+        return sonda(prezzo, "");
+    }
+
+    /**
+     * Crea una voce di confine nella posizione esatta (prezzo, ID) dell'indice prezzi
+     * @param prezzo Il prezzo di confine
+     * @param id L'ID di confine
+     * @return La voce sonda
+     */
+    static Voce sonda(double prezzo, String id) {
+        return new Voce(id, null, prezzo, "", 0, null, null);
+    }
+}
@@ -3,12 +3,21 @@ package it.epicode.gestione.ui;
 import it.epicode.gestione.exception.ElementoDuplicatoException;
 import it.epicode.gestione.exception.ElementoNonTrovatoException;
 import it.epicode.gestione.exception.InputNonValidoException;
+import it.epicode.gestione.importazione.ImportatoreCatalogo;
+import it.epicode.gestione.importazione.RapportoImportazione;
 import it.epicode.gestione.model.*;
 import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.PaginaGiochi;
+import it.epicode.gestione.service.RiepilogoOperazione;
+import it.epicode.gestione.service.StatisticheCache;
+import it.epicode.gestione.service.StatisticheCollezione;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.InputMismatchException;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -16,15 +25,28 @@ import java.util.Scanner;
  * Fornisce un menu interattivo per accedere a tutte le operazioni
  */
 public class MenuPrincipale {
+    private static final int DIMENSIONE_PAGINA = 50;
+
     private final Scanner scanner;
     private final Collezione collezione;
+    // Elenchi scritti a blocchi sull'uscita standard invece di un println per gioco
+    private final RenderizzatoreGiochi schermo =
+            new RenderizzatoreGiochi(new OutputStreamWriter(System.out), RenderizzatoreGiochi.Formato.TESTO);
 
     /**
      * Costruttore della classe MenuPrincipale
      */
     public MenuPrincipale() {
+        this(new Collezione());
+    }
+
+    /**
+     * Costruttore della classe MenuPrincipale su una collezione esistente
+     * @param collezione La collezione da gestire
+     */
+    public MenuPrincipale(Collezione collezione) {
         this.scanner = new Scanner(System.in);
-        this.collezione = new Collezione();
+        this.collezione = collezione;
     }
 
     /**
@@ -66,6 +88,9 @@ public class MenuPrincipale {
         System.out.println("6. Aggiorna gioco");
         System.out.println("7. Visualizza statistiche");
         System.out.println("8. Visualizza tutti i giochi");
+        System.out.println("9. Importa catalogo da file (CSV o JSON-lines)");
+        System.out.println("10. Cerca giochi per titolo");
+        System.out.println("11. Esporta catalogo su file (CSV o JSON-lines)");
         System.out.println("0. Esci");
         System.out.println("=".repeat(50));
         System.out.print("Inserisci la tua scelta: ");
@@ -119,6 +144,15 @@ public class MenuPrincipale {
                 case 8:
                     visualizzaTuttiIGiochi();
                     break;
+                case 9:
+                    importaCatalogo();
+                    break;
+                case 10:
+                    cercaGiochiPerTitolo();
+                    break;
+                case 11:
+                    esportaCatalogo();
+                    break;
                 case 0:
                     return false;
                 default:
@@ -210,19 +244,36 @@ public class MenuPrincipale {
     /**
      * Cerca un gioco per ID
      */
-    private void cercaGiocoPerID() throws ElementoNonTrovatoException {
+    private void cercaGiocoPerID() throws ElementoNonTrovatoException, IOException {
         System.out.println("\n--- CERCA GIOCO PER ID ---");
         String id = leggiStringa("Inserisci l'ID del gioco: ");
         
         Gioco gioco = collezione.cercaPerID(id);
         System.out.println("\n✓ Gioco trovato:");
-        System.out.println(gioco);
+        mostra(List.of(gioco));
+    }
+
+    /**
+     * Cerca giochi per titolo, anche con parole incomplete o errori di battitura
+     */
+    private void cercaGiochiPerTitolo() throws IOException {
+        System.out.println("\n--- CERCA GIOCHI PER TITOLO ---");
+        String testo = leggiStringa("Inserisci il titolo o parte di esso: ");
+
+        List<Gioco> giochi = collezione.cercaPerTitolo(testo, 0, 20);
+
+        if (giochi.isEmpty()) {
+            System.out.println("Nessun gioco trovato per \"" + testo + "\"");
+        } else {
+            System.out.println("\n✓ Giochi trovati (primi " + giochi.size() + " per pertinenza):");
+            mostra(giochi);
+        }
     }
 
     /**
      * Cerca giochi per prezzo massimo
      */
-    private void cercaGiochiPerPrezzo() {
+    private void cercaGiochiPerPrezzo() throws IOException {
         System.out.println("\n--- CERCA GIOCHI PER PREZZO ---");
         double prezzoMax = leggiDouble("Inserisci il prezzo massimo (€): ");
         
@@ -232,14 +283,14 @@ public class MenuPrincipale {
             System.out.println("Nessun gioco trovato con prezzo inferiore a €" + prezzoMax);
         } else {
             System.out.println("\n✓ Giochi trovati (" + giochi.size() + "):");
-            giochi.forEach(System.out::println);
+            mostra(giochi);
         }
     }
 
     /**
      * Cerca giochi da tavolo per numero di giocatori
      */
-    private void cercaGiochiPerNumeroGiocatori() {
+    private void cercaGiochiPerNumeroGiocatori() throws IOException {
         System.out.println("\n--- CERCA GIOCHI DA TAVOLO PER NUMERO GIOCATORI ---");
         int numeroGiocatori = leggiIntero("Inserisci il numero di giocatori (2-10): ");
         
@@ -249,7 +300,7 @@ public class MenuPrincipale {
             System.out.println("Nessun gioco da tavolo trovato per " + numeroGiocatori + " giocatori");
         } else {
             System.out.println("\n✓ Giochi da tavolo trovati (" + giochi.size() + "):");
-            giochi.forEach(System.out::println);
+            mostra(giochi);
         }
     }
 
@@ -327,6 +378,16 @@ public class MenuPrincipale {
         if (!nuovaDurata.isEmpty()) {
             videogioco.setDurataGioco(Integer.parseInt(nuovaDurata));
         }
+
+        Genere[] generi = Genere.values();
+        String nuovoGenere = leggiStringaOpzionale("Genere [" + videogioco.getGenere() + "] (1-" + generi.length + "): ");
+        if (!nuovoGenere.isEmpty()) {
+            int sceltaGenere = Integer.parseInt(nuovoGenere) - 1;
+            if (sceltaGenere < 0 || sceltaGenere >= generi.length) {
+                throw new InputNonValidoException("Genere non valido!");
+            }
+            videogioco.setGenere(generi[sceltaGenere]);
+        }
         
         collezione.aggiornaElemento(videogioco);
     }
@@ -366,7 +427,7 @@ public class MenuPrincipale {
     /**
      * Visualizza le statistiche della collezione
      */
-    private void visualizzaStatistiche() {
+    private void visualizzaStatistiche() throws IOException {
         System.out.println("\n--- STATISTICHE COLLEZIONE ---");
         
         if (collezione.isEmpty()) {
@@ -374,26 +435,49 @@ public class MenuPrincipale {
             return;
         }
         
-        Map<String, Object> statistiche = collezione.generaStatistiche();
+        StatisticheCollezione statistiche = collezione.generaStatistiche();
         
-        System.out.println("Totale videogiochi: " + statistiche.get("totaleVideogiochi"));
-        System.out.println("Totale giochi da tavolo: " + statistiche.get("totaleGiochiDaTavolo"));
+        System.out.println("Totale videogiochi: " + statistiche.totaleVideogiochi());
+        System.out.println("Totale giochi da tavolo: " + statistiche.totaleGiochiDaTavolo());
         System.out.println("Totale giochi: " + collezione.size());
         
-        Gioco giocoPrezzoPiuElevato = (Gioco) statistiche.get("giocoPrezzoPiuElevato");
+        Gioco giocoPrezzoPiuElevato = statistiche.giocoPrezzoPiuElevato();
         if (giocoPrezzoPiuElevato != null) {
             System.out.println("\nGioco con prezzo più elevato:");
-            System.out.println(giocoPrezzoPiuElevato);
+            mostra(List.of(giocoPrezzoPiuElevato));
         }
         
-        double mediaPrezzi = (Double) statistiche.get("mediaPrezzi");
-        System.out.printf("\nMedia prezzi: €%.2f%n", mediaPrezzi);
+        System.out.printf("\nMedia prezzi: €%.2f%n", statistiche.mediaPrezzi());
+
+        if (statistiche.totaleVideogiochi() > 0) {
+            System.out.println("\nVideogiochi per genere:");
+            collezione.riepilogoPerGeneri().forEach((genere, riepilogo) -> {
+                if (riepilogo.conteggio() > 0) {
+                    System.out.printf("  %-12s %6d  media €%.2f%n", genere, riepilogo.conteggio(), riepilogo.mediaPrezzi());
+                }
+            });
+        }
+
+        StatisticheCache cache = collezione.statisticheCache();
+        if (cache.pesoMassimo() > 0) {
+            System.out.printf("\nCache ricerche: %.1f%% servite dalla cache (%d su %d)%n",
+                    cache.tassoSuccessi() * 100, cache.successi(), cache.successi() + cache.mancati());
+        }
+
+        if (collezione.getMetriche().isAttive()) {
+            System.out.println("\nMetriche operazioni (latenze in µs):");
+            System.out.printf("  %-27s %9s %7s %9s %9s %9s%n", "Operazione", "Chiamate", "Errori", "p50", "p99", "p99,9");
+            for (RiepilogoOperazione riepilogo : collezione.getMetriche().riepiloghi()) {
+                System.out.printf("  %-27s %9d %7d %9.1f %9.1f %9.1f%n", riepilogo.operazione(), riepilogo.chiamate(),
+                        riepilogo.errori(), riepilogo.latenzaP50(), riepilogo.latenzaP99(), riepilogo.latenzaP999());
+            }
+        }
     }
 
     /**
      * Visualizza tutti i giochi nella collezione
      */
-    private void visualizzaTuttiIGiochi() {
+    private void visualizzaTuttiIGiochi() throws IOException {
         System.out.println("\n--- TUTTI I GIOCHI ---");
         
         if (collezione.isEmpty()) {
@@ -401,13 +485,62 @@ public class MenuPrincipale {
             return;
         }
         
-        List<Gioco> giochi = collezione.getTuttiIGiochi();
-        System.out.println("Totale giochi: " + giochi.size());
+        System.out.println("Totale giochi: " + collezione.size() + " (ordinati per prezzo)");
         System.out.println();
         
-        giochi.stream()
-                .sorted((g1, g2) -> g1.getTitolo().compareToIgnoreCase(g2.getTitolo()))
-                .forEach(System.out::println);
+        // Scorre la collezione a pagine senza copiarla
+        PaginaGiochi pagina = collezione.scorri(null, DIMENSIONE_PAGINA);
+        mostra(pagina.giochi());
+        while (pagina.haSuccessiva()) {
+            String risposta = leggiStringaOpzionale("\nInvio per continuare, 'q' per terminare: ");
+            if (risposta.equalsIgnoreCase("q")) {
+                return;
+            }
+            pagina = collezione.scorri(pagina.cursoreSuccessivo(), DIMENSIONE_PAGINA);
+            mostra(pagina.giochi());
+        }
+    }
+
+    /**
+     * Importa un catalogo da file CSV o JSON-lines
+     */
+    private void importaCatalogo() throws InputNonValidoException, IOException {
+        System.out.println("\n--- IMPORTA CATALOGO ---");
+        Path percorso = Path.of(leggiStringa("Percorso del file (.csv o .jsonl): "));
+        if (!Files.isRegularFile(percorso)) {
+            throw new InputNonValidoException("File non trovato: " + percorso);
+        }
+
+        RapportoImportazione rapporto = new ImportatoreCatalogo(collezione).importa(percorso);
+        System.out.println("\n✓ Importazione completata");
+        System.out.println(rapporto);
+
+        List<String> errori = rapporto.getMessaggiErrore();
+        errori.stream().limit(10).forEach(errore -> System.out.println("  " + errore));
+        if (errori.size() > 10) {
+            System.out.println("  ... e altri " + (rapporto.getErrori() - 10) + " errori");
+        }
+    }
+
+    /**
+     * Esporta tutta la collezione in un file CSV o JSON-lines, reimportabile con la voce 9
+     */
+    private void esportaCatalogo() throws IOException {
+        System.out.println("\n--- ESPORTA CATALOGO ---");
+        Path percorso = Path.of(leggiStringa("Percorso del file (.csv o .jsonl): "));
+
+        long inizio = System.nanoTime();
+        long esportati = RenderizzatoreGiochi.esporta(collezione.getVistaGiochi(), percorso);
+        System.out.printf("\n✓ Esportati %d giochi in %s (%d ms)%n",
+                esportati, percorso, (System.nanoTime() - inizio) / 1_000_000);
+    }
+
+    /**
+     * Scrive i giochi uno per riga e svuota il buffer, prima del prossimo prompt
+     */
+    private void mostra(List<? extends Gioco> giochi) throws IOException {
+        schermo.scriviTutti(giochi);
+        schermo.flush();
     }
 
     // Metodi di utilità per la lettura dell'input
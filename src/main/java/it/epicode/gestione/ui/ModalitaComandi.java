@@ -0,0 +1,211 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.importazione.ImportatoreCatalogo;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.StatisticheCollezione;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Modalità non interattiva: esegue un comando per riga e scrive l'esito di
+ * ciascuno come oggetto JSON su una riga, nello stesso ordine
+ *
+ * Comandi:
+ * <pre>
+ * add {"tipo":"videogioco","id":"V1",...}   aggiunge un gioco (chiavi del catalogo)
+ * update {"tipo":"tavolo","id":"T1",...}    aggiorna un gioco esistente
+ * find ID                                   cerca per ID
+ * remove ID                                 rimuove per ID
+ * price&lt; PREZZO [OFFSET LIMITE]             giochi con prezzo inferiore
+ * players N [MAX]                           giochi da tavolo per numero di giocatori
+ * stats                                     statistiche della collezione e della cache,
+ *                                           con le metriche delle operazioni se attive
+ * </pre>
+ * Le righe vuote e quelle che iniziano con # vengono ignorate. Un comando
+ * fallito produce un esito con "ok":false e non interrompe l'esecuzione,
+ * anche quando l'errore è inatteso, ad esempio una scrittura del registro
+ * fallita (codice errore_interno).
+ */
+public class ModalitaComandi {
+    private final Collezione collezione;
+    private final StringBuilder esito = new StringBuilder(256);
+
+    /**
+     * Costruttore della classe ModalitaComandi
+     * @param collezione La collezione su cui eseguire i comandi
+     */
+    public ModalitaComandi(Collezione collezione) {
+        if (collezione == null) {
+            throw new IllegalArgumentException("La collezione non può essere nulla");
+        }
+        this.collezione = collezione;
+    }
+
+    /**
+     * Esegue tutti i comandi letti fino alla fine dell'ingresso
+     * L'uscita viene svuotata solo quando non ci sono altri comandi già
+     * disponibili, così da un file si scrive a blocchi e da una pipe
+     * interattiva ogni esito arriva appena calcolato
+     * @param ingresso Le righe dei comandi
+     * @param uscita Dove scrivere gli esiti, una riga JSON per comando
+     * @return Il numero di comandi falliti
+     * @throws IOException in caso di errore di lettura o scrittura
+     */
+    public long esegui(BufferedReader ingresso, Writer uscita) throws IOException {
+        long falliti = 0;
+        long numeroRiga = 0;
+        String riga;
+        while ((riga = ingresso.readLine()) != null) {
+            numeroRiga++;
+            String comando = riga.trim();
+            if (comando.isEmpty() || comando.startsWith("#")) {
+                continue;
+            }
+            if (!esegui(numeroRiga, comando)) {
+                falliti++;
+            }
+            uscita.append(esito).append('\n');
+            if (!ingresso.ready()) {
+                uscita.flush();
+            }
+        }
+        uscita.flush();
+        return falliti;
+    }
+
+    /**
+     * Esegue un singolo comando e ne lascia l'esito nel buffer
+     * @return true se il comando è riuscito
+     */
+    private boolean esegui(long numeroRiga, String riga) {
+        int spazio = riga.indexOf(' ');
+        String nome = spazio < 0 ? riga : riga.substring(0, spazio);
+        String argomenti = spazio < 0 ? "" : riga.substring(spazio + 1).trim();
+
+        esito.setLength(0);
+        esito.append("{\"riga\":").append(numeroRiga).append(",\"comando\":");
+        ScrittoreJson.stringa(esito, nome);
+        try {
+            switch (nome) {
+                case "add":
+                    Gioco nuovo = ImportatoreCatalogo.giocoDaJson(argomenti);
+                    collezione.aggiungiElemento(nuovo);
+                    esito.append(",\"ok\":true,\"id\":");
+                    ScrittoreJson.stringa(esito, nuovo.getIdGioco());
+                    break;
+                case "update":
+                    Gioco aggiornato = ImportatoreCatalogo.giocoDaJson(argomenti);
+                    collezione.aggiornaElemento(aggiornato);
+                    esito.append(",\"ok\":true,\"id\":");
+                    ScrittoreJson.stringa(esito, aggiornato.getIdGioco());
+                    break;
+                case "find":
+                    Gioco trovato = collezione.cercaPerID(argomenti);
+                    esito.append(",\"ok\":true,\"gioco\":");
+                    ScrittoreJson.gioco(esito, trovato);
+                    break;
+                case "remove":
+                    collezione.rimuoviElemento(argomenti);
+                    esito.append(",\"ok\":true,\"id\":");
+                    ScrittoreJson.stringa(esito, argomenti);
+                    break;
+                case "price<":
+                    elenco(cercaPerPrezzo(argomenti.isEmpty() ? new String[0] : argomenti.split("\\s+")));
+                    break;
+                case "players":
+                    elenco(cercaPerNumeroGiocatori(argomenti.isEmpty() ? new String[0] : argomenti.split("\\s+")));
+                    break;
+                case "stats":
+                    statistiche(collezione.generaStatistiche());
+                    break;
+                default:
+                    return errore(numeroRiga, nome, "comando_sconosciuto", "Comando sconosciuto: " + nome);
+            }
+        } catch (ElementoDuplicatoException e) {
+            return errore(numeroRiga, nome, "duplicato", e.getMessage());
+        } catch (ElementoNonTrovatoException e) {
+            return errore(numeroRiga, nome, "non_trovato", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return errore(numeroRiga, nome, "input_non_valido", e.getMessage());
+        } catch (RuntimeException e) {
+            return errore(numeroRiga, nome, "errore_interno", e.getMessage());
+        }
+        esito.append('}');
+        return true;
+    }
+
+    private List<Gioco> cercaPerPrezzo(String[] argomenti) {
+        if (argomenti.length != 1 && argomenti.length != 3) {
+            throw new IllegalArgumentException("Uso: price< PREZZO [OFFSET LIMITE]");
+        }
+        double prezzo = decimale(argomenti[0]);
+        return argomenti.length == 1
+                ? collezione.cercaPerPrezzo(prezzo)
+                : collezione.cercaPerPrezzo(prezzo, intero(argomenti[1]), intero(argomenti[2]));
+    }
+
+    private List<GiocoDaTavolo> cercaPerNumeroGiocatori(String[] argomenti) {
+        if (argomenti.length != 1 && argomenti.length != 2) {
+            throw new IllegalArgumentException("Uso: players N [MAX]");
+        }
+        int minimo = intero(argomenti[0]);
+        return argomenti.length == 1
+                ? collezione.cercaPerNumeroGiocatori(minimo)
+                : collezione.cercaPerNumeroGiocatori(minimo, intero(argomenti[1]));
+    }
+
+    private boolean errore(long numeroRiga, String nome, String codice, String messaggio) {
+        esito.setLength(0);
+        esito.append("{\"riga\":").append(numeroRiga).append(",\"comando\":");
+        ScrittoreJson.stringa(esito, nome);
+        esito.append(",\"ok\":false,\"errore\":");
+        ScrittoreJson.stringa(esito, codice);
+        esito.append(",\"messaggio\":");
+        ScrittoreJson.stringa(esito, messaggio != null ? messaggio : codice);
+        esito.append('}');
+        return false;
+    }
+
+    private void elenco(List<? extends Gioco> giochi) {
+        esito.append(",\"ok\":true,\"conteggio\":").append(giochi.size()).append(",\"giochi\":[");
+        for (int i = 0; i < giochi.size(); i++) {
+            if (i > 0) {
+                esito.append(',');
+            }
+            ScrittoreJson.gioco(esito, giochi.get(i));
+        }
+        esito.append(']');
+    }
+
+    private void statistiche(StatisticheCollezione statistiche) {
+        esito.append(",\"ok\":true,");
+        ScrittoreJson.campiStatistiche(esito, statistiche);
+        ScrittoreJson.campoCache(esito.append(','), collezione.statisticheCache());
+        if (collezione.getMetriche().isAttive()) {
+            ScrittoreJson.campoMetriche(esito.append(','), collezione.getMetriche().riepiloghi());
+        }
+    }
+
+    private static int intero(String valore) {
+        try {
+            return Integer.parseInt(valore);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero intero non valido: " + valore);
+        }
+    }
+
+    private static double decimale(String valore) {
+        try {
+            return Double.parseDouble(valore);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero decimale non valido: " + valore);
+        }
+    }
+}
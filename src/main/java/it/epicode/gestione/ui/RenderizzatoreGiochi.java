@@ -0,0 +1,395 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.importazione.FormatoCatalogo;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Scrittura in streaming di elenchi di giochi come testo, CSV o JSON-lines
+ *
+ * Ogni gioco viene scritto campo per campo in un BufferedWriter riutilizzato,
+ * con numeri e prezzi convertiti in cifre su un buffer interno: per gioco non
+ * vengono create stringhe, quindi anche un'intera collezione si scrive alla
+ * velocità del disco. Il testo è identico a Gioco.toString; CSV e JSON-lines
+ * usano le colonne del catalogo importabile, quindi ciò che viene esportato può
+ * essere reimportato con ImportatoreCatalogo.
+ *
+ * Non è thread-safe.
+ */
+public final class RenderizzatoreGiochi implements Flushable, Closeable {
+    private static final int DIMENSIONE_BUFFER = 1 << 16;
+    private static final String INTESTAZIONE_CSV =
+            "tipo,id,titolo,anno,prezzo,piattaforma,durataGioco,genere,numeroGiocatori,durataMediaPartita";
+    private static final char[] ESADECIMALI = "0123456789abcdef".toCharArray();
+
+    /**
+     * Formati di uscita
+     */
+    public enum Formato {
+        /**
+         * Una riga per gioco, come Gioco.toString
+         */
+        TESTO,
+        /**
+         * CSV con intestazione, nelle colonne del catalogo
+         */
+        CSV,
+        /**
+         * Un oggetto JSON per riga, con le chiavi del catalogo
+         */
+        JSON_LINES;
+
+        /**
+         * Deduce il formato di esportazione dall'estensione del file
+         * @param percorso Il percorso del file
+         * @return JSON_LINES per .jsonl/.ndjson/.json, CSV altrimenti
+         */
+        public static Formato daPercorso(Path percorso) {
+            return FormatoCatalogo.daPercorso(percorso) == FormatoCatalogo.JSON_LINES ? JSON_LINES : CSV;
+        }
+    }
+
+    private final Writer uscita;
+    private final Formato formato;
+    // separatore dei decimali e cifra zero del testo, gli stessi usati da String.format
+    private final char separatoreDecimali;
+    private final char cifraZero;
+    private final char[] cifre = new char[20];
+    private boolean intestazioneScritta;
+    private long scritti;
+
+    /**
+     * Costruttore della classe RenderizzatoreGiochi
+     * L'intestazione CSV viene scritta prima del primo gioco, o alla chiusura
+     * se non ne è stato scritto nessuno
+     * @param uscita Dove scrivere; viene bufferizzata se non è già un BufferedWriter
+     * @param formato Il formato dei giochi
+     */
+    public RenderizzatoreGiochi(Writer uscita, Formato formato) {
+        if (uscita == null || formato == null) {
+            throw new IllegalArgumentException("Uscita e formato non possono essere nulli");
+        }
+        this.uscita = uscita instanceof BufferedWriter ? uscita : new BufferedWriter(uscita, DIMENSIONE_BUFFER);
+        this.formato = formato;
+        DecimalFormatSymbols simboli = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.separatoreDecimali = simboli.getDecimalSeparator();
+        this.cifraZero = simboli.getZeroDigit();
+    }
+
+    /**
+     * Esporta i giochi in un file, nel formato dedotto dall'estensione
+     * @param giochi I giochi da esportare, ad esempio Collezione.getVistaGiochi
+     * @param percorso Il file da creare o sovrascrivere
+     * @return Il numero di giochi scritti
+     * @throws IOException in caso di errore di scrittura
+     */
+    public static long esporta(Iterable<? extends Gioco> giochi, Path percorso) throws IOException {
+        try (RenderizzatoreGiochi renderizzatore = new RenderizzatoreGiochi(
+                new OutputStreamWriter(Files.newOutputStream(percorso), StandardCharsets.UTF_8),
+                Formato.daPercorso(percorso))) {
+            return renderizzatore.scriviTutti(giochi);
+        }
+    }
+
+    /**
+     * Scrive un gioco su una riga
+     * @param gioco Il gioco da scrivere
+     * @throws IOException in caso di errore di scrittura
+     */
+    public void scrivi(Gioco gioco) throws IOException {
+        intestazione();
+        switch (formato) {
+            case TESTO:
+                testo(gioco);
+                break;
+            case CSV:
+                csv(gioco);
+                break;
+            default:
+                json(gioco);
+        }
+        uscita.write('\n');
+        scritti++;
+    }
+
+    /**
+     * Scrive tutti i giochi, senza svuotare il buffer
+     * @param giochi I giochi da scrivere
+     * @return Il numero di giochi scritti
+     * @throws IOException in caso di errore di scrittura
+     */
+    public long scriviTutti(Iterable<? extends Gioco> giochi) throws IOException {
+        long prima = scritti;
+        for (Gioco gioco : giochi) {
+            scrivi(gioco);
+        }
+        return scritti - prima;
+    }
+
+    /**
+     * @return Il numero di giochi scritti finora
+     */
+    public long getScritti() {
+        return scritti;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        uscita.flush();
+    }
+
+    /**
+     * Svuota il buffer e chiude l'uscita
+     */
+    @Override
+    public void close() throws IOException {
+        intestazione();
+        uscita.close();
+    }
+
+    private void intestazione() throws IOException {
+        if (formato == Formato.CSV && !intestazioneScritta) {
+            uscita.write(INTESTAZIONE_CSV);
+            uscita.write('\n');
+            intestazioneScritta = true;
+        }
+    }
+
+    private void testo(Gioco gioco) throws IOException {
+        uscita.write("ID: ");
+        uscita.write(gioco.getIdGioco());
+        uscita.write(", Titolo: ");
+        uscita.write(gioco.getTitolo());
+        uscita.write(", Anno: ");
+        intero(gioco.getAnnoPubblicazione(), cifraZero);
+        uscita.write(", Prezzo: €");
+        prezzo(gioco.getPrezzo());
+
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            uscita.write(", Tipo: ");
+            uscita.write(videogioco.getTipoGioco());
+            uscita.write(", Piattaforma: ");
+            uscita.write(videogioco.getPiattaforma());
+            uscita.write(", Durata: ");
+            intero(videogioco.getDurataGioco(), cifraZero);
+            uscita.write(" ore, Genere: ");
+            uscita.write(videogioco.getGenere().toString());
+        } else if (gioco instanceof GiocoDaTavolo) {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            uscita.write(", Tipo: ");
+            uscita.write(giocoDaTavolo.getTipoGioco());
+            uscita.write(", Giocatori: ");
+            intero(giocoDaTavolo.getNumeroGiocatori(), cifraZero);
+            uscita.write(", Durata partita: ");
+            intero(giocoDaTavolo.getDurataMediaPartita(), cifraZero);
+            uscita.write(" minuti");
+        }
+    }
+
+    private void csv(Gioco gioco) throws IOException {
+        uscita.write(gioco instanceof Videogioco ? "videogioco," : "tavolo,");
+        campoCsv(gioco.getIdGioco());
+        uscita.write(',');
+        campoCsv(gioco.getTitolo());
+        uscita.write(',');
+        intero(gioco.getAnnoPubblicazione());
+        uscita.write(',');
+        numero(gioco.getPrezzo());
+
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            uscita.write(',');
+            campoCsv(videogioco.getPiattaforma());
+            uscita.write(',');
+            intero(videogioco.getDurataGioco());
+            uscita.write(',');
+            uscita.write(videogioco.getGenere().name());
+            uscita.write(",,");
+        } else if (gioco instanceof GiocoDaTavolo) {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            uscita.write(",,,,");
+            intero(giocoDaTavolo.getNumeroGiocatori());
+            uscita.write(',');
+            intero(giocoDaTavolo.getDurataMediaPartita());
+        }
+    }
+
+    private void json(Gioco gioco) throws IOException {
+        uscita.write(gioco instanceof Videogioco ? "{\"tipo\":\"videogioco\",\"id\":" : "{\"tipo\":\"tavolo\",\"id\":");
+        stringaJson(gioco.getIdGioco());
+        uscita.write(",\"titolo\":");
+        stringaJson(gioco.getTitolo());
+        uscita.write(",\"anno\":");
+        intero(gioco.getAnnoPubblicazione());
+        uscita.write(",\"prezzo\":");
+        numero(gioco.getPrezzo());
+
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            uscita.write(",\"piattaforma\":");
+            stringaJson(videogioco.getPiattaforma());
+            uscita.write(",\"durataGioco\":");
+            intero(videogioco.getDurataGioco());
+            uscita.write(",\"genere\":\"");
+            uscita.write(videogioco.getGenere().name());
+            uscita.write('"');
+        } else if (gioco instanceof GiocoDaTavolo) {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            uscita.write(",\"numeroGiocatori\":");
+            intero(giocoDaTavolo.getNumeroGiocatori());
+            uscita.write(",\"durataMediaPartita\":");
+            intero(giocoDaTavolo.getDurataMediaPartita());
+        }
+        uscita.write('}');
+    }
+
+    private void intero(long valore) throws IOException {
+        intero(valore, '0');
+    }
+
+    /**
+     * Scrive un intero in cifre decimali, senza creare stringhe
+     * @param zero La cifra zero: '0' per CSV e JSON, quella della località per il testo
+     */
+    private void intero(long valore, char zero) throws IOException {
+        if (valore == Long.MIN_VALUE) {
+            uscita.write(zero == '0' ? Long.toString(valore) : String.format("%d", valore));
+            return;
+        }
+        if (valore < 0) {
+            uscita.write('-');
+            valore = -valore;
+        }
+        int inizio = cifre.length;
+        do {
+            cifre[--inizio] = (char) (zero + valore % 10);
+            valore /= 10;
+        } while (valore != 0);
+        uscita.write(cifre, inizio, cifre.length - inizio);
+    }
+
+    /**
+     * Scrive il prezzo con due decimali, arrotondato come "%.2f"
+     * I valori che cadono quasi a metà tra due centesimi, dove la
+     * moltiplicazione potrebbe spostare l'arrotondamento, e quelli fuori scala
+     * vengono lasciati a String.format, che arrotonda sul valore binario esatto
+     */
+    private void prezzo(double prezzo) throws IOException {
+        double scalato = prezzo * 100;
+        double frazione = scalato - Math.floor(scalato);
+        if (!(Math.abs(scalato) < 1e9) || Math.abs(frazione - 0.5) < 1e-6) {
+            uscita.write(String.format("%.2f", prezzo));
+            return;
+        }
+        centesimi(Math.round(scalato), separatoreDecimali, cifraZero);
+    }
+
+    /**
+     * Scrive un numero in modo che Double.parseDouble restituisca esattamente
+     * lo stesso valore: i prezzi con al più due decimali, il caso comune,
+     * senza creare stringhe
+     */
+    private void numero(double valore) throws IOException {
+        double scalato = valore * 100;
+        long arrotondato = Math.round(scalato);
+        if (Math.abs(scalato) < 1e15 && arrotondato / 100.0 == valore) {
+            centesimi(arrotondato, '.', '0');
+        } else {
+            uscita.write(Double.toString(valore));
+        }
+    }
+
+    private void centesimi(long centesimi, char separatore, char zero) throws IOException {
+        if (centesimi < 0) {
+            uscita.write('-');
+            centesimi = -centesimi;
+        }
+        intero(centesimi / 100, zero);
+        uscita.write(separatore);
+        int resto = (int) (centesimi % 100);
+        uscita.write(zero + resto / 10);
+        uscita.write(zero + resto % 10);
+    }
+
+    /**
+     * Scrive il campo tra virgolette solo se contiene separatori, virgolette o
+     * ritorni a capo, raddoppiando le virgolette interne
+     */
+    private void campoCsv(String valore) throws IOException {
+        boolean virgolette = false;
+        for (int i = 0; i < valore.length() && !virgolette; i++) {
+            char c = valore.charAt(i);
+            virgolette = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!virgolette) {
+            uscita.write(valore);
+            return;
+        }
+
+        uscita.write('"');
+        int inizio = 0;
+        for (int i = 0; i < valore.length(); i++) {
+            if (valore.charAt(i) == '"') {
+                uscita.write(valore, inizio, i + 1 - inizio);
+                uscita.write('"');
+                inizio = i + 1;
+            }
+        }
+        uscita.write(valore, inizio, valore.length() - inizio);
+        uscita.write('"');
+    }
+
+    /**
+     * Scrive la stringa JSON tra virgolette; i tratti senza caratteri speciali
+     * vengono copiati in blocco
+     */
+    private void stringaJson(String valore) throws IOException {
+        uscita.write('"');
+        int inizio = 0;
+        for (int i = 0; i < valore.length(); i++) {
+            char c = valore.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            uscita.write(valore, inizio, i - inizio);
+            inizio = i + 1;
+            switch (c) {
+                case '"':
+                    uscita.write("\\\"");
+                    break;
+                case '\\':
+                    uscita.write("\\\\");
+                    break;
+                case '\n':
+                    uscita.write("\\n");
+                    break;
+                case '\r':
+                    uscita.write("\\r");
+                    break;
+                case '\t':
+                    uscita.write("\\t");
+                    break;
+                default:
+                    uscita.write("\\u00");
+                    uscita.write(ESADECIMALI[c >> 4]);
+                    uscita.write(ESADECIMALI[c & 0xF]);
+            }
+        }
+        uscita.write(valore, inizio, valore.length() - inizio);
+        uscita.write('"');
+    }
+}
@@ -0,0 +1,131 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.RiepilogoOperazione;
+import it.epicode.gestione.service.StatisticheCache;
+import it.epicode.gestione.service.StatisticheCollezione;
+
+import java.util.List;
+
+/**
+ * Serializzazione JSON dei giochi su uno StringBuilder riutilizzabile
+ * I giochi usano le stesse chiavi del catalogo importabile, quindi ciò che
+ * viene scritto può essere riletto con ImportatoreCatalogo.giocoDaJson
+ */
+final class ScrittoreJson {
+
+    private ScrittoreJson() {
+    }
+
+    /**
+     * Scrive il gioco come oggetto JSON
+     */
+    static void gioco(StringBuilder json, Gioco gioco) {
+        json.append("{\"tipo\":\"").append(gioco instanceof Videogioco ? "videogioco" : "tavolo")
+                .append("\",\"id\":");
+        stringa(json, gioco.getIdGioco());
+        json.append(",\"titolo\":");
+        stringa(json, gioco.getTitolo());
+        json.append(",\"anno\":").append(gioco.getAnnoPubblicazione())
+                .append(",\"prezzo\":").append(gioco.getPrezzo());
+        if (gioco instanceof Videogioco) {
+            Videogioco videogioco = (Videogioco) gioco;
+            json.append(",\"piattaforma\":");
+            stringa(json, videogioco.getPiattaforma());
+            json.append(",\"durataGioco\":").append(videogioco.getDurataGioco())
+                    .append(",\"genere\":\"").append(videogioco.getGenere().name()).append('"');
+        } else if (gioco instanceof GiocoDaTavolo) {
+            GiocoDaTavolo giocoDaTavolo = (GiocoDaTavolo) gioco;
+            json.append(",\"numeroGiocatori\":").append(giocoDaTavolo.getNumeroGiocatori())
+                    .append(",\"durataMediaPartita\":").append(giocoDaTavolo.getDurataMediaPartita());
+        }
+        json.append('}');
+    }
+
+    /**
+     * Scrive i campi delle statistiche, senza le graffe dell'oggetto che li contiene
+     */
+    static void campiStatistiche(StringBuilder json, StatisticheCollezione statistiche) {
+        json.append("\"videogiochi\":").append(statistiche.totaleVideogiochi())
+                .append(",\"giochiDaTavolo\":").append(statistiche.totaleGiochiDaTavolo())
+                .append(",\"mediaPrezzi\":").append(statistiche.mediaPrezzi())
+                .append(",\"prezzoPiuElevato\":");
+        if (statistiche.giocoPrezzoPiuElevato() == null) {
+            json.append("null");
+        } else {
+            gioco(json, statistiche.giocoPrezzoPiuElevato());
+        }
+    }
+
+    /**
+     * Scrive il campo "cache" con successi, mancati e occupazione della cache dei risultati
+     */
+    static void campoCache(StringBuilder json, StatisticheCache cache) {
+        json.append("\"cache\":{\"successi\":").append(cache.successi())
+                .append(",\"mancati\":").append(cache.mancati())
+                .append(",\"tassoSuccessi\":").append(cache.tassoSuccessi())
+                .append(",\"elementi\":").append(cache.elementi())
+                .append(",\"peso\":").append(cache.peso())
+                .append(",\"pesoMassimo\":").append(cache.pesoMassimo())
+                .append('}');
+    }
+
+    /**
+     * Scrive il campo "metriche" con un oggetto per operazione; latenze in microsecondi
+     */
+    static void campoMetriche(StringBuilder json, List<RiepilogoOperazione> riepiloghi) {
+        json.append("\"metriche\":[");
+        for (int i = 0; i < riepiloghi.size(); i++) {
+            RiepilogoOperazione riepilogo = riepiloghi.get(i);
+            json.append(i > 0 ? ",{" : "{")
+                    .append("\"operazione\":\"").append(riepilogo.operazione().name())
+                    .append("\",\"chiamate\":").append(riepilogo.chiamate())
+                    .append(",\"errori\":").append(riepilogo.errori())
+                    .append(",\"latenzaP50\":").append(riepilogo.latenzaP50())
+                    .append(",\"latenzaP99\":").append(riepilogo.latenzaP99())
+                    .append(",\"latenzaP999\":").append(riepilogo.latenzaP999())
+                    .append(",\"latenzaMassima\":").append(riepilogo.latenzaMassima())
+                    .append(",\"risultatiP50\":").append(riepilogo.risultatiP50())
+                    .append(",\"risultatiP99\":").append(riepilogo.risultatiP99())
+                    .append(",\"risultatiMassimi\":").append(riepilogo.risultatiMassimi())
+                    .append('}');
+        }
+        json.append(']');
+    }
+
+    /**
+     * Scrive la stringa tra virgolette con i caratteri speciali in escape
+     */
+    static void stringa(StringBuilder json, String valore) {
+        json.append('"');
+        for (int i = 0; i < valore.length(); i++) {
+            char c = valore.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
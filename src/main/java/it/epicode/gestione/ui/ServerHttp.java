@@ -0,0 +1,342 @@
+package it.epicode.gestione.ui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.importazione.ImportatoreCatalogo;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.Collezione;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API HTTP/JSON sulla collezione, basata sul server HTTP incluso nel JDK
+ *
+ * Endpoint:
+ * <pre>
+ * GET    /giochi                          tutti i giochi
+ * GET    /giochi?prezzoMax=P[&amp;offset=O&amp;limit=L]  giochi con prezzo inferiore a P
+ * GET    /giochi?giocatori=N[&amp;max=M]       giochi da tavolo per numero di giocatori
+ * GET    /giochi/{id}                     un gioco
+ * POST   /giochi                          aggiunge il gioco nel corpo (chiavi del catalogo)
+ * PUT    /giochi/{id}                     aggiorna il gioco nel corpo
+ * DELETE /giochi/{id}                     rimuove un gioco
+ * GET    /statistiche                     statistiche della collezione e della cache,
+ *                                         con le metriche delle operazioni se attive
+ * </pre>
+ * Le richieste sono eseguite su thread virtuali se il progetto è compilato
+ * con Java 21 o successivo, altrimenti su un pool di thread di piattaforma
+ * (vedi EsecutoreRichieste).
+ * Le liste vengono serializzate mentre si scorrono i risultati e inviate a
+ * blocchi, senza costruire in memoria l'intera risposta.
+ */
+public class ServerHttp {
+    private static final int CODA_CONNESSIONI = 1024;
+    private static final int BUFFER_RISPOSTA = 16 * 1024;
+
+    private final Collezione collezione;
+    private final HttpServer server;
+    private final ExecutorService esecutore;
+    private final CountDownLatch arresto = new CountDownLatch(1);
+
+    private ServerHttp(Collezione collezione, HttpServer server, ExecutorService esecutore) {
+        this.collezione = collezione;
+        this.server = server;
+        this.esecutore = esecutore;
+    }
+
+    /**
+     * Avvia il server sulla porta indicata
+     * @param collezione La collezione da esporre
+     * @param porta La porta TCP, 0 per sceglierne una libera
+     * @return Il server avviato
+     * @throws IOException se la porta non è disponibile
+     */
+    public static ServerHttp avvia(Collezione collezione, int porta) throws IOException {
+        if (collezione == null) {
+            throw new IllegalArgumentException("La collezione non può essere nulla");
+        }
+        if (porta < 0 || porta > 65535) {
+            throw new IllegalArgumentException("Porta non valida: " + porta);
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(porta), CODA_CONNESSIONI);
+        ServerHttp api = new ServerHttp(collezione, server, EsecutoreRichieste.crea());
+        server.createContext("/giochi", api::gestisciGiochi);
+        server.createContext("/statistiche", api::gestisciStatistiche);
+        server.setExecutor(api.esecutore);
+        server.start();
+        return api;
+    }
+
+    /**
+     * Indica se le richieste sono eseguite su thread virtuali
+     * @return true se il progetto è compilato con Java 21 o successivo
+     */
+    public boolean usaThreadVirtuali() {
+        return EsecutoreRichieste.THREAD_VIRTUALI;
+    }
+
+    /**
+     * @return L'esecutore delle richieste, da riportare nei log di avvio
+     */
+    public String getEsecutore() {
+        return EsecutoreRichieste.DESCRIZIONE;
+    }
+
+    /**
+     * @return La porta su cui il server è in ascolto
+     */
+    public int getPorta() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Ferma il server attendendo al più un secondo le richieste in corso
+     */
+    public void ferma() {
+        server.stop(1);
+        esecutore.shutdown();
+        try {
+            esecutore.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        arresto.countDown();
+    }
+
+    /**
+     * Blocca il chiamante finché il server non viene fermato
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa
+     */
+    public void attendiArresto() throws InterruptedException {
+        arresto.await();
+    }
+
+    /**
+     * Un errore dopo l'invio delle intestazioni non può più diventare una
+     * risposta di errore: l'eccezione esce dal gestore senza chiudere lo
+     * scambio e il server chiude la connessione, così il client vede una
+     * risposta interrotta invece di un array JSON troncato ma ben terminato
+     */
+    private void gestisciGiochi(HttpExchange scambio) throws IOException {
+        try {
+            eseguiGiochi(scambio);
+        } catch (ElementoDuplicatoException e) {
+            errore(scambio, 409, "duplicato", e.getMessage());
+        } catch (ElementoNonTrovatoException e) {
+            errore(scambio, 404, "non_trovato", e.getMessage());
+        } catch (RuntimeException e) {
+            if (scambio.getResponseCode() != -1) {
+                throw e;
+            }
+            if (e instanceof IllegalArgumentException) {
+                errore(scambio, 400, "input_non_valido", e.getMessage());
+            } else {
+                errore(scambio, 500, "errore_interno", e.getMessage());
+            }
+        }
+        scambio.close();
+    }
+
+    private void eseguiGiochi(HttpExchange scambio)
+            throws IOException, ElementoDuplicatoException, ElementoNonTrovatoException {
+        String percorso = scambio.getRequestURI().getRawPath();
+        String id = percorso.length() > "/giochi/".length() && percorso.startsWith("/giochi/")
+                ? segmento(percorso.substring("/giochi/".length()))
+                : null;
+        if (id == null && !percorso.equals("/giochi") && !percorso.equals("/giochi/")) {
+            errore(scambio, 404, "risorsa_inesistente", "Percorso non valido: " + percorso);
+            return;
+        }
+
+        String metodo = scambio.getRequestMethod();
+        if (id == null) {
+            switch (metodo) {
+                case "GET":
+                    elenca(scambio, parametri(scambio.getRequestURI()));
+                    break;
+                case "POST":
+                    Gioco nuovo = ImportatoreCatalogo.giocoDaJson(corpo(scambio));
+                    collezione.aggiungiElemento(nuovo);
+                    rispondi(scambio, 201, oggettoGioco(nuovo));
+                    break;
+                default:
+                    metodoNonConsentito(scambio, "GET, POST");
+            }
+            return;
+        }
+
+        switch (metodo) {
+            case "GET":
+                rispondi(scambio, 200, oggettoGioco(collezione.cercaPerID(id)));
+                break;
+            case "PUT":
+                Gioco aggiornato = ImportatoreCatalogo.giocoDaJson(corpo(scambio));
+                if (!aggiornato.getIdGioco().equals(id.trim())) {
+                    throw new IllegalArgumentException("L'ID del corpo non corrisponde a quello del percorso");
+                }
+                collezione.aggiornaElemento(aggiornato);
+                rispondi(scambio, 200, oggettoGioco(aggiornato));
+                break;
+            case "DELETE":
+                collezione.rimuoviElemento(id);
+                scambio.sendResponseHeaders(204, -1);
+                break;
+            default:
+                metodoNonConsentito(scambio, "GET, PUT, DELETE");
+        }
+    }
+
+    private void gestisciStatistiche(HttpExchange scambio) throws IOException {
+        try (scambio) {
+            if (!scambio.getRequestMethod().equals("GET")) {
+                metodoNonConsentito(scambio, "GET");
+                return;
+            }
+            StringBuilder json = new StringBuilder(256).append('{');
+            ScrittoreJson.campiStatistiche(json, collezione.generaStatistiche());
+            ScrittoreJson.campoCache(json.append(','), collezione.statisticheCache());
+            if (collezione.getMetriche().isAttive()) {
+                ScrittoreJson.campoMetriche(json.append(','), collezione.getMetriche().riepiloghi());
+            }
+            rispondi(scambio, 200, json.append('}'));
+        }
+    }
+
+    private void elenca(HttpExchange scambio, Map<String, String> parametri) throws IOException {
+        Iterator<? extends Gioco> giochi;
+        if (parametri.containsKey("prezzoMax")) {
+            double prezzo = decimale(parametri.get("prezzoMax"));
+            giochi = parametri.containsKey("limit") || parametri.containsKey("offset")
+                    ? collezione.cercaPerPrezzo(prezzo,
+                            intero(parametri.getOrDefault("offset", "0")),
+                            intero(parametri.getOrDefault("limit", String.valueOf(Integer.MAX_VALUE)))).iterator()
+                    : collezione.cercaPerPrezzo(prezzo).iterator();
+        } else if (parametri.containsKey("giocatori")) {
+            int minimo = intero(parametri.get("giocatori"));
+            giochi = parametri.containsKey("max")
+                    ? collezione.cercaPerNumeroGiocatori(minimo, intero(parametri.get("max"))).iterator()
+                    : collezione.cercaPerNumeroGiocatori(minimo).iterator();
+        } else {
+            giochi = collezione.getVistaGiochi().iterator();
+        }
+        inviaElenco(scambio, giochi);
+    }
+
+    /**
+     * Invia l'elenco in codifica chunked, un gioco alla volta attraverso un buffer
+     */
+    private static void inviaElenco(HttpExchange scambio, Iterator<? extends Gioco> giochi) throws IOException {
+        scambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        scambio.sendResponseHeaders(200, 0);
+        // chiuso solo se l'elenco è completo: dopo un errore la risposta non va terminata
+        Writer uscita = new BufferedWriter(
+                new OutputStreamWriter(scambio.getResponseBody(), StandardCharsets.UTF_8), BUFFER_RISPOSTA);
+        StringBuilder json = new StringBuilder(256);
+        uscita.write('[');
+        boolean primo = true;
+        while (giochi.hasNext()) {
+            json.setLength(0);
+            if (!primo) {
+                json.append(',');
+            }
+            ScrittoreJson.gioco(json, giochi.next());
+            uscita.append(json);
+            primo = false;
+        }
+        uscita.write(']');
+        uscita.close();
+    }
+
+    private static StringBuilder oggettoGioco(Gioco gioco) {
+        StringBuilder json = new StringBuilder(256);
+        ScrittoreJson.gioco(json, gioco);
+        return json;
+    }
+
+    private static void errore(HttpExchange scambio, int stato, String codice, String messaggio) throws IOException {
+        StringBuilder json = new StringBuilder(128).append("{\"errore\":");
+        ScrittoreJson.stringa(json, codice);
+        json.append(",\"messaggio\":");
+        ScrittoreJson.stringa(json, messaggio != null ? messaggio : codice);
+        rispondi(scambio, stato, json.append('}'));
+    }
+
+    private static void metodoNonConsentito(HttpExchange scambio, String consentiti) throws IOException {
+        scambio.getResponseHeaders().set("Allow", consentiti);
+        errore(scambio, 405, "metodo_non_consentito", "Metodi consentiti: " + consentiti);
+    }
+
+    private static void rispondi(HttpExchange scambio, int stato, CharSequence json) throws IOException {
+        byte[] corpo = json.toString().getBytes(StandardCharsets.UTF_8);
+        scambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        scambio.sendResponseHeaders(stato, corpo.length);
+        try (OutputStream uscita = scambio.getResponseBody()) {
+            uscita.write(corpo);
+        }
+    }
+
+    private static String corpo(HttpExchange scambio) throws IOException {
+        return new String(scambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodifica un segmento del percorso grezzo: solo le sequenze %XX, mentre
+     * '+' resta un '+' (è uno spazio solo nei parametri dei form)
+     */
+    private static String segmento(String grezzo) {
+        try {
+            return URLDecoder.decode(grezzo.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Percorso non codificato correttamente: " + grezzo);
+        }
+    }
+
+    private static Map<String, String> parametri(URI uri) {
+        Map<String, String> parametri = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parametri;
+        }
+        for (String coppia : query.split("&")) {
+            int uguale = coppia.indexOf('=');
+            if (uguale > 0) {
+                parametri.put(URLDecoder.decode(coppia.substring(0, uguale), StandardCharsets.UTF_8),
+                        URLDecoder.decode(coppia.substring(uguale + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametri;
+    }
+
+    private static int intero(String valore) {
+        try {
+            return Integer.parseInt(valore);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero intero non valido: " + valore);
+        }
+    }
+
+    private static double decimale(String valore) {
+        try {
+            return Double.parseDouble(valore);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero decimale non valido: " + valore);
+        }
+    }
+}
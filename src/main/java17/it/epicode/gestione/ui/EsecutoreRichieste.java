@@ -0,0 +1,21 @@
+package it.epicode.gestione.ui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Esecutore delle richieste HTTP per Java 17-20, senza thread virtuali: un
+ * pool di thread di piattaforma. Compilato dal profilo java17; la variante
+ * per Java 21 è in src/main/java21
+ */
+final class EsecutoreRichieste {
+    static final boolean THREAD_VIRTUALI = false;
+    static final String DESCRIZIONE = "pool di thread di piattaforma";
+
+    private EsecutoreRichieste() {
+    }
+
+    static ExecutorService crea() {
+        return Executors.newCachedThreadPool();
+    }
+}
@@ -0,0 +1,21 @@
+package it.epicode.gestione.ui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Esecutore delle richieste HTTP per Java 21 o successivo: un thread virtuale
+ * per richiesta. Compilato dal profilo java21; la variante per Java 17 è in
+ * src/main/java17
+ */
+final class EsecutoreRichieste {
+    static final boolean THREAD_VIRTUALI = true;
+    static final String DESCRIZIONE = "thread virtuali";
+
+    private EsecutoreRichieste() {
+    }
+
+    static ExecutorService crea() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
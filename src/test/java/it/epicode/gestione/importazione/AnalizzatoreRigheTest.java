@@ -0,0 +1,68 @@
+package it.epicode.gestione.importazione;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalizzatoreRigheTest {
+
+    @Test
+    void campiCsvTraVirgolette() {
+        assertEquals(List.of("a", "b, c", "", "d"), AnalizzatoreRighe.csv("a,\"b, c\",,d"));
+        assertEquals(List.of("dice \"ciao\"", "x"), AnalizzatoreRighe.csv("\"dice \"\"ciao\"\"\",x"));
+        assertEquals(List.of("riga 1\nriga 2", "z"), AnalizzatoreRighe.csv("\"riga 1\nriga 2\",z"));
+        assertEquals(List.of("", ""), AnalizzatoreRighe.csv(","));
+        assertEquals(List.of(""), AnalizzatoreRighe.csv(""));
+
+        assertThrows(IllegalArgumentException.class, () -> AnalizzatoreRighe.csv("a,\"b"));
+    }
+
+    @Test
+    void virgoletteAperteContaLeVirgoletteRaddoppiate() {
+        assertTrue(AnalizzatoreRighe.virgoletteAperte("a,\"inizio"));
+        assertFalse(AnalizzatoreRighe.virgoletteAperte("a,\"chiuso \"\"qui\"\"\""));
+        assertTrue(AnalizzatoreRighe.virgoletteAperte("fine\"\"\"\"\","));
+        assertFalse(AnalizzatoreRighe.virgoletteAperte("nessuna"));
+    }
+
+    @Test
+    void oggettoJsonPiatto() {
+        Map<String, String> campi = AnalizzatoreRighe.json(
+                " { \"a\" : \"x\\\"y\\\\z\\n\", \"b\": 12.5, \"c\":true, \"d\" : null } ");
+
+        assertEquals("x\"y\\z\n", campi.get("a"));
+        assertEquals("12.5", campi.get("b"));
+        assertEquals("true", campi.get("c"));
+        assertTrue(campi.containsKey("d"));
+        assertNull(campi.get("d"));
+        assertEquals(Map.of(), AnalizzatoreRighe.json("{}"));
+    }
+
+    @Test
+    void sequenzeUnicodeJson() {
+        assertEquals("città", AnalizzatoreRighe.json("{\"t\":\"citt\\u00E0\"}").get("t"));
+        // coppia di surrogati: un carattere fuori dal piano base
+        assertEquals("\uD83C\uDFB2", AnalizzatoreRighe.json("{\"t\":\"\\ud83c\\udfb2\"}").get("t"));
+
+        for (String riga : new String[]{
+                "{\"t\":\"\\u00\"}", "{\"t\":\"\\u00G0\"}", "{\"t\":\"\\u+0ff\"}", "{\"t\":\"\\u00E"}) {
+            assertThrows(IllegalArgumentException.class, () -> AnalizzatoreRighe.json(riga), riga);
+        }
+    }
+
+    @Test
+    void righeJsonMalformate() {
+        for (String riga : new String[]{
+                "", "[]", "{\"a\":1", "{\"a\" 1}", "{\"a\":}", "{\"a\":1,}", "{\"a\":\"x}",
+                "{\"a\":{\"b\":1}}", "{\"a\":[1]}", "{\"a\":1} x", "{a:1}", "{\"a\":1 \"b\":2}"}) {
+            assertThrows(IllegalArgumentException.class, () -> AnalizzatoreRighe.json(riga), riga);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package it.epicode.gestione.importazione;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import it.epicode.gestione.service.EsitoLotto;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportatoreCatalogoTest {
+    private static final String INTESTAZIONE =
+            "tipo,id,titolo,anno,prezzo,piattaforma,durataGioco,genere,numeroGiocatori,durataMediaPartita\n";
+
+    /**
+     * Collezione il cui inserimento a lotti si interrompe dopo aver applicato i primi giochi
+     */
+    private static final class LottoInterrotto extends Collezione {
+        private final int applicati;
+
+        LottoInterrotto(int applicati) {
+            this.applicati = applicati;
+        }
+
+        @Override
+        public EsitoLotto aggiungiTutti(Collection<? extends Gioco> nuoviGiochi) {
+            super.aggiungiTutti(new ArrayList<>(nuoviGiochi).subList(0, applicati));
+            throw new IllegalStateException("lotto interrotto");
+        }
+    }
+
+    private static RapportoImportazione importa(Collezione collezione, String testo, FormatoCatalogo formato)
+            throws Exception {
+        return new ImportatoreCatalogo(collezione, 2).importa(new BufferedReader(new StringReader(testo)), formato);
+    }
+
+    @Test
+    void csvConVirgoletteEACapoNeiCampi() throws Exception {
+        Collezione collezione = new Collezione();
+        String csv = "\uFEFF" + INTESTAZIONE
+                + "videogioco,V1,\"Zelda, \"\"Breath\"\"\",2017,59.9,Switch,50,avventura,,\n"
+                + "tavolo,T1,\"Catan\n"
+                + "seconda edizione\",1995,40,,,,4,90\n"
+                + "\n"
+                + "tavolo,T2,Carcassonne,2000,30,,,,5,45\n";
+
+        RapportoImportazione rapporto = importa(collezione, csv, FormatoCatalogo.CSV);
+
+        assertEquals(3, rapporto.getImportati(), rapporto.getMessaggiErrore().toString());
+        assertEquals(0, rapporto.getErrori());
+        assertEquals("Zelda, \"Breath\"", collezione.cercaPerID("V1").getTitolo());
+        assertEquals(Genere.AVVENTURA, ((Videogioco) collezione.cercaPerID("V1")).getGenere());
+        assertEquals("Catan\nseconda edizione", collezione.cercaPerID("T1").getTitolo());
+        assertEquals(5, ((GiocoDaTavolo) collezione.cercaPerID("T2")).getNumeroGiocatori());
+    }
+
+    @Test
+    void righeNonValideVengonoRiportateConIlLoroNumero() throws Exception {
+        Collezione collezione = new Collezione();
+        String csv = INTESTAZIONE
+                + "tavolo,T1,\"Su due\n"
+                + "righe\",1995,40,,,,4,90\n"
+                + "tavolo,T2,Prezzo,2000,gratis,,,,4,90\n"
+                + "scacchi,T3,Tipo,2000,10,,,,2,60\n"
+                + "tavolo,T4,Giocatori,2000,10,,,,1,60\n"
+                + "videogioco,V1,Genere,2000,10,PC,10,ignoto,,\n"
+                + "tavolo,T5,\"Virgolette aperte,2000,10,,,,4,60\n";
+
+        RapportoImportazione rapporto = importa(collezione, csv, FormatoCatalogo.CSV);
+
+        assertEquals(1, rapporto.getImportati());
+        assertEquals(5, rapporto.getErrori());
+        List<String> errori = rapporto.getMessaggiErrore();
+        for (String prefisso : new String[]{"Riga 4: ", "Riga 5: ", "Riga 6: ", "Riga 7: ", "Riga 8: "}) {
+            assertTrue(errori.stream().anyMatch(errore -> errore.startsWith(prefisso)), prefisso + " " + errori);
+        }
+    }
+
+    @Test
+    void jsonLinesConEscapeEBom() throws Exception {
+        Collezione collezione = new Collezione();
+        String righe = "\uFEFF{\"tipo\":\"tavolo\",\"id\":\"T1\",\"titolo\":\"Citt\\u00e0 \\\"nuove\\\"\","
+                + "\"anno\":2000,\"prezzo\":12.5,\"numeroGiocatori\":4,\"durataMediaPartita\":60}\n"
+                + "{\"tipo\":\"tavolo\",\"id\":\"T2\"\n"
+                + "{\"tipo\":\"v\",\"id\":\"V1\",\"titolo\":\"Doom\",\"anno\":1993,\"prezzo\":5,"
+                + "\"piattaforma\":\"PC\",\"durataGioco\":8,\"genere\":\"AZIONE\",\"extra\":null}\n";
+
+        RapportoImportazione rapporto = importa(collezione, righe, FormatoCatalogo.JSON_LINES);
+
+        assertEquals(2, rapporto.getImportati());
+        assertEquals(List.of("Riga 2: Fine riga inattesa"), rapporto.getMessaggiErrore());
+        assertEquals("Città \"nuove\"", collezione.cercaPerID("T1").getTitolo());
+        assertEquals(Genere.AZIONE, ((Videogioco) collezione.cercaPerID("V1")).getGenere());
+    }
+
+    @Test
+    void duplicatiNonInterromponoLImportazione() throws Exception {
+        Collezione collezione = new Collezione();
+        collezione.aggiungiElemento(new GiocoDaTavolo("T1", "Esistente", 1990, 10, 4, 60));
+        String csv = INTESTAZIONE
+                + "tavolo,T1,Doppio,2000,10,,,,4,60\n"
+                + "tavolo,T2,Nuovo,2000,10,,,,4,60\n"
+                + "tavolo,T2,Ripetuto,2000,10,,,,4,60\n";
+
+        RapportoImportazione rapporto = importa(collezione, csv, FormatoCatalogo.CSV);
+
+        assertEquals(1, rapporto.getImportati());
+        assertEquals(2, rapporto.getDuplicati());
+        assertEquals(List.of("T1", "T2"), rapporto.getIdDuplicati().stream().sorted().toList());
+        assertEquals("Esistente", collezione.cercaPerID("T1").getTitolo());
+        assertEquals("Nuovo", collezione.cercaPerID("T2").getTitolo());
+    }
+
+    @Test
+    void lottoInterrottoProsegueUnoAUno() throws Exception {
+        // il lotto applica T1 (già presente) e T2, poi fallisce
+        Collezione collezione = new LottoInterrotto(2);
+        collezione.aggiungiElemento(new GiocoDaTavolo("T1", "Esistente", 1990, 10, 4, 60));
+        String csv = INTESTAZIONE
+                + "tavolo,T1,Doppio,2000,10,,,,4,60\n"
+                + "tavolo,T2,Nuovo,2000,10,,,,4,60\n"
+                + "tavolo,T3,Altro,2000,10,,,,4,60\n"
+                + "tavolo,T2,Ripetuto,2000,10,,,,4,60\n";
+
+        RapportoImportazione rapporto = importa(collezione, csv, FormatoCatalogo.CSV);
+
+        // T2 inserito dal lotto conta come importato, non come duplicato di se stesso
+        assertEquals(2, rapporto.getImportati());
+        assertEquals(List.of("T1", "T2"), rapporto.getIdDuplicati());
+        assertEquals(0, rapporto.getErrori());
+        assertEquals("Nuovo", collezione.cercaPerID("T2").getTitolo());
+        assertEquals("Altro", collezione.cercaPerID("T3").getTitolo());
+    }
+}
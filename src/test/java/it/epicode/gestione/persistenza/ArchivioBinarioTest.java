@@ -0,0 +1,75 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchivioBinarioTest {
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void salvaELeggeTuttiNelloStessoOrdine() throws IOException {
+        List<Gioco> giochi = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            giochi.add(i % 2 == 0
+                    ? new Videogioco("V" + i, "Titolo " + "lungo ".repeat(i % 60) + i, 2000 + i % 20, 1 + i % 90,
+                            i % 7 == 0 ? "PlayStation 5 Pro Digital Edition" : "PC", 10 + i % 50,
+                            Genere.values()[i % Genere.values().length])
+                    : new GiocoDaTavolo("T" + i, "Gioco da tavolo " + i, 1990 + i % 30, 5 + i % 40, 2 + i % 9, 30));
+        }
+        ArchivioBinario archivio = new ArchivioBinario(cartella.resolve("archivio.dat"));
+
+        archivio.salva(giochi);
+        List<Gioco> letti = archivio.leggiTutti();
+
+        assertEquals(giochi.size(), letti.size());
+        for (int i = 0; i < giochi.size(); i++) {
+            assertEquals(giochi.get(i).toString(), letti.get(i).toString());
+        }
+    }
+
+    @Test
+    void caricaInInserisceTuttiIGiochi() throws Exception {
+        List<Gioco> giochi = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            giochi.add(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 1 + i, 2 + i % 9, 30));
+        }
+        ArchivioBinario archivio = new ArchivioBinario(cartella.resolve("archivio.dat"));
+        archivio.salva(giochi);
+
+        Collezione collezione = new Collezione();
+        assertEquals(2000, archivio.caricaIn(collezione));
+
+        assertEquals(2000, collezione.size());
+        assertEquals("Gioco 1999", collezione.cercaPerID("T1999").getTitolo());
+        assertThrows(IOException.class, () -> archivio.caricaIn(collezione));
+    }
+
+    @Test
+    void archivioTroncatoVieneRifiutato() throws IOException {
+        Path percorso = cartella.resolve("archivio.dat");
+        new ArchivioBinario(percorso).salva(List.of(
+                new GiocoDaTavolo("T1", "Catan", 1995, 30, 4, 90),
+                new GiocoDaTavolo("T2", "Carcassonne", 2000, 25, 5, 45)));
+        byte[] dati = Files.readAllBytes(percorso);
+        Files.write(percorso, Arrays.copyOf(dati, dati.length - 10));
+
+        assertThrows(IOException.class, () -> new ArchivioBinario(percorso).leggiTutti());
+    }
+}
@@ -0,0 +1,59 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CodificaGiocoTest {
+
+    @Test
+    void videogiocoConCampiLunghiSopravviveAllaCodifica() {
+        Videogioco originale = new Videogioco("V-" + "x".repeat(100), "Città perduta ".repeat(20), 2021, 69.99,
+                "PlayStation 5 Pro Digital Edition", 45, Genere.AVVENTURA);
+
+        Gioco letto = CodificaGioco.leggi(ByteBuffer.wrap(CodificaGioco.codifica(originale, 3)), 3);
+
+        Videogioco videogioco = assertInstanceOf(Videogioco.class, letto);
+        assertEquals(originale.getIdGioco(), videogioco.getIdGioco());
+        assertEquals(originale.getTitolo(), videogioco.getTitolo());
+        assertEquals(originale.getAnnoPubblicazione(), videogioco.getAnnoPubblicazione());
+        assertEquals(originale.getPrezzo(), videogioco.getPrezzo());
+        assertEquals(originale.getPiattaforma(), videogioco.getPiattaforma());
+        assertEquals(originale.getDurataGioco(), videogioco.getDurataGioco());
+        assertEquals(originale.getGenere(), videogioco.getGenere());
+    }
+
+    @Test
+    void giocoDaTavoloSopravviveAllaCodifica() {
+        GiocoDaTavolo originale = new GiocoDaTavolo("T1", "Les Aventuriers du Rail", 2004, 39.5, 5, 60);
+
+        Gioco letto = CodificaGioco.leggi(ByteBuffer.wrap(CodificaGioco.codifica(originale, 0)), 0);
+
+        GiocoDaTavolo giocoDaTavolo = assertInstanceOf(GiocoDaTavolo.class, letto);
+        assertEquals(originale.toString(), giocoDaTavolo.toString());
+    }
+
+    @Test
+    void recordConSoloIdConservaLId() {
+        byte[] dati = CodificaGioco.codificaSoloId("ID-è-lungo-" + "9".repeat(300), 5);
+
+        assertEquals("ID-è-lungo-" + "9".repeat(300), CodificaGioco.leggiId(ByteBuffer.wrap(dati), 5));
+    }
+
+    @Test
+    void recordTroncatoVieneRifiutato() {
+        byte[] dati = CodificaGioco.codifica(new GiocoDaTavolo("T1", "Catan", 1995, 30, 4, 90), 0);
+        // taglia la lunghezza della piattaforma (vuota) e gli ultimi due byte del titolo
+        ByteBuffer troncato = ByteBuffer.wrap(dati, 0, dati.length - Integer.BYTES - 2).slice();
+
+        assertThrows(IllegalStateException.class, () -> CodificaGioco.leggi(troncato, 0));
+    }
+}
@@ -0,0 +1,193 @@
+package it.epicode.gestione.persistenza;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RegistroModificheTest {
+
+    private static final RegistroModifiche.Configurazione SEGMENTI_PICCOLI =
+            new RegistroModifiche.Configurazione(16, Duration.ZERO, 4096, RegistroModifiche.Durabilita.SINCRONA);
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void giochiConCampiLunghiVengonoRegistratiERipristinati() throws Exception {
+        String titolo = "T".repeat(130);
+        Collezione collezione = new Collezione();
+        RegistroModifiche registro = RegistroModifiche.apri(
+                cartella, RegistroModifiche.Configurazione.PREDEFINITA, collezione);
+        try (registro) {
+            collezione.aggiungiElemento(new Videogioco("V1", titolo, 2023, 59.9,
+                    "PlayStation 5 Pro Digital Edition", 40, Genere.RPG));
+            collezione.aggiungiElemento(new GiocoDaTavolo("T1", "Catan", 1995, 30, 4, 90));
+            collezione.aggiornaElemento(new GiocoDaTavolo("T1", "Catan " + "espansione ".repeat(30), 1995, 45, 6, 120));
+            assertEquals(2, collezione.size());
+        }
+
+        Collezione ripristinata = ripristina(cartella, RegistroModifiche.Configurazione.PREDEFINITA);
+        assertEquals(2, ripristinata.size());
+        Videogioco videogioco = (Videogioco) ripristinata.cercaPerID("V1");
+        assertEquals(titolo, videogioco.getTitolo());
+        assertEquals("PlayStation 5 Pro Digital Edition", videogioco.getPiattaforma());
+        assertEquals(6, ((GiocoDaTavolo) ripristinata.cercaPerID("T1")).getNumeroGiocatori());
+    }
+
+    @Test
+    void compattazioneConservaLoStato() throws Exception {
+        Collezione collezione = new Collezione();
+        try (RegistroModifiche registro = RegistroModifiche.apri(cartella, SEGMENTI_PICCOLI, collezione)) {
+            for (int i = 0; i < 500; i++) {
+                collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 10 + i, 2 + i % 9, 30));
+            }
+            for (int i = 0; i < 100; i++) {
+                collezione.rimuoviElemento("T" + i);
+            }
+            for (int i = 100; i < 150; i++) {
+                collezione.aggiornaElemento(new GiocoDaTavolo("T" + i, "Aggiornato " + i, 2001, 5, 3, 45));
+            }
+            registro.compatta();
+        }
+
+        Collezione ripristinata = ripristina(cartella, SEGMENTI_PICCOLI);
+        assertEquals(400, ripristinata.size());
+        assertEquals("Aggiornato 120", ripristinata.cercaPerID("T120").getTitolo());
+        assertEquals("Gioco 420", ripristinata.cercaPerID("T420").getTitolo());
+        assertFalse(ripristinata.getVistaGiochi().stream().anyMatch(gioco -> gioco.getIdGioco().equals("T50")));
+    }
+
+    @Test
+    void modificaConfermataSopravviveAUnArresto() throws Exception {
+        Path copia = Files.createDirectory(cartella.resolve("copia"));
+        Path originale = Files.createDirectory(cartella.resolve("originale"));
+        Collezione collezione = new Collezione();
+        RegistroModifiche registro = RegistroModifiche.apri(
+                originale, RegistroModifiche.Configurazione.PREDEFINITA, collezione);
+        try (registro) {
+            Thread[] thread = new Thread[4];
+            for (int t = 0; t < thread.length; t++) {
+                int primo = t * 250;
+                thread[t] = new Thread(() -> {
+                    for (int i = primo; i < primo + 250; i++) {
+                        try {
+                            collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 10, 4, 30));
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                thread[t].start();
+            }
+            for (Thread attivo : thread) {
+                attivo.join();
+            }
+            // nessuna sincronizza: con durabilità sincrona le modifiche sono già sul disco
+            copiaFile(originale, copia);
+        }
+
+        Collezione ripristinata = ripristina(copia, RegistroModifiche.Configurazione.PREDEFINITA);
+        assertEquals(1000, ripristinata.size());
+    }
+
+    @Test
+    void istantaneaESegmentiVengonoCombinati() throws Exception {
+        Path copia = Files.createDirectory(cartella.resolve("copia"));
+        Path originale = Files.createDirectory(cartella.resolve("originale"));
+        Collezione collezione = new Collezione();
+        RegistroModifiche registro = RegistroModifiche.apri(
+                originale, RegistroModifiche.Configurazione.PREDEFINITA, collezione);
+        try (registro) {
+            for (int i = 0; i < 3; i++) {
+                collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 10, 4, 30));
+            }
+        }
+
+        // seconda sessione interrotta: l'istantanea contiene T0..T2, il segmento le modifiche successive
+        Collezione seconda = new Collezione();
+        RegistroModifiche interrotto = RegistroModifiche.apri(
+                originale, RegistroModifiche.Configurazione.PREDEFINITA, seconda);
+        try (interrotto) {
+            seconda.rimuoviElemento("T0");
+            seconda.aggiornaElemento(new GiocoDaTavolo("T1", "Aggiornato", 2000, 20, 6, 30));
+            seconda.aggiungiElemento(new GiocoDaTavolo("T5", "Nuovo", 2010, 15, 2, 20));
+            seconda.aggiungiElemento(new GiocoDaTavolo("T6", "Effimero", 2010, 15, 2, 20));
+            seconda.rimuoviElemento("T6");
+            copiaFile(originale, copia);
+        }
+
+        Collezione ripristinata = ripristina(copia, RegistroModifiche.Configurazione.PREDEFINITA);
+        assertEquals(3, ripristinata.size());
+        assertEquals("Aggiornato", ripristinata.cercaPerID("T1").getTitolo());
+        assertEquals("Gioco 2", ripristinata.cercaPerID("T2").getTitolo());
+        assertEquals("Nuovo", ripristinata.cercaPerID("T5").getTitolo());
+    }
+
+    @Test
+    void voceIncompletaInterrompeLaRiesecuzione() throws Exception {
+        Path copia = Files.createDirectory(cartella.resolve("copia"));
+        Path originale = Files.createDirectory(cartella.resolve("originale"));
+        RegistroModifiche.Configurazione asincrona = new RegistroModifiche.Configurazione(
+                4096, Duration.ofMillis(1), 1 << 20, RegistroModifiche.Durabilita.ASINCRONA);
+        Collezione collezione = new Collezione();
+        try (RegistroModifiche registro = RegistroModifiche.apri(originale, asincrona, collezione)) {
+            for (int i = 0; i < 3; i++) {
+                collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 10, 4, 30));
+            }
+            registro.sincronizza();
+
+            // stato dei file come dopo un arresto durante la scrittura dell'ultima voce
+            Path segmento = copiaFile(originale, copia).stream()
+                    .filter(percorso -> percorso.getFileName().toString().startsWith("registro-"))
+                    .findFirst()
+                    .orElseThrow();
+            try (FileChannel canale = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+                canale.truncate(canale.size() - 5);
+            }
+        }
+
+        Collezione ripristinata = ripristina(copia, RegistroModifiche.Configurazione.PREDEFINITA);
+        assertEquals(2, ripristinata.size());
+    }
+
+    /**
+     * Ripristina una nuova collezione dal registro nella cartella, poi lo chiude
+     */
+    private static Collezione ripristina(Path origine, RegistroModifiche.Configurazione configurazione)
+            throws IOException {
+        Collezione ripristinata = new Collezione();
+        RegistroModifiche.apri(origine, configurazione, ripristinata).close();
+        return ripristinata;
+    }
+
+    /**
+     * @return I file copiati
+     */
+    private static List<Path> copiaFile(Path origine, Path destinazione) throws IOException {
+        List<Path> copiati;
+        try (Stream<Path> elenco = Files.list(origine)) {
+            copiati = elenco.sorted().map(percorso -> destinazione.resolve(percorso.getFileName()))
+                    .collect(Collectors.toList());
+        }
+        for (Path copiato : copiati) {
+            Files.copy(origine.resolve(copiato.getFileName()), copiato);
+        }
+        return copiati;
+    }
+}
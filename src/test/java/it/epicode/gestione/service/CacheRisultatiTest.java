@@ -0,0 +1,113 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.GiocoDaTavolo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheRisultatiTest {
+    private static final CacheRisultati.Chiave CHIAVE =
+            new CacheRisultati.Chiave(MetricheCollezione.Operazione.CERCA_PER_PREZZO, 10, 0, 5);
+
+    @Test
+    void ricercaRipetutaVieneServitaDallaCache() {
+        CacheRisultati cache = new CacheRisultati(100);
+        AtomicInteger calcoli = new AtomicInteger();
+
+        List<String> primo = cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+        List<String> secondo = cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+
+        assertSame(primo, secondo);
+        assertEquals(1, calcoli.get());
+        assertEquals(1, cache.statistiche().successi());
+        assertEquals(1, cache.statistiche().mancati());
+    }
+
+    @Test
+    void risultatoCalcolatoPrimaDellInvalidazioneNonVieneServito() {
+        CacheRisultati cache = new CacheRisultati(100);
+        AtomicInteger calcoli = new AtomicInteger();
+
+        // la modifica arriva mentre il risultato viene calcolato
+        List<String> vecchio = cache.leggi(CHIAVE, () -> {
+            cache.invalida();
+            return List.of("x" + calcoli.incrementAndGet());
+        }, List::size);
+        List<String> nuovo = cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+        List<String> ripetuto = cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+
+        assertNotSame(vecchio, nuovo);
+        assertSame(nuovo, ripetuto);
+        assertEquals(2, calcoli.get());
+    }
+
+    @Test
+    void modificaDellaCollezioneRendeNonValidiIRisultati() throws Exception {
+        Collezione collezione = new Collezione();
+        collezione.aggiungiElemento(new GiocoDaTavolo("T1", "Primo", 2000, 10, 4, 60));
+
+        assertEquals(1, collezione.cercaPerPrezzo(50).size());
+        assertEquals(1, collezione.cercaPerPrezzo(50).size());
+        collezione.aggiungiElemento(new GiocoDaTavolo("T2", "Secondo", 2000, 20, 4, 60));
+
+        assertEquals(2, collezione.cercaPerPrezzo(50).size());
+        assertEquals(1, collezione.statisticheCache().successi());
+        assertEquals(2, collezione.statisticheCache().mancati());
+    }
+
+    @Test
+    void pesoMassimoZeroNonMemorizzaNulla() throws Exception {
+        CacheRisultati cache = new CacheRisultati(0);
+        AtomicInteger calcoli = new AtomicInteger();
+
+        cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+        cache.leggi(CHIAVE, () -> List.of("x" + calcoli.incrementAndGet()), List::size);
+
+        assertEquals(2, calcoli.get());
+        assertEquals(0, cache.statistiche().elementi());
+        assertThrows(IllegalArgumentException.class, () -> new CacheRisultati(-1));
+
+        Collezione collezione = new Collezione();
+        collezione.configuraCache(0);
+        collezione.aggiungiElemento(new GiocoDaTavolo("T1", "Primo", 2000, 10, 4, 60));
+        collezione.cercaPerPrezzo(50);
+        collezione.cercaPerPrezzo(50);
+        assertEquals(0, collezione.statisticheCache().successi());
+        assertEquals(0, collezione.statisticheCache().elementi());
+    }
+
+    @Test
+    void superatoIlPesoMassimoVengonoEliminatiIMenoUsati() {
+        // ogni risultato pesa 4: uno per l'elemento e tre per i giochi
+        CacheRisultati cache = new CacheRisultati(20);
+        AtomicInteger calcoli = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            leggiTre(cache, i, calcoli);
+        }
+        leggiTre(cache, 0, calcoli);
+        leggiTre(cache, 5, calcoli);
+
+        assertTrue(cache.statistiche().peso() <= 15);
+        assertEquals(6, calcoli.get());
+        leggiTre(cache, 0, calcoli);
+        assertEquals(6, calcoli.get());
+        leggiTre(cache, 1, calcoli);
+        assertEquals(7, calcoli.get());
+    }
+
+    private static void leggiTre(CacheRisultati cache, int prezzo, AtomicInteger calcoli) {
+        CacheRisultati.Chiave chiave =
+                new CacheRisultati.Chiave(MetricheCollezione.Operazione.CERCA_PER_PREZZO, prezzo, 0, 5);
+        cache.leggi(chiave, () -> {
+            calcoli.incrementAndGet();
+            return List.of("a", "b", "c");
+        }, List::size);
+    }
+}
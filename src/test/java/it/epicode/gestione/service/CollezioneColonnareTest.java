@@ -0,0 +1,105 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollezioneColonnareTest {
+
+    /**
+     * Sottotipo non supportato dalla collezione colonnare
+     */
+    private static final class GiocoDiCarte extends Gioco {
+        GiocoDiCarte(String id) {
+            super(id, "Carte", 2000, 5);
+        }
+
+        @Override
+        public Gioco copiaImmutabile() {
+            return this;
+        }
+
+        @Override
+        public String getTipoGioco() {
+            return "Gioco di carte";
+        }
+    }
+
+    @Test
+    void tipoNonSupportatoLasciaLaRigaInvariata() throws Exception {
+        CollezioneColonnare collezione = new CollezioneColonnare();
+        Videogioco originale = new Videogioco("V1", "Originale", 2020, 30, "PC", 20, Genere.AZIONE);
+        collezione.aggiungiElemento(originale);
+
+        assertThrows(IllegalArgumentException.class, () -> collezione.aggiornaElemento(new GiocoDiCarte("V1")));
+        assertThrows(IllegalArgumentException.class, () -> collezione.aggiungiElemento(new GiocoDiCarte("C1")));
+
+        assertEquals(originale, collezione.cercaPerID("V1"));
+        assertEquals("Originale", collezione.cercaPerID("V1").getTitolo());
+        assertEquals(30, collezione.cercaPerID("V1").getPrezzo());
+        assertEquals(1, collezione.size());
+    }
+
+    @Test
+    void titoliRimossiOModificatiNonRestanoNelDizionario() {
+        DizionarioStringhe dizionario = new DizionarioStringhe();
+        int primo = dizionario.codifica("Primo");
+        assertEquals(primo, dizionario.codifica("Primo"));
+        int secondo = dizionario.codifica("Secondo");
+
+        dizionario.rilascia(primo);
+        assertEquals("Primo", dizionario.decodifica(primo));
+        dizionario.rilascia(primo);
+        dizionario.rilascia(secondo);
+        assertEquals(0, dizionario.size());
+
+        // i codici liberati vengono riusati invece di allungare il dizionario
+        int terzo = dizionario.codifica("Terzo");
+        assertTrue(terzo == primo || terzo == secondo);
+        assertEquals("Terzo", dizionario.decodifica(terzo));
+        assertEquals(1, dizionario.size());
+    }
+
+    @Test
+    void aggiornamentiERimozioniRipetutiRestituisconoIValoriCorrenti() throws Exception {
+        CollezioneColonnare collezione = new CollezioneColonnare(16);
+        Map<String, Gioco> attesi = new HashMap<>();
+        for (int giro = 0; giro < 2000; giro++) {
+            String id = "G" + giro % 50;
+            Gioco gioco = giro % 3 == 0
+                    ? new GiocoDaTavolo(id, "Tavolo " + giro, 2000, 1 + giro % 40, 2 + giro % 9, 60)
+                    : new Videogioco(id, "Video " + giro, 2010, 1 + giro % 70, "P" + giro % 7, 20,
+                            Genere.values()[giro % 3]);
+            if (!attesi.containsKey(id)) {
+                collezione.aggiungiElemento(gioco);
+                attesi.put(id, gioco);
+            } else if (giro % 5 == 0) {
+                collezione.rimuoviElemento(id);
+                attesi.remove(id);
+            } else {
+                collezione.aggiornaElemento(gioco);
+                attesi.put(id, gioco);
+            }
+        }
+
+        assertEquals(attesi.size(), collezione.size());
+        for (Gioco gioco : attesi.values()) {
+            Gioco letto = collezione.cercaPerID(gioco.getIdGioco());
+            assertEquals(gioco, letto);
+            assertEquals(gioco.getTitolo(), letto.getTitolo());
+            assertEquals(gioco.getPrezzo(), letto.getPrezzo());
+            if (gioco instanceof Videogioco) {
+                assertEquals(((Videogioco) gioco).getPiattaforma(), ((Videogioco) letto).getPiattaforma());
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.exception.ElementoNonTrovatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollezioneConcorrenzaTest {
+    private static final int THREAD = 4;
+    private static final int CHIAVI = 200;
+
+    /**
+     * Un gioco da tavolo o un videogioco, scelto dalla variante, con lo stesso ID
+     */
+    private static Gioco gioco(int chiave, int variante) {
+        String id = "G" + chiave;
+        double prezzo = 1 + (chiave * 7 + variante * 13) % 100;
+        return variante % 2 == 0
+                ? new GiocoDaTavolo(id, "Tavolo " + chiave, 2000, prezzo, 2 + variante % 9, 60)
+                : new Videogioco(id, "Video " + chiave, 2010, prezzo, "PC", 20, Genere.values()[variante % 3]);
+    }
+
+    private static void eseguiInParallelo(Attivita attivita) throws Exception {
+        CyclicBarrier partenza = new CyclicBarrier(THREAD);
+        List<Thread> thread = new ArrayList<>();
+        List<Throwable> errori = new ArrayList<>();
+        for (int t = 0; t < THREAD; t++) {
+            int numero = t;
+            Thread esecutore = new Thread(() -> {
+                try {
+                    attivita.esegui(numero, partenza);
+                } catch (Throwable e) {
+                    synchronized (errori) {
+                        errori.add(e);
+                    }
+                }
+            });
+            thread.add(esecutore);
+            esecutore.start();
+        }
+        for (Thread esecutore : thread) {
+            esecutore.join();
+        }
+        assertEquals(List.of(), errori);
+    }
+
+    @FunctionalInterface
+    private interface Attivita {
+        void esegui(int numero, CyclicBarrier partenza) throws Exception;
+    }
+
+    @Test
+    void ogniChiaveVieneInseritaERimossaUnaSolaVolta() throws Exception {
+        Collezione collezione = new Collezione();
+        AtomicIntegerArray inseriti = new AtomicIntegerArray(CHIAVI);
+        AtomicIntegerArray duplicati = new AtomicIntegerArray(CHIAVI);
+        AtomicIntegerArray rimossi = new AtomicIntegerArray(CHIAVI);
+        AtomicIntegerArray nonTrovati = new AtomicIntegerArray(CHIAVI);
+
+        eseguiInParallelo((numero, partenza) -> {
+            partenza.await();
+            for (int chiave = 0; chiave < CHIAVI; chiave++) {
+                try {
+                    collezione.aggiungiElemento(gioco(chiave, numero));
+                    inseriti.incrementAndGet(chiave);
+                } catch (ElementoDuplicatoException e) {
+                    duplicati.incrementAndGet(chiave);
+                }
+            }
+            partenza.await();
+            for (int chiave = 0; chiave < CHIAVI; chiave++) {
+                try {
+                    collezione.rimuoviElemento("G" + chiave);
+                    rimossi.incrementAndGet(chiave);
+                } catch (ElementoNonTrovatoException e) {
+                    nonTrovati.incrementAndGet(chiave);
+                }
+            }
+        });
+
+        for (int chiave = 0; chiave < CHIAVI; chiave++) {
+            assertEquals(1, inseriti.get(chiave));
+            assertEquals(THREAD - 1, duplicati.get(chiave));
+            assertEquals(1, rimossi.get(chiave));
+            assertEquals(THREAD - 1, nonTrovati.get(chiave));
+        }
+        verificaCoerenza(collezione);
+        assertTrue(collezione.isEmpty());
+    }
+
+    @Test
+    void modificheMisteSulleStesseChiaviLascianoGliIndiciCoerenti() throws Exception {
+        Collezione collezione = new Collezione();
+        LongAdder inserimenti = new LongAdder();
+        LongAdder rimozioni = new LongAdder();
+
+        eseguiInParallelo((numero, partenza) -> {
+            SplittableRandom casuale = new SplittableRandom(numero);
+            partenza.await();
+            for (int i = 0; i < 20_000; i++) {
+                int chiave = casuale.nextInt(CHIAVI / 4);
+                int variante = casuale.nextInt(18);
+                try {
+                    switch (casuale.nextInt(3)) {
+                        case 0:
+                            collezione.aggiungiElemento(gioco(chiave, variante));
+                            inserimenti.increment();
+                            break;
+                        case 1:
+                            // può cambiare anche il tipo di gioco associato all'ID
+                            collezione.aggiornaElemento(gioco(chiave, variante));
+                            break;
+                        default:
+                            collezione.rimuoviElemento("G" + chiave);
+                            rimozioni.increment();
+                    }
+                } catch (ElementoDuplicatoException | ElementoNonTrovatoException e) {
+                    // esito atteso quando un altro thread è arrivato prima
+                }
+            }
+        });
+
+        assertEquals(inserimenti.sum() - rimozioni.sum(), collezione.size());
+        verificaCoerenza(collezione);
+    }
+
+    /**
+     * Confronta mappa principale, indice prezzi, bucket per numero di giocatori,
+     * partizioni per tipo e contatori delle statistiche
+     */
+    private static void verificaCoerenza(Collezione collezione) {
+        List<Gioco> tutti = collezione.getTuttiIGiochi();
+        long videogiochi = tutti.stream().filter(Videogioco.class::isInstance).count();
+        long giochiDaTavolo = tutti.stream().filter(GiocoDaTavolo.class::isInstance).count();
+        double somma = tutti.stream().mapToDouble(Gioco::getPrezzo).sum();
+
+        assertEquals(tutti.size(), collezione.size());
+        assertEquals(tutti.size(), collezione.contaPerPrezzo(Double.MAX_VALUE));
+        assertEquals(giochiDaTavolo, collezione.cercaPerNumeroGiocatori(2, 10).size());
+        for (int giocatori = 2; giocatori <= 10; giocatori++) {
+            int numero = giocatori;
+            assertEquals(tutti.stream()
+                            .filter(gioco -> gioco instanceof GiocoDaTavolo
+                                    && ((GiocoDaTavolo) gioco).getNumeroGiocatori() == numero)
+                            .count(),
+                    collezione.cercaPerNumeroGiocatori(giocatori).size());
+        }
+        assertEquals(videogiochi, collezione.getVideogiochi().size());
+        assertEquals(giochiDaTavolo, collezione.getGiochiDaTavolo().size());
+        for (Gioco gioco : collezione.cercaPerPrezzo(Double.MAX_VALUE)) {
+            assertTrue(tutti.contains(gioco));
+        }
+
+        StatisticheCollezione statistiche = collezione.generaStatistiche();
+        assertEquals(videogiochi, statistiche.totaleVideogiochi());
+        assertEquals(giochiDaTavolo, statistiche.totaleGiochiDaTavolo());
+        if (!tutti.isEmpty()) {
+            assertEquals(somma / tutti.size(), statistiche.mediaPrezzi(), 1e-6);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollezioneLottiTest {
+
+    /**
+     * Registra le notifiche ricevute, in ordine
+     */
+    private static final class Registratore implements OsservatoreCollezione {
+        final List<String> notifiche = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void inserito(Gioco gioco) {
+            notifiche.add("+" + gioco.getIdGioco());
+        }
+
+        @Override
+        public void aggiornato(Gioco gioco) {
+            notifiche.add("~" + gioco.getIdGioco());
+        }
+
+        @Override
+        public void rimosso(String idGioco) {
+            notifiche.add("-" + idGioco);
+        }
+    }
+
+    private static GiocoDaTavolo tavolo(String id) {
+        return new GiocoDaTavolo(id, "Gioco " + id, 2000, 20, 4, 60);
+    }
+
+    @Test
+    void lottoAtomicoRifiutatoNonNotificaNulla() throws Exception {
+        Collezione collezione = new Collezione();
+        collezione.aggiungiElemento(tavolo("T1"));
+        Registratore registratore = new Registratore();
+        collezione.aggiungiOsservatore(registratore);
+        FlussoModifiche flusso = collezione.flussoModifiche();
+
+        EsitoLotto inserimento = collezione.aggiungiTutti(List.of(tavolo("T2"), tavolo("T1")), true);
+        EsitoLotto aggiornamento = collezione.aggiornaTutti(List.of(tavolo("T1"), tavolo("T9")), true);
+        EsitoLotto rimozione = collezione.rimuoviTutti(List.of("T1", "T1"), true);
+
+        assertTrue(inserimento.annullato());
+        assertEquals(List.of("T1"), inserimento.duplicati());
+        assertTrue(aggiornamento.annullato());
+        assertEquals(List.of("T9"), aggiornamento.nonTrovati());
+        assertTrue(rimozione.annullato());
+        assertEquals(List.of("T1"), rimozione.nonTrovati());
+        assertEquals(List.of(), registratore.notifiche);
+        assertEquals(0, flusso.getProssimaSequenza());
+        assertEquals(1, collezione.size());
+        assertEquals(1, collezione.generaStatistiche().totaleGiochiDaTavolo());
+    }
+
+    @Test
+    void verificaFallitaAnnullaIlLottoPrimaDelleNotifiche() {
+        Collezione collezione = new Collezione();
+        Registratore registratore = new Registratore();
+        collezione.aggiungiOsservatore(registratore);
+        collezione.aggiungiOsservatore(new OsservatoreCollezione() {
+            @Override
+            public void verifica(Gioco gioco) {
+                if (gioco instanceof Videogioco) {
+                    throw new IllegalArgumentException("Videogiochi non ammessi");
+                }
+            }
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> collezione.aggiungiTutti(List.of(
+                tavolo("T1"),
+                new Videogioco("V1", "Ultimo", 2020, 50, "PC", 30, Genere.AZIONE)), true));
+
+        assertEquals(List.of(), registratore.notifiche);
+        assertTrue(collezione.isEmpty());
+        assertEquals(0, collezione.contaPerPrezzo(1000));
+    }
+
+    @Test
+    void lottoAtomicoPubblicaGliEventiInOrdineAllaFine() throws Exception {
+        Collezione collezione = new Collezione();
+        collezione.aggiungiElemento(tavolo("T0"));
+        FlussoModifiche flusso = collezione.flussoModifiche();
+
+        EsitoLotto esito = collezione.aggiornaTutti(List.of(tavolo("T0"), tavolo("T0")), true);
+        collezione.rimuoviTutti(List.of("T0"), true);
+
+        assertTrue(esito.isCompleto());
+        assertEquals(List.of("T0", "T0"), esito.applicati());
+        assertEquals(3, flusso.getProssimaSequenza());
+        assertTrue(collezione.isEmpty());
+    }
+
+    @Test
+    void lottoAtomicoConcorrenteConInserimentiSingoliETuttoONiente() throws Exception {
+        for (int giro = 0; giro < 200; giro++) {
+            Collezione collezione = new Collezione();
+            Registratore registratore = new Registratore();
+            collezione.aggiungiOsservatore(registratore);
+            List<Gioco> lotto = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                lotto.add(tavolo("T" + i));
+            }
+
+            CountDownLatch partenza = new CountDownLatch(1);
+            AtomicBoolean singoloInserito = new AtomicBoolean();
+            Thread concorrente = new Thread(() -> {
+                try {
+                    partenza.await();
+                    collezione.aggiungiElemento(tavolo("T49"));
+                    singoloInserito.set(true);
+                } catch (ElementoDuplicatoException e) {
+                    // il lotto è arrivato prima
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            concorrente.start();
+            partenza.countDown();
+            EsitoLotto esito = collezione.aggiungiTutti(lotto, true);
+            concorrente.join();
+
+            // il lotto è applicato per intero oppure per niente, mai annullato a metà
+            assertEquals(esito.annullato(), singoloInserito.get());
+            assertEquals(esito.annullato() ? 1 : 50, collezione.size());
+            assertEquals(collezione.size(), registratore.notifiche.size());
+            assertFalse(registratore.notifiche.stream().anyMatch(notifica -> notifica.startsWith("-")));
+            assertEquals(collezione.size(), collezione.contaPerPrezzo(1000));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CollezioneShardataTest {
+
+    @Test
+    void ricercheSuTutteLePartizioniHannoLOrdineDiCollezione() throws Exception {
+        Collezione collezione = new Collezione();
+        CollezioneShardata shardata = new CollezioneShardata(5);
+        SplittableRandom casuale = new SplittableRandom(3);
+        for (int i = 0; i < 3000; i++) {
+            // prezzi e titoli ripetuti: a parità decide l'ID
+            Gioco gioco = i % 2 == 0
+                    ? new GiocoDaTavolo("G" + i, "Tavolo " + casuale.nextInt(40), 2000,
+                            1 + casuale.nextInt(60), 2 + casuale.nextInt(9), 60)
+                    : new Videogioco("G" + i, "Video " + i, 2010, 1 + casuale.nextInt(60), "PC", 20,
+                            Genere.values()[i % 3]);
+            collezione.aggiungiElemento(gioco);
+            shardata.aggiungiElemento(gioco);
+        }
+        for (int i = 0; i < 3000; i += 7) {
+            collezione.rimuoviElemento("G" + i);
+            shardata.rimuoviElemento("G" + i);
+        }
+
+        for (double prezzo : new double[]{1, 10, 30.5, 61}) {
+            assertEquals(collezione.cercaPerPrezzo(prezzo), shardata.cercaPerPrezzo(prezzo));
+        }
+        assertEquals(collezione.cercaPerPrezzo(40).subList(100, 150), shardata.cercaPerPrezzo(40, 100, 50));
+        for (int giocatori = 2; giocatori <= 10; giocatori++) {
+            assertEquals(collezione.cercaPerNumeroGiocatori(giocatori), shardata.cercaPerNumeroGiocatori(giocatori));
+        }
+        assertEquals(collezione.cercaPerNumeroGiocatori(3, 7), shardata.cercaPerNumeroGiocatori(3, 7));
+    }
+
+    @Test
+    void statisticheSommanoIPrezziDellePartizioni() throws Exception {
+        Collezione collezione = new Collezione();
+        CollezioneShardata shardata = new CollezioneShardata(2);
+        assertEquals(StatisticheCollezione.VUOTE, shardata.generaStatistiche());
+
+        // prezzi in 1024esimi: le somme sono esatte, mentre ricavarle da media e
+        // totale di ogni partizione sposta questa media di un'unità nell'ultima cifra
+        for (int i = 0; i < 51; i++) {
+            double prezzo = 1 + i * 7 % 97 / 1024.0;
+            Gioco gioco = i % 3 == 0
+                    ? new GiocoDaTavolo("G" + i, "Tavolo " + i, 2000, prezzo, 4, 60)
+                    : new Videogioco("G" + i, "Video " + i, 2010, prezzo, "PC", 20, Genere.AZIONE);
+            collezione.aggiungiElemento(gioco);
+            shardata.aggiungiElemento(gioco);
+        }
+
+        assertEquals(collezione.generaStatistiche(), shardata.generaStatistiche());
+    }
+
+    @Test
+    void prezzoMassimoNonFinitoVieneRifiutato() throws Exception {
+        Collezione collezione = new Collezione();
+        CollezioneShardata shardata = new CollezioneShardata(3);
+        Gioco gioco = new GiocoDaTavolo("T1", "Tavolo", 2000, 10, 4, 60);
+        collezione.aggiungiElemento(gioco);
+        shardata.aggiungiElemento(gioco);
+
+        for (double prezzo : new double[]{Double.NaN, Double.POSITIVE_INFINITY, 0, -1}) {
+            assertThrows(IllegalArgumentException.class, () -> collezione.cercaPerPrezzo(prezzo));
+            assertThrows(IllegalArgumentException.class, () -> collezione.cercaPerPrezzo(prezzo, 0, 10));
+            assertThrows(IllegalArgumentException.class, () -> collezione.contaPerPrezzo(prezzo));
+            assertThrows(IllegalArgumentException.class, () -> collezione.istantanea().cercaPerPrezzo(prezzo));
+            assertThrows(IllegalArgumentException.class, () -> shardata.cercaPerPrezzo(prezzo));
+            assertThrows(IllegalArgumentException.class, () -> shardata.cercaPerPrezzo(prezzo, 0, 10));
+            assertThrows(IllegalArgumentException.class, () -> shardata.contaPerPrezzo(prezzo));
+        }
+        assertEquals(List.of(gioco), shardata.cercaPerPrezzo(Double.MAX_VALUE));
+    }
+}
@@ -0,0 +1,142 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CollezioneStatisticheTest {
+
+    private static Videogioco video(String id, double prezzo, Genere genere) {
+        return new Videogioco(id, "Video " + id, 2010, prezzo, "PC", 20, genere);
+    }
+
+    private static GiocoDaTavolo tavolo(String id, double prezzo) {
+        return new GiocoDaTavolo(id, "Tavolo " + id, 2000, prezzo, 4, 60);
+    }
+
+    /**
+     * Confronta i contatori incrementali con un ricalcolo completo della collezione
+     */
+    private static void verifica(Collezione collezione) throws Exception {
+        List<Gioco> tutti = collezione.getTuttiIGiochi();
+        StatisticheCollezione statistiche = collezione.generaStatistiche();
+
+        long videogiochi = tutti.stream().filter(gioco -> gioco instanceof Videogioco).count();
+        assertEquals(videogiochi, statistiche.totaleVideogiochi());
+        assertEquals(tutti.size() - videogiochi, statistiche.totaleGiochiDaTavolo());
+        if (tutti.isEmpty()) {
+            assertNull(statistiche.giocoPrezzoPiuElevato());
+            assertEquals(0.0, statistiche.mediaPrezzi());
+            return;
+        }
+        double massimo = tutti.stream().mapToDouble(Gioco::getPrezzo).max().orElseThrow();
+        double media = tutti.stream().mapToDouble(Gioco::getPrezzo).average().orElseThrow();
+        assertEquals(massimo, statistiche.giocoPrezzoPiuElevato().getPrezzo());
+        assertSame(collezione.cercaPerID(statistiche.giocoPrezzoPiuElevato().getIdGioco()),
+                statistiche.giocoPrezzoPiuElevato());
+        assertEquals(media, statistiche.mediaPrezzi(), 1e-9 * media);
+
+        for (Genere genere : Genere.values()) {
+            List<Gioco> delGenere = tutti.stream()
+                    .filter(gioco -> gioco instanceof Videogioco && ((Videogioco) gioco).getGenere() == genere)
+                    .toList();
+            RiepilogoPrezzi riepilogo = collezione.riepilogoPerGenere(genere);
+            assertEquals(delGenere.size(), riepilogo.conteggio(), genere.name());
+            assertEquals(delGenere.stream().mapToDouble(Gioco::getPrezzo).sum(), riepilogo.sommaPrezzi(), 1e-6);
+        }
+    }
+
+    @Test
+    void prezzoPiuElevatoDopoRimozioneEAggiornamentoDelMassimo() throws Exception {
+        Collezione collezione = new Collezione();
+        verifica(collezione);
+        collezione.aggiungiElemento(video("V1", 70, Genere.AZIONE));
+        collezione.aggiungiElemento(tavolo("T1", 90));
+        collezione.aggiungiElemento(tavolo("T2", 50));
+        assertEquals("T1", collezione.generaStatistiche().giocoPrezzoPiuElevato().getIdGioco());
+
+        // il massimo scende sotto un altro gioco
+        collezione.aggiornaElemento(tavolo("T1", 10));
+        assertEquals("V1", collezione.generaStatistiche().giocoPrezzoPiuElevato().getIdGioco());
+        verifica(collezione);
+
+        // il massimo viene rimosso
+        collezione.rimuoviElemento("V1");
+        assertEquals("T2", collezione.generaStatistiche().giocoPrezzoPiuElevato().getIdGioco());
+        verifica(collezione);
+
+        // un altro gioco supera il massimo; l'aggiornamento cambia anche il tipo
+        collezione.aggiornaElemento(video("T1", 80, Genere.SPORT));
+        StatisticheCollezione statistiche = collezione.generaStatistiche();
+        assertEquals("T1", statistiche.giocoPrezzoPiuElevato().getIdGioco());
+        assertEquals(80, statistiche.giocoPrezzoPiuElevato().getPrezzo());
+        assertEquals(1, statistiche.totaleVideogiochi());
+        assertEquals(1, statistiche.totaleGiochiDaTavolo());
+        assertEquals(65, statistiche.mediaPrezzi());
+        verifica(collezione);
+
+        collezione.rimuoviElemento("T1");
+        collezione.rimuoviElemento("T2");
+        verifica(collezione);
+    }
+
+    @Test
+    void contatoriIncrementaliCorrispondonoAlRicalcolo() throws Exception {
+        Collezione collezione = new Collezione();
+        SplittableRandom casuale = new SplittableRandom(11);
+        List<String> presenti = new ArrayList<>();
+        int prossimo = 0;
+
+        for (int passo = 0; passo < 3000; passo++) {
+            int scelta = casuale.nextInt(10);
+            // prezzi con decimali arbitrari: la somma incrementale accumula errori di arrotondamento
+            double prezzo = 0.01 + casuale.nextDouble() * 500;
+            if (scelta < 4 || presenti.isEmpty()) {
+                String id = "G" + prossimo++;
+                collezione.aggiungiElemento(casuale.nextBoolean()
+                        ? tavolo(id, prezzo)
+                        : video(id, prezzo, Genere.values()[casuale.nextInt(Genere.values().length)]));
+                presenti.add(id);
+            } else if (scelta < 7) {
+                String id = presenti.get(casuale.nextInt(presenti.size()));
+                collezione.aggiornaElemento(casuale.nextBoolean()
+                        ? tavolo(id, prezzo)
+                        : video(id, prezzo, Genere.values()[casuale.nextInt(Genere.values().length)]));
+            } else if (scelta < 9) {
+                collezione.rimuoviElemento(presenti.remove(casuale.nextInt(presenti.size())));
+            } else {
+                // lotti: inserimento con un duplicato, aggiornamento con un ID assente, rimozione
+                List<Gioco> nuovi = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                    String id = "G" + prossimo++;
+                    nuovi.add(tavolo(id, prezzo + i));
+                    presenti.add(id);
+                }
+                nuovi.add(tavolo(presenti.get(0), 1));
+                collezione.aggiungiTutti(nuovi);
+                collezione.aggiornaTutti(List.of(video(presenti.get(presenti.size() - 1), prezzo * 2, Genere.RPG),
+                        tavolo("assente", 1)));
+                collezione.rimuoviTutti(List.of(presenti.remove(presenti.size() - 2), "assente"));
+            }
+            if (passo % 100 == 0) {
+                verifica(collezione);
+            }
+        }
+        verifica(collezione);
+
+        for (String id : presenti) {
+            collezione.rimuoviElemento(id);
+        }
+        verifica(collezione);
+    }
+}
@@ -0,0 +1,267 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.exception.EventiPersiException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlussoModificheTest {
+
+    /**
+     * Sottoscrittore che registra tutto e richiede eventi solo quando il test lo chiede
+     */
+    private static final class Registratore implements Flow.Subscriber<EventoCollezione> {
+        final List<EventoCollezione> eventi = new ArrayList<>();
+        final long iniziali;
+        Flow.Subscription sottoscrizione;
+        Throwable errore;
+        boolean completato;
+
+        Registratore(long iniziali) {
+            this.iniziali = iniziali;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription sottoscrizione) {
+            this.sottoscrizione = sottoscrizione;
+            if (iniziali > 0) {
+                sottoscrizione.request(iniziali);
+            }
+        }
+
+        @Override
+        public void onNext(EventoCollezione evento) {
+            eventi.add(evento);
+        }
+
+        @Override
+        public void onError(Throwable errore) {
+            this.errore = errore;
+        }
+
+        @Override
+        public void onComplete() {
+            completato = true;
+        }
+
+        List<Long> sequenze() {
+            return eventi.stream().map(EventoCollezione::sequenza).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Flusso che consegna gli eventi sul thread che pubblica o richiede
+     */
+    private static FlussoModifiche diretto(int capacita) {
+        return new FlussoModifiche(capacita, Runnable::run);
+    }
+
+    private static void pubblica(FlussoModifiche flusso, int quanti) {
+        for (int i = 0; i < quanti; i++) {
+            flusso.pubblica(EventoCollezione.Tipo.RIMOZIONE, "G" + i, null, null);
+        }
+    }
+
+    private static List<Long> intervallo(long da, long a) {
+        return LongStream.range(da, a).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void capacitaEdEsecutoreVengonoVerificati() {
+        assertThrows(IllegalArgumentException.class, () -> diretto(0));
+        assertThrows(IllegalArgumentException.class, () -> diretto(12));
+        assertThrows(IllegalArgumentException.class, () -> new FlussoModifiche(8, null));
+        FlussoModifiche flusso = diretto(8);
+        assertThrows(IllegalArgumentException.class, () -> flusso.subscribe(new Registratore(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> flusso.subscribe(new Registratore(1), -1));
+    }
+
+    @Test
+    void contropressioneConsegnaSoloGliEventiRichiesti() {
+        FlussoModifiche flusso = diretto(16);
+        Registratore registratore = new Registratore(0);
+        flusso.subscribe(registratore);
+
+        pubblica(flusso, 5);
+        assertEquals(List.of(), registratore.eventi);
+
+        registratore.sottoscrizione.request(2);
+        assertEquals(intervallo(0, 2), registratore.sequenze());
+        registratore.sottoscrizione.request(10);
+        assertEquals(intervallo(0, 5), registratore.sequenze());
+        // i 7 eventi ancora richiesti arrivano appena pubblicati
+        pubblica(flusso, 9);
+        assertEquals(intervallo(0, 12), registratore.sequenze());
+
+        registratore.sottoscrizione.request(Long.MAX_VALUE);
+        registratore.sottoscrizione.request(Long.MAX_VALUE);
+        assertEquals(intervallo(0, 14), registratore.sequenze());
+        assertNull(registratore.errore);
+
+        registratore.sottoscrizione.cancel();
+        pubblica(flusso, 3);
+        assertEquals(14, registratore.eventi.size());
+    }
+
+    @Test
+    void richiestaNonPositivaTerminaConErrore() {
+        FlussoModifiche flusso = diretto(16);
+        Registratore registratore = new Registratore(0);
+        flusso.subscribe(registratore);
+        pubblica(flusso, 3);
+
+        registratore.sottoscrizione.request(0);
+
+        assertInstanceOf(IllegalArgumentException.class, registratore.errore);
+        registratore.sottoscrizione.request(5);
+        pubblica(flusso, 1);
+        assertEquals(List.of(), registratore.eventi);
+        assertFalse(registratore.completato);
+    }
+
+    @Test
+    void sottoscrittoreRimastoIndietroRiceveEventiPersiERiparte() {
+        FlussoModifiche flusso = diretto(8);
+        Registratore lento = new Registratore(3);
+        flusso.subscribe(lento);
+
+        pubblica(flusso, 12);
+        assertEquals(intervallo(0, 3), lento.sequenze());
+        lento.sottoscrizione.request(100);
+
+        EventiPersiException persi = assertInstanceOf(EventiPersiException.class, lento.errore);
+        assertEquals(3, persi.getSequenzaRichiesta());
+        assertEquals(4, persi.getPrimaDisponibile());
+        assertEquals(intervallo(0, 3), lento.sequenze());
+
+        // ripartenza dalla prima sequenza ancora nel buffer
+        Registratore ripreso = new Registratore(Long.MAX_VALUE);
+        flusso.subscribe(ripreso, flusso.getPrimaDisponibile());
+        assertEquals(intervallo(4, 12), ripreso.sequenze());
+        pubblica(flusso, 2);
+        assertEquals(intervallo(4, 14), ripreso.sequenze());
+
+        // una sequenza già sovrascritta termina subito con errore
+        Registratore tardivo = new Registratore(1);
+        flusso.subscribe(tardivo, 2);
+        assertInstanceOf(EventiPersiException.class, tardivo.errore);
+        assertEquals(List.of(), tardivo.eventi);
+    }
+
+    @Test
+    void ripartenzaDallUltimoEventoElaborato() {
+        FlussoModifiche flusso = diretto(64);
+        Registratore primo = new Registratore(Long.MAX_VALUE);
+        flusso.subscribe(primo);
+        pubblica(flusso, 10);
+        long ultima = primo.eventi.get(primo.eventi.size() - 1).sequenza();
+        primo.sottoscrizione.cancel();
+
+        pubblica(flusso, 5);
+        Registratore secondo = new Registratore(Long.MAX_VALUE);
+        flusso.subscribe(secondo, ultima + 1);
+
+        assertEquals(intervallo(10, 15), secondo.sequenze());
+        assertEquals(15, flusso.getProssimaSequenza());
+    }
+
+    @Test
+    void eventiDiUnoStessoIdInOrdineDiApplicazione() throws Exception {
+        Collezione collezione = new Collezione();
+        int condivisi = 4;
+        Map<String, Gioco> ultimaImmagine = new HashMap<>();
+        for (int i = 0; i < condivisi; i++) {
+            GiocoDaTavolo iniziale = new GiocoDaTavolo("C" + i, "Condiviso", 2000, 1, 4, 60);
+            collezione.aggiungiElemento(iniziale);
+            ultimaImmagine.put(iniziale.getIdGioco(), iniziale);
+        }
+        FlussoModifiche flusso = collezione.flussoModifiche();
+        List<EventoCollezione> ricevuti = new ArrayList<>();
+        int scrittori = 4;
+        int giri = 500;
+        // ogni giro: un aggiornamento condiviso, un inserimento e, a giri alterni, una rimozione
+        long attesi = (long) scrittori * (giri * 2 + giri / 2);
+        CountDownLatch completi = new CountDownLatch(1);
+        flusso.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription sottoscrizione) {
+                sottoscrizione.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(EventoCollezione evento) {
+                ricevuti.add(evento);
+                if (ricevuti.size() == attesi) {
+                    completi.countDown();
+                }
+            }
+
+            @Override
+            public void onError(Throwable errore) {
+                completi.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        List<Thread> thread = new ArrayList<>();
+        for (int t = 0; t < scrittori; t++) {
+            int scrittore = t;
+            thread.add(new Thread(() -> {
+                try {
+                    for (int giro = 0; giro < giri; giro++) {
+                        // prezzo unico per scrittura: identifica l'immagine successiva
+                        double prezzo = 2 + scrittore * giri + giro;
+                        collezione.aggiornaElemento(new GiocoDaTavolo(
+                                "C" + giro % condivisi, "Condiviso", 2000, prezzo, 4, 60));
+                        String proprio = "S" + scrittore + "-" + giro;
+                        collezione.aggiungiElemento(new GiocoDaTavolo(proprio, "Proprio", 2000, prezzo, 4, 60));
+                        if (giro % 2 == 0) {
+                            collezione.rimuoviElemento(proprio);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        thread.forEach(Thread::start);
+        for (Thread scrittore : thread) {
+            scrittore.join();
+        }
+        assertTrue(completi.await(30, TimeUnit.SECONDS), "ricevuti " + ricevuti.size() + " di " + attesi);
+
+        // ricevuti è visibile qui grazie al latch
+        assertEquals(intervallo(0, attesi), ricevuti.stream().map(EventoCollezione::sequenza)
+                .collect(Collectors.toList()));
+        for (EventoCollezione evento : ricevuti) {
+            // l'immagine precedente di ogni evento è quella successiva del precedente evento dello stesso ID
+            Gioco precedente = ultimaImmagine.get(evento.idGioco());
+            assertEquals(precedente == null ? null : precedente.getPrezzo(),
+                    evento.prima() == null ? null : evento.prima().getPrezzo(), evento.toString());
+            ultimaImmagine.put(evento.idGioco(), evento.dopo());
+        }
+        for (int i = 0; i < condivisi; i++) {
+            assertEquals(collezione.cercaPerID("C" + i).getPrezzo(), ultimaImmagine.get("C" + i).getPrezzo());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.GiocoDaTavolo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FusioneOrdinataTest {
+
+    private static Voce voce(String id, double prezzo) {
+        return Voce.di(new GiocoDaTavolo(id, "Gioco " + id, 2000, prezzo, 4, 60));
+    }
+
+    /**
+     * Conta le voci lette dalla sorgente
+     */
+    private static Iterator<Voce> contata(List<Voce> voci, AtomicInteger lette) {
+        Iterator<Voce> sorgente = voci.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return sorgente.hasNext();
+            }
+
+            @Override
+            public Voce next() {
+                lette.incrementAndGet();
+                return sorgente.next();
+            }
+        };
+    }
+
+    @Test
+    void fondeSorgentiOrdinateMantenendoLOrdine() {
+        // numeri di sorgenti potenze di due e non
+        for (int numero = 1; numero <= 9; numero++) {
+            verificaFusione(numero, new SplittableRandom(numero));
+        }
+    }
+
+    private static void verificaFusione(int numero, SplittableRandom casuale) {
+        List<Voce> tutte = new ArrayList<>();
+        List<List<Voce>> sorgenti = new ArrayList<>();
+        for (int s = 0; s < numero; s++) {
+            List<Voce> sorgente = new ArrayList<>();
+            // lunghezze diverse: le sorgenti si esauriscono in momenti diversi
+            for (int i = casuale.nextInt(300); i > 0; i--) {
+                // prezzi ripetuti tra le sorgenti: a parità decide l'ID
+                sorgente.add(voce("S" + s + "-" + i, 1 + casuale.nextInt(50)));
+            }
+            sorgente.sort(Voce.ORDINE_PREZZO);
+            sorgenti.add(sorgente);
+            tutte.addAll(sorgente);
+        }
+        tutte.sort(Voce.ORDINE_PREZZO);
+
+        List<Iterator<Voce>> iteratori = new ArrayList<>();
+        for (List<Voce> sorgente : sorgenti) {
+            iteratori.add(sorgente.iterator());
+        }
+        List<Voce> fuse = new ArrayList<>();
+        new FusioneOrdinata(iteratori, Voce.ORDINE_PREZZO).forEachRemaining(fuse::add);
+
+        assertEquals(tutte, fuse);
+    }
+
+    @Test
+    void leggeDalleSorgentiSoloLeVociRichieste() {
+        AtomicInteger lette = new AtomicInteger();
+        List<Iterator<Voce>> sorgenti = new ArrayList<>();
+        for (int s = 0; s < 4; s++) {
+            List<Voce> sorgente = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                sorgente.add(voce("S" + s + "-" + i, i + 1));
+            }
+            sorgenti.add(contata(sorgente, lette));
+        }
+
+        FusioneOrdinata fusione = new FusioneOrdinata(sorgenti, Voce.ORDINE_PREZZO);
+        assertEquals(4, lette.get());
+        for (int i = 0; i < 10; i++) {
+            fusione.next();
+        }
+
+        // una voce in testa per sorgente più una per ogni voce restituita
+        assertEquals(14, lette.get());
+    }
+
+    @Test
+    void sorgentiVuoteVengonoIgnorate() {
+        List<Iterator<Voce>> sorgenti = new ArrayList<>();
+        sorgenti.add(Collections.emptyIterator());
+        sorgenti.add(List.of(voce("A", 1), voce("B", 3)).iterator());
+        sorgenti.add(Collections.emptyIterator());
+        sorgenti.add(List.of(voce("C", 2)).iterator());
+
+        List<String> ids = new ArrayList<>();
+        new FusioneOrdinata(sorgenti, Voce.ORDINE_PREZZO).forEachRemaining(v -> ids.add(v.id()));
+        assertEquals(List.of("A", "C", "B"), ids);
+
+        FusioneOrdinata vuota = new FusioneOrdinata(List.of(), Voce.ORDINE_PREZZO);
+        assertFalse(vuota.hasNext());
+        assertThrows(NoSuchElementException.class, vuota::next);
+    }
+}
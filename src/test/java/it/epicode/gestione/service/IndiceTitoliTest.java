@@ -0,0 +1,145 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.GiocoDaTavolo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTitoliTest {
+
+    private static Voce voce(String id, String titolo) {
+        return Voce.di(new GiocoDaTavolo(id, titolo, 2000, 10, 4, 60));
+    }
+
+    private static IndiceTitoli indice(Voce... voci) {
+        IndiceTitoli indice = new IndiceTitoli();
+        for (Voce voce : voci) {
+            indice.aggiungi(voce);
+        }
+        return indice;
+    }
+
+    private static List<String> titoli(IndiceTitoli indice, String testo, int offset, int limit) {
+        return indice.cerca(testo, offset, limit).stream().map(Voce::titolo).collect(Collectors.toList());
+    }
+
+    private static List<String> titoli(IndiceTitoli indice, String testo) {
+        return titoli(indice, testo, 0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void terminiNormalizzati() {
+        assertEquals(List.of("citta", "del", "gioco", "2"), new ArrayList<>(IndiceTitoli.terminiDi("Città del GIOCO: 2, città")));
+        assertEquals(List.of("Città"), titoli(indice(voce("A", "Città")), "CITTA"));
+    }
+
+    @Test
+    void distanzaDiModificaUno() {
+        assertTrue(IndiceTitoli.distanzaAlPiuUno("zelda", "zelda"));
+        assertTrue(IndiceTitoli.distanzaAlPiuUno("zelda", "zelba"));
+        assertTrue(IndiceTitoli.distanzaAlPiuUno("zelda", "zleda"));
+        assertTrue(IndiceTitoli.distanzaAlPiuUno("zelda", "zeda"));
+        assertTrue(IndiceTitoli.distanzaAlPiuUno("zeda", "zelda"));
+        assertFalse(IndiceTitoli.distanzaAlPiuUno("zelda", "zlead"));
+        assertFalse(IndiceTitoli.distanzaAlPiuUno("zelda", "zel"));
+        assertFalse(IndiceTitoli.distanzaAlPiuUno("zelda", "xelbx"));
+    }
+
+    @Test
+    void prefissiEApprossimazioniConCancellazioniSimmetriche() {
+        IndiceTitoli indice = indice(
+                voce("1", "Zelda"), voce("2", "Zeldas"), voce("3", "Zelba"), voce("4", "Zleda"),
+                voce("5", "Zeda"), voce("6", "Xzelda"), voce("7", "Zlead"), voce("8", "Cyberpunk 2077"),
+                voce("9", "Ab"));
+
+        assertEquals(List.of("Zelda", "Zeldas", "Xzelda", "Zeda", "Zelba", "Zleda"), titoli(indice, "zelda"));
+        assertEquals(List.of("Zelda", "Zeldas"), titoli(indice, "zeld"));
+        // cancellazione nel termine cercato e nel termine indicizzato
+        assertTrue(titoli(indice, "zlda").contains("Zelda"));
+        assertTrue(titoli(indice, "zeldda").contains("Zelda"));
+        // i termini corti e quelli numerici non sono approssimati
+        assertEquals(List.of("Cyberpunk 2077"), titoli(indice, "2077"));
+        assertEquals(List.of(), titoli(indice, "2078"));
+        assertEquals(List.of(), titoli(indice, "xb"));
+        assertEquals(List.of("Ab"), titoli(indice, "a"));
+    }
+
+    @Test
+    void livelliDiPertinenzaConPiuTermini() {
+        IndiceTitoli indice = indice(
+                voce("1", "Saga di Zelda"), voce("2", "Zelda Sagas"), voce("3", "Zelba Saga"),
+                voce("4", "Zeldas Sagha"), voce("5", "Zelda"));
+
+        // punteggio esatto + esatto, poi esatto + prefisso, poi approssimato + esatto, poi prefisso + approssimato
+        assertEquals(List.of("Saga di Zelda", "Zelda Sagas", "Zelba Saga", "Zeldas Sagha"),
+                titoli(indice, "zelda saga"));
+        assertEquals(4, indice.stima("zelda saga"));
+        assertEquals(List.of(), titoli(indice, "zelda mario"));
+    }
+
+    @Test
+    void paginazioneAttraversoILivelli() {
+        List<Voce> voci = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            voci.add(voce("E" + i, String.format("Mario %02d", i)));
+            voci.add(voce("P" + i, String.format("Marioland %02d", i)));
+            voci.add(voce("A" + i, String.format("Maria %02d", i)));
+        }
+        IndiceTitoli indice = indice(voci.toArray(new Voce[0]));
+        List<String> tutti = titoli(indice, "mario");
+        assertEquals(90, tutti.size());
+        assertEquals("Mario 00", tutti.get(0));
+        assertEquals("Marioland 00", tutti.get(30));
+        assertEquals("Maria 00", tutti.get(60));
+
+        // con due termini la pagina passa dalla coda a priorità limitata
+        List<String> dueTermini = titoli(indice, "mario 1");
+        // "1" è prefisso di "10".."19", non di "01"
+        assertEquals(30, dueTermini.size());
+        assertEquals(List.of("Mario 10", "Marioland 10", "Maria 10"),
+                List.of(dueTermini.get(0), dueTermini.get(10), dueTermini.get(20)));
+
+        for (int offset : new int[]{0, 7, 25, 29, 30, 59, 85, 90, 200}) {
+            for (int limit : new int[]{1, 10, 40}) {
+                assertEquals(pagina(tutti, offset, limit), titoli(indice, "mario", offset, limit), offset + "/" + limit);
+                assertEquals(pagina(dueTermini, offset, limit), titoli(indice, "mario 1", offset, limit),
+                        offset + "/" + limit);
+            }
+        }
+        assertEquals(List.of(), titoli(indice, "mario", 0, 0));
+    }
+
+    private static List<String> pagina(List<String> tutti, int offset, int limit) {
+        int da = Math.min(offset, tutti.size());
+        return tutti.subList(da, Math.min(da + limit, tutti.size()));
+    }
+
+    @Test
+    void rimozioneEAggiornamentoPulisconoLIndice() {
+        Voce zelda = voce("1", "The Legend of Zelda");
+        Voce mario = voce("2", "Super Mario Bros");
+        IndiceTitoli indice = indice(zelda, mario);
+
+        // aggiornamento del titolo: la voce vecchia esce, la nuova entra
+        Voce rinominato = voce("1", "Breath of the Wild");
+        indice.rimuovi(zelda);
+        indice.aggiungi(rinominato);
+        assertEquals(List.of(), titoli(indice, "zelda"));
+        assertEquals(List.of(), titoli(indice, "zelba"));
+        assertEquals(0, indice.stima("legend"));
+        assertEquals(List.of("Breath of the Wild"), titoli(indice, "the"));
+
+        indice.rimuovi(rinominato);
+        indice.rimuovi(mario);
+        assertTrue(indice.vuoto());
+        // rimuovere una voce assente non lascia traccia
+        indice.rimuovi(mario);
+        assertTrue(indice.vuoto());
+    }
+}
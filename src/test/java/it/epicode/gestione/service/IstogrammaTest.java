@@ -0,0 +1,114 @@
+package it.epicode.gestione.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IstogrammaTest {
+    // 32 intervalli esatti sotto 32, poi 32 per ogni potenza di due da 2^5 a 2^39
+    private static final int ULTIMO = 36 * 32 - 1;
+
+    @Test
+    void valoriPiccoliHannoUnIntervalloCiascuno() {
+        for (int valore = 0; valore < 32; valore++) {
+            assertEquals(valore, Istogramma.indice(valore));
+            assertEquals(valore, Istogramma.centro(valore));
+        }
+        assertEquals(0, Istogramma.indice(-5));
+    }
+
+    @Test
+    void intervalliSonoContiguiECentratiSulPuntoMedio() {
+        int precedente = 31;
+        for (int esponente = 5; esponente < 40; esponente++) {
+            long ampiezza = 1L << (esponente - 5);
+            for (int sotto = 0; sotto < 32; sotto++) {
+                long inizio = (32L + sotto) << (esponente - 5);
+                long fine = inizio + ampiezza - 1;
+                int indice = Istogramma.indice(inizio);
+
+                assertEquals((esponente - 4) * 32 + sotto, indice);
+                assertEquals(precedente + 1, indice);
+                assertEquals(precedente, Istogramma.indice(inizio - 1));
+                assertEquals(indice, Istogramma.indice(fine));
+                assertEquals(inizio + (ampiezza - 1) / 2.0, Istogramma.centro(indice));
+                precedente = indice;
+            }
+        }
+        assertEquals(ULTIMO, precedente);
+    }
+
+    @Test
+    void centroHaErroreRelativoSottoIlDuePerCento() {
+        SplittableRandom casuale = new SplittableRandom(5);
+        for (int i = 0; i < 100_000; i++) {
+            long valore = casuale.nextLong(1, 1L << 40);
+            double centro = Istogramma.centro(Istogramma.indice(valore));
+            assertTrue(Math.abs(centro - valore) / valore <= 1.0 / 64, valore + " -> " + centro);
+        }
+    }
+
+    @Test
+    void valoriDa2Alla40FinisconoNellUltimoIntervallo() {
+        assertEquals(ULTIMO, Istogramma.indice((1L << 40) - 1));
+        assertEquals(ULTIMO, Istogramma.indice(1L << 40));
+        assertEquals(ULTIMO, Istogramma.indice(1L << 50));
+        assertEquals(ULTIMO, Istogramma.indice(Long.MAX_VALUE));
+
+        Istogramma istogramma = new Istogramma();
+        istogramma.registra(10);
+        istogramma.registra(1L << 45);
+        assertEquals(1L << 45, istogramma.getMassimo());
+        // oltre 2^40 il percentile resta il centro dell'ultimo intervallo, sotto il massimo
+        double[] valori = istogramma.percentili(0.5, 1);
+        assertEquals(10, valori[0]);
+        assertEquals(Istogramma.centro(ULTIMO), valori[1]);
+    }
+
+    @Test
+    void percentiliDiDistribuzioniNote() {
+        Istogramma vuoto = new Istogramma();
+        assertArrayEquals(new double[3], vuoto.percentili(0.5, 0.99, 0.999));
+
+        // 1..10 ripetuti: valori esatti, rango per eccesso
+        Istogramma piccoli = new Istogramma();
+        for (int ripetizione = 0; ripetizione < 100; ripetizione++) {
+            for (int valore = 1; valore <= 10; valore++) {
+                piccoli.registra(valore);
+            }
+        }
+        assertArrayEquals(new double[]{1, 5, 10, 10, 10}, piccoli.percentili(0, 0.5, 0.99, 0.999, 1));
+
+        // uniforme 1..100000: ogni percentile entro l'errore dell'intervallo del valore esatto
+        Istogramma uniforme = new Istogramma();
+        for (long valore = 100_000; valore >= 1; valore--) {
+            uniforme.registra(valore);
+        }
+        double[] quote = {0.5, 0.99, 0.999};
+        long[] esatti = {50_000, 99_000, 99_900};
+        double[] valori = uniforme.percentili(quote);
+        for (int i = 0; i < quote.length; i++) {
+            assertEquals(Istogramma.centro(Istogramma.indice(esatti[i])), valori[i]);
+            assertTrue(Math.abs(valori[i] - esatti[i]) / esatti[i] <= 1.0 / 64);
+        }
+
+        // coda lunga: 990 da 100, 9 da 10000 e un solo 1000000 su 1000 valori
+        Istogramma coda = new Istogramma();
+        for (int i = 0; i < 990; i++) {
+            coda.registra(100);
+        }
+        for (int i = 0; i < 9; i++) {
+            coda.registra(10_000);
+        }
+        coda.registra(1_000_000);
+        assertArrayEquals(new double[]{
+                Istogramma.centro(Istogramma.indice(100)),
+                Istogramma.centro(Istogramma.indice(100)),
+                Istogramma.centro(Istogramma.indice(10_000)),
+                1_000_000}, coda.percentili(0.5, 0.99, 0.999, 1));
+    }
+}
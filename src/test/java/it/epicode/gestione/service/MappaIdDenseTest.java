@@ -0,0 +1,99 @@
+package it.epicode.gestione.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappaIdDenseTest {
+
+    /**
+     * Chiavi con lo stesso hashCode: "Aa" e "BB" collidono, e così ogni
+     * concatenazione della stessa lunghezza
+     */
+    private static List<String> chiaviInCollisione(int blocchi) {
+        List<String> chiavi = new ArrayList<>();
+        for (int bit = 0; bit < 1 << blocchi; bit++) {
+            StringBuilder chiave = new StringBuilder();
+            for (int i = 0; i < blocchi; i++) {
+                chiave.append((bit >> i & 1) == 0 ? "Aa" : "BB");
+            }
+            chiavi.add(chiave.toString());
+        }
+        return chiavi;
+    }
+
+    @Test
+    void rimozioneInMezzoAUnaSequenzaLasciaRaggiungibiliLeAltreChiavi() {
+        MappaIdDense mappa = new MappaIdDense(8);
+        List<String> chiavi = chiaviInCollisione(5);
+        for (int i = 0; i < chiavi.size(); i++) {
+            mappa.put(chiavi.get(i), i);
+        }
+
+        for (int i = 0; i < chiavi.size(); i += 2) {
+            assertEquals(i, mappa.remove(chiavi.get(i)));
+        }
+
+        assertEquals(chiavi.size() / 2, mappa.size());
+        for (int i = 0; i < chiavi.size(); i++) {
+            assertEquals(i % 2 == 0 ? MappaIdDense.ASSENTE : i, mappa.get(chiavi.get(i)));
+        }
+        assertEquals(MappaIdDense.ASSENTE, mappa.remove(chiavi.get(0)));
+    }
+
+    @Test
+    void sequenzaCheSuperaLaFineDellArrayVieneRicompattata() {
+        MappaIdDense mappa = new MappaIdDense(8);
+        // con molte chiavi in poche posizioni le sequenze girano attorno alla fine dell'array
+        List<String> chiavi = new ArrayList<>(chiaviInCollisione(3));
+        chiavi.addAll(List.of("T1", "T2", "T3"));
+        for (int i = 0; i < chiavi.size(); i++) {
+            mappa.put(chiavi.get(i), i);
+        }
+
+        for (int i = chiavi.size() - 1; i >= 0; i--) {
+            assertEquals(i, mappa.remove(chiavi.get(i)));
+            for (int j = 0; j < i; j++) {
+                assertTrue(mappa.contiene(chiavi.get(j)));
+            }
+        }
+        assertEquals(0, mappa.size());
+    }
+
+    @Test
+    void operazioniCasualiCorrispondonoAUnaHashMap() {
+        MappaIdDense mappa = new MappaIdDense(4);
+        Map<String, Integer> attesa = new HashMap<>();
+        List<String> chiavi = new ArrayList<>(chiaviInCollisione(6));
+        for (int i = 0; i < 500; i++) {
+            chiavi.add("ID-" + i);
+        }
+        SplittableRandom casuale = new SplittableRandom(17);
+
+        for (int i = 0; i < 200_000; i++) {
+            String chiave = chiavi.get(casuale.nextInt(chiavi.size()));
+            if (casuale.nextInt(3) == 0) {
+                Integer rimosso = attesa.remove(chiave);
+                assertEquals(rimosso != null ? rimosso : MappaIdDense.ASSENTE, mappa.remove(chiave));
+            } else {
+                int valore = casuale.nextInt(1_000_000);
+                Integer precedente = attesa.put(chiave, valore);
+                assertEquals(precedente != null ? precedente : MappaIdDense.ASSENTE, mappa.put(chiave, valore));
+            }
+        }
+
+        assertEquals(attesa.size(), mappa.size());
+        for (String chiave : chiavi) {
+            assertEquals(attesa.getOrDefault(chiave, MappaIdDense.ASSENTE), mappa.get(chiave));
+        }
+        assertFalse(mappa.contiene("assente"));
+    }
+}
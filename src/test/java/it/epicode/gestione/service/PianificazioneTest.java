@@ -0,0 +1,115 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PianificazioneTest {
+
+    /**
+     * 1000 videogiochi con prezzi da 1 a 100; solo 10 di genere AZIONE
+     */
+    private static Collezione collezione() throws Exception {
+        Collezione collezione = new Collezione();
+        for (int i = 0; i < 1000; i++) {
+            Genere genere = i % 100 == 0 ? Genere.AZIONE : Genere.values()[1 + i % 100 % (Genere.values().length - 1)];
+            collezione.aggiungiElemento(new Videogioco("V" + i, "Gioco " + i, 2000, 1 + i % 100, "PC", 10, genere));
+        }
+        return collezione;
+    }
+
+    @Test
+    void soloIlPrezzoUsaLIndiceSenzaContareLIntervallo() throws Exception {
+        Collezione collezione = collezione();
+        Criteri criteri = new Criteri().prezzoInferioreA(3).limite(10);
+
+        PianoQuery piano = collezione.spiega(criteri);
+
+        assertTrue(piano.accesso().startsWith("indice prezzi"), piano.toString());
+        // l'intervallo ha 20 giochi: la stima è quella della scansione, quindi non è stato contato
+        assertEquals(1000, piano.stimaCandidati());
+        List<Gioco> risultato = collezione.cerca(criteri);
+        assertEquals(10, risultato.size());
+        assertTrue(risultato.stream().allMatch(gioco -> gioco.getPrezzo() < 3));
+    }
+
+    @Test
+    void partizionePiuSelettivaBatteLIntervalloDiPrezzo() throws Exception {
+        Collezione collezione = collezione();
+        Criteri criteri = new Criteri().genere(Genere.AZIONE).prezzoInferioreA(90);
+
+        PianoQuery piano = collezione.spiega(criteri);
+
+        assertTrue(piano.accesso().startsWith("partizione genere"), piano.toString());
+        // il conteggio dell'intervallo si ferma appena supera il doppio della partizione
+        assertTrue(piano.alternative().stream().anyMatch(a -> a.startsWith("indice prezzi") && a.contains("~21 ")),
+                piano.toString());
+        assertEquals(attesi(collezione, Genere.AZIONE, 90), collezione.cerca(criteri));
+    }
+
+    @Test
+    void intervalloPiuSelettivoBatteLaPartizione() throws Exception {
+        Collezione collezione = collezione();
+        // prezzo 2: i giochi V1, V101, ... di genere values()[2]
+        Criteri criteri = new Criteri().genere(Genere.values()[2]).prezzoInferioreA(3);
+
+        PianoQuery piano = collezione.spiega(criteri);
+
+        assertTrue(piano.accesso().startsWith("indice prezzi"), piano.toString());
+        assertEquals(20, piano.stimaCandidati());
+        List<Gioco> risultato = collezione.cerca(criteri);
+        assertEquals(10, risultato.size());
+        assertEquals(attesi(collezione, Genere.values()[2], 3), risultato);
+    }
+
+    private static List<Gioco> attesi(Collezione collezione, Genere genere, double prezzoMassimo) {
+        return collezione.getVideogiochi().stream()
+                .filter(videogioco -> videogioco.getGenere() == genere && videogioco.getPrezzo() < prezzoMassimo)
+                .sorted(Comparator.comparingDouble(Videogioco::getPrezzo).thenComparing(Videogioco::getIdGioco))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void piattaformeOltreIlLimiteDelleChiaviCondiviseRestanoRicercabili() throws Exception {
+        Collezione collezione = new Collezione();
+        // più piattaforme distinte delle chiavi condivise: le ultime usano la propria copia
+        for (int i = 0; i < 1100; i++) {
+            collezione.aggiungiElemento(new Videogioco("V" + i, "Gioco " + i, 2000, 10, "p" + i, 10, Genere.AZIONE));
+        }
+        collezione.aggiungiElemento(new Videogioco("X1", "Primo", 2000, 20, " ps5", 10, Genere.AZIONE));
+        collezione.aggiungiElemento(new Videogioco("X2", "Secondo", 2000, 30, "PS5 ", 10, Genere.AZIONE));
+
+        assertEquals("ps5", ((Videogioco) collezione.cercaPerID("X1")).getPiattaforma());
+        assertEquals(List.of("X1", "X2"), collezione.cercaPerPiattaforma("Ps5").stream()
+                .map(Gioco::getIdGioco).collect(Collectors.toList()));
+        assertEquals(2, collezione.cerca(new Criteri().piattaforma("ps5")).size());
+        for (int i = 0; i < 1100; i += 99) {
+            assertEquals(List.of(collezione.cercaPerID("V" + i)), collezione.cercaPerPiattaforma("P" + i));
+        }
+    }
+
+    @Test
+    void estremiDiPrezzoNonFinitiVengonoRifiutati() throws Exception {
+        for (double estremo : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            assertThrows(IllegalArgumentException.class, () -> new Criteri().prezzoTra(0, estremo));
+            assertThrows(IllegalArgumentException.class, () -> new Criteri().prezzoTra(estremo, 10));
+            assertThrows(IllegalArgumentException.class, () -> new Criteri().prezzoInferioreA(estremo));
+        }
+
+        // lo stesso intervallo dà lo stesso risultato dall'indice prezzi e dalla partizione
+        Collezione collezione = collezione();
+        List<Gioco> dallIndice = collezione.cerca(new Criteri().prezzoTra(0, 1.5));
+        List<Gioco> dallaPartizione = collezione.cerca(new Criteri().genere(Genere.AZIONE).prezzoTra(0, 1.5));
+        assertEquals(10, dallIndice.size());
+        assertEquals(dallIndice, dallaPartizione);
+    }
+}
@@ -0,0 +1,116 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScansioneParallelaTest {
+    private static final int SOGLIA = ScansioneParallela.SOGLIA_PREDEFINITA;
+
+    /**
+     * Giochi con prezzi e anni molto ripetuti: a parità l'ordine lo decide l'ID
+     */
+    private static List<Gioco> giochi(int quanti) {
+        SplittableRandom casuale = new SplittableRandom(quanti);
+        return IntStream.range(0, quanti)
+                .mapToObj(i -> i % 3 == 0
+                        ? (Gioco) new GiocoDaTavolo("G" + i, "Tavolo " + i, 1990 + casuale.nextInt(30),
+                                1 + casuale.nextInt(50), 2 + casuale.nextInt(9), 60)
+                        : new Videogioco("G" + i, "Video " + i, 1990 + casuale.nextInt(30),
+                                1 + casuale.nextInt(50) + casuale.nextInt(4) * 0.25, "PC", 20,
+                                Genere.values()[i % Genere.values().length]))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void intervalliCopronoTutteLeUnitaInOrdine() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int unita : new int[]{0, 1, 2, 15, 16, 17, 1000}) {
+                List<int[]> intervalli = pool.submit(() -> ScansioneParallela
+                        .esegui(unita, true, (da, a) -> new int[]{da, a})
+                        .collect(Collectors.toList())).get();
+                int atteso = 0;
+                for (int[] intervallo : intervalli) {
+                    assertEquals(atteso, intervallo[0]);
+                    assertTrue(intervallo[1] >= intervallo[0]);
+                    atteso = intervallo[1];
+                }
+                assertEquals(unita, atteso);
+                assertEquals(unita <= 1 ? 1 : Math.min(unita, 16), intervalli.size());
+            }
+            // sotto la soglia resta un solo intervallo anche in un pool con più thread
+            assertEquals(1, pool.submit(() -> ScansioneParallela
+                    .esegui(1000, false, (da, a) -> a).count()).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void scansioniParalleleDannoIRisultatiDiQuelleSequenziali() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int quanti : new int[]{SOGLIA - 1, SOGLIA, SOGLIA + 1}) {
+                List<Gioco> giochi = giochi(quanti);
+                Collezione collezione = new Collezione();
+                CollezioneColonnare colonnare = new CollezioneColonnare();
+                for (Gioco gioco : giochi) {
+                    collezione.aggiungiElemento(gioco);
+                    colonnare.aggiungiElemento(gioco);
+                }
+                IstantaneaCollezione istantanea = collezione.istantanea();
+
+                Comparator<Gioco> perPrezzo = Comparator.comparingDouble(Gioco::getPrezzo)
+                        .thenComparing(Gioco::getIdGioco);
+                List<Gioco> economici = giochi.stream().filter(gioco -> gioco.getPrezzo() < 20)
+                        .sorted(perPrezzo).collect(Collectors.toList());
+                Gioco massimo = giochi.stream().max(perPrezzo).orElseThrow();
+                double media = giochi.stream().mapToDouble(Gioco::getPrezzo).average().orElseThrow();
+
+                Criteri perAnno = new Criteri().ordinaPer(Criteri.Ordinamento.ANNO, false).salta(100).limite(500);
+                assertEquals("scansione completa", collezione.spiega(perAnno).accesso());
+                List<Gioco> annoDecrescente = giochi.stream()
+                        .sorted(Comparator.comparingInt(Gioco::getAnnoPubblicazione)
+                                .thenComparing(Gioco::getIdGioco).reversed())
+                        .skip(100).limit(500).collect(Collectors.toList());
+
+                assertEquals(economici, pool.submit(() -> colonnare.cercaPerPrezzo(20)).get());
+                assertEquals(economici, pool.submit(() -> istantanea.cercaPerPrezzo(20)).get());
+                assertEquals(annoDecrescente, pool.submit(() -> collezione.cerca(perAnno)).get());
+                // a parità di prezzo la colonnare tiene la prima riga, l'istantanea il primo ID
+                colonnare.configuraSogliaParallela(Integer.MAX_VALUE);
+                assertEquals(economici, colonnare.cercaPerPrezzo(20));
+                String primaRiga = colonnare.generaStatistiche().giocoPrezzoPiuElevato().getIdGioco();
+                colonnare.configuraSogliaParallela(SOGLIA);
+
+                StatisticheCollezione dallaColonnare = pool.submit(colonnare::generaStatistiche).get();
+                StatisticheCollezione dallIstantanea = pool.submit(istantanea::generaStatistiche).get();
+                assertEquals(primaRiga, dallaColonnare.giocoPrezzoPiuElevato().getIdGioco());
+                assertEquals(massimo.getIdGioco(), dallIstantanea.giocoPrezzoPiuElevato().getIdGioco());
+                for (StatisticheCollezione statistiche : List.of(dallaColonnare, dallIstantanea)) {
+                    assertEquals(giochi.stream().filter(gioco -> gioco instanceof Videogioco).count(),
+                            statistiche.totaleVideogiochi());
+                    assertEquals(quanti, statistiche.totaleGiochi());
+                    assertEquals(massimo.getPrezzo(), statistiche.giocoPrezzoPiuElevato().getPrezzo());
+                    // le somme parziali cambiano solo l'arrotondamento
+                    assertEquals(media, statistiche.mediaPrezzi(), 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package it.epicode.gestione.service;
+
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StruttureSuRichiestaTest {
+
+    private static GiocoDaTavolo tavolo(String id, double prezzo) {
+        return new GiocoDaTavolo(id, "Gioco " + id, 2000, prezzo, 4, 60);
+    }
+
+    @Test
+    void struttureAttivateDuranteLeScrittureRestanoCoerenti() throws Exception {
+        Collezione collezione = new Collezione();
+        for (int i = 0; i < 2000; i++) {
+            collezione.aggiungiElemento(tavolo("T" + i, 10));
+        }
+
+        AtomicBoolean fine = new AtomicBoolean();
+        CountDownLatch avviati = new CountDownLatch(3);
+        List<Thread> scrittori = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            int scrittore = t;
+            Thread thread = new Thread(() -> {
+                avviati.countDown();
+                for (int giro = 0; !fine.get(); giro++) {
+                    try {
+                        String nuovo = "W" + scrittore + "-" + giro;
+                        collezione.aggiungiElemento(tavolo(nuovo, 1 + giro % 50));
+                        collezione.aggiornaElemento(tavolo("T" + (giro * 3 + scrittore) % 2000, 1 + giro % 90));
+                        if (giro % 2 == 0) {
+                            collezione.rimuoviElemento(nuovo);
+                        }
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            scrittori.add(thread);
+            thread.start();
+        }
+
+        avviati.await();
+        collezione.cercaPerTitolo("gioco");
+        collezione.istantanea();
+        fine.set(true);
+        for (Thread thread : scrittori) {
+            thread.join();
+        }
+
+        IstantaneaCollezione istantanea = collezione.istantanea();
+        assertEquals(collezione.size(), istantanea.size());
+        for (Gioco gioco : collezione.getTuttiIGiochi()) {
+            assertEquals(gioco.getPrezzo(), istantanea.cercaPerID(gioco.getIdGioco()).getPrezzo());
+        }
+        assertEquals(collezione.size(), collezione.cercaPerTitolo("gioco").size());
+        for (Gioco gioco : collezione.getTuttiIGiochi()) {
+            assertEquals(gioco, collezione.cercaPerTitolo(gioco.getIdGioco()).get(0));
+        }
+    }
+
+    @Test
+    void flussoRiceveLImmaginePrecedenteDiUnGiocoInseritoPrima() throws Exception {
+        Collezione collezione = new Collezione();
+        collezione.aggiungiElemento(tavolo("T1", 10));
+
+        CountDownLatch ricevuto = new CountDownLatch(1);
+        AtomicReference<EventoCollezione> evento = new AtomicReference<>();
+        collezione.flussoModifiche().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription sottoscrizione) {
+                sottoscrizione.request(1);
+            }
+
+            @Override
+            public void onNext(EventoCollezione modifica) {
+                evento.set(modifica);
+                ricevuto.countDown();
+            }
+
+            @Override
+            public void onError(Throwable errore) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        collezione.aggiornaElemento(tavolo("T1", 25));
+
+        assertTrue(ricevuto.await(10, TimeUnit.SECONDS));
+        assertEquals(10, evento.get().prima().getPrezzo());
+        assertEquals(25, evento.get().dopo().getPrezzo());
+    }
+
+    @Test
+    void istantaneaNonCambiaConLeModificheSuccessive() throws Exception {
+        Collezione collezione = new Collezione();
+        Map<String, Double> attesi = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            collezione.aggiungiElemento(tavolo("T" + i, i + 1));
+            attesi.put("T" + i, i + 1.0);
+        }
+
+        IstantaneaCollezione istantanea = collezione.istantanea();
+        collezione.rimuoviElemento("T0");
+        collezione.aggiornaElemento(tavolo("T1", 99));
+        collezione.aggiungiElemento(tavolo("T100", 1));
+
+        assertEquals(100, istantanea.size());
+        for (Gioco gioco : istantanea.getGiochi()) {
+            assertEquals(attesi.get(gioco.getIdGioco()), gioco.getPrezzo());
+        }
+        assertEquals(100, collezione.istantanea().size());
+        assertEquals(99, collezione.istantanea().cercaPerID("T1").getPrezzo());
+    }
+
+    @Test
+    void partizioniOrdinateAllaPrimaRicercaRestanoAggiornate() throws Exception {
+        Collezione collezione = new Collezione();
+        for (int i = 0; i < 300; i++) {
+            collezione.aggiungiElemento(new Videogioco("V" + i, "Gioco " + i, 2000, 1 + (i * 37) % 100,
+                    i % 2 == 0 ? "PC" : "PS5", 10, Genere.values()[i % 3]));
+        }
+        collezione.rimuoviElemento("V0");
+
+        assertEquals(99, collezione.riepilogoPerGenere(Genere.values()[0]).conteggio());
+        assertEquals(attesi(collezione, Genere.values()[0]), collezione.cercaPerGenere(Genere.values()[0]));
+
+        collezione.rimuoviElemento("V3");
+        collezione.aggiornaElemento(new Videogioco("V6", "Gioco 6", 2000, 0.5, "PC", 10, Genere.values()[1]));
+        for (Genere genere : List.of(Genere.values()[0], Genere.values()[1])) {
+            assertEquals(attesi(collezione, genere), collezione.cercaPerGenere(genere));
+        }
+        assertEquals(collezione.riepilogoPerPiattaforma("pc").conteggio(), collezione.cercaPerPiattaforma("pc").size());
+    }
+
+    private static List<Videogioco> attesi(Collezione collezione, Genere genere) {
+        return collezione.getVideogiochi().stream()
+                .filter(videogioco -> videogioco.getGenere() == genere)
+                .sorted(Comparator.comparingDouble(Videogioco::getPrezzo).thenComparing(Videogioco::getIdGioco))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,135 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.exception.ElementoDuplicatoException;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.service.Collezione;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModalitaComandiTest {
+    private static final String ZELDA = "{\"tipo\":\"videogioco\",\"id\":\"V1\",\"titolo\":\"Zelda\",\"anno\":2017,"
+            + "\"prezzo\":%s,\"piattaforma\":\"Switch\",\"durataGioco\":50,\"genere\":\"AVVENTURA\"}";
+    private static final String CATAN = "{\"tipo\":\"tavolo\",\"id\":\"T1\",\"titolo\":\"Catan\",\"anno\":1995,"
+            + "\"prezzo\":40,\"numeroGiocatori\":4,\"durataMediaPartita\":90}";
+
+    /**
+     * Collezione il cui registro fallisce a ogni inserimento, come Collezione con
+     * un RegistroModifiche che non riesce più a scrivere
+     */
+    private static final class RegistroGuasto extends Collezione {
+        @Override
+        public void aggiungiElemento(Gioco gioco) throws ElementoDuplicatoException {
+            super.aggiungiElemento(gioco);
+            throw new UncheckedIOException(new IOException("Disco pieno"));
+        }
+    }
+
+    private static List<String> esegui(Collezione collezione, String... righe) throws IOException {
+        StringWriter uscita = new StringWriter();
+        long falliti = new ModalitaComandi(collezione).esegui(
+                new BufferedReader(new StringReader(String.join("\n", righe))), uscita);
+        List<String> esiti = uscita.toString().lines().toList();
+        assertEquals(esiti.stream().filter(esito -> esito.contains("\"ok\":false")).count(), falliti);
+        return esiti;
+    }
+
+    @Test
+    void comandiRiuscitiConNumeroDiRiga() throws Exception {
+        Collezione collezione = new Collezione();
+        List<String> esiti = esegui(collezione,
+                "# commento",
+                "add " + String.format(ZELDA, "59.9"),
+                "",
+                "  add   " + CATAN,
+                "find V1",
+                "price< 50",
+                "price< 100 1 5",
+                "players 4",
+                "players 2 3",
+                "update " + String.format(ZELDA, "19.9"),
+                "remove T1",
+                "stats");
+
+        assertEquals(10, esiti.size());
+        assertEquals("{\"riga\":2,\"comando\":\"add\",\"ok\":true,\"id\":\"V1\"}", esiti.get(0));
+        assertEquals("{\"riga\":4,\"comando\":\"add\",\"ok\":true,\"id\":\"T1\"}", esiti.get(1));
+        assertTrue(esiti.get(2).startsWith("{\"riga\":5,\"comando\":\"find\",\"ok\":true,\"gioco\":{"), esiti.get(2));
+        assertTrue(esiti.get(2).contains("\"titolo\":\"Zelda\""));
+        assertTrue(esiti.get(3).contains("\"conteggio\":1,"), esiti.get(3));
+        assertTrue(esiti.get(4).contains("\"conteggio\":1,\"giochi\":[{\"tipo\":\"videogioco\""), esiti.get(4));
+        assertTrue(esiti.get(5).contains("\"conteggio\":1,"), esiti.get(5));
+        assertTrue(esiti.get(6).contains("\"conteggio\":0,\"giochi\":[]"), esiti.get(6));
+        assertEquals("{\"riga\":10,\"comando\":\"update\",\"ok\":true,\"id\":\"V1\"}", esiti.get(7));
+        assertEquals("{\"riga\":11,\"comando\":\"remove\",\"ok\":true,\"id\":\"T1\"}", esiti.get(8));
+        assertTrue(esiti.get(9).startsWith("{\"riga\":12,\"comando\":\"stats\",\"ok\":true,"), esiti.get(9));
+        assertEquals(19.9, collezione.cercaPerID("V1").getPrezzo());
+        assertEquals(1, collezione.size());
+    }
+
+    @Test
+    void comandiNonValidiNonInterromponoLEsecuzione() throws Exception {
+        Collezione collezione = new Collezione();
+        String[][] casi = {
+                {"add " + String.format(ZELDA, "59.9"), null},
+                {"add " + String.format(ZELDA, "10"), "duplicato"},
+                {"update " + CATAN, "non_trovato"},
+                {"find T9", "non_trovato"},
+                {"remove T9", "non_trovato"},
+                {"add {\"tipo\":\"tavolo\"", "input_non_valido"},
+                {"add " + String.format(ZELDA, "-1"), "input_non_valido"},
+                {"price<", "input_non_valido"},
+                {"price< 10 0", "input_non_valido"},
+                {"price< dieci", "input_non_valido"},
+                {"price< NaN", "input_non_valido"},
+                {"price< 10 0 x", "input_non_valido"},
+                {"players", "input_non_valido"},
+                {"players 4 5 6", "input_non_valido"},
+                {"players 1.5", "input_non_valido"},
+                {"players 11", "input_non_valido"},
+                {"PRICE< 10", "comando_sconosciuto"},
+                {"delete V1", "comando_sconosciuto"},
+                {"find V1", null},
+        };
+        String[] righe = new String[casi.length];
+        for (int i = 0; i < casi.length; i++) {
+            righe[i] = casi[i][0];
+        }
+
+        List<String> esiti = esegui(collezione, righe);
+
+        assertEquals(casi.length, esiti.size());
+        for (int i = 0; i < casi.length; i++) {
+            String esito = esiti.get(i);
+            assertTrue(esito.startsWith("{\"riga\":" + (i + 1) + ","), esito);
+            if (casi[i][1] == null) {
+                assertTrue(esito.contains("\"ok\":true"), esito);
+            } else {
+                assertTrue(esito.contains("\"ok\":false,\"errore\":\"" + casi[i][1] + "\",\"messaggio\":\""),
+                        casi[i][0] + " -> " + esito);
+            }
+        }
+    }
+
+    @Test
+    void erroreInattesoDiventaUnEsitoFallito() throws Exception {
+        Collezione collezione = new RegistroGuasto();
+
+        List<String> esiti = esegui(collezione,
+                "add " + String.format(ZELDA, "59.9"),
+                "find V1");
+
+        assertEquals("{\"riga\":1,\"comando\":\"add\",\"ok\":false,\"errore\":\"errore_interno\","
+                + "\"messaggio\":\"java.io.IOException: Disco pieno\"}", esiti.get(0));
+        // la modifica resta applicata in memoria e i comandi successivi proseguono
+        assertTrue(esiti.get(1).contains("\"ok\":true"), esiti.get(1));
+    }
+}
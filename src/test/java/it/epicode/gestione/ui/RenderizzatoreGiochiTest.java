@@ -0,0 +1,110 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.importazione.ImportatoreCatalogo;
+import it.epicode.gestione.importazione.RapportoImportazione;
+import it.epicode.gestione.model.Genere;
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.model.Videogioco;
+import it.epicode.gestione.service.Collezione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderizzatoreGiochiTest {
+    private static final Locale PREDEFINITA = Locale.getDefault(Locale.Category.FORMAT);
+
+    @TempDir
+    Path cartella;
+
+    @AfterEach
+    void ripristinaLocalita() {
+        Locale.setDefault(Locale.Category.FORMAT, PREDEFINITA);
+    }
+
+    /**
+     * Prezzi a metà centesimo, con rappresentazione binaria sopra e sotto la metà, e fuori scala
+     */
+    private static final double[] PREZZI = {
+            0.005, 0.015, 0.125, 1.005, 2.675, 10.345, 19.99, 59.9, 1234.565, 99999.995,
+            1e7 + 0.005, 123456789.125, 1e12 + 0.5, 9.87654321e17, 1e-3, 0.004999999};
+
+    private static List<Gioco> giochi() {
+        List<Gioco> giochi = new ArrayList<>();
+        for (int i = 0; i < PREZZI.length; i++) {
+            giochi.add(new Videogioco("V" + i, "Gioco, \"numero\" " + i, 1950 + i, PREZZI[i], "PC\tSteam",
+                    1 + i * 1000, Genere.values()[i % Genere.values().length]));
+            giochi.add(new GiocoDaTavolo("T" + i, i % 2 == 0 ? "Titolo\nsu due righe" : "Città \\ " + i, 2024 - i,
+                    PREZZI[i], 2 + i % 9, 15 + i));
+        }
+        return giochi;
+    }
+
+    private static String testo(List<Gioco> giochi) throws Exception {
+        StringWriter uscita = new StringWriter();
+        try (RenderizzatoreGiochi renderizzatore = new RenderizzatoreGiochi(uscita, RenderizzatoreGiochi.Formato.TESTO)) {
+            renderizzatore.scriviTutti(giochi);
+        }
+        return uscita.toString();
+    }
+
+    @Test
+    void testoIdenticoAToStringInOgniLocalita() throws Exception {
+        List<Gioco> giochi = giochi();
+        for (String localita : new String[]{
+                "und", "it-IT", "de-CH", "fr-FR", "en-US", "ar-EG", "fa-IR", "th-TH-u-nu-thai", "hi-IN-u-nu-deva"}) {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag(localita));
+            StringBuilder attesi = new StringBuilder();
+            for (Gioco gioco : giochi) {
+                attesi.append(gioco).append('\n');
+            }
+            assertEquals(attesi.toString(), testo(giochi), localita);
+        }
+    }
+
+    @Test
+    void esportazioneReimportabileInCsvEJson() throws Exception {
+        // la località non deve influire sui formati di scambio
+        Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag("ar-EG"));
+        List<Gioco> giochi = giochi();
+        giochi.sort(Comparator.comparing(Gioco::getIdGioco));
+
+        for (String nome : new String[]{"catalogo.csv", "catalogo.jsonl"}) {
+            Path file = cartella.resolve(nome);
+            assertEquals(giochi.size(), RenderizzatoreGiochi.esporta(giochi, file));
+
+            Collezione collezione = new Collezione();
+            RapportoImportazione rapporto = new ImportatoreCatalogo(collezione, 2).importa(file);
+
+            assertEquals(giochi.size(), rapporto.getImportati(), nome + " " + rapporto.getMessaggiErrore());
+            assertEquals(0, rapporto.getErrori());
+            for (Gioco gioco : giochi) {
+                Gioco letto = collezione.cercaPerID(gioco.getIdGioco());
+                assertEquals(gioco.getClass(), letto.getClass());
+                // toString confronta tutti i campi; il prezzo va confrontato esattamente
+                assertEquals(gioco.toString(), letto.toString(), nome);
+                assertEquals(gioco.getPrezzo(), letto.getPrezzo(), nome);
+            }
+        }
+        assertTrue(Files.readString(cartella.resolve("catalogo.csv")).startsWith("tipo,id,titolo,"));
+    }
+
+    @Test
+    void csvVuotoHaSoloLIntestazione() throws Exception {
+        StringWriter uscita = new StringWriter();
+        new RenderizzatoreGiochi(uscita, RenderizzatoreGiochi.Formato.CSV).close();
+        assertEquals("tipo,id,titolo,anno,prezzo,piattaforma,durataGioco,genere,numeroGiocatori,durataMediaPartita\n",
+                uscita.toString());
+    }
+}
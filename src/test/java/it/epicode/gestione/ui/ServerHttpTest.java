@@ -0,0 +1,144 @@
+package it.epicode.gestione.ui;
+
+import it.epicode.gestione.model.Gioco;
+import it.epicode.gestione.model.GiocoDaTavolo;
+import it.epicode.gestione.service.Collezione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerHttpTest {
+    private static final String TAVOLO =
+            "{\"tipo\":\"tavolo\",\"id\":\"%s\",\"titolo\":\"Catan\",\"anno\":1995,\"prezzo\":%s,"
+                    + "\"numeroGiocatori\":4,\"durataMediaPartita\":90}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Collezione collezione;
+    private ServerHttp server;
+
+    /**
+     * Gioco che non si lascia serializzare: l'anno viene letto solo dalla risposta
+     */
+    private static final class GiocoGuasto extends Gioco {
+        GiocoGuasto(String id) {
+            super(id, "Guasto", 2000, 1);
+        }
+
+        @Override
+        public int getAnnoPubblicazione() {
+            throw new IllegalStateException("Serializzazione fallita");
+        }
+
+        @Override
+        public Gioco copiaImmutabile() {
+            return this;
+        }
+
+        @Override
+        public String getTipoGioco() {
+            return "Guasto";
+        }
+    }
+
+    @BeforeEach
+    void avvia() throws IOException {
+        collezione = new Collezione();
+        server = ServerHttp.avvia(collezione, 0);
+    }
+
+    @AfterEach
+    void ferma() {
+        server.ferma();
+    }
+
+    private HttpResponse<String> invia(String metodo, String percorso, String corpo) throws Exception {
+        HttpRequest richiesta = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPorta() + percorso))
+                .method(metodo, corpo == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        return client.send(richiesta, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void instradamentoECodiciDiStato() throws Exception {
+        assertEquals(201, invia("POST", "/giochi", String.format(TAVOLO, "T1", "20")).statusCode());
+        assertEquals(409, invia("POST", "/giochi", String.format(TAVOLO, "T1", "20")).statusCode());
+        assertEquals(400, invia("POST", "/giochi", "{\"tipo\":\"tavolo\"").statusCode());
+
+        HttpResponse<String> letto = invia("GET", "/giochi/T1", null);
+        assertEquals(200, letto.statusCode());
+        assertTrue(letto.body().contains("\"id\":\"T1\""), letto.body());
+        assertEquals(404, invia("GET", "/giochi/T9", null).statusCode());
+        assertEquals(404, invia("GET", "/giochiX", null).statusCode());
+
+        assertEquals(400, invia("PUT", "/giochi/T1", String.format(TAVOLO, "T2", "25")).statusCode());
+        assertEquals(200, invia("PUT", "/giochi/T1", String.format(TAVOLO, "T1", "25")).statusCode());
+        assertEquals(25, collezione.cercaPerID("T1").getPrezzo());
+
+        HttpResponse<String> nonConsentito = invia("PATCH", "/giochi/T1", "{}");
+        assertEquals(405, nonConsentito.statusCode());
+        assertEquals("GET, PUT, DELETE", nonConsentito.headers().firstValue("Allow").orElse(""));
+        assertEquals(405, invia("POST", "/statistiche", "{}").statusCode());
+
+        assertEquals(400, invia("GET", "/giochi?prezzoMax=NaN", null).statusCode());
+        assertEquals(400, invia("GET", "/giochi?giocatori=due", null).statusCode());
+        assertEquals(204, invia("DELETE", "/giochi/T1", null).statusCode());
+        assertEquals(404, invia("DELETE", "/giochi/T1", null).statusCode());
+        assertEquals(200, invia("GET", "/statistiche", null).statusCode());
+    }
+
+    @Test
+    void idNelPercorsoVieneDecodificatoUnaSolaVolta() throws Exception {
+        collezione.aggiungiElemento(new GiocoDaTavolo("A+B", "Somma", 2000, 10, 4, 60));
+        collezione.aggiungiElemento(new GiocoDaTavolo("50%", "Metà", 2000, 10, 4, 60));
+        collezione.aggiungiElemento(new GiocoDaTavolo("A B", "Spazio", 2000, 10, 4, 60));
+
+        assertTrue(invia("GET", "/giochi/A%2BB", null).body().contains("\"titolo\":\"Somma\""));
+        assertTrue(invia("GET", "/giochi/A+B", null).body().contains("\"titolo\":\"Somma\""));
+        assertTrue(invia("GET", "/giochi/50%25", null).body().contains("\"titolo\":\"Metà\""));
+        assertTrue(invia("GET", "/giochi/A%20B", null).body().contains("\"titolo\":\"Spazio\""));
+    }
+
+    @Test
+    void elenchiVengonoInviatiInteriEOrdinati() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 1 + i % 100, 2 + i % 9, 60));
+        }
+
+        HttpResponse<String> tutti = invia("GET", "/giochi", null);
+        assertEquals(200, tutti.statusCode());
+        assertTrue(tutti.body().startsWith("[{") && tutti.body().endsWith("}]"));
+        assertEquals(5000, tutti.body().split("\"id\":", -1).length - 1);
+
+        HttpResponse<String> pagina = invia("GET", "/giochi?prezzoMax=3&offset=10&limit=5", null);
+        assertEquals(5, pagina.body().split("\"id\":", -1).length - 1);
+        assertTrue(pagina.body().startsWith("[{\"tipo\":\"tavolo\",\"id\":\"T"), pagina.body());
+
+        HttpResponse<String> giocatori = invia("GET", "/giochi?giocatori=3&max=4", null);
+        assertEquals(collezione.cercaPerNumeroGiocatori(3, 4).size(),
+                giocatori.body().split("\"id\":", -1).length - 1);
+    }
+
+    @Test
+    void erroreDuranteLElencoInterrompeLaRisposta() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            collezione.aggiungiElemento(new GiocoDaTavolo("T" + i, "Gioco " + i, 2000, 10, 4, 60));
+        }
+        collezione.aggiungiElemento(new GiocoGuasto("X"));
+
+        // le intestazioni 200 sono già partite: niente seconda risposta, la connessione si chiude
+        assertThrows(IOException.class, () -> invia("GET", "/giochi", null));
+        assertEquals(200, invia("GET", "/giochi/T1", null).statusCode());
+    }
+}